@@ -0,0 +1,37 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.accounts.coalescing")
+@Getter
+@Setter
+public class CoalescingConfig {
+    /**
+     * Включено ли объединение операций для "горячих" счетов
+     */
+    private boolean enabled = false;
+
+    /**
+     * Идентификаторы "горячих" счетов, для которых изменения баланса объединяются
+     */
+    private Set<UUID> accounts = new HashSet<>();
+
+    /**
+     * Максимальное время накопления изменений перед записью
+     */
+    private Duration window = Duration.ofMillis(5);
+
+    /**
+     * Максимальное количество изменений, объединяемых в одну запись
+     */
+    private int maxBatchSize = 256;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import ru.practicum.dto.account.AccountEventDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Bean
+    public KafkaSender<String, AccountEventDto> accountEventSender() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        SenderOptions<String, AccountEventDto> senderOptions = SenderOptions.create(props);
+        return KafkaSender.create(senderOptions);
+    }
+
+    @Bean
+    public NewTopic accountEventsTopic() {
+        return TopicBuilder.name("account-events")
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+}
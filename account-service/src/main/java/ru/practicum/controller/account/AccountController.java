@@ -4,25 +4,38 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dto.account.AccountRequestDto;
 import ru.practicum.dto.account.AccountResponseDto;
 import ru.practicum.dto.account.AccountWithUserResponseDto;
 import ru.practicum.dto.account.BalanceUpdateRequestDto;
+import ru.practicum.dto.account.BalanceUpdateOutcomeDto;
+import ru.practicum.dto.account.BalanceUpdateResultDto;
+import ru.practicum.dto.account.LedgerEntryDto;
+import ru.practicum.dto.account.RecipientAccountResponseDto;
+import ru.practicum.dto.account.RecipientLookupRequestDto;
 import ru.practicum.dto.account.TransferDto;
 import ru.practicum.mapper.account.AccountMapper;
 import ru.practicum.model.account.Account;
 import ru.practicum.service.account.AccountService;
+import ru.practicum.service.account.LedgerService;
+import ru.practicum.service.idempotency.IdempotencyService;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -34,11 +47,23 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @Validated
 public class AccountController {
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     /**
      * Сервис управления счетами
      */
     private final AccountService accountService;
 
+    /**
+     * Сервис журнала операций
+     */
+    private final LedgerService ledgerService;
+
+    /**
+     * Сервис идемпотентного выполнения запросов
+     */
+    private final IdempotencyService idempotencyService;
+
     /**
      * Маппер счетов
      */
@@ -46,13 +71,15 @@ public class AccountController {
 
     @PostMapping("/create")
     @ResponseStatus(HttpStatus.CREATED)
-    public Mono<AccountResponseDto> createAccount(@Valid @RequestBody AccountRequestDto accountDto) {
+    public Mono<AccountResponseDto> createAccount(@Valid @RequestBody AccountRequestDto accountDto,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Создание счета для пользователя: {}", accountDto.getUserId());
 
         Account account = accountMapper.createDtoToAccount(accountDto);
 
-        return accountService.createAccount(account)
-                .map(accountMapper::accountToAccountResponseDto);
+        return idempotencyService.execute(idempotencyKey, "account-create", AccountResponseDto.class,
+                () -> accountService.createAccount(account)
+                        .map(accountMapper::accountToAccountResponseDto));
     }
 
     @PostMapping("/get")
@@ -83,6 +110,14 @@ public class AccountController {
                 .map(accountMapper::accountToAccountWithUserResponseDto);
     }
 
+    @PostMapping(value = "/user-by-email/batch",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<RecipientAccountResponseDto> findRecipientAccounts(@RequestBody List<@Valid RecipientLookupRequestDto> requests) {
+        log.info("Пакетный поиск счетов получателей: {} запросов", requests.size());
+        return accountService.findRecipientAccounts(requests)
+                .map(accountMapper::recipientAccountToDto);
+    }
+
     @DeleteMapping("/{accountId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteAccount(@PathVariable UUID accountId) {
@@ -91,15 +126,61 @@ public class AccountController {
     }
 
     @PostMapping("/transfer")
-    public Mono<Void> transfer(@Valid @RequestBody TransferDto dto) {
+    public Mono<Void> transfer(@Valid @RequestBody TransferDto dto,
+                               @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Перевод между своими счетами: с {} на {} сумма {}", dto.getFromAccountId(), dto.getToAccountId(), dto.getAmount());
-        return accountService.transferBetweenAccounts(dto);
+        return idempotencyService.execute(idempotencyKey, "account-transfer", Void.class,
+                () -> accountService.transferBetweenAccounts(dto));
     }
 
     @PostMapping("/check-update-balance")
-    public Mono<Boolean> checkAndUpdateBalance(@Valid @RequestBody BalanceUpdateRequestDto requestDto) {
+    public Mono<Boolean> checkAndUpdateBalance(@Valid @RequestBody BalanceUpdateRequestDto requestDto,
+                                               @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Обновление баланса: номер счета {} сумма {}", requestDto.getAccountId(), requestDto.getAmount());
-        return accountService.checkAndUpdateBalance(requestDto);
+        return idempotencyService.executeSelfCompleting(idempotencyKey, AccountService.BALANCE_UPDATE_OPERATION, Boolean.class,
+                recordKey -> accountService.checkAndUpdateBalance(requestDto, recordKey));
+    }
+
+    @PostMapping(value = "/check-update-balance/batch",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BalanceUpdateResultDto> checkAndUpdateBalances(@RequestBody List<BalanceUpdateRequestDto> requests,
+                                                               @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("Пакетное обновление баланса: {} операций", requests.size());
+        Flux<BalanceUpdateResultDto> results = accountService.checkAndUpdateBalances(requests)
+                .map(accountMapper::balanceUpdateResultToDto);
+
+        if (idempotencyKey == null) {
+            return results;
+        }
+        return idempotencyService.execute(idempotencyKey, "account-balance-batch", BalanceUpdateResultDto[].class,
+                        () -> results.collectList().map(list -> list.toArray(BalanceUpdateResultDto[]::new)))
+                .flatMapIterable(List::of);
+    }
+
+    /**
+     * Итоги запросов на обновление баланса по ключам идемпотентности (для сверки незавершенных операций)
+     */
+    @PostMapping(value = "/check-update-balance/outcomes",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BalanceUpdateOutcomeDto> getBalanceUpdateOutcomes(@RequestBody List<String> idempotencyKeys) {
+        return accountService.getBalanceUpdateOutcomes(idempotencyKeys)
+                .map(accountMapper::balanceUpdateOutcomeToDto);
+    }
+
+    @GetMapping(value = "/{accountId}/ledger",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<LedgerEntryDto> getStatement(@PathVariable UUID accountId,
+                                             @RequestParam(required = false) Long beforeId,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        log.info("Выписка по счету {}: beforeId={}, limit={}", accountId, beforeId, limit);
+        return ledgerService.getStatement(accountId, beforeId, limit)
+                .map(accountMapper::ledgerEntryToDto);
+    }
+
+    @GetMapping("/{accountId}/ledger/balance")
+    public Mono<BigDecimal> getLedgerBalance(@PathVariable UUID accountId) {
+        log.info("Баланс счета {} по журналу операций", accountId);
+        return ledgerService.getLedgerBalance(accountId);
     }
 
     @GetMapping("/verify/{userId}/{accountId}")
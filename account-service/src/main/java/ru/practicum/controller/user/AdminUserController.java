@@ -2,12 +2,16 @@ package ru.practicum.controller.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -16,8 +20,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dto.user.UserResponseDto;
 import ru.practicum.mapper.user.UserMapper;
+import ru.practicum.model.user.User;
+import ru.practicum.model.user.UserPageRequest;
 import ru.practicum.service.user.UserService;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -28,6 +35,8 @@ import java.util.UUID;
 @RequestMapping("/api/admin/users")
 @RequiredArgsConstructor
 public class AdminUserController {
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     /**
      * Сервис для работы с пользователями
      */
@@ -76,24 +85,54 @@ public class AdminUserController {
         return userService.removeUserRole(userId, roleName);
     }
 
-    @GetMapping
-    public Flux<UserResponseDto> getAllUsers() {
-        log.info("Получение всех пользователей");
-        return userService.getAllUsers()
-                .map(userMapper::userToResponseDto);
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserResponseDto> getAllUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("Получение пользователей");
+        return listUsers(null, null, afterCreatedAt, afterId, limit, accept);
     }
 
-    @GetMapping("/by-status")
-    public Flux<UserResponseDto> getUsersByStatus(@RequestParam boolean enabled) {
+    @GetMapping(value = "/by-status", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserResponseDto> getUsersByStatus(
+            @RequestParam boolean enabled,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("Получение пользователей по статусу активности: {}", enabled);
-        return userService.getUsersByStatus(enabled)
-                .map(userMapper::userToResponseDto);
+        return listUsers(enabled, null, afterCreatedAt, afterId, limit, accept);
     }
 
-    @GetMapping("/by-lock-status")
-    public Flux<UserResponseDto> getUsersByLockStatus(@RequestParam boolean locked) {
+    @GetMapping(value = "/by-lock-status", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserResponseDto> getUsersByLockStatus(
+            @RequestParam boolean locked,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("Получение пользователей по статусу блокировки: {}", locked);
-        return userService.getUsersByLockStatus(locked)
-                .map(userMapper::userToResponseDto);
+        return listUsers(null, !locked, afterCreatedAt, afterId, limit, accept);
+    }
+
+    /**
+     * В режиме application/x-ndjson отдается поток всех подходящих пользователей,
+     * иначе - одна страница после курсора (afterCreatedAt, afterId)
+     */
+    private Flux<UserResponseDto> listUsers(Boolean enabled, Boolean accountNonLocked,
+                                            LocalDateTime afterCreatedAt, UUID afterId, int limit, String accept) {
+        Flux<User> users = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)
+                ? userService.streamUsers(enabled, accountNonLocked)
+                : userService.getUsersPage(UserPageRequest.builder()
+                        .enabled(enabled)
+                        .accountNonLocked(accountNonLocked)
+                        .afterCreatedAt(afterCreatedAt)
+                        .afterId(afterId)
+                        .limit(limit)
+                        .build());
+
+        return users.map(userMapper::userToResponseDto);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package ru.practicum.dao.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DAO счета с кодом валюты (проекция accounts JOIN currencies)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountWithCurrencyDao {
+
+    /**
+     * Идентификатор счета
+     */
+    @Column("account_uuid")
+    private UUID id;
+
+    /**
+     * Идентификатор пользователя
+     */
+    @Column("user_id")
+    private UUID userId;
+
+    /**
+     * Идентификатор валюты
+     */
+    @Column("currency_id")
+    private UUID currencyId;
+
+    /**
+     * Код валюты
+     */
+    @Column("currency_code")
+    private String currencyCode;
+
+    /**
+     * Баланс счета
+     */
+    private BigDecimal balance;
+
+    /**
+     * Дата создания
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата обновления
+     */
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
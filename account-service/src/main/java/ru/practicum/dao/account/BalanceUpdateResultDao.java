@@ -0,0 +1,34 @@
+package ru.practicum.dao.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * DAO результата условного обновления баланса
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceUpdateResultDao {
+    /**
+     * Счет существует
+     */
+    private boolean found;
+
+    /**
+     * Баланс обновлен
+     */
+    private boolean applied;
+
+    /**
+     * Баланс после обновления (null, если обновление не применено)
+     */
+    private BigDecimal balance;
+}
@@ -0,0 +1,56 @@
+package ru.practicum.dao.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DAO записи журнала операций
+ */
+@Table(name = "ledger_entries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntryDao {
+    /**
+     * Идентификатор записи (возрастает в порядке добавления)
+     */
+    @Id
+    @Column("entry_id")
+    private Long id;
+
+    /**
+     * Идентификатор счета
+     */
+    @Column("account_id")
+    private UUID accountId;
+
+    /**
+     * Изменение баланса
+     */
+    @Column("amount")
+    private BigDecimal amount;
+
+    /**
+     * Тип операции
+     */
+    @Column("operation")
+    private String operation;
+
+    /**
+     * Дата создания
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,57 @@
+package ru.practicum.dao.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DAO счета получателя с адресом электронной почты (проекция users JOIN accounts JOIN currencies)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecipientAccountDao {
+
+    /**
+     * Адрес электронной почты владельца
+     */
+    private String email;
+
+    /**
+     * Идентификатор счета
+     */
+    @Column("account_uuid")
+    private UUID id;
+
+    /**
+     * Идентификатор пользователя
+     */
+    @Column("user_id")
+    private UUID userId;
+
+    /**
+     * Код валюты
+     */
+    @Column("currency_code")
+    private String currencyCode;
+
+    /**
+     * Баланс счета
+     */
+    private BigDecimal balance;
+
+    /**
+     * Дата создания
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+}
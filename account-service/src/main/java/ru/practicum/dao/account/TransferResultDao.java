@@ -0,0 +1,35 @@
+package ru.practicum.dao.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.relational.core.mapping.Column;
+
+/**
+ * DAO результата перевода между счетами
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferResultDao {
+    /**
+     * Счет отправителя существует
+     */
+    @Column("from_found")
+    private boolean fromFound;
+
+    /**
+     * Счет получателя существует
+     */
+    @Column("to_found")
+    private boolean toFound;
+
+    /**
+     * Перевод выполнен
+     */
+    private boolean applied;
+}
@@ -0,0 +1,42 @@
+package ru.practicum.dao.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * DAO итога выполнения по ключу идемпотентности
+ */
+@Table(name = "idempotency_outcomes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyOutcomeDao {
+    /**
+     * Ключ записи: операция и значение заголовка Idempotency-Key
+     */
+    @Id
+    @Column("record_key")
+    private String recordKey;
+
+    /**
+     * Итог (APPLIED / REJECTED)
+     */
+    @Column("status")
+    private String status;
+
+    /**
+     * Дата создания
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+}
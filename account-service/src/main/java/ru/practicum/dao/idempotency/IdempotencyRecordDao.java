@@ -0,0 +1,48 @@
+package ru.practicum.dao.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * DAO записи ключа идемпотентности
+ */
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecordDao {
+    /**
+     * Ключ записи: операция и значение заголовка Idempotency-Key
+     */
+    @Id
+    @Column("record_key")
+    private String recordKey;
+
+    /**
+     * Статус выполнения (IN_PROGRESS / COMPLETED)
+     */
+    @Column("status")
+    private String status;
+
+    /**
+     * Сохраненный ответ в формате JSON (null для пустого ответа)
+     */
+    @Column("response")
+    private String response;
+
+    /**
+     * Дата создания
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package ru.practicum.dao.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.util.UUID;
+
+/**
+ * DAO пары "пользователь - название роли"
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRoleNameDao {
+    /**
+     * Идентификатор пользователя
+     */
+    @Column("user_uuid")
+    private UUID userUuid;
+
+    /**
+     * Название роли
+     */
+    @Column("name")
+    private String name;
+}
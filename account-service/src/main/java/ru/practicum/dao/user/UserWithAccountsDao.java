@@ -0,0 +1,94 @@
+package ru.practicum.dao.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DAO пользователя с ролями и счетами (агрегат, собираемый одним запросом)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserWithAccountsDao {
+    /**
+     * Идентификатор
+     */
+    @Column("user_uuid")
+    private UUID uuid;
+
+    /**
+     * Логин
+     */
+    @Column("username")
+    private String username;
+
+    /**
+     * Имя
+     */
+    @Column("first_name")
+    private String firstName;
+
+    /**
+     * Фамилия
+     */
+    @Column("last_name")
+    private String lastName;
+
+    /**
+     * Email
+     */
+    @Column("email")
+    private String email;
+
+    /**
+     * Дата рождения
+     */
+    @Column("birth_date")
+    private LocalDate birthDate;
+
+    /**
+     * Дата создания
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата обновления
+     */
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Флаг активности аккаунта
+     */
+    @Column("enabled")
+    private boolean enabled;
+
+    /**
+     * Флаг блокировки аккаунта
+     */
+    @Column("account_non_locked")
+    private boolean accountNonLocked;
+
+    /**
+     * Названия ролей
+     */
+    @Column("roles")
+    private String[] roles;
+
+    /**
+     * Счета пользователя в виде JSON-массива
+     */
+    @Column("accounts")
+    private String accounts;
+}
@@ -0,0 +1,26 @@
+package ru.practicum.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.model.account.BalanceUpdateOutcomeStatus;
+
+/**
+ * DTO итога запроса на обновление баланса
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdateOutcomeDto {
+    /**
+     * Ключ идемпотентности запроса
+     */
+    private String idempotencyKey;
+
+    /**
+     * Итог запроса
+     */
+    private BalanceUpdateOutcomeStatus status;
+}
@@ -35,4 +35,10 @@ public class BalanceUpdateRequestDto {
      * Является ли пополнением
      */
     private boolean isDeposit;
+
+    /**
+     * Ключ идемпотентности элемента пакетной операции. По нему вызывающий сервис
+     * может позже узнать, был ли элемент применен
+     */
+    private String idempotencyKey;
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package ru.practicum.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.model.account.BalanceUpdateStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO результата обновления баланса в пакетной операции
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdateResultDto {
+    /**
+     * Порядковый номер элемента в пакете
+     */
+    private int index;
+
+    /**
+     * Идентификатор счета
+     */
+    private UUID accountId;
+
+    /**
+     * Статус обновления
+     */
+    private BalanceUpdateStatus status;
+
+    /**
+     * Баланс счета после применения элемента
+     */
+    private BigDecimal balance;
+}
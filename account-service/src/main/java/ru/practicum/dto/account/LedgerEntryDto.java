@@ -0,0 +1,45 @@
+package ru.practicum.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.model.account.LedgerOperationType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO записи выписки по счету
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntryDto {
+    /**
+     * Идентификатор записи (используется как курсор следующей страницы)
+     */
+    private Long id;
+
+    /**
+     * Идентификатор счета
+     */
+    private UUID accountId;
+
+    /**
+     * Изменение баланса
+     */
+    private BigDecimal amount;
+
+    /**
+     * Тип операции
+     */
+    private LedgerOperationType operation;
+
+    /**
+     * Дата создания
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package ru.practicum.dto.account;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO запроса на поиск счета получателя
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientLookupRequestDto {
+    /**
+     * Адрес электронной почты получателя
+     */
+    @NotBlank(message = "Адрес электронной почты не может быть пустым")
+    private String email;
+
+    /**
+     * Код валюты счета
+     */
+    @NotBlank(message = "Код валюты не может быть пустым")
+    private String currencyCode;
+}
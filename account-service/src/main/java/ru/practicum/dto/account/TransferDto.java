@@ -1,5 +1,6 @@
 package ru.practicum.dto.account;
 
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -22,16 +23,19 @@ public class TransferDto {
     /**
      * Идентификатор счета отправителя
      */
+    @NotNull(message = "Идентификатор счета отправителя обязателен")
     private UUID fromAccountId;
 
     /**
      * Идентификатор счета получателя
      */
+    @NotNull(message = "Идентификатор счета получателя обязателен")
     private UUID toAccountId;
 
     /**
      * Сумма операции
      */
+    @NotNull(message = "Сумма обязательна")
     @Positive(message = "Сумма должна быть положительной")
     private BigDecimal amount;
 
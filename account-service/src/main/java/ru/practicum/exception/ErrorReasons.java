@@ -30,4 +30,6 @@ public final class ErrorReasons {
     public static final String USER_EXISTS = "Пользователь уже существует";
     public static final String TRANSACTION_FAILED = "Ошибка транзакции";
     public static final String CONDITIONS_NOT_MET = "Условия не выполнены";
+    public static final String REQUEST_IN_PROGRESS = "Запрос уже выполняется";
+    public static final String IDEMPOTENCY_KEY_USED = "Ключ идемпотентности уже использован";
 }
\ No newline at end of file
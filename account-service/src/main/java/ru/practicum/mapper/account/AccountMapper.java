@@ -3,10 +3,21 @@ package ru.practicum.mapper.account;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.dao.account.AccountDao;
+import ru.practicum.dao.account.AccountWithCurrencyDao;
+import ru.practicum.dao.account.LedgerEntryDao;
+import ru.practicum.dao.account.RecipientAccountDao;
 import ru.practicum.dto.account.AccountRequestDto;
 import ru.practicum.dto.account.AccountResponseDto;
 import ru.practicum.dto.account.AccountWithUserResponseDto;
+import ru.practicum.dto.account.BalanceUpdateOutcomeDto;
+import ru.practicum.dto.account.BalanceUpdateResultDto;
+import ru.practicum.dto.account.LedgerEntryDto;
+import ru.practicum.dto.account.RecipientAccountResponseDto;
 import ru.practicum.model.account.Account;
+import ru.practicum.model.account.BalanceUpdateOutcome;
+import ru.practicum.model.account.BalanceUpdateResult;
+import ru.practicum.model.account.LedgerEntry;
+import ru.practicum.model.account.RecipientAccount;
 
 /**
  * Маппер счетов
@@ -59,4 +70,60 @@ public interface AccountMapper {
      */
     @Mapping(target = "currencyCode", ignore = true)
     Account accountDaoToAccount(AccountDao accountDao);
+
+    /**
+     * Смаппить DAO счета с кодом валюты в счет
+     *
+     * @param accountWithCurrencyDao DAO счета с кодом валюты
+     * @return Счет
+     */
+    Account accountWithCurrencyDaoToAccount(AccountWithCurrencyDao accountWithCurrencyDao);
+
+    /**
+     * Смаппить DAO счета получателя в счет получателя
+     *
+     * @param recipientAccountDao DAO счета получателя
+     * @return Счет получателя
+     */
+    RecipientAccount recipientAccountDaoToRecipientAccount(RecipientAccountDao recipientAccountDao);
+
+    /**
+     * Смаппить счет получателя в DTO ответа
+     *
+     * @param recipientAccount Счет получателя
+     * @return DTO ответа с данными счета получателя
+     */
+    RecipientAccountResponseDto recipientAccountToDto(RecipientAccount recipientAccount);
+
+    /**
+     * Смаппить результат обновления баланса в DTO
+     *
+     * @param balanceUpdateResult Результат обновления баланса
+     * @return DTO результата обновления баланса
+     */
+    BalanceUpdateResultDto balanceUpdateResultToDto(BalanceUpdateResult balanceUpdateResult);
+
+    /**
+     * Смаппить итог запроса на обновление баланса в DTO
+     *
+     * @param balanceUpdateOutcome Итог запроса на обновление баланса
+     * @return DTO итога запроса на обновление баланса
+     */
+    BalanceUpdateOutcomeDto balanceUpdateOutcomeToDto(BalanceUpdateOutcome balanceUpdateOutcome);
+
+    /**
+     * Смаппить DAO записи журнала в запись журнала
+     *
+     * @param ledgerEntryDao DAO записи журнала
+     * @return Запись журнала
+     */
+    LedgerEntry ledgerEntryDaoToLedgerEntry(LedgerEntryDao ledgerEntryDao);
+
+    /**
+     * Смаппить запись журнала в DTO выписки
+     *
+     * @param ledgerEntry Запись журнала
+     * @return DTO записи выписки
+     */
+    LedgerEntryDto ledgerEntryToDto(LedgerEntry ledgerEntry);
 }
@@ -3,6 +3,7 @@ package ru.practicum.mapper.user;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.dao.user.UserDao;
+import ru.practicum.dao.user.UserWithAccountsDao;
 import ru.practicum.dto.user.PasswordChangeDto;
 import ru.practicum.dto.user.SignUpRequestDto;
 import ru.practicum.dto.user.UserFullResponseDto;
@@ -64,4 +65,13 @@ public interface UserMapper {
      */
     @Mapping(target = "roles", ignore = true)
     User userDaoToUser(UserDao userDao);
+
+    /**
+     * Смаппить DAO агрегата пользователя в пользователя (без счетов)
+     *
+     * @param userWithAccountsDao DAO пользователя с ролями и счетами
+     * @return Пользователь
+     */
+    @Mapping(target = "passwordHash", ignore = true)
+    User userWithAccountsDaoToUser(UserWithAccountsDao userWithAccountsDao);
 }
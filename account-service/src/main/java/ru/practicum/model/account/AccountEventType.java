@@ -0,0 +1,21 @@
+package ru.practicum.model.account;
+
+/**
+ * Тип события об изменении владельца или состава счетов
+ */
+public enum AccountEventType {
+    /**
+     * Счет удален
+     */
+    ACCOUNT_DELETED,
+
+    /**
+     * Данные пользователя изменены (в т.ч. адрес электронной почты)
+     */
+    USER_UPDATED,
+
+    /**
+     * Пользователь удален вместе со счетами
+     */
+    USER_DELETED
+}
@@ -0,0 +1,27 @@
+package ru.practicum.model.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Итог запроса на обновление баланса
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceUpdateOutcome {
+    /**
+     * Ключ идемпотентности запроса
+     */
+    private String idempotencyKey;
+
+    /**
+     * Итог запроса
+     */
+    private BalanceUpdateOutcomeStatus status;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.model.account;
+
+/**
+ * Итог запроса на обновление баланса, найденный по ключу идемпотентности
+ */
+public enum BalanceUpdateOutcomeStatus {
+    /**
+     * Баланс обновлен
+     */
+    APPLIED,
+
+    /**
+     * Запрос еще выполняется
+     */
+    IN_PROGRESS,
+
+    /**
+     * Баланс не менялся, и ключ закрыт: запрос с этим ключом больше не будет применен
+     */
+    NOT_APPLIED
+}
@@ -0,0 +1,40 @@
+package ru.practicum.model.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Результат обновления баланса для одного элемента пакета
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceUpdateResult {
+    /**
+     * Порядковый номер элемента в пакете
+     */
+    private int index;
+
+    /**
+     * Идентификатор счета
+     */
+    private UUID accountId;
+
+    /**
+     * Статус обновления
+     */
+    private BalanceUpdateStatus status;
+
+    /**
+     * Баланс счета после применения элемента
+     */
+    private BigDecimal balance;
+}
@@ -0,0 +1,46 @@
+package ru.practicum.model.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Запись журнала операций по счету
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntry {
+    /**
+     * Идентификатор записи
+     */
+    private Long id;
+
+    /**
+     * Идентификатор счета
+     */
+    private UUID accountId;
+
+    /**
+     * Изменение баланса
+     */
+    private BigDecimal amount;
+
+    /**
+     * Тип операции
+     */
+    private LedgerOperationType operation;
+
+    /**
+     * Дата создания
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.model.account;
+
+/**
+ * Тип записи журнала операций
+ */
+public enum LedgerOperationType {
+    /**
+     * Начальный остаток счета
+     */
+    OPENING,
+
+    /**
+     * Пополнение
+     */
+    DEPOSIT,
+
+    /**
+     * Снятие
+     */
+    WITHDRAWAL,
+
+    /**
+     * Зачисление перевода
+     */
+    TRANSFER_IN,
+
+    /**
+     * Списание перевода
+     */
+    TRANSFER_OUT
+}
@@ -0,0 +1,51 @@
+package ru.practicum.model.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Счет получателя, найденный по адресу электронной почты и коду валюты
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecipientAccount {
+    /**
+     * Адрес электронной почты владельца
+     */
+    private String email;
+
+    /**
+     * Идентификатор счета
+     */
+    private UUID id;
+
+    /**
+     * Идентификатор пользователя
+     */
+    private UUID userId;
+
+    /**
+     * Код валюты
+     */
+    private String currencyCode;
+
+    /**
+     * Баланс
+     */
+    private BigDecimal balance;
+
+    /**
+     * Дата создания
+     */
+    private LocalDateTime createdAt;
+}
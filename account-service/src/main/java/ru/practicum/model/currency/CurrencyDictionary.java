@@ -0,0 +1,90 @@
+package ru.practicum.model.currency;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Неизменяемый справочник валют с поиском по идентификатору и по коду
+ */
+public final class CurrencyDictionary {
+    private static final CurrencyDictionary EMPTY = new CurrencyDictionary(Map.of(), Map.of());
+
+    /**
+     * Валюты по идентификатору
+     */
+    private final Map<UUID, Currency> byId;
+
+    /**
+     * Валюты по коду
+     */
+    private final Map<String, Currency> byCode;
+
+    private CurrencyDictionary(Map<UUID, Currency> byId, Map<String, Currency> byCode) {
+        this.byId = byId;
+        this.byCode = byCode;
+    }
+
+    /**
+     * Пустой справочник
+     */
+    public static CurrencyDictionary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Построить справочник из списка валют
+     *
+     * @param currencies Валюты
+     * @return Справочник
+     */
+    public static CurrencyDictionary of(Collection<Currency> currencies) {
+        Map<UUID, Currency> byId = new HashMap<>();
+        Map<String, Currency> byCode = new HashMap<>();
+        for (Currency currency : currencies) {
+            byId.put(currency.getId(), currency);
+            byCode.put(currency.getCode(), currency);
+        }
+        return new CurrencyDictionary(Map.copyOf(byId), Map.copyOf(byCode));
+    }
+
+    /**
+     * Получить копию справочника с добавленной валютой
+     *
+     * @param currency Валюта
+     * @return Новый справочник
+     */
+    public CurrencyDictionary with(Currency currency) {
+        Map<UUID, Currency> newById = new HashMap<>(byId);
+        Map<String, Currency> newByCode = new HashMap<>(byCode);
+        Currency previous = newByCode.put(currency.getCode(), currency);
+        if (previous != null) {
+            newById.remove(previous.getId());
+        }
+        newById.put(currency.getId(), currency);
+        return new CurrencyDictionary(Map.copyOf(newById), Map.copyOf(newByCode));
+    }
+
+    /**
+     * Найти валюту по идентификатору
+     */
+    public Optional<Currency> findById(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Найти валюту по коду
+     */
+    public Optional<Currency> findByCode(String code) {
+        return Optional.ofNullable(byCode.get(code));
+    }
+
+    /**
+     * Количество валют в справочнике
+     */
+    public int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.model.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Запрос страницы пользователей с курсором по (created_at, user_uuid)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class UserPageRequest {
+    /**
+     * Фильтр по флагу активности (null - без фильтра)
+     */
+    private Boolean enabled;
+
+    /**
+     * Фильтр по флагу "не заблокирован" (null - без фильтра)
+     */
+    private Boolean accountNonLocked;
+
+    /**
+     * Дата создания последнего пользователя предыдущей страницы
+     */
+    private LocalDateTime afterCreatedAt;
+
+    /**
+     * Идентификатор последнего пользователя предыдущей страницы
+     */
+    private UUID afterId;
+
+    /**
+     * Размер страницы
+     */
+    private int limit;
+}
@@ -1,16 +1,26 @@
 package ru.practicum.repository.account;
 
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dao.account.AccountDao;
+import ru.practicum.dao.account.AccountWithCurrencyDao;
+import ru.practicum.dao.account.BalanceUpdateResultDao;
+import ru.practicum.dao.account.RecipientAccountDao;
+import ru.practicum.dao.account.TransferResultDao;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
 /**
  * Репозиторий счетов
  */
 public interface AccountRepository extends ReactiveCrudRepository<AccountDao, UUID> {
+    String SELECT_ACCOUNT_WITH_CURRENCY = "SELECT a.account_uuid, a.user_id, a.currency_id, c.code AS currency_code, " +
+            "a.balance, a.created_at, a.updated_at " +
+            "FROM accounts a JOIN currencies c ON c.currency_uuid = a.currency_id ";
+
     /**
      * Найти счета пользователя по идентификатору
      *
@@ -19,6 +29,38 @@ public interface AccountRepository extends ReactiveCrudRepository<AccountDao, UU
      */
     Flux<AccountDao> findByUserId(UUID userId);
 
+    /**
+     * Найти счета пользователя вместе с кодами валют
+     *
+     * @param userId Идентификатор пользователя
+     * @return Список DAO счетов с кодом валюты
+     */
+    @Query(SELECT_ACCOUNT_WITH_CURRENCY + "WHERE a.user_id = :userId")
+    Flux<AccountWithCurrencyDao> findWithCurrencyByUserId(UUID userId);
+
+    /**
+     * Найти счет по идентификатору вместе с кодом валюты
+     *
+     * @param accountId Идентификатор счета
+     * @return DAO счета с кодом валюты
+     */
+    @Query(SELECT_ACCOUNT_WITH_CURRENCY + "WHERE a.account_uuid = :accountId")
+    Mono<AccountWithCurrencyDao> findWithCurrencyById(UUID accountId);
+
+    /**
+     * Найти счета получателей по парам (email, код валюты) одним запросом
+     *
+     * @param emails Адреса электронной почты
+     * @param currencyCodes Коды валют (в том же порядке, что и адреса)
+     * @return Найденные счета; пары без счета в результат не попадают
+     */
+    @Query("SELECT DISTINCT u.email, a.account_uuid, a.user_id, c.code AS currency_code, a.balance, a.created_at " +
+            "FROM unnest(:emails, :currencyCodes) AS r(email, code) " +
+            "JOIN users u ON u.email = r.email " +
+            "JOIN currencies c ON c.code = r.code " +
+            "JOIN accounts a ON a.user_id = u.user_uuid AND a.currency_id = c.currency_uuid")
+    Flux<RecipientAccountDao> findRecipientAccounts(String[] emails, String[] currencyCodes);
+
     /**
      * Проверить существование счета по идентификатору пользователя и идентификатору валюты
      *
@@ -45,4 +87,115 @@ public interface AccountRepository extends ReactiveCrudRepository<AccountDao, UU
      * @return Да / Нет
      */
     Mono<Boolean> existsByUserIdAndId(UUID userId, UUID id);
+
+    /**
+     * Атомарно изменить баланс счета на величину delta, если итоговый баланс не станет отрицательным.
+     * Примененное изменение записывается в журнал операций тем же запросом
+     *
+     * @param accountId Идентификатор счета
+     * @param delta Изменение баланса (положительное - пополнение, отрицательное - списание)
+     * @return Результат обновления: найден ли счет, применено ли изменение и новый баланс
+     */
+    @Query("WITH updated AS (" +
+            "UPDATE accounts SET balance = balance + :delta, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE account_uuid = :accountId AND balance + :delta >= 0 " +
+            "RETURNING balance), " +
+            "ledger AS (" +
+            "INSERT INTO ledger_entries (account_id, amount, operation) " +
+            "SELECT :accountId, :delta, CASE WHEN :delta >= 0 THEN 'DEPOSIT' ELSE 'WITHDRAWAL' END FROM updated) " +
+            "SELECT EXISTS (SELECT 1 FROM updated) " +
+            "OR EXISTS (SELECT 1 FROM accounts WHERE account_uuid = :accountId) AS found, " +
+            "EXISTS (SELECT 1 FROM updated) AS applied, " +
+            "(SELECT balance FROM updated) AS balance")
+    Mono<BalanceUpdateResultDao> updateBalanceIfSufficient(UUID accountId, BigDecimal delta);
+
+    /**
+     * Применить пакет изменений баланса одним запросом, если их применение по порядку не сделает баланс
+     * отрицательным ни на одном шаге: текущий баланс должен покрывать наибольшее промежуточное списание required.
+     * Каждое изменение записывается в журнал операций отдельной проводкой в порядке пакета
+     *
+     * @param accountId Идентификатор счета
+     * @param deltas Изменения баланса в порядке поступления
+     * @param required Минимальный баланс, при котором все изменения проходят по порядку
+     * @return Результат обновления: найден ли счет, применен ли пакет и новый баланс
+     */
+    @Query("WITH updated AS (" +
+            "UPDATE accounts SET balance = balance + (SELECT SUM(delta) FROM unnest(:deltas) AS d(delta)), " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "WHERE account_uuid = :accountId AND balance >= :required " +
+            "RETURNING balance), " +
+            "ledger AS (" +
+            "INSERT INTO ledger_entries (account_id, amount, operation) " +
+            "SELECT :accountId, d.delta, CASE WHEN d.delta >= 0 THEN 'DEPOSIT' ELSE 'WITHDRAWAL' END " +
+            "FROM updated, unnest(:deltas) WITH ORDINALITY AS d(delta, ord) ORDER BY d.ord) " +
+            "SELECT EXISTS (SELECT 1 FROM updated) " +
+            "OR EXISTS (SELECT 1 FROM accounts WHERE account_uuid = :accountId) AS found, " +
+            "EXISTS (SELECT 1 FROM updated) AS applied, " +
+            "(SELECT balance FROM updated) AS balance")
+    Mono<BalanceUpdateResultDao> applyDeltasIfCovered(UUID accountId, BigDecimal[] deltas, BigDecimal required);
+
+    /**
+     * Перевести средства между счетами одним запросом.
+     * Оба счета блокируются в порядке возрастания идентификатора, что исключает взаимные блокировки
+     * при встречных переводах. Списание выполняется только при достаточном балансе отправителя,
+     * зачисление - только при успешном списании. Обе проводки записываются в журнал операций.
+     *
+     * @param fromAccountId Идентификатор счета отправителя
+     * @param toAccountId Идентификатор счета получателя
+     * @param amount Сумма списания
+     * @param convertedAmount Сумма зачисления
+     * @return Результат перевода: найдены ли счета и выполнен ли перевод
+     */
+    @Query("WITH locked AS (" +
+            "SELECT account_uuid FROM accounts WHERE account_uuid IN (:fromAccountId, :toAccountId) " +
+            "ORDER BY account_uuid FOR UPDATE), " +
+            "debited AS (" +
+            "UPDATE accounts SET balance = balance - :amount, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE account_uuid = :fromAccountId AND balance >= :amount " +
+            "AND (SELECT COUNT(*) FROM locked) = 2 " +
+            "RETURNING account_uuid), " +
+            "credited AS (" +
+            "UPDATE accounts SET balance = balance + :convertedAmount, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE account_uuid = :toAccountId AND EXISTS (SELECT 1 FROM debited) " +
+            "RETURNING account_uuid), " +
+            "ledger AS (" +
+            "INSERT INTO ledger_entries (account_id, amount, operation) " +
+            "SELECT :fromAccountId, -:amount, 'TRANSFER_OUT' FROM credited " +
+            "UNION ALL SELECT :toAccountId, :convertedAmount, 'TRANSFER_IN' FROM credited) " +
+            "SELECT EXISTS (SELECT 1 FROM locked WHERE account_uuid = :fromAccountId) AS from_found, " +
+            "EXISTS (SELECT 1 FROM locked WHERE account_uuid = :toAccountId) AS to_found, " +
+            "EXISTS (SELECT 1 FROM credited) AS applied")
+    Mono<TransferResultDao> transfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, BigDecimal convertedAmount);
+
+    /**
+     * Найти счета по списку идентификаторов с блокировкой строк до конца транзакции.
+     * Строки блокируются в порядке возрастания идентификатора
+     *
+     * @param accountIds Идентификаторы счетов
+     * @return Список DAO счетов
+     */
+    @Query("SELECT * FROM accounts WHERE account_uuid = ANY(:accountIds) ORDER BY account_uuid FOR UPDATE")
+    Flux<AccountDao> findAllByIdForUpdate(UUID[] accountIds);
+
+    /**
+     * Изменить балансы нескольких счетов одним запросом и записать каждую операцию в журнал отдельной записью.
+     * Счет может встречаться несколько раз: баланс меняется на сумму его операций
+     *
+     * @param accountIds Идентификаторы счетов операций
+     * @param deltas Изменения баланса (в том же порядке, что и идентификаторы)
+     * @return Количество обновленных счетов
+     */
+    @Query("WITH items AS (" +
+            "SELECT * FROM unnest(:accountIds, :deltas) WITH ORDINALITY AS d(account_uuid, delta, ord)), " +
+            "updated AS (" +
+            "UPDATE accounts a SET balance = a.balance + t.delta, updated_at = CURRENT_TIMESTAMP " +
+            "FROM (SELECT account_uuid, SUM(delta) AS delta FROM items GROUP BY account_uuid) t " +
+            "WHERE a.account_uuid = t.account_uuid " +
+            "RETURNING a.account_uuid), " +
+            "ledger AS (" +
+            "INSERT INTO ledger_entries (account_id, amount, operation) " +
+            "SELECT i.account_uuid, i.delta, CASE WHEN i.delta >= 0 THEN 'DEPOSIT' ELSE 'WITHDRAWAL' END " +
+            "FROM items i JOIN updated u ON u.account_uuid = i.account_uuid ORDER BY i.ord) " +
+            "SELECT COUNT(*)::int FROM updated")
+    Mono<Integer> addToBalances(UUID[] accountIds, BigDecimal[] deltas);
 }
@@ -0,0 +1,87 @@
+package ru.practicum.repository.account;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.account.LedgerEntryDao;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Репозиторий журнала операций по счетам
+ */
+public interface LedgerEntryRepository extends ReactiveCrudRepository<LedgerEntryDao, Long> {
+
+    /**
+     * Получить страницу выписки по счету, от новых записей к старым
+     *
+     * @param accountId Идентификатор счета
+     * @param beforeId  Курсор: идентификатор последней записи предыдущей страницы
+     * @param limit     Размер страницы
+     * @return Записи журнала
+     */
+    @Query("SELECT * FROM ledger_entries WHERE account_id = :accountId AND entry_id < :beforeId " +
+            "ORDER BY entry_id DESC LIMIT :limit")
+    Flux<LedgerEntryDao> findPage(UUID accountId, long beforeId, int limit);
+
+    /**
+     * Вычислить баланс счета по журналу: последний снимок плюс записи, добавленные после него
+     *
+     * @param accountId Идентификатор счета
+     * @return Баланс
+     */
+    @Query("SELECT COALESCE(s.balance, 0) + COALESCE((" +
+            "SELECT SUM(l.amount) FROM ledger_entries l " +
+            "WHERE l.account_id = :accountId AND l.entry_id > COALESCE(s.last_entry_id, 0)), 0) " +
+            "FROM (SELECT 1) AS dummy " +
+            "LEFT JOIN account_balance_snapshots s ON s.account_id = :accountId")
+    Mono<BigDecimal> computeBalance(UUID accountId);
+
+    /**
+     * Ограничить ожидание блокировки журнала в текущей транзакции
+     *
+     * @param timeout Таймаут в формате PostgreSQL (например, "2000ms")
+     * @return Установленное значение
+     */
+    @Query("SELECT set_config('lock_timeout', :timeout, true)")
+    Mono<String> setLocalLockTimeout(String timeout);
+
+    /**
+     * Дождаться завершения транзакций, которые уже пишут в журнал. Блокировка SHARE несовместима с ROW EXCLUSIVE,
+     * поэтому после ее получения все выданные идентификаторы записей принадлежат зафиксированным
+     * или откаченным транзакциям. Блокировка снимается при завершении транзакции
+     */
+    @Modifying
+    @Query("LOCK TABLE ledger_entries IN SHARE MODE")
+    Mono<Void> lockAgainstWriters();
+
+    /**
+     * Максимальный идентификатор записи журнала
+     *
+     * @return Идентификатор или 0, если журнал пуст
+     */
+    @Query("SELECT COALESCE(MAX(entry_id), 0) FROM ledger_entries")
+    Mono<Long> findMaxEntryId();
+
+    /**
+     * Материализовать снимки балансов: к предыдущему снимку прибавляются записи с идентификатором
+     * не больше watermark. Граница должна быть безопасной - все записи до нее уже зафиксированы
+     *
+     * @param watermark Идентификатор последней записи, включаемой в снимок
+     * @return Количество обновленных снимков
+     */
+    @Modifying
+    @Query("INSERT INTO account_balance_snapshots (account_id, balance, last_entry_id, created_at) " +
+            "SELECT l.account_id, COALESCE(s.balance, 0) + SUM(l.amount), MAX(l.entry_id), CURRENT_TIMESTAMP " +
+            "FROM ledger_entries l " +
+            "LEFT JOIN account_balance_snapshots s ON s.account_id = l.account_id " +
+            "WHERE l.entry_id > COALESCE(s.last_entry_id, 0) AND l.entry_id <= :watermark " +
+            "GROUP BY l.account_id, s.balance " +
+            "ON CONFLICT (account_id) DO UPDATE SET balance = EXCLUDED.balance, " +
+            "last_entry_id = EXCLUDED.last_entry_id, created_at = EXCLUDED.created_at " +
+            "WHERE account_balance_snapshots.last_entry_id < EXCLUDED.last_entry_id")
+    Mono<Integer> compactSnapshots(long watermark);
+}
@@ -0,0 +1,47 @@
+package ru.practicum.repository.idempotency;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.idempotency.IdempotencyOutcomeDao;
+
+/**
+ * Репозиторий итогов выполнения по ключам идемпотентности
+ */
+public interface IdempotencyOutcomeRepository extends ReactiveCrudRepository<IdempotencyOutcomeDao, String> {
+
+    /**
+     * Сохранить итоги одним запросом. Ключи, для которых итог уже есть, не изменяются;
+     * конкурирующая вставка того же ключа дожидается завершения другой транзакции
+     *
+     * @param recordKeys Ключи записей
+     * @param status     Итог
+     * @return Количество сохраненных записей
+     */
+    @Modifying
+    @Query("INSERT INTO idempotency_outcomes (record_key, status, created_at) " +
+            "SELECT unnest(:recordKeys), :status, CURRENT_TIMESTAMP " +
+            "ON CONFLICT (record_key) DO NOTHING")
+    Mono<Integer> insertAll(String[] recordKeys, String status);
+
+    /**
+     * Найти итоги по ключам
+     *
+     * @param recordKeys Ключи записей
+     * @return Найденные итоги
+     */
+    @Query("SELECT * FROM idempotency_outcomes WHERE record_key = ANY(:recordKeys)")
+    Flux<IdempotencyOutcomeDao> findAllByRecordKeys(String[] recordKeys);
+
+    /**
+     * Удалить итоги старше срока хранения
+     *
+     * @param ttlSeconds Срок хранения в секундах
+     * @return Количество удаленных записей
+     */
+    @Modifying
+    @Query("DELETE FROM idempotency_outcomes WHERE created_at < CURRENT_TIMESTAMP - make_interval(secs => :ttlSeconds)")
+    Mono<Integer> deleteExpired(long ttlSeconds);
+}
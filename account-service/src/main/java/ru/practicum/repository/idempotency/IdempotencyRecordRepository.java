@@ -0,0 +1,97 @@
+package ru.practicum.repository.idempotency;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.idempotency.IdempotencyRecordDao;
+
+/**
+ * Репозиторий ключей идемпотентности
+ */
+public interface IdempotencyRecordRepository extends ReactiveCrudRepository<IdempotencyRecordDao, String> {
+
+    /**
+     * Зарезервировать ключ для выполнения запроса. Просроченная запись с тем же ключом перезаписывается,
+     * как и резерв IN_PROGRESS старше срока аренды (запрос, прерванный до завершения)
+     *
+     * @param recordKey    Ключ записи
+     * @param ttlSeconds   Время жизни записи в секундах
+     * @param leaseSeconds Срок аренды незавершенного резерва в секундах
+     * @return 1 - ключ зарезервирован, 0 - ключ уже использован
+     */
+    @Modifying
+    @Query("INSERT INTO idempotency_keys (record_key, status, created_at) " +
+            "VALUES (:recordKey, 'IN_PROGRESS', CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (record_key) DO UPDATE SET status = 'IN_PROGRESS', response = NULL, " +
+            "created_at = CURRENT_TIMESTAMP " +
+            "WHERE idempotency_keys.created_at < CURRENT_TIMESTAMP - make_interval(secs => :ttlSeconds) " +
+            "OR (idempotency_keys.status = 'IN_PROGRESS' " +
+            "AND idempotency_keys.created_at < CURRENT_TIMESTAMP - make_interval(secs => :leaseSeconds))")
+    Mono<Integer> reserve(String recordKey, long ttlSeconds, long leaseSeconds);
+
+    /**
+     * Сохранить ответ выполненного запроса
+     *
+     * @param recordKey Ключ записи
+     * @param response  Ответ в формате JSON
+     * @return Количество обновленных записей
+     */
+    @Modifying
+    @Query("UPDATE idempotency_keys SET status = 'COMPLETED', response = :response WHERE record_key = :recordKey")
+    Mono<Integer> complete(String recordKey, String response);
+
+    /**
+     * Сохранить один ответ для нескольких зарезервированных запросов
+     *
+     * @param recordKeys Ключи записей
+     * @param response   Ответ в формате JSON
+     * @return Количество обновленных записей
+     */
+    @Modifying
+    @Query("UPDATE idempotency_keys SET status = 'COMPLETED', response = :response WHERE record_key = ANY(:recordKeys)")
+    Mono<Integer> completeAll(String[] recordKeys, String response);
+
+    /**
+     * Снять резерв незавершенного запроса. Завершенная запись не удаляется
+     *
+     * @param recordKey Ключ записи
+     * @return Количество удаленных записей
+     */
+    @Modifying
+    @Query("DELETE FROM idempotency_keys WHERE record_key = :recordKey AND status = 'IN_PROGRESS'")
+    Mono<Integer> deleteInProgress(String recordKey);
+
+    /**
+     * Удалить записи старше времени жизни
+     *
+     * @param ttlSeconds Время жизни записи в секундах
+     * @return Количество удаленных записей
+     */
+    @Modifying
+    @Query("DELETE FROM idempotency_keys WHERE created_at < CURRENT_TIMESTAMP - make_interval(secs => :ttlSeconds)")
+    Mono<Integer> deleteExpired(long ttlSeconds);
+
+    /**
+     * Сохранить выполненные запросы одним запросом. Существующие записи не изменяются
+     *
+     * @param recordKeys Ключи записей
+     * @param response   Ответ в формате JSON
+     * @return Количество сохраненных записей
+     */
+    @Modifying
+    @Query("INSERT INTO idempotency_keys (record_key, status, response, created_at) " +
+            "SELECT unnest(:recordKeys), 'COMPLETED', :response, CURRENT_TIMESTAMP " +
+            "ON CONFLICT (record_key) DO NOTHING")
+    Mono<Integer> insertCompleted(String[] recordKeys, String response);
+
+    /**
+     * Найти записи по ключам
+     *
+     * @param recordKeys Ключи записей
+     * @return Найденные записи
+     */
+    @Query("SELECT * FROM idempotency_keys WHERE record_key = ANY(:recordKeys)")
+    Flux<IdempotencyRecordDao> findAllByRecordKeys(String[] recordKeys);
+}
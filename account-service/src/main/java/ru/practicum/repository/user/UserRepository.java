@@ -1,10 +1,13 @@
 package ru.practicum.repository.user;
 
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dao.user.UserDao;
+import ru.practicum.dao.user.UserWithAccountsDao;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -38,18 +41,39 @@ public interface UserRepository extends ReactiveCrudRepository<UserDao, UUID> {
     Mono<Boolean> existsByEmail(String email);
 
     /**
-     * Найти пользователей по флагу активности аккаунта
+     * Получить страницу пользователей в порядке (created_at, user_uuid), начиная после курсора.
+     * Фильтры и курсор со значением null не применяются
      *
-     * @param enabled Флаг активности аккаунта
+     * @param enabled          Флаг активности аккаунта
+     * @param accountNonLocked Флаг блокировки аккаунта
+     * @param afterCreatedAt   Дата создания последнего пользователя предыдущей страницы
+     * @param afterId          Идентификатор последнего пользователя предыдущей страницы
+     * @param limit            Размер страницы
      * @return Список DAO пользователей
      */
-    Flux<UserDao> findByEnabled(boolean enabled);
+    @Query("SELECT * FROM users " +
+            "WHERE (CAST(:enabled AS BOOLEAN) IS NULL OR enabled = :enabled) " +
+            "AND (CAST(:accountNonLocked AS BOOLEAN) IS NULL OR account_non_locked = :accountNonLocked) " +
+            "AND (CAST(:afterCreatedAt AS TIMESTAMP) IS NULL OR (created_at, user_uuid) > (:afterCreatedAt, :afterId)) " +
+            "ORDER BY created_at, user_uuid LIMIT :limit")
+    Flux<UserDao> findPage(Boolean enabled, Boolean accountNonLocked, LocalDateTime afterCreatedAt, UUID afterId, int limit);
 
     /**
-     * Найти пользователей по флагу блокировки аккаунта
+     * Найти пользователя вместе с ролями и счетами одним запросом.
+     * Роли агрегируются в массив, счета с кодами валют - в JSON-массив
      *
-     * @param accountNonLocked Флаг блокировки аккаунта
-     * @return Список DAO пользователей
+     * @param userId Идентификатор пользователя
+     * @return DAO пользователя с ролями и счетами
      */
-    Flux<UserDao> findByAccountNonLocked(boolean accountNonLocked);
+    @Query("SELECT u.user_uuid, u.username, u.first_name, u.last_name, u.email, u.birth_date, " +
+            "u.created_at, u.updated_at, u.enabled, u.account_non_locked, " +
+            "ARRAY(SELECT r.name FROM user_roles ur JOIN roles r ON r.role_uuid = ur.role_uuid " +
+            "WHERE ur.user_uuid = u.user_uuid ORDER BY r.name) AS roles, " +
+            "COALESCE((SELECT json_agg(json_build_object(" +
+            "'id', a.account_uuid, 'userId', a.user_id, 'currencyCode', c.code, 'balance', a.balance, " +
+            "'createdAt', a.created_at::timestamp, 'updatedAt', a.updated_at::timestamp) ORDER BY c.code) " +
+            "FROM accounts a JOIN currencies c ON c.currency_uuid = a.currency_id " +
+            "WHERE a.user_id = u.user_uuid), '[]'::json)::text AS accounts " +
+            "FROM users u WHERE u.user_uuid = :userId")
+    Mono<UserWithAccountsDao> findWithRolesAndAccountsByUuid(UUID userId);
 }
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dao.user.UserRoleDao;
+import ru.practicum.dao.user.UserRoleNameDao;
 
 import java.util.UUID;
 
@@ -24,6 +25,16 @@ public interface UserRoleRepository extends ReactiveCrudRepository<UserRoleDao,
     @Query("SELECT r.name FROM roles r JOIN user_roles ur ON r.role_uuid = ur.role_uuid WHERE ur.user_uuid = :userUuid")
     Flux<String> findRoleNamesByUserUuid(UUID userUuid);
 
+    /**
+     * Получить роли нескольких пользователей одним запросом
+     *
+     * @param userUuids Идентификаторы пользователей
+     * @return Пары "пользователь - название роли"
+     */
+    @Query("SELECT ur.user_uuid, r.name FROM user_roles ur JOIN roles r ON r.role_uuid = ur.role_uuid " +
+            "WHERE ur.user_uuid = ANY(:userUuids) ORDER BY r.name")
+    Flux<UserRoleNameDao> findRoleNamesByUserUuids(UUID[] userUuids);
+
     /**
      * Проверить, есть ли у пользователя роль
      *
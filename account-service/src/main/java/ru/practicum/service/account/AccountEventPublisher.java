@@ -0,0 +1,83 @@
+package ru.practicum.service.account;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import ru.practicum.dto.account.AccountEventDto;
+import ru.practicum.model.account.AccountEventType;
+
+import java.util.UUID;
+
+/**
+ * Публикация событий об изменении счетов и их владельцев в топик account-events.
+ * События используются другими сервисами для сброса локальных кэшей данных счетов,
+ * поэтому ошибка отправки не прерывает операцию: кэши дополнительно ограничены временем жизни записей.
+ * Событие публикуется после фиксации транзакции изменения: иначе получатель может сбросить кэш
+ * и сразу перечитать прежние данные
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountEventPublisher {
+    private static final String ACCOUNT_EVENTS_TOPIC = "account-events";
+
+    private final KafkaSender<String, AccountEventDto> accountEventSender;
+
+    /**
+     * Опубликовать событие об удалении счета
+     *
+     * @param accountId Идентификатор счета
+     * @param userId Идентификатор владельца
+     */
+    public Mono<Void> accountDeleted(UUID accountId, UUID userId) {
+        return publish(AccountEventDto.builder()
+                .eventType(AccountEventType.ACCOUNT_DELETED)
+                .accountId(accountId)
+                .userId(userId)
+                .build());
+    }
+
+    /**
+     * Опубликовать событие об изменении пользователя
+     *
+     * @param userId Идентификатор пользователя
+     */
+    public Mono<Void> userUpdated(UUID userId) {
+        return publish(AccountEventDto.builder()
+                .eventType(AccountEventType.USER_UPDATED)
+                .userId(userId)
+                .build());
+    }
+
+    /**
+     * Опубликовать событие об удалении пользователя
+     *
+     * @param userId Идентификатор пользователя
+     */
+    public Mono<Void> userDeleted(UUID userId) {
+        return publish(AccountEventDto.builder()
+                .eventType(AccountEventType.USER_DELETED)
+                .userId(userId)
+                .build());
+    }
+
+    private Mono<Void> publish(AccountEventDto event) {
+        SenderRecord<String, AccountEventDto, UUID> record = SenderRecord.create(
+                new ProducerRecord<>(ACCOUNT_EVENTS_TOPIC, event.getUserId().toString(), event), event.getUserId());
+
+        return accountEventSender.send(Mono.just(record))
+                .flatMap(result -> result.exception() != null
+                        ? Mono.error(result.exception())
+                        : Mono.just(result))
+                .then()
+                .doOnSuccess(v -> log.debug("Событие {} для пользователя {} опубликовано", event.getEventType(), event.getUserId()))
+                .onErrorResume(e -> {
+                    log.warn("Не удалось опубликовать событие {}: {}", event.getEventType(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -4,15 +4,24 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dto.account.AccountRequestDto;
 import ru.practicum.dto.account.BalanceUpdateRequestDto;
+import ru.practicum.dto.account.RecipientLookupRequestDto;
 import ru.practicum.dto.account.TransferDto;
 import ru.practicum.model.account.Account;
+import ru.practicum.model.account.BalanceUpdateOutcome;
+import ru.practicum.model.account.BalanceUpdateResult;
+import ru.practicum.model.account.RecipientAccount;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Сервис управления счетами
  */
 public interface AccountService {
+    /**
+     * Название операции обновления баланса для ключей идемпотентности
+     */
+    String BALANCE_UPDATE_OPERATION = "account-balance";
 
     /**
      * Создать счет
@@ -39,6 +48,14 @@ public interface AccountService {
      */
     Mono<Account> getAccountByUserEmailAndCurrency(String email, String currency);
 
+    /**
+     * Найти счета получателей пакетом по адресу электронной почты и коду валюты
+     *
+     * @param requests Запросы на поиск счета получателя
+     * @return Найденные счета; для ненайденных пар элементы отсутствуют
+     */
+    Flux<RecipientAccount> findRecipientAccounts(List<RecipientLookupRequestDto> requests);
+
     /**
      * Получить счета пользователя
      *
@@ -66,9 +83,28 @@ public interface AccountService {
      * Проверить и обновить баланс
      *
      * @param balanceUpdateRequestDto DTO запроса на обновление баланса
+     * @param recordKey               Ключ записи идемпотентности, ответ по которому сохраняется
+     *                                вместе с изменением баланса (null - без ключа)
      * @return Да / Нет
      */
-    Mono<Boolean> checkAndUpdateBalance(BalanceUpdateRequestDto balanceUpdateRequestDto);
+    Mono<Boolean> checkAndUpdateBalance(BalanceUpdateRequestDto balanceUpdateRequestDto, String recordKey);
+
+    /**
+     * Проверить и обновить балансы пакетом в одной транзакции
+     *
+     * @param requests DTO запросов на обновление баланса
+     * @return Результаты по каждому элементу пакета в порядке запросов
+     */
+    Flux<BalanceUpdateResult> checkAndUpdateBalances(List<BalanceUpdateRequestDto> requests);
+
+    /**
+     * Получить итоги запросов на обновление баланса по ключам идемпотентности.
+     * Позволяет вызывающему сервису сверить незавершенные у себя операции
+     *
+     * @param idempotencyKeys Ключи идемпотентности запросов
+     * @return Итог по каждому ключу в порядке запроса
+     */
+    Flux<BalanceUpdateOutcome> getBalanceUpdateOutcomes(List<String> idempotencyKeys);
 
     /**
      * Перевести средства между своими счетами
@@ -2,26 +2,44 @@ package ru.practicum.service.account;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dao.account.AccountDao;
+import ru.practicum.dao.account.BalanceUpdateResultDao;
 import ru.practicum.dto.account.AccountRequestDto;
 import ru.practicum.dto.account.BalanceUpdateRequestDto;
+import ru.practicum.dto.account.RecipientLookupRequestDto;
 import ru.practicum.dto.account.TransferDto;
 import ru.practicum.exception.ErrorReasons;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
 import ru.practicum.mapper.account.AccountMapper;
 import ru.practicum.model.account.Account;
+import ru.practicum.model.account.BalanceUpdateOutcome;
+import ru.practicum.model.account.BalanceUpdateOutcomeStatus;
+import ru.practicum.model.account.BalanceUpdateResult;
+import ru.practicum.model.account.BalanceUpdateStatus;
+import ru.practicum.model.account.RecipientAccount;
 import ru.practicum.repository.account.AccountRepository;
 import ru.practicum.service.currency.CurrencyService;
+import ru.practicum.service.idempotency.IdempotencyService;
 import ru.practicum.service.user.UserService;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -54,6 +72,36 @@ public class AccountServiceImpl implements AccountService {
     @Autowired
     private UserService userService;
 
+    /**
+     * Объединение изменений баланса "горячих" счетов
+     */
+    @Autowired
+    private BalanceUpdateCoalescer balanceUpdateCoalescer;
+
+    /**
+     * Публикация событий об изменении счетов
+     */
+    @Autowired
+    private AccountEventPublisher accountEventPublisher;
+
+    /**
+     * Хранилище ключей идемпотентности
+     */
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    /**
+     * Оператор транзакций
+     */
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    /**
+     * Максимальное количество операций в пакетном обновлении баланса
+     */
+    @Value("${app.accounts.batch-max-size:10000}")
+    private int batchMaxSize;
+
     @Override
     @Transactional
     public Mono<Account> createAccount(Account account) {
@@ -82,13 +130,8 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Mono<Account> getAccountById(UUID accountId) {
-        return accountRepository.findById(accountId)
-                .flatMap(accountDao -> currencyService.getCurrencyById(accountDao.getCurrencyId())
-                        .map(currency -> {
-                            Account account = accountMapper.accountDaoToAccount(accountDao);
-                            account.setCurrencyCode(currency.getCode());
-                            return account;
-                        }))
+        return accountRepository.findWithCurrencyById(accountId)
+                .map(accountMapper::accountWithCurrencyDaoToAccount)
                 .switchIfEmpty(Mono.error(new NotFoundException("Счет", accountId.toString())));
     }
 
@@ -105,21 +148,29 @@ public class AccountServiceImpl implements AccountService {
                 .switchIfEmpty(Mono.error(new NotFoundException("Счет по email и currencyCode", email + ";" + currencyCode)));
     }
 
+    @Override
+    public Flux<RecipientAccount> findRecipientAccounts(List<RecipientLookupRequestDto> requests) {
+        if (requests.isEmpty() || requests.size() > batchMaxSize) {
+            return Flux.error(new ValidationException(
+                    "Размер пакета должен быть от 1 до " + batchMaxSize,
+                    HttpStatus.BAD_REQUEST,
+                    ErrorReasons.INVALID_OPERATION
+            ));
+        }
+        String[] emails = requests.stream().map(RecipientLookupRequestDto::getEmail).toArray(String[]::new);
+        String[] currencyCodes = requests.stream().map(RecipientLookupRequestDto::getCurrencyCode).toArray(String[]::new);
+
+        return accountRepository.findRecipientAccounts(emails, currencyCodes)
+                .map(accountMapper::recipientAccountDaoToRecipientAccount);
+    }
+
     @Override
     public Flux<Account> getUserAccounts(UUID userId) {
-        return accountRepository.findByUserId(userId)
-                .flatMap(accountDao ->
-                        currencyService.getCurrencyById(accountDao.getCurrencyId())
-                                .map(currency -> {
-                                    Account account = accountMapper.accountDaoToAccount(accountDao);
-                                    account.setCurrencyCode(currency.getCode());
-                                    return account;
-                                })
-                );
+        return accountRepository.findWithCurrencyByUserId(userId)
+                .map(accountMapper::accountWithCurrencyDaoToAccount);
     }
 
     @Override
-    @Transactional
     public Mono<Void> deleteAccount(UUID accountId) {
         return accountRepository.findById(accountId)
                 .switchIfEmpty(Mono.error(new NotFoundException("Счет", accountId.toString())))
@@ -131,8 +182,16 @@ public class AccountServiceImpl implements AccountService {
                                 ErrorReasons.CONDITIONS_NOT_MET
                         ));
                     }
-                    return accountRepository.deleteById(accountId);
+                    return accountRepository.deleteById(accountId)
+                            .onErrorMap(DataIntegrityViolationException.class, e -> new ValidationException(
+                                    "Невозможно удалить счет с историей операций",
+                                    HttpStatus.CONFLICT,
+                                    ErrorReasons.CONDITIONS_NOT_MET
+                            ))
+                            .thenReturn(account);
                 })
+                .as(transactionalOperator::transactional)
+                .flatMap(account -> accountEventPublisher.accountDeleted(accountId, account.getUserId()))
                 .doOnSuccess(v -> log.info("Счет удален: {}", accountId));
     }
 
@@ -146,8 +205,7 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    @Transactional
-    public Mono<Boolean> checkAndUpdateBalance(BalanceUpdateRequestDto balanceUpdateRequestDto) {
+    public Mono<Boolean> checkAndUpdateBalance(BalanceUpdateRequestDto balanceUpdateRequestDto, String recordKey) {
         if (balanceUpdateRequestDto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
             return Mono.error(new ValidationException(
                     "Сумма пополнения или снятия должна быть больше нуля",
@@ -155,46 +213,231 @@ public class AccountServiceImpl implements AccountService {
                     ErrorReasons.INVALID_AMOUNT
             ));
         }
-        return accountRepository.findById(balanceUpdateRequestDto.getAccountId())
-                .switchIfEmpty(Mono.error(new NotFoundException("Счет", balanceUpdateRequestDto.getAccountId().toString())))
-                .flatMap(accountDao -> {
-                    if (!balanceUpdateRequestDto.isDeposit() && accountDao.getBalance().compareTo(balanceUpdateRequestDto.getAmount()) < 0) {
+        UUID accountId = balanceUpdateRequestDto.getAccountId();
+        BigDecimal delta = balanceUpdateRequestDto.isDeposit()
+                ? balanceUpdateRequestDto.getAmount()
+                : balanceUpdateRequestDto.getAmount().negate();
+
+        Mono<BalanceUpdateResultDao> update = balanceUpdateCoalescer.isHot(accountId)
+                ? balanceUpdateCoalescer.submit(accountId, delta, recordKey)
+                : updateBalance(accountId, delta, recordKey);
+
+        return update
+                .flatMap(result -> {
+                    if (!result.isFound()) {
+                        return Mono.error(new NotFoundException("Счет", accountId.toString()));
+                    }
+                    if (!result.isApplied()) {
                         return Mono.error(new ValidationException(
-                                "Сумма снятия должна быть больше суммы счета",
+                                "Недостаточно средств на счете для снятия",
                                 HttpStatus.BAD_REQUEST,
-                                ErrorReasons.INVALID_AMOUNT
+                                ErrorReasons.INSUFFICIENT_FUNDS
                         ));
                     }
-                    accountDao.setBalance(accountDao.getBalance().add(balanceUpdateRequestDto.getAmount().multiply(BigDecimal.valueOf(balanceUpdateRequestDto.isDeposit() ? 1 : -1))));
-                    accountDao.setUpdatedAt(LocalDateTime.now());
-                    return accountRepository.save(accountDao);
+                    return Mono.just(result);
                 })
-                .doOnSuccess(account -> log.info("Счет {} изменен на сумму {}", account.getId(), balanceUpdateRequestDto.getAmount()))
+                .doOnSuccess(result -> log.info("Счет {} изменен на сумму {}, новый баланс {}",
+                        accountId, delta, result.getBalance()))
                 .thenReturn(true);
     }
 
+    /**
+     * Изменить баланс и сохранить ответ по ключу идемпотентности в той же транзакции
+     */
+    private Mono<BalanceUpdateResultDao> updateBalance(UUID accountId, BigDecimal delta, String recordKey) {
+        Mono<BalanceUpdateResultDao> update = accountRepository.updateBalanceIfSufficient(accountId, delta);
+        if (recordKey == null) {
+            return update;
+        }
+        return update
+                .flatMap(result -> result.isApplied()
+                        ? idempotencyService.completeReserved(List.of(recordKey), true).thenReturn(result)
+                        : Mono.just(result))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    @Transactional
+    public Flux<BalanceUpdateResult> checkAndUpdateBalances(List<BalanceUpdateRequestDto> requests) {
+        if (requests.isEmpty() || requests.size() > batchMaxSize) {
+            return Flux.error(new ValidationException(
+                    "Размер пакета должен быть от 1 до " + batchMaxSize,
+                    HttpStatus.BAD_REQUEST,
+                    ErrorReasons.INVALID_OPERATION
+            ));
+        }
+        UUID[] accountIds = requests.stream()
+                .map(BalanceUpdateRequestDto::getAccountId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toArray(UUID[]::new);
+
+        List<String> idempotencyKeys = requests.stream()
+                .map(BalanceUpdateRequestDto::getIdempotencyKey)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return accountRepository.findAllByIdForUpdate(accountIds)
+                .collectMap(AccountDao::getId, AccountDao::getBalance)
+                .zipWith(idempotencyService.findRecordedOutcomes(BALANCE_UPDATE_OPERATION, idempotencyKeys))
+                .flatMapMany(found -> {
+                    Map<String, String> outcomes = found.getT2();
+                    List<BalanceUpdateResult> results = applyBatch(requests, new HashMap<>(found.getT1()), outcomes);
+                    List<BalanceUpdateResult> applied = results.stream()
+                            .filter(result -> isNewlyApplied(result, requests, outcomes))
+                            .toList();
+                    if (applied.isEmpty()) {
+                        return Flux.fromIterable(results);
+                    }
+                    return accountRepository.addToBalances(
+                                    applied.stream().map(BalanceUpdateResult::getAccountId).toArray(UUID[]::new),
+                                    applied.stream().map(result -> delta(requests.get(result.getIndex())))
+                                            .toArray(BigDecimal[]::new))
+                            .doOnSuccess(updated -> log.info("Пакетное обновление баланса: {} операций, {} счетов изменено",
+                                    requests.size(), updated))
+                            .then(recordAppliedKeys(requests, applied))
+                            .thenMany(Flux.fromIterable(results));
+                });
+    }
+
+    /**
+     * Элемент применяется в этом пакете: он прошел проверку баланса, и итога по его ключу еще нет
+     */
+    private static boolean isNewlyApplied(BalanceUpdateResult result, List<BalanceUpdateRequestDto> requests,
+                                          Map<String, String> outcomes) {
+        String idempotencyKey = requests.get(result.getIndex()).getIdempotencyKey();
+        return result.getStatus() == BalanceUpdateStatus.APPLIED
+                && (idempotencyKey == null || !outcomes.containsKey(idempotencyKey));
+    }
+
+    /**
+     * Сохранить ключи идемпотентности примененных элементов пакета в той же транзакции,
+     * что и изменение балансов
+     */
+    private Mono<Void> recordAppliedKeys(List<BalanceUpdateRequestDto> requests, List<BalanceUpdateResult> applied) {
+        List<String> appliedKeys = applied.stream()
+                .map(result -> requests.get(result.getIndex()).getIdempotencyKey())
+                .filter(Objects::nonNull)
+                .toList();
+        return appliedKeys.isEmpty()
+                ? Mono.empty()
+                : idempotencyService.recordCompleted(BALANCE_UPDATE_OPERATION, appliedKeys, true);
+    }
+
+    @Override
+    public Flux<BalanceUpdateOutcome> getBalanceUpdateOutcomes(List<String> idempotencyKeys) {
+        if (idempotencyKeys.isEmpty() || idempotencyKeys.size() > batchMaxSize) {
+            return Flux.error(new ValidationException(
+                    "Размер пакета должен быть от 1 до " + batchMaxSize,
+                    HttpStatus.BAD_REQUEST,
+                    ErrorReasons.INVALID_OPERATION
+            ));
+        }
+        return idempotencyService.getOutcomes(BALANCE_UPDATE_OPERATION, idempotencyKeys)
+                .flatMapIterable(outcomes -> idempotencyKeys.stream()
+                        .map(key -> BalanceUpdateOutcome.builder()
+                                .idempotencyKey(key)
+                                .status(outcomeStatus(outcomes.get(key)))
+                                .build())
+                        .toList());
+    }
+
+    /**
+     * NOT_APPLIED возвращается только для ключа, закрытого итогом REJECTED: изменение с ним уже не применится
+     */
+    private BalanceUpdateOutcomeStatus outcomeStatus(String outcome) {
+        if (IdempotencyService.OUTCOME_APPLIED.equals(outcome)) {
+            return BalanceUpdateOutcomeStatus.APPLIED;
+        }
+        return IdempotencyService.OUTCOME_REJECTED.equals(outcome)
+                ? BalanceUpdateOutcomeStatus.NOT_APPLIED
+                : BalanceUpdateOutcomeStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Применить операции пакета к заблокированным балансам по порядку.
+     * Элемент, итог по ключу которого уже есть, не применяется: APPLIED возвращается как повтор выполненного
+     * запроса, REJECTED - как окончательный отказ. Повтор ключа внутри пакета считается некорректным запросом
+     */
+    private List<BalanceUpdateResult> applyBatch(List<BalanceUpdateRequestDto> requests, Map<UUID, BigDecimal> balances,
+                                                 Map<String, String> outcomes) {
+        List<BalanceUpdateResult> results = new ArrayList<>(requests.size());
+        Set<String> batchKeys = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BalanceUpdateRequestDto request = requests.get(i);
+            UUID accountId = request.getAccountId();
+            BigDecimal balance = accountId != null ? balances.get(accountId) : null;
+            String idempotencyKey = request.getIdempotencyKey();
+            BalanceUpdateResult.BalanceUpdateResultBuilder result = BalanceUpdateResult.builder()
+                    .index(i)
+                    .accountId(accountId);
+
+            if (idempotencyKey != null && !batchKeys.add(idempotencyKey)) {
+                results.add(result.status(BalanceUpdateStatus.INVALID_REQUEST).build());
+                continue;
+            }
+            String outcome = idempotencyKey != null ? outcomes.get(idempotencyKey) : null;
+            if (outcome != null) {
+                results.add(result.status(IdempotencyService.OUTCOME_APPLIED.equals(outcome)
+                        ? BalanceUpdateStatus.APPLIED
+                        : BalanceUpdateStatus.REJECTED).build());
+                continue;
+            }
+            if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0 || accountId == null) {
+                results.add(result.status(BalanceUpdateStatus.INVALID_REQUEST).build());
+                continue;
+            }
+            if (balance == null) {
+                results.add(result.status(BalanceUpdateStatus.NOT_FOUND).build());
+                continue;
+            }
+            BigDecimal newBalance = balance.add(delta(request));
+            if (newBalance.signum() < 0) {
+                results.add(result.status(BalanceUpdateStatus.INSUFFICIENT_FUNDS).balance(balance).build());
+                continue;
+            }
+            balances.put(accountId, newBalance);
+            results.add(result.status(BalanceUpdateStatus.APPLIED).balance(newBalance).build());
+        }
+        return results;
+    }
+
+    private static BigDecimal delta(BalanceUpdateRequestDto request) {
+        return request.isDeposit() ? request.getAmount() : request.getAmount().negate();
+    }
+
     @Override
     @Transactional
     public Mono<Void> transferBetweenAccounts(TransferDto dto) {
-        return Mono.zip(
-                accountRepository.findById(dto.getFromAccountId())
-                        .switchIfEmpty(Mono.error(new NotFoundException("Счет отправителя", dto.getFromAccountId().toString()))),
-                accountRepository.findById(dto.getToAccountId())
-                        .switchIfEmpty(Mono.error(new NotFoundException("Счет получателя", dto.getToAccountId().toString())))
-        ).flatMap(tuple -> {
-            AccountDao fromAccount = tuple.getT1();
-            AccountDao toAccount = tuple.getT2();
-
-            fromAccount.setBalance(fromAccount.getBalance().subtract(dto.getAmount()));
-            toAccount.setBalance(toAccount.getBalance().add(dto.getConvertedAmount()));
-            fromAccount.setUpdatedAt(LocalDateTime.now());
-            toAccount.setUpdatedAt(LocalDateTime.now());
-
-            return Mono.when(
-                    accountRepository.save(fromAccount),
-                    accountRepository.save(toAccount)
-            );
-        }).doOnSuccess(v -> log.info("Перевод {} между счетами {} и {} выполнен", dto.getAmount(), dto.getFromAccountId(), dto.getToAccountId()));
+        if (dto.getFromAccountId().equals(dto.getToAccountId())) {
+            return Mono.error(new ValidationException(
+                    "Счета отправителя и получателя не могут совпадать",
+                    HttpStatus.BAD_REQUEST,
+                    ErrorReasons.INVALID_OPERATION
+            ));
+        }
+        BigDecimal convertedAmount = dto.getConvertedAmount() != null ? dto.getConvertedAmount() : dto.getAmount();
+
+        return accountRepository.transfer(dto.getFromAccountId(), dto.getToAccountId(), dto.getAmount(), convertedAmount)
+                .flatMap(result -> {
+                    if (!result.isFromFound()) {
+                        return Mono.error(new NotFoundException("Счет отправителя", dto.getFromAccountId().toString()));
+                    }
+                    if (!result.isToFound()) {
+                        return Mono.error(new NotFoundException("Счет получателя", dto.getToAccountId().toString()));
+                    }
+                    if (!result.isApplied()) {
+                        return Mono.error(new ValidationException(
+                                "Недостаточно средств на счете отправителя",
+                                HttpStatus.BAD_REQUEST,
+                                ErrorReasons.INSUFFICIENT_FUNDS
+                        ));
+                    }
+                    return Mono.just(result);
+                })
+                .then()
+                .doOnSuccess(v -> log.info("Перевод {} между счетами {} и {} выполнен", dto.getAmount(), dto.getFromAccountId(), dto.getToAccountId()));
     }
 
     @Override
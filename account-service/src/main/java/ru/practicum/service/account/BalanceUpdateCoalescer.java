@@ -0,0 +1,247 @@
+package ru.practicum.service.account;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.config.CoalescingConfig;
+import ru.practicum.dao.account.BalanceUpdateResultDao;
+import ru.practicum.exception.ErrorReasons;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.repository.account.AccountRepository;
+import ru.practicum.service.idempotency.IdempotencyService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Объединение изменений баланса "горячих" счетов.
+ * Изменения одного счета ставятся в очередь, накапливаются в течение окна (или до максимального размера пакета)
+ * и применяются одним условным UPDATE с суммарной величиной. Каждый вызывающий получает собственный ответ.
+ * Пакет применяется целиком, только если баланс покрывает наибольшее промежуточное списание, то есть
+ * результат совпадает с применением изменений по порядку. Иначе изменения пакета применяются по одному.
+ * Ответы по ключам идемпотентности примененных изменений сохраняются в транзакции UPDATE,
+ * так как вызывающий не участвует в этой транзакции. Если по ключу одного из изменений итог уже есть,
+ * транзакция пакета откатывается, а изменения применяются по одному: ошибку получает только это изменение.
+ */
+@Slf4j
+@Component
+public class BalanceUpdateCoalescer {
+    /**
+     * Репозиторий счетов
+     */
+    private final AccountRepository accountRepository;
+
+    /**
+     * Конфигурация объединения операций
+     */
+    private final CoalescingConfig config;
+
+    /**
+     * Хранилище ключей идемпотентности
+     */
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Оператор транзакций
+     */
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Очереди изменений по счетам
+     */
+    private final Map<UUID, AccountQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Общее количество ожидающих изменений
+     */
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final Counter operationsCounter;
+    private final Counter statementsCounter;
+    private final DistributionSummary batchSizeSummary;
+
+    public BalanceUpdateCoalescer(AccountRepository accountRepository, CoalescingConfig config,
+                                  IdempotencyService idempotencyService, TransactionalOperator transactionalOperator,
+                                  MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.config = config;
+        this.idempotencyService = idempotencyService;
+        this.transactionalOperator = transactionalOperator;
+        this.operationsCounter = Counter.builder("account.coalescing.operations")
+                .description("Изменения баланса, прошедшие через объединение")
+                .register(meterRegistry);
+        this.statementsCounter = Counter.builder("account.coalescing.statements")
+                .description("UPDATE-запросы, выполненные при объединении")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("account.coalescing.batch.size")
+                .description("Количество изменений, объединенных в один UPDATE (коэффициент объединения)")
+                .register(meterRegistry);
+        meterRegistry.gauge("account.coalescing.queue.depth", queueDepth);
+    }
+
+    /**
+     * Проверить, объединяются ли изменения баланса счета
+     *
+     * @param accountId Идентификатор счета
+     * @return Да / Нет
+     */
+    public boolean isHot(UUID accountId) {
+        return config.isEnabled() && config.getAccounts().contains(accountId);
+    }
+
+    /**
+     * Поставить изменение баланса в очередь счета
+     *
+     * @param accountId Идентификатор счета
+     * @param delta     Изменение баланса
+     * @param recordKey Ключ записи идемпотентности, ответ по которому сохраняется вместе с изменением (может быть null)
+     * @return Результат применения изменения
+     */
+    public Mono<BalanceUpdateResultDao> submit(UUID accountId, BigDecimal delta, String recordKey) {
+        return Mono.defer(() -> {
+            PendingUpdate update = new PendingUpdate(delta, recordKey, Sinks.one());
+            queueDepth.incrementAndGet();
+            queues.computeIfAbsent(accountId, this::startQueue).emit(update);
+            return update.result().asMono();
+        });
+    }
+
+    private AccountQueue startQueue(UUID accountId) {
+        Sinks.Many<PendingUpdate> sink = Sinks.many().unicast().onBackpressureBuffer();
+        Disposable subscription = sink.asFlux()
+                .bufferTimeout(config.getMaxBatchSize(), config.getWindow(), true)
+                .concatMap(batch -> applyBatch(accountId, batch))
+                .subscribe();
+        log.info("Запущено объединение изменений баланса для счета {}", accountId);
+        return new AccountQueue(sink, subscription);
+    }
+
+    private Mono<Void> applyBatch(UUID accountId, List<PendingUpdate> batch) {
+        queueDepth.addAndGet(-batch.size());
+        operationsCounter.increment(batch.size());
+        batchSizeSummary.record(batch.size());
+
+        BigDecimal net = BigDecimal.ZERO;
+        BigDecimal lowest = BigDecimal.ZERO;
+        for (PendingUpdate update : batch) {
+            net = net.add(update.delta());
+            lowest = lowest.min(net);
+        }
+        BigDecimal required = lowest.negate();
+
+        Mono<BalanceUpdateResultDao> applied = Mono.defer(() -> batch.size() == 1
+                ? updateBalance(accountId, batch.get(0))
+                : applyDeltas(accountId, batch, required));
+
+        return applied
+                .flatMap(result -> {
+                    if (result.isApplied() || !result.isFound() || batch.size() == 1) {
+                        batch.forEach(update -> update.complete(result));
+                        return Mono.<Void>empty();
+                    }
+                    log.debug("Пакет изменений счета {} не покрыт балансом (требуется {}), применение по одному",
+                            accountId, required);
+                    return applyOneByOne(accountId, batch);
+                })
+                .onErrorResume(e -> batch.size() > 1 && isKeyConflict(e), e -> {
+                    log.warn("Итог по ключу идемпотентности одного из изменений счета {} уже есть, применение по одному",
+                            accountId);
+                    return applyOneByOne(accountId, batch);
+                })
+                .onErrorResume(e -> {
+                    log.error("Ошибка применения пакета изменений счета {}: {}", accountId, e.getMessage());
+                    batch.forEach(update -> update.fail(e));
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> applyOneByOne(UUID accountId, List<PendingUpdate> batch) {
+        return Flux.fromIterable(batch)
+                .concatMap(update -> updateBalance(accountId, update)
+                        .doOnNext(update::complete)
+                        .onErrorResume(e -> {
+                            update.fail(e);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private static boolean isKeyConflict(Throwable error) {
+        return error instanceof ValidationException exception
+                && ErrorReasons.IDEMPOTENCY_KEY_USED.equals(exception.getErrorCode());
+    }
+
+    private Mono<BalanceUpdateResultDao> updateBalance(UUID accountId, PendingUpdate update) {
+        statementsCounter.increment();
+        return completeApplied(accountRepository.updateBalanceIfSufficient(accountId, update.delta()), List.of(update));
+    }
+
+    private Mono<BalanceUpdateResultDao> applyDeltas(UUID accountId, List<PendingUpdate> batch, BigDecimal required) {
+        statementsCounter.increment();
+        return completeApplied(accountRepository.applyDeltasIfCovered(accountId,
+                batch.stream().map(PendingUpdate::delta).toArray(BigDecimal[]::new), required), batch);
+    }
+
+    /**
+     * Сохранить ответы по ключам идемпотентности примененных изменений в одной транзакции с UPDATE
+     */
+    private Mono<BalanceUpdateResultDao> completeApplied(Mono<BalanceUpdateResultDao> statement, List<PendingUpdate> updates) {
+        List<String> recordKeys = updates.stream()
+                .map(PendingUpdate::recordKey)
+                .filter(Objects::nonNull)
+                .toList();
+        if (recordKeys.isEmpty()) {
+            return statement;
+        }
+        return statement
+                .flatMap(result -> result.isApplied()
+                        ? idempotencyService.completeReserved(recordKeys, true).thenReturn(result)
+                        : Mono.just(result))
+                .as(transactionalOperator::transactional);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queues.values().forEach(AccountQueue::close);
+    }
+
+    /**
+     * Ожидающее изменение баланса
+     */
+    private record PendingUpdate(BigDecimal delta, String recordKey, Sinks.One<BalanceUpdateResultDao> result) {
+        void complete(BalanceUpdateResultDao value) {
+            result.emitValue(value, Sinks.EmitFailureHandler.FAIL_FAST);
+        }
+
+        void fail(Throwable error) {
+            result.emitError(error, Sinks.EmitFailureHandler.FAIL_FAST);
+        }
+    }
+
+    /**
+     * Очередь изменений одного счета
+     */
+    private record AccountQueue(Sinks.Many<PendingUpdate> sink, Disposable subscription) {
+        void emit(PendingUpdate update) {
+            sink.emitNext(update, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        }
+
+        void close() {
+            sink.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        }
+    }
+}
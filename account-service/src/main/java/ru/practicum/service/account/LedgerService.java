@@ -0,0 +1,39 @@
+package ru.practicum.service.account;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.model.account.LedgerEntry;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Сервис журнала операций по счетам
+ */
+public interface LedgerService {
+
+    /**
+     * Получить страницу выписки по счету, от новых записей к старым
+     *
+     * @param accountId Идентификатор счета
+     * @param beforeId  Курсор: идентификатор последней записи предыдущей страницы (null - с начала)
+     * @param limit     Размер страницы
+     * @return Записи журнала
+     */
+    Flux<LedgerEntry> getStatement(UUID accountId, Long beforeId, int limit);
+
+    /**
+     * Получить баланс счета по журналу (снимок плюс последующие записи)
+     *
+     * @param accountId Идентификатор счета
+     * @return Баланс
+     */
+    Mono<BigDecimal> getLedgerBalance(UUID accountId);
+
+    /**
+     * Материализовать снимки балансов по накопившимся записям журнала
+     *
+     * @return Количество обновленных снимков
+     */
+    Mono<Integer> compactSnapshots();
+}
@@ -0,0 +1,114 @@
+package ru.practicum.service.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.exception.ErrorReasons;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.mapper.account.AccountMapper;
+import ru.practicum.model.account.LedgerEntry;
+import ru.practicum.repository.account.AccountRepository;
+import ru.practicum.repository.account.LedgerEntryRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class LedgerServiceImpl implements LedgerService {
+    /**
+     * Репозиторий журнала операций
+     */
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    /**
+     * Репозиторий счетов
+     */
+    @Autowired
+    private AccountRepository accountRepository;
+
+    /**
+     * Маппер счетов
+     */
+    @Autowired
+    private AccountMapper accountMapper;
+
+    /**
+     * Оператор транзакций
+     */
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    /**
+     * Максимальный размер страницы выписки
+     */
+    @Value("${app.accounts.ledger.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Максимальное ожидание завершения транзакций, пишущих в журнал, перед материализацией снимков
+     */
+    @Value("${app.accounts.ledger.compaction-lock-timeout:2s}")
+    private Duration compactionLockTimeout;
+
+    @Override
+    public Flux<LedgerEntry> getStatement(UUID accountId, Long beforeId, int limit) {
+        if (limit <= 0 || limit > maxPageSize) {
+            return Flux.error(new ValidationException(
+                    "Размер страницы должен быть от 1 до " + maxPageSize,
+                    HttpStatus.BAD_REQUEST,
+                    ErrorReasons.VALIDATION_ERROR));
+        }
+
+        long cursor = beforeId != null ? beforeId : Long.MAX_VALUE;
+
+        return accountRepository.existsById(accountId)
+                .flatMapMany(exists -> exists
+                        ? ledgerEntryRepository.findPage(accountId, cursor, limit)
+                        : Flux.error(new NotFoundException("Счет", accountId.toString())))
+                .map(accountMapper::ledgerEntryDaoToLedgerEntry);
+    }
+
+    @Override
+    public Mono<BigDecimal> getLedgerBalance(UUID accountId) {
+        return accountRepository.existsById(accountId)
+                .flatMap(exists -> exists
+                        ? ledgerEntryRepository.computeBalance(accountId)
+                        : Mono.error(new NotFoundException("Счет", accountId.toString())));
+    }
+
+    @Override
+    public Mono<Integer> compactSnapshots() {
+        return findSafeWatermark()
+                .flatMap(ledgerEntryRepository::compactSnapshots);
+    }
+
+    /**
+     * Граница снимка: максимальный идентификатор записи после завершения транзакций, уже пишущих в журнал.
+     * Блокировка удерживается только на время чтения границы, сама материализация идет без нее
+     */
+    private Mono<Long> findSafeWatermark() {
+        return ledgerEntryRepository.setLocalLockTimeout(compactionLockTimeout.toMillis() + "ms")
+                .then(ledgerEntryRepository.lockAgainstWriters())
+                .then(ledgerEntryRepository.findMaxEntryId())
+                .as(transactionalOperator::transactional);
+    }
+
+    @Scheduled(fixedDelayString = "${app.accounts.ledger.compaction-interval:PT5M}")
+    public void scheduledCompaction() {
+        compactSnapshots()
+                .subscribe(
+                        count -> log.info("Обновлено снимков балансов: {}", count),
+                        error -> log.error("Ошибка материализации снимков балансов", error)
+                );
+    }
+}
@@ -11,10 +11,12 @@ import ru.practicum.dao.currency.CurrencyDao;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.currency.CurrencyMapper;
 import ru.practicum.model.currency.Currency;
+import ru.practicum.model.currency.CurrencyDictionary;
 import ru.practicum.repository.currency.CurrencyRepository;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Реализация сервиса для работы с валютами
@@ -38,6 +40,11 @@ public class CurrencyServiceImpl implements CurrencyService {
      */
     private final CurrencyConfig currencyConfig;
 
+    /**
+     * Справочник валют в памяти. Заменяется целиком при загрузке и создании валют
+     */
+    private final AtomicReference<CurrencyDictionary> dictionary = new AtomicReference<>(CurrencyDictionary.empty());
+
     // Маппинг кодов валют на их названия
     private static final Map<String, String> CURRENCY_NAMES = Map.of(
             "RUB", "Russian Ruble",
@@ -54,15 +61,27 @@ public class CurrencyServiceImpl implements CurrencyService {
 
         Flux.fromIterable(currencyConfig.getSupported())
                 .flatMap(this::createCurrencyIfNotExists)
+                .doOnNext(currency -> log.info("Валюта инициализирована: {} - {}", currency.getCode(), currency.getName()))
+                .then(loadDictionary())
                 .subscribe(
-                        currency -> log.info("Валюта инициализирована: {} - {}", currency.getCode(), currency.getName()),
-                        error -> log.error("Ошибка при инициализации валют: ", error),
-                        () -> log.info("Инициализация валют завершена")
+                        loaded -> log.info("Инициализация валют завершена, в справочнике {} валют", loaded.size()),
+                        error -> log.error("Ошибка при инициализации валют: ", error)
                 );
     }
 
+    /**
+     * Загрузить справочник валют из базы и атомарно заменить текущий
+     */
+    private Mono<CurrencyDictionary> loadDictionary() {
+        return currencyRepository.findAll()
+                .map(currencyMapper::currencyDaoToCurrency)
+                .collectList()
+                .map(CurrencyDictionary::of)
+                .doOnNext(dictionary::set);
+    }
+
     private Mono<Currency> createCurrencyIfNotExists(String code) {
-        return getCurrencyByCode(code)
+        return findCurrencyByCode(code)
                 .switchIfEmpty(Mono.defer(() -> {
                     String name = CURRENCY_NAMES.getOrDefault(code, code);
                     Currency currency = Currency.builder()
@@ -85,6 +104,7 @@ public class CurrencyServiceImpl implements CurrencyService {
         CurrencyDao dao = currencyMapper.currencyToCurrencyDao(currency);
         return currencyRepository.save(dao)
                 .map(currencyMapper::currencyDaoToCurrency)
+                .doOnNext(this::cacheCurrency)
                 .doOnSuccess(c -> log.info("Валюта создана: {} - {}", c.getCode(), c.getName()))
                 .doOnError(e -> log.error("Ошибка при создании валюты {}: {}", currency.getCode(), e.getMessage()));
     }
@@ -93,8 +113,10 @@ public class CurrencyServiceImpl implements CurrencyService {
     public Mono<Currency> getCurrencyById(UUID currencyId) {
         log.debug("Получение валюты по ID: {}", currencyId);
 
-        return currencyRepository.findById(currencyId)
-                .map(currencyMapper::currencyDaoToCurrency)
+        return Mono.defer(() -> Mono.justOrEmpty(dictionary.get().findById(currencyId)))
+                .switchIfEmpty(Mono.defer(() -> currencyRepository.findById(currencyId)
+                        .map(currencyMapper::currencyDaoToCurrency)
+                        .doOnNext(this::cacheCurrency)))
                 .switchIfEmpty(Mono.error(new NotFoundException("Валюта", currencyId.toString())));
     }
 
@@ -102,8 +124,7 @@ public class CurrencyServiceImpl implements CurrencyService {
     public Mono<Currency> getCurrencyByCode(String code) {
         log.debug("Получение валюты по коду: {}", code);
 
-        return currencyRepository.findByCode(code)
-                .map(currencyMapper::currencyDaoToCurrency)
+        return findCurrencyByCode(code)
                 .switchIfEmpty(Mono.error(new NotFoundException("Валюта", code)));
     }
 
@@ -117,9 +138,22 @@ public class CurrencyServiceImpl implements CurrencyService {
 
     @Override
     public Mono<Boolean> isValidCurrency(String code) {
-        return currencyRepository.findByCode(code)
-                .map(currency -> true)
-                .defaultIfEmpty(false);
+        return Mono.defer(() -> dictionary.get().findByCode(code).isPresent()
+                ? Mono.just(true)
+                : currencyRepository.findByCode(code)
+                        .map(currency -> true)
+                        .defaultIfEmpty(false));
+    }
+
+    private Mono<Currency> findCurrencyByCode(String code) {
+        return Mono.defer(() -> Mono.justOrEmpty(dictionary.get().findByCode(code)))
+                .switchIfEmpty(Mono.defer(() -> currencyRepository.findByCode(code)
+                        .map(currencyMapper::currencyDaoToCurrency)
+                        .doOnNext(this::cacheCurrency)));
+    }
+
+    private void cacheCurrency(Currency currency) {
+        dictionary.updateAndGet(current -> current.with(currency));
     }
 
     /**
@@ -0,0 +1,98 @@
+package ru.practicum.service.idempotency;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Сервис идемпотентного выполнения изменяющих запросов
+ */
+public interface IdempotencyService {
+    /**
+     * Итог: действие выполнено
+     */
+    String OUTCOME_APPLIED = "APPLIED";
+
+    /**
+     * Итог: действие не выполнялось, ключ закрыт
+     */
+    String OUTCOME_REJECTED = "REJECTED";
+
+    /**
+     * Итог: запрос еще выполняется
+     */
+    String OUTCOME_IN_PROGRESS = "IN_PROGRESS";
+
+    /**
+     * Выполнить действие не более одного раза для ключа идемпотентности.
+     * Повторный запрос с тем же ключом получает сохраненный ответ без повторного выполнения действия.
+     * Итог выполнения сохраняется в транзакции действия и хранится дольше ключа: после истечения ключа
+     * повторное выполнение отклоняется
+     *
+     * @param idempotencyKey Значение заголовка Idempotency-Key (null - выполнить без проверки)
+     * @param operation      Название операции, в рамках которой уникален ключ
+     * @param responseType   Тип ответа
+     * @param action         Действие
+     * @return Ответ действия или сохраненный ответ
+     */
+    <T> Mono<T> execute(String idempotencyKey, String operation, Class<T> responseType, Supplier<Mono<T>> action);
+
+    /**
+     * Выполнить действие не более одного раза для ключа идемпотентности, когда действие само сохраняет ответ
+     * через {@link #completeReserved} в транзакции своего изменения (например, изменение баланса через
+     * объединение операций, которое выполняется вне транзакции запроса)
+     *
+     * @param idempotencyKey Значение заголовка Idempotency-Key (null - выполнить без проверки)
+     * @param operation      Название операции, в рамках которой уникален ключ
+     * @param responseType   Тип ответа
+     * @param action         Действие, которому передается ключ записи (null, если ключ не задан)
+     * @return Ответ действия или сохраненный ответ
+     */
+    <T> Mono<T> executeSelfCompleting(String idempotencyKey, String operation, Class<T> responseType,
+                                      Function<String, Mono<T>> action);
+
+    /**
+     * Сохранить ответ и итог зарезервированных запросов. Вызывается в транзакции действия;
+     * если итог по ключу уже есть (ключ выполнен ранее или закрыт сверкой), возвращается ошибка,
+     * и транзакция должна быть откачена
+     *
+     * @param recordKeys Ключи записей, переданные действию
+     * @param response   Ответ
+     */
+    Mono<Void> completeReserved(List<String> recordKeys, Object response);
+
+    /**
+     * Сохранить ответ и итог для запросов, выполненных без предварительного резервирования ключа
+     * (элементы пакетной операции). Вызывается в транзакции действия; если итог по ключу уже есть,
+     * возвращается ошибка
+     *
+     * @param operation       Название операции, в рамках которой уникален ключ
+     * @param idempotencyKeys Ключи идемпотентности
+     * @param response        Ответ
+     */
+    Mono<Void> recordCompleted(String operation, List<String> idempotencyKeys, Object response);
+
+    /**
+     * Получить итоги запросов по ключам идемпотентности. Ключ без итога и без незавершенного резерва
+     * закрывается итогом REJECTED, поэтому ответ REJECTED окончателен: изменение с этим ключом
+     * уже не будет применено
+     *
+     * @param operation       Название операции, в рамках которой уникален ключ
+     * @param idempotencyKeys Ключи идемпотентности
+     * @return Итог (APPLIED, REJECTED или IN_PROGRESS) по каждому ключу
+     */
+    Mono<Map<String, String>> getOutcomes(String operation, List<String> idempotencyKeys);
+
+    /**
+     * Найти уже сохраненные итоги по ключам идемпотентности без закрытия ключей без итога.
+     * Позволяет исключить из пакета элементы, итог которых уже есть, до сохранения итогов через {@link #recordCompleted}
+     *
+     * @param operation       Название операции, в рамках которой уникален ключ
+     * @param idempotencyKeys Ключи идемпотентности
+     * @return Итог (APPLIED или REJECTED) по каждому ключу, для которого он есть
+     */
+    Mono<Map<String, String>> findRecordedOutcomes(String operation, List<String> idempotencyKeys);
+}
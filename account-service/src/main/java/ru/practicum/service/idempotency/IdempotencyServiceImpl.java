@@ -0,0 +1,332 @@
+package ru.practicum.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.idempotency.IdempotencyOutcomeDao;
+import ru.practicum.dao.idempotency.IdempotencyRecordDao;
+import ru.practicum.exception.ErrorReasons;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.repository.idempotency.IdempotencyOutcomeRepository;
+import ru.practicum.repository.idempotency.IdempotencyRecordRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище ключей идемпотентности: ограниченный LRU-кэш в памяти перед таблицей idempotency_keys.
+ * Ключ резервируется до выполнения действия, поэтому параллельный дубликат получает конфликт,
+ * а не повторное выполнение. Действие и сохранение ответа выполняются в одной транзакции: если ответ
+ * не сохранен, изменение откатывается, и снимается только резерв незавершенного запроса.
+ * Резерв запроса, прерванного до завершения, освобождается по истечении срока аренды.
+ * Вместе с ответом в таблицу idempotency_outcomes сохраняется итог, который хранится дольше ключа:
+ * по нему сверка отличает выполненный запрос от невыполненного и после удаления ключа.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final String STATUS_COMPLETED = "COMPLETED";
+
+    /**
+     * Репозиторий ключей идемпотентности
+     */
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    /**
+     * Репозиторий итогов выполнения
+     */
+    @Autowired
+    private IdempotencyOutcomeRepository idempotencyOutcomeRepository;
+
+    /**
+     * Сериализатор ответов
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Оператор транзакций
+     */
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    /**
+     * Время жизни ключа
+     */
+    @Value("${app.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    /**
+     * Срок аренды резерва: незавершенный запрос старше этого срока считается прерванным.
+     * Должен превышать время выполнения действия
+     */
+    @Value("${app.idempotency.lease:1m}")
+    private Duration lease;
+
+    /**
+     * Срок хранения итогов выполнения
+     */
+    @Value("${app.idempotency.outcome-ttl:30d}")
+    private Duration outcomeTtl;
+
+    /**
+     * Сохраненные ответы по ключу записи, вытесняются по давности использования
+     */
+    private final Map<String, CachedResponse> cache;
+
+    public IdempotencyServiceImpl(@Value("${app.idempotency.cache-size:10000}") int cacheSize) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public <T> Mono<T> execute(String idempotencyKey, String operation, Class<T> responseType, Supplier<Mono<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return Mono.defer(action);
+        }
+        return executeOnce(idempotencyKey, operation, responseType, recordKey -> Mono.defer(action)
+                .flatMap(result -> store(recordKey, result).thenReturn(result))
+                .switchIfEmpty(Mono.defer(() -> store(recordKey, null).then(Mono.empty())))
+                .as(transactionalOperator::transactional));
+    }
+
+    @Override
+    public <T> Mono<T> executeSelfCompleting(String idempotencyKey, String operation, Class<T> responseType,
+                                             Function<String, Mono<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return Mono.defer(() -> action.apply(null));
+        }
+        return executeOnce(idempotencyKey, operation, responseType, action);
+    }
+
+    @Override
+    public Mono<Void> completeReserved(List<String> recordKeys, Object response) {
+        if (recordKeys.isEmpty()) {
+            return Mono.empty();
+        }
+        String[] keys = recordKeys.toArray(String[]::new);
+        return Mono.fromCallable(() -> encode(response))
+                .flatMap(body -> idempotencyRecordRepository.completeAll(keys, body))
+                .then(Mono.defer(() -> recordApplied(keys)));
+    }
+
+    @Override
+    public Mono<Void> recordCompleted(String operation, List<String> idempotencyKeys, Object response) {
+        if (idempotencyKeys.isEmpty()) {
+            return Mono.empty();
+        }
+        String[] keys = idempotencyKeys.stream()
+                .map(key -> operation + ":" + key)
+                .toArray(String[]::new);
+        return Mono.fromCallable(() -> encode(response))
+                .flatMap(body -> idempotencyRecordRepository.insertCompleted(keys, body))
+                .then(Mono.defer(() -> recordApplied(keys)));
+    }
+
+    @Override
+    public Mono<Map<String, String>> getOutcomes(String operation, List<String> idempotencyKeys) {
+        String prefix = operation + ":";
+        String[] recordKeys = idempotencyKeys.stream()
+                .map(key -> prefix + key)
+                .distinct()
+                .toArray(String[]::new);
+
+        return Mono.zip(
+                        idempotencyRecordRepository.findAllByRecordKeys(recordKeys)
+                                .collectMap(IdempotencyRecordDao::getRecordKey, IdempotencyRecordDao::getStatus),
+                        findOutcomes(recordKeys))
+                .flatMap(found -> {
+                    Map<String, String> records = found.getT1();
+                    Map<String, String> outcomes = new HashMap<>(found.getT2());
+                    List<String> unknown = new ArrayList<>();
+                    for (String recordKey : recordKeys) {
+                        if (outcomes.containsKey(recordKey)) {
+                            continue;
+                        }
+                        String status = records.get(recordKey);
+                        if (status == null) {
+                            unknown.add(recordKey);
+                        } else {
+                            // Ключ, выполненный до появления итогов, считается выполненным
+                            outcomes.put(recordKey, STATUS_COMPLETED.equals(status) ? OUTCOME_APPLIED : OUTCOME_IN_PROGRESS);
+                        }
+                    }
+                    return rejectUnknown(unknown.toArray(String[]::new))
+                            .doOnNext(outcomes::putAll)
+                            .thenReturn(outcomes);
+                })
+                .map(outcomes -> outcomes.entrySet().stream()
+                        .collect(Collectors.toMap(entry -> entry.getKey().substring(prefix.length()), Map.Entry::getValue)));
+    }
+
+    @Override
+    public Mono<Map<String, String>> findRecordedOutcomes(String operation, List<String> idempotencyKeys) {
+        if (idempotencyKeys.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        String prefix = operation + ":";
+        return findOutcomes(idempotencyKeys.stream()
+                        .map(key -> prefix + key)
+                        .distinct()
+                        .toArray(String[]::new))
+                .map(outcomes -> outcomes.entrySet().stream()
+                        .collect(Collectors.toMap(entry -> entry.getKey().substring(prefix.length()), Map.Entry::getValue)));
+    }
+
+    /**
+     * Сохранить итог APPLIED в транзакции действия. Если итог по ключу уже есть, действие выполнено ранее
+     * или ключ закрыт сверкой, поэтому возвращается ошибка, откатывающая транзакцию
+     */
+    private Mono<Void> recordApplied(String[] recordKeys) {
+        return idempotencyOutcomeRepository.insertAll(recordKeys, OUTCOME_APPLIED)
+                .flatMap(inserted -> inserted == recordKeys.length
+                        ? Mono.<Void>empty()
+                        : Mono.error(new ValidationException(
+                        "Запрос с этим ключом идемпотентности уже выполнен или отклонен",
+                        HttpStatus.CONFLICT,
+                        ErrorReasons.IDEMPOTENCY_KEY_USED)));
+    }
+
+    /**
+     * Закрыть ключи без итога и без записи итогом REJECTED. Вставка ждет транзакцию, которая сохраняет
+     * итог того же ключа, поэтому итог перечитывается отдельным запросом после вставки
+     */
+    private Mono<Map<String, String>> rejectUnknown(String[] recordKeys) {
+        if (recordKeys.length == 0) {
+            return Mono.just(Map.of());
+        }
+        return idempotencyOutcomeRepository.insertAll(recordKeys, OUTCOME_REJECTED)
+                .doOnNext(rejected -> {
+                    if (rejected > 0) {
+                        log.info("Ключи идемпотентности без итога закрыты как невыполненные: {}", rejected);
+                    }
+                })
+                .then(Mono.defer(() -> findOutcomes(recordKeys)));
+    }
+
+    private Mono<Map<String, String>> findOutcomes(String[] recordKeys) {
+        return idempotencyOutcomeRepository.findAllByRecordKeys(recordKeys)
+                .collectMap(IdempotencyOutcomeDao::getRecordKey, IdempotencyOutcomeDao::getStatus);
+    }
+
+    private <T> Mono<T> executeOnce(String idempotencyKey, String operation, Class<T> responseType,
+                                    Function<String, Mono<T>> action) {
+        String recordKey = operation + ":" + idempotencyKey;
+
+        return Mono.defer(() -> {
+            CachedResponse cached = cache.get(recordKey);
+            if (cached != null && cached.createdAt().plus(ttl).isAfter(Instant.now())) {
+                log.info("Повторный запрос {} обслужен из кэша", recordKey);
+                return decode(cached.body(), responseType);
+            }
+
+            return idempotencyRecordRepository.reserve(recordKey, ttl.toSeconds(), lease.toSeconds())
+                    .flatMap(reserved -> reserved > 0
+                            ? executeAndCache(recordKey, action)
+                            : replay(recordKey, responseType));
+        });
+    }
+
+    /**
+     * Выполнить действие по зарезервированному ключу. Ответ кэшируется только после фиксации действия.
+     * При ошибке снимается резерв, если ответ не сохранен; ошибка снятия не мешает повтору после срока аренды
+     */
+    private <T> Mono<T> executeAndCache(String recordKey, Function<String, Mono<T>> action) {
+        return Mono.defer(() -> action.apply(recordKey))
+                .doOnSuccess(result -> cache.put(recordKey,
+                        new CachedResponse(result != null ? encode(result) : null, Instant.now())))
+                .onErrorResume(e -> idempotencyRecordRepository.deleteInProgress(recordKey)
+                        .onErrorResume(deleteError -> {
+                            log.warn("Не удалось снять резерв ключа {}: {}", recordKey, deleteError.getMessage());
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(e)));
+    }
+
+    private Mono<Void> store(String recordKey, Object result) {
+        return Mono.defer(() -> idempotencyRecordRepository.complete(recordKey, result != null ? encode(result) : null))
+                .then(Mono.defer(() -> recordApplied(new String[]{recordKey})));
+    }
+
+    private <T> Mono<T> replay(String recordKey, Class<T> responseType) {
+        return idempotencyRecordRepository.findById(recordKey)
+                .flatMap(record -> {
+                    if (!STATUS_COMPLETED.equals(record.getStatus())) {
+                        return Mono.error(new ValidationException(
+                                "Запрос с этим ключом идемпотентности еще выполняется",
+                                HttpStatus.CONFLICT,
+                                ErrorReasons.REQUEST_IN_PROGRESS));
+                    }
+                    log.info("Повторный запрос {} обслужен из сохраненного ответа", recordKey);
+                    cache.put(recordKey, new CachedResponse(record.getResponse(), createdAt(record)));
+                    return decode(record.getResponse(), responseType);
+                });
+    }
+
+    private Instant createdAt(IdempotencyRecordDao record) {
+        return record.getCreatedAt() != null
+                ? record.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now();
+    }
+
+    private String encode(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ", e);
+        }
+    }
+
+    private <T> Mono<T> decode(String body, Class<T> responseType) {
+        if (body == null) {
+            return Mono.empty();
+        }
+        try {
+            return Mono.just(objectMapper.readValue(body, responseType));
+        } catch (JsonProcessingException e) {
+            return Mono.error(new IllegalStateException("Не удалось прочитать сохраненный ответ", e));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT10M}")
+    public void cleanupExpired() {
+        idempotencyRecordRepository.deleteExpired(ttl.toSeconds())
+                .subscribe(
+                        count -> log.info("Удалено просроченных ключей идемпотентности: {}", count),
+                        error -> log.error("Ошибка удаления просроченных ключей идемпотентности", error)
+                );
+        idempotencyOutcomeRepository.deleteExpired(outcomeTtl.toSeconds())
+                .subscribe(
+                        count -> log.info("Удалено устаревших итогов по ключам идемпотентности: {}", count),
+                        error -> log.error("Ошибка удаления устаревших итогов по ключам идемпотентности", error)
+                );
+    }
+
+    /**
+     * Сохраненный ответ
+     */
+    private record CachedResponse(String body, Instant createdAt) {
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.service.user;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.model.user.User;
+import ru.practicum.model.user.UserPageRequest;
 import ru.practicum.model.user.UserWithAccounts;
 
 import java.util.UUID;
@@ -134,27 +135,23 @@ public interface UserService {
     Mono<Boolean> existsByEmail(String email);
 
     /**
-     * Получить всех пользователей
+     * Получить страницу пользователей с ролями.
+     * Страницы упорядочены по (дата создания, идентификатор), курсор - последний пользователь предыдущей страницы
      *
-     * @return Список пользователей
+     * @param request Фильтры, курсор и размер страницы
+     * @return Пользователи страницы
      */
-    Flux<User> getAllUsers();
+    Flux<User> getUsersPage(UserPageRequest request);
 
     /**
-     * Получить пользователей по флагу активности
+     * Получить всех пользователей с ролями потоком.
+     * Пользователи читаются страницами по мере запроса данных подписчиком
      *
-     * @param enabled Да / Нет
-     * @return Список пользователей
+     * @param enabled          Фильтр по флагу активности (null - без фильтра)
+     * @param accountNonLocked Фильтр по флагу "не заблокирован" (null - без фильтра)
+     * @return Поток пользователей
      */
-    Flux<User> getUsersByStatus(boolean enabled);
-
-    /**
-     * Получить пользователей по флагу блокирокви
-     *
-     * @param locked Да / Нет
-     * @return Список пользователей
-     */
-    Flux<User> getUsersByLockStatus(boolean locked);
+    Flux<User> streamUsers(Boolean enabled, Boolean accountNonLocked);
 
     /**
      * Получить пользователя со счетами по идентификатору
@@ -1,28 +1,41 @@
 package ru.practicum.service.user;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dao.user.UserDao;
+import ru.practicum.dao.user.UserRoleNameDao;
+import ru.practicum.dao.user.UserWithAccountsDao;
 import ru.practicum.exception.ErrorReasons;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
 import ru.practicum.mapper.user.UserMapper;
+import ru.practicum.model.account.Account;
 import ru.practicum.model.user.User;
+import ru.practicum.model.user.UserPageRequest;
 import ru.practicum.model.user.UserWithAccounts;
 import ru.practicum.repository.user.UserRepository;
 import ru.practicum.repository.user.UserRoleRepository;
+import ru.practicum.service.account.AccountEventPublisher;
 import ru.practicum.service.account.AccountService;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -56,9 +69,39 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserMapper userMapper;
 
+    /**
+     * Публикация событий об изменении пользователей
+     */
+    @Autowired
+    private AccountEventPublisher accountEventPublisher;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    /**
+     * Оператор транзакций
+     */
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    /**
+     * Преобразователь JSON
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Максимальный размер страницы списка пользователей
+     */
+    @Value("${app.users.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Размер страницы, которой читается поток пользователей
+     */
+    @Value("${app.users.stream-page-size:500}")
+    private int streamPageSize;
+
     @Override
     @Transactional
     public Mono<User> registerUser(User user, String password) {
@@ -154,7 +197,6 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional
     public Mono<User> updateUser(UUID userId, User user) {
         return validateUserAge(user.getBirthDate())
                 .then(userRepository.findById(userId))
@@ -181,6 +223,8 @@ public class UserServiceImpl implements UserService {
                     return userRepository.save(updatedUserDao);
                 })
                 .flatMap(this::getUserWithRoles)
+                .as(transactionalOperator::transactional)
+                .flatMap(updatedUser -> accountEventPublisher.userUpdated(userId).thenReturn(updatedUser))
                 .doOnSuccess(updatedUser ->
                         log.info("Данные пользователя обновлены: {}", updatedUser.getUsername()));
     }
@@ -199,7 +243,6 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional
     public Mono<Void> deleteUser(UUID userId) {
         return accountService.getUserAccounts(userId)
                 .collectList()
@@ -213,8 +256,15 @@ public class UserServiceImpl implements UserService {
                                 ErrorReasons.DUPLICATE_ENTITY
                         ));
                     }
-                    return userRepository.deleteById(userId);
+                    return userRepository.deleteById(userId)
+                            .onErrorMap(DataIntegrityViolationException.class, e -> new ValidationException(
+                                    "Невозможно удалить пользователя со счетами, по которым были операции",
+                                    HttpStatus.CONFLICT,
+                                    ErrorReasons.CONDITIONS_NOT_MET
+                            ));
                 })
+                .as(transactionalOperator::transactional)
+                .then(Mono.defer(() -> accountEventPublisher.userDeleted(userId)))
                 .doOnSuccess(v -> log.info("Пользователь удален: {}", userId));
     }
 
@@ -307,37 +357,92 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public Flux<User> getAllUsers() {
-        log.info("Получение всех пользователей");
-        return userRepository.findAll()
-                .map(userMapper::userDaoToUser);
+    public Flux<User> getUsersPage(UserPageRequest request) {
+        if (request.getLimit() <= 0 || request.getLimit() > maxPageSize) {
+            return Flux.error(new ValidationException(
+                    "Размер страницы должен быть от 1 до " + maxPageSize,
+                    HttpStatus.BAD_REQUEST,
+                    ErrorReasons.VALIDATION_ERROR
+            ));
+        }
+        if ((request.getAfterCreatedAt() == null) != (request.getAfterId() == null)) {
+            return Flux.error(new ValidationException(
+                    "Курсор страницы задается датой создания и идентификатором пользователя вместе",
+                    HttpStatus.BAD_REQUEST,
+                    ErrorReasons.VALIDATION_ERROR
+            ));
+        }
+        log.info("Получение страницы пользователей: enabled={}, accountNonLocked={}, после {}",
+                request.getEnabled(), request.getAccountNonLocked(), request.getAfterId());
+        return fetchPage(request).flatMapIterable(page -> page);
     }
 
     @Override
-    public Flux<User> getUsersByStatus(boolean enabled) {
-        log.info("Получение пользователей по статусу активности: {}", enabled);
-        return userRepository.findByEnabled(enabled)
-                .map(userMapper::userDaoToUser);
+    public Flux<User> streamUsers(Boolean enabled, Boolean accountNonLocked) {
+        log.info("Потоковая выгрузка пользователей: enabled={}, accountNonLocked={}", enabled, accountNonLocked);
+        UserPageRequest firstPage = UserPageRequest.builder()
+                .enabled(enabled)
+                .accountNonLocked(accountNonLocked)
+                .limit(streamPageSize)
+                .build();
+
+        return fetchPage(firstPage)
+                .expand(page -> {
+                    if (page.size() < streamPageSize) {
+                        return Mono.empty();
+                    }
+                    User last = page.get(page.size() - 1);
+                    return fetchPage(firstPage.toBuilder()
+                            .afterCreatedAt(last.getCreatedAt())
+                            .afterId(last.getUuid())
+                            .build());
+                })
+                .concatMapIterable(page -> page);
     }
 
-    @Override
-    public Flux<User> getUsersByLockStatus(boolean locked) {
-        log.info("Получение пользователей по статусу блокировки: {}", locked);
-        return userRepository.findByAccountNonLocked(locked)
-                .map(userMapper::userDaoToUser);
+    private Mono<List<User>> fetchPage(UserPageRequest request) {
+        return userRepository.findPage(request.getEnabled(), request.getAccountNonLocked(),
+                        request.getAfterCreatedAt(), request.getAfterId(), request.getLimit())
+                .collectList()
+                .flatMap(this::withRoles);
+    }
+
+    private Mono<List<User>> withRoles(List<UserDao> userDaos) {
+        if (userDaos.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        UUID[] userIds = userDaos.stream().map(UserDao::getUuid).toArray(UUID[]::new);
+
+        return userRoleRepository.findRoleNamesByUserUuids(userIds)
+                .collectMultimap(UserRoleNameDao::getUserUuid, UserRoleNameDao::getName)
+                .map(rolesByUser -> userDaos.stream()
+                        .map(userDao -> {
+                            User user = userMapper.userDaoToUser(userDao);
+                            user.setRoles(new ArrayList<>(rolesByUser.getOrDefault(userDao.getUuid(), List.of())));
+                            return user;
+                        })
+                        .toList());
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Mono<UserWithAccounts> getUserWithAccountsByUuid(UUID userId) {
         log.info("Получение пользователя с его счетами по ID: {}", userId);
-        return getUserByUuid(userId)
-                .flatMap(user -> accountService.getUserAccounts(userId)
-                        .collectList()
-                        .map(accounts -> UserWithAccounts.builder()
-                                .user(user)
-                                .accounts(accounts)
-                                .build()));
+        return userRepository.findWithRolesAndAccountsByUuid(userId)
+                .switchIfEmpty(Mono.error(new NotFoundException("Пользователь", userId.toString())))
+                .flatMap(this::toUserWithAccounts);
+    }
+
+    private Mono<UserWithAccounts> toUserWithAccounts(UserWithAccountsDao dao) {
+        try {
+            List<Account> accounts = objectMapper.readValue(dao.getAccounts(), new TypeReference<>() {});
+            return Mono.just(UserWithAccounts.builder()
+                    .user(userMapper.userWithAccountsDaoToUser(dao))
+                    .accounts(accounts)
+                    .build());
+        } catch (JsonProcessingException e) {
+            return Mono.error(new IllegalStateException("Некорректный формат счетов пользователя " + dao.getUuid(), e));
+        }
     }
 
     public Mono<User> validateCredentials(String username, String password) {
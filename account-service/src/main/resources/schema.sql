@@ -19,6 +19,7 @@ CREATE TABLE IF NOT EXISTS users
 
 CREATE UNIQUE INDEX IF NOT EXISTS idx_users_username ON users (username);
 CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email ON users (email);
+CREATE INDEX IF NOT EXISTS idx_users_created_at_uuid ON users (created_at, user_uuid);
 -- Таблица ролей
 CREATE TABLE IF NOT EXISTS roles
 (
@@ -65,4 +66,55 @@ CREATE TABLE IF NOT EXISTS accounts
 
 -- CREATE UNIQUE INDEX idx_accounts_number ON accounts (account_number);
 CREATE INDEX IF NOT EXISTS idx_accounts_user_id ON accounts (user_id);
-CREATE INDEX IF NOT EXISTS idx_accounts_currency_id ON accounts (currency_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_accounts_currency_id ON accounts (currency_id);
+
+-- Журнал операций по счетам (только добавление)
+CREATE TABLE IF NOT EXISTS ledger_entries
+(
+    entry_id   BIGSERIAL PRIMARY KEY,
+    account_id UUID           NOT NULL REFERENCES accounts (account_uuid) ON DELETE RESTRICT,
+    amount     NUMERIC(15, 2) NOT NULL,
+    operation  VARCHAR(20)    NOT NULL,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_account_entry ON ledger_entries (account_id, entry_id);
+
+-- Снимки балансов, материализованные из журнала
+CREATE TABLE IF NOT EXISTS account_balance_snapshots
+(
+    account_id    UUID PRIMARY KEY REFERENCES accounts (account_uuid) ON DELETE CASCADE,
+    balance       NUMERIC(15, 2) NOT NULL,
+    last_entry_id BIGINT         NOT NULL,
+    created_at    TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Начальные остатки счетов, открытых до появления журнала
+INSERT INTO ledger_entries (account_id, amount, operation)
+SELECT a.account_uuid, a.balance, 'OPENING'
+FROM accounts a
+WHERE a.balance <> 0
+  AND NOT EXISTS (SELECT 1 FROM ledger_entries l WHERE l.account_id = a.account_uuid);
+
+
+-- Ключи идемпотентности изменяющих запросов
+CREATE TABLE IF NOT EXISTS idempotency_keys
+(
+    record_key VARCHAR(200) PRIMARY KEY,
+    status     VARCHAR(20) NOT NULL,
+    response   TEXT,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
+
+-- Итоги выполнения по ключам идемпотентности: пишутся в транзакции изменения и хранятся дольше ключей.
+-- REJECTED - ключ закрыт сверкой как невыполненный, изменение с этим ключом больше не применяется
+CREATE TABLE IF NOT EXISTS idempotency_outcomes
+(
+    record_key VARCHAR(200) PRIMARY KEY,
+    status     VARCHAR(20) NOT NULL,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_outcomes_created_at ON idempotency_outcomes (created_at);
@@ -4,9 +4,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import ru.practicum.dao.account.AccountDao;
+import ru.practicum.dao.account.AccountWithCurrencyDao;
+import ru.practicum.dao.account.LedgerEntryDao;
 import ru.practicum.dto.account.AccountRequestDto;
 import ru.practicum.dto.account.AccountResponseDto;
+import ru.practicum.dto.account.BalanceUpdateResultDto;
+import ru.practicum.dto.account.LedgerEntryDto;
 import ru.practicum.model.account.Account;
+import ru.practicum.model.account.BalanceUpdateResult;
+import ru.practicum.model.account.BalanceUpdateStatus;
+import ru.practicum.model.account.LedgerEntry;
+import ru.practicum.model.account.LedgerOperationType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -130,4 +138,74 @@ class AccountMapperTest {
         assertEquals(updatedAt, account.getUpdatedAt());
         assertNull(account.getCurrencyCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void accountWithCurrencyDaoToAccount_shouldMapCorrectly() {
+        UUID id = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        BigDecimal balance = BigDecimal.valueOf(100.50);
+        LocalDateTime createdAt = LocalDateTime.now();
+        LocalDateTime updatedAt = LocalDateTime.now();
+
+        AccountWithCurrencyDao dao = AccountWithCurrencyDao.builder()
+                .id(id)
+                .userId(userId)
+                .currencyId(UUID.randomUUID())
+                .currencyCode("EUR")
+                .balance(balance)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+
+        Account account = accountMapper.accountWithCurrencyDaoToAccount(dao);
+
+        assertNotNull(account);
+        assertEquals(id, account.getId());
+        assertEquals(userId, account.getUserId());
+        assertEquals("EUR", account.getCurrencyCode());
+        assertEquals(balance, account.getBalance());
+        assertEquals(createdAt, account.getCreatedAt());
+        assertEquals(updatedAt, account.getUpdatedAt());
+    }
+
+    @Test
+    void balanceUpdateResultToDto_shouldMapCorrectly() {
+        UUID accountId = UUID.randomUUID();
+        BalanceUpdateResult result = BalanceUpdateResult.builder()
+                .index(3)
+                .accountId(accountId)
+                .status(BalanceUpdateStatus.APPLIED)
+                .balance(BigDecimal.TEN)
+                .build();
+
+        BalanceUpdateResultDto dto = accountMapper.balanceUpdateResultToDto(result);
+
+        assertNotNull(dto);
+        assertEquals(3, dto.getIndex());
+        assertEquals(accountId, dto.getAccountId());
+        assertEquals(BalanceUpdateStatus.APPLIED, dto.getStatus());
+        assertEquals(BigDecimal.TEN, dto.getBalance());
+    }
+
+    @Test
+    void ledgerEntryDaoToLedgerEntry_shouldMapOperationType() {
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        LedgerEntryDao dao = LedgerEntryDao.builder()
+                .id(42L)
+                .accountId(accountId)
+                .amount(new BigDecimal("-15.50"))
+                .operation("TRANSFER_OUT")
+                .createdAt(now)
+                .build();
+
+        LedgerEntry entry = accountMapper.ledgerEntryDaoToLedgerEntry(dao);
+        LedgerEntryDto dto = accountMapper.ledgerEntryToDto(entry);
+
+        assertEquals(42L, dto.getId());
+        assertEquals(accountId, dto.getAccountId());
+        assertEquals(new BigDecimal("-15.50"), dto.getAmount());
+        assertEquals(LedgerOperationType.TRANSFER_OUT, dto.getOperation());
+        assertEquals(now, dto.getCreatedAt());
+    }
+}
@@ -3,12 +3,14 @@ package ru.practicum.mapper.user;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import ru.practicum.dao.user.UserDao;
+import ru.practicum.dao.user.UserWithAccountsDao;
 import ru.practicum.dto.user.PasswordChangeDto;
 import ru.practicum.dto.user.SignUpRequestDto;
 import ru.practicum.dto.user.UserResponseDto;
 import ru.practicum.model.user.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -164,4 +166,28 @@ class UserMapperTest {
 
         assertNull(user);
     }
-}
\ No newline at end of file
+
+    @Test
+    void userWithAccountsDaoToUser_shouldMapUserAndRoles() {
+        UserWithAccountsDao dao = UserWithAccountsDao.builder()
+                .uuid(USER_ID)
+                .username("john")
+                .email("john@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .enabled(true)
+                .accountNonLocked(true)
+                .roles(new String[]{"ROLE_USER"})
+                .accounts("[]")
+                .build();
+
+        User user = userMapper.userWithAccountsDaoToUser(dao);
+
+        assertNotNull(user);
+        assertEquals(USER_ID, user.getUuid());
+        assertEquals("john", user.getUsername());
+        assertEquals("john@example.com", user.getEmail());
+        assertEquals(List.of("ROLE_USER"), user.getRoles());
+        assertNull(user.getPasswordHash());
+    }
+}
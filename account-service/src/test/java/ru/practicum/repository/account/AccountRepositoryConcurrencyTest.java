@@ -0,0 +1,126 @@
+package ru.practicum.repository.account;
+
+import io.r2dbc.pool.ConnectionPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import ru.practicum.PostgresTestDatabase;
+import ru.practicum.dao.account.BalanceUpdateResultDao;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class AccountRepositoryConcurrencyTest {
+
+    private static final int CONCURRENCY = 32;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(PostgresTestDatabase.IMAGE);
+
+    private static ConnectionPool pool;
+    private static DatabaseClient databaseClient;
+    private static AccountRepository accountRepository;
+
+    private UUID accountId;
+
+    @BeforeAll
+    static void connect() {
+        pool = PostgresTestDatabase.connect(POSTGRES, CONCURRENCY);
+        databaseClient = DatabaseClient.create(pool);
+        accountRepository = PostgresTestDatabase.repository(pool, AccountRepository.class);
+    }
+
+    @AfterAll
+    static void close() {
+        pool.dispose();
+    }
+
+    @BeforeEach
+    void createAccount() {
+        UUID userId = UUID.randomUUID();
+        accountId = UUID.randomUUID();
+        databaseClient.sql("INSERT INTO currencies (code, name) VALUES ('RUB', 'Рубль') ON CONFLICT DO NOTHING")
+                .then().block();
+        databaseClient.sql("INSERT INTO users (user_uuid, username, password_hash, first_name, last_name, email, birth_date) " +
+                        "VALUES (:userId, :username, 'hash', 'Иван', 'Иванов', :email, DATE '1990-01-01')")
+                .bind("userId", userId)
+                .bind("username", "user-" + userId)
+                .bind("email", userId + "@test.ru")
+                .then().block();
+        databaseClient.sql("INSERT INTO accounts (account_uuid, user_id, currency_id, balance) " +
+                        "SELECT :accountId, :userId, currency_uuid, 0 FROM currencies WHERE code = 'RUB'")
+                .bind("accountId", accountId)
+                .bind("userId", userId)
+                .then().block();
+    }
+
+    @Test
+    void updateBalanceIfSufficient_ConcurrentDepositsAndWithdrawals_NoLostUpdate() {
+        accountRepository.updateBalanceIfSufficient(accountId, new BigDecimal("1000.00")).block();
+
+        List<BigDecimal> deltas = Flux.range(0, 400)
+                .map(i -> i % 2 == 0 ? new BigDecimal("3.00") : new BigDecimal("-2.00"))
+                .collectList()
+                .block();
+
+        List<BalanceUpdateResultDao> results = Flux.fromIterable(deltas)
+                .flatMap(delta -> accountRepository.updateBalanceIfSufficient(accountId, delta), CONCURRENCY)
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(400).allMatch(BalanceUpdateResultDao::isApplied);
+        assertThat(balance()).isEqualByComparingTo("1200.00");
+        assertThat(ledgerSum()).isEqualByComparingTo("1200.00");
+    }
+
+    @Test
+    void updateBalanceIfSufficient_ConcurrentWithdrawals_NeverOverdraws() {
+        accountRepository.updateBalanceIfSufficient(accountId, new BigDecimal("1000.00")).block();
+
+        List<BalanceUpdateResultDao> results = Flux.range(0, 150)
+                .flatMap(i -> accountRepository.updateBalanceIfSufficient(accountId, new BigDecimal("-10.00")), CONCURRENCY)
+                .collectList()
+                .block();
+
+        assertThat(results).allMatch(BalanceUpdateResultDao::isFound);
+        assertThat(results).filteredOn(BalanceUpdateResultDao::isApplied).hasSize(100);
+        assertThat(results).filteredOn(BalanceUpdateResultDao::isApplied)
+                .allMatch(result -> result.getBalance().signum() >= 0);
+        assertThat(balance()).isEqualByComparingTo("0.00");
+        assertThat(ledgerSum()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void updateBalanceIfSufficient_UnknownAccount_NotFound() {
+        BalanceUpdateResultDao result = accountRepository.updateBalanceIfSufficient(UUID.randomUUID(), BigDecimal.TEN).block();
+
+        assertThat(result.isFound()).isFalse();
+        assertThat(result.isApplied()).isFalse();
+    }
+
+    private BigDecimal balance() {
+        return databaseClient.sql("SELECT balance FROM accounts WHERE account_uuid = :accountId")
+                .bind("accountId", accountId)
+                .map(row -> row.get("balance", BigDecimal.class))
+                .one()
+                .block();
+    }
+
+    private BigDecimal ledgerSum() {
+        return databaseClient.sql("SELECT COALESCE(SUM(amount), 0) AS total FROM ledger_entries WHERE account_id = :accountId")
+                .bind("accountId", accountId)
+                .map(row -> row.get("total", BigDecimal.class))
+                .one()
+                .block();
+    }
+}
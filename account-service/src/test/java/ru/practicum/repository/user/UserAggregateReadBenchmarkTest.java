@@ -0,0 +1,119 @@
+package ru.practicum.repository.user;
+
+import io.r2dbc.pool.ConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.PostgresTestDatabase;
+import ru.practicum.dao.currency.CurrencyDao;
+import ru.practicum.dao.user.UserWithAccountsDao;
+import ru.practicum.repository.account.AccountRepository;
+import ru.practicum.repository.currency.CurrencyRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение чтения агрегата пользователя одним запросом с прежней схемой 3+N запросов
+ * (пользователь, роли, счета и валюта каждого счета)
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+class UserAggregateReadBenchmarkTest {
+
+    private static final List<String> CURRENCIES = List.of("RUB", "USD", "EUR", "CNY", "GBP");
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(PostgresTestDatabase.IMAGE);
+
+    private static ConnectionPool pool;
+    private static UserRepository userRepository;
+    private static UserRoleRepository userRoleRepository;
+    private static AccountRepository accountRepository;
+    private static CurrencyRepository currencyRepository;
+    private static UUID userId;
+
+    @BeforeAll
+    static void seed() {
+        pool = PostgresTestDatabase.connect(POSTGRES, 4);
+        userRepository = PostgresTestDatabase.repository(pool, UserRepository.class);
+        userRoleRepository = PostgresTestDatabase.repository(pool, UserRoleRepository.class);
+        accountRepository = PostgresTestDatabase.repository(pool, AccountRepository.class);
+        currencyRepository = PostgresTestDatabase.repository(pool, CurrencyRepository.class);
+
+        DatabaseClient databaseClient = DatabaseClient.create(pool);
+        userId = UUID.randomUUID();
+        databaseClient.sql("INSERT INTO users (user_uuid, username, password_hash, first_name, last_name, email, birth_date) " +
+                        "VALUES (:userId, 'bench', 'hash', 'Иван', 'Иванов', 'bench@test.ru', DATE '1990-01-01')")
+                .bind("userId", userId)
+                .then().block();
+        databaseClient.sql("INSERT INTO roles (name) VALUES ('USER'), ('ADMIN')").then().block();
+        databaseClient.sql("INSERT INTO user_roles (user_uuid, role_uuid) SELECT :userId, role_uuid FROM roles")
+                .bind("userId", userId)
+                .then().block();
+        for (String code : CURRENCIES) {
+            databaseClient.sql("INSERT INTO currencies (code, name) VALUES (:code, :code)")
+                    .bind("code", code)
+                    .then().block();
+        }
+        databaseClient.sql("INSERT INTO accounts (user_id, currency_id, balance) SELECT :userId, currency_uuid, 100 FROM currencies")
+                .bind("userId", userId)
+                .then().block();
+    }
+
+    @AfterAll
+    static void close() {
+        pool.dispose();
+    }
+
+    @Test
+    void aggregateQuery_ReturnsSameDataAsFanOut_AndReportsTimings() {
+        UserWithAccountsDao aggregate = userRepository.findWithRolesAndAccountsByUuid(userId).block();
+        FanOutResult fanOut = readFanOut().block();
+
+        assertThat(aggregate).isNotNull();
+        assertThat(aggregate.getRoles()).containsExactlyInAnyOrderElementsOf(fanOut.roles());
+        for (String code : fanOut.currencyCodes()) {
+            assertThat(aggregate.getAccounts()).contains("\"" + code + "\"");
+        }
+
+        long fanOutNanos = measure(this::readFanOut);
+        long aggregateNanos = measure(() -> userRepository.findWithRolesAndAccountsByUuid(userId));
+
+        log.info("Чтение пользователя с {} счетами, {} итераций: 3+N запросов - {} мкс/запрос, один запрос - {} мкс/запрос",
+                CURRENCIES.size(), ITERATIONS, fanOutNanos / ITERATIONS / 1000, aggregateNanos / ITERATIONS / 1000);
+    }
+
+    private Mono<FanOutResult> readFanOut() {
+        return userRepository.findById(userId)
+                .flatMap(user -> Mono.zip(
+                        userRoleRepository.findRoleNamesByUserUuid(user.getUuid()).collectList(),
+                        accountRepository.findByUserId(user.getUuid())
+                                .concatMap(account -> currencyRepository.findById(account.getCurrencyId()))
+                                .map(CurrencyDao::getCode)
+                                .collectList()))
+                .map(tuple -> new FanOutResult(tuple.getT1(), tuple.getT2()));
+    }
+
+    private long measure(Supplier<Mono<?>> read) {
+        Flux.range(0, WARMUP).concatMap(i -> read.get()).blockLast();
+        long start = System.nanoTime();
+        Flux.range(0, ITERATIONS).concatMap(i -> read.get()).blockLast();
+        return System.nanoTime() - start;
+    }
+
+    private record FanOutResult(List<String> roles, List<String> currencyCodes) {
+    }
+}
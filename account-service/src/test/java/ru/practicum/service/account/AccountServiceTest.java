@@ -0,0 +1,498 @@
+package ru.practicum.service.account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.dao.account.AccountDao;
+import ru.practicum.dao.account.AccountWithCurrencyDao;
+import ru.practicum.dao.account.BalanceUpdateResultDao;
+import ru.practicum.dao.account.RecipientAccountDao;
+import ru.practicum.dao.account.TransferResultDao;
+import ru.practicum.dto.account.BalanceUpdateRequestDto;
+import ru.practicum.dto.account.RecipientLookupRequestDto;
+import ru.practicum.dto.account.TransferDto;
+import ru.practicum.exception.ErrorReasons;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.mapper.account.AccountMapper;
+import ru.practicum.model.account.Account;
+import ru.practicum.model.account.BalanceUpdateOutcome;
+import ru.practicum.model.account.BalanceUpdateOutcomeStatus;
+import ru.practicum.model.account.BalanceUpdateResult;
+import ru.practicum.model.account.BalanceUpdateStatus;
+import ru.practicum.model.account.RecipientAccount;
+import ru.practicum.repository.account.AccountRepository;
+import ru.practicum.service.currency.CurrencyService;
+import ru.practicum.service.idempotency.IdempotencyService;
+import ru.practicum.service.user.UserService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountMapper accountMapper;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private BalanceUpdateCoalescer balanceUpdateCoalescer;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private AccountEventPublisher accountEventPublisher;
+
+    @InjectMocks
+    private AccountServiceImpl accountService;
+
+    private final UUID accountId = UUID.fromString("223e4567-e89b-12d3-a456-426614174000");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(accountService, "batchMaxSize", 100);
+    }
+
+    private BalanceUpdateRequestDto balanceRequest(String amount, boolean isDeposit) {
+        return BalanceUpdateRequestDto.builder()
+                .accountId(accountId)
+                .amount(new BigDecimal(amount))
+                .isDeposit(isDeposit)
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteAccount_ZeroBalance_EventPublishedAfterCommit() {
+        UUID userId = UUID.randomUUID();
+        List<String> events = new ArrayList<>();
+        when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> ((Mono<Object>) invocation.getArgument(0)).doOnSuccess(v -> events.add("commit")));
+        when(accountRepository.findById(accountId)).thenReturn(Mono.just(AccountDao.builder()
+                .id(accountId)
+                .userId(userId)
+                .balance(BigDecimal.ZERO)
+                .build()));
+        when(accountRepository.deleteById(accountId)).thenReturn(Mono.empty());
+        when(accountEventPublisher.accountDeleted(accountId, userId))
+                .thenReturn(Mono.fromRunnable(() -> events.add("accountDeleted")));
+
+        StepVerifier.create(accountService.deleteAccount(accountId))
+                .verifyComplete();
+
+        assertEquals(List.of("commit", "accountDeleted"), events);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteAccount_NonZeroBalance_NoEvent() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.findById(accountId)).thenReturn(Mono.just(AccountDao.builder()
+                .id(accountId)
+                .userId(UUID.randomUUID())
+                .balance(BigDecimal.TEN)
+                .build()));
+
+        StepVerifier.create(accountService.deleteAccount(accountId))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(accountRepository, never()).deleteById(any(UUID.class));
+        verify(accountEventPublisher, never()).accountDeleted(any(), any());
+    }
+
+    @Test
+    void checkAndUpdateBalance_Deposit_UsesSingleGuardedUpdate() {
+        when(accountRepository.updateBalanceIfSufficient(accountId, new BigDecimal("100.00")))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(true, true, new BigDecimal("150.00"))));
+
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("100.00", true), null))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(accountRepository, never()).findById(any(UUID.class));
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void checkAndUpdateBalance_Withdraw_PassesNegativeDelta() {
+        when(accountRepository.updateBalanceIfSufficient(accountId, new BigDecimal("-30.00")))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(true, true, new BigDecimal("20.00"))));
+
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("30.00", false), null))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkAndUpdateBalance_WithRecordKey_StoresResponseInUpdateTransaction() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.updateBalanceIfSufficient(accountId, new BigDecimal("-30.00")))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(true, true, new BigDecimal("20.00"))));
+        when(idempotencyService.completeReserved(List.of("balance:op-1"), true)).thenReturn(Mono.empty());
+
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("30.00", false), "balance:op-1"))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(transactionalOperator).transactional(any(Mono.class));
+        verify(idempotencyService).completeReserved(List.of("balance:op-1"), true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkAndUpdateBalance_WithRecordKeyNotApplied_DoesNotStoreResponse() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.updateBalanceIfSufficient(eq(accountId), any(BigDecimal.class)))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(true, false, null)));
+
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("500.00", false), "balance:op-2"))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(idempotencyService, never()).completeReserved(any(), any());
+    }
+
+    @Test
+    void checkAndUpdateBalance_InsufficientFunds_ReturnsValidationError() {
+        when(accountRepository.updateBalanceIfSufficient(eq(accountId), any(BigDecimal.class)))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(true, false, null)));
+
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("500.00", false), null))
+                .expectErrorMatches(e -> e instanceof ValidationException
+                        && ErrorReasons.INSUFFICIENT_FUNDS.equals(((ValidationException) e).getErrorCode()))
+                .verify();
+    }
+
+    @Test
+    void checkAndUpdateBalance_AccountNotFound_ReturnsNotFound() {
+        when(accountRepository.updateBalanceIfSufficient(eq(accountId), any(BigDecimal.class)))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(false, false, null)));
+
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("10.00", true), null))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void checkAndUpdateBalance_HotAccount_GoesThroughCoalescer() {
+        when(balanceUpdateCoalescer.isHot(accountId)).thenReturn(true);
+        when(balanceUpdateCoalescer.submit(accountId, new BigDecimal("100.00"), null))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(true, true, new BigDecimal("600.00"))));
+
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("100.00", true), null))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(accountRepository, never()).updateBalanceIfSufficient(any(), any());
+    }
+
+    @Test
+    void checkAndUpdateBalance_NonPositiveAmount_ReturnsValidationError() {
+        StepVerifier.create(accountService.checkAndUpdateBalance(balanceRequest("0", true), null))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(accountRepository, never()).updateBalanceIfSufficient(any(), any());
+    }
+
+    private TransferDto transferDto(UUID fromAccountId, UUID toAccountId) {
+        return TransferDto.builder()
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal("100.00"))
+                .convertedAmount(new BigDecimal("1.10"))
+                .build();
+    }
+
+    @Test
+    void transferBetweenAccounts_Success_UsesSingleStatement() {
+        UUID toAccountId = UUID.randomUUID();
+        when(accountRepository.transfer(accountId, toAccountId, new BigDecimal("100.00"), new BigDecimal("1.10")))
+                .thenReturn(Mono.just(new TransferResultDao(true, true, true)));
+
+        StepVerifier.create(accountService.transferBetweenAccounts(transferDto(accountId, toAccountId)))
+                .verifyComplete();
+
+        verify(accountRepository, never()).findById(any(UUID.class));
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void transferBetweenAccounts_InsufficientFunds_ReturnsValidationError() {
+        UUID toAccountId = UUID.randomUUID();
+        when(accountRepository.transfer(eq(accountId), eq(toAccountId), any(BigDecimal.class), any(BigDecimal.class)))
+                .thenReturn(Mono.just(new TransferResultDao(true, true, false)));
+
+        StepVerifier.create(accountService.transferBetweenAccounts(transferDto(accountId, toAccountId)))
+                .expectErrorMatches(e -> e instanceof ValidationException
+                        && ErrorReasons.INSUFFICIENT_FUNDS.equals(((ValidationException) e).getErrorCode()))
+                .verify();
+    }
+
+    @Test
+    void transferBetweenAccounts_RecipientNotFound_ReturnsNotFound() {
+        UUID toAccountId = UUID.randomUUID();
+        when(accountRepository.transfer(eq(accountId), eq(toAccountId), any(BigDecimal.class), any(BigDecimal.class)))
+                .thenReturn(Mono.just(new TransferResultDao(true, false, false)));
+
+        StepVerifier.create(accountService.transferBetweenAccounts(transferDto(accountId, toAccountId)))
+                .expectErrorMatches(e -> e instanceof NotFoundException && e.getMessage().contains(toAccountId.toString()))
+                .verify();
+    }
+
+    @Test
+    void transferBetweenAccounts_SameAccount_ReturnsValidationError() {
+        StepVerifier.create(accountService.transferBetweenAccounts(transferDto(accountId, accountId)))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(accountRepository, never()).transfer(any(), any(), any(), any());
+    }
+
+    @Test
+    void getUserAccounts_UsesProjectionWithoutCurrencyLookups() {
+        UUID userId = UUID.randomUUID();
+        AccountWithCurrencyDao usd = AccountWithCurrencyDao.builder().id(UUID.randomUUID()).userId(userId).currencyCode("USD").build();
+        AccountWithCurrencyDao eur = AccountWithCurrencyDao.builder().id(UUID.randomUUID()).userId(userId).currencyCode("EUR").build();
+        Account usdAccount = Account.builder().id(usd.getId()).userId(userId).currencyCode("USD").build();
+        Account eurAccount = Account.builder().id(eur.getId()).userId(userId).currencyCode("EUR").build();
+
+        when(accountRepository.findWithCurrencyByUserId(userId)).thenReturn(Flux.just(usd, eur));
+        when(accountMapper.accountWithCurrencyDaoToAccount(usd)).thenReturn(usdAccount);
+        when(accountMapper.accountWithCurrencyDaoToAccount(eur)).thenReturn(eurAccount);
+
+        StepVerifier.create(accountService.getUserAccounts(userId))
+                .expectNext(usdAccount, eurAccount)
+                .verifyComplete();
+
+        verify(currencyService, never()).getCurrencyById(any());
+    }
+
+    @Test
+    void getAccountById_UsesProjection() {
+        AccountWithCurrencyDao dao = AccountWithCurrencyDao.builder().id(accountId).currencyCode("RUB").build();
+        Account account = Account.builder().id(accountId).currencyCode("RUB").build();
+
+        when(accountRepository.findWithCurrencyById(accountId)).thenReturn(Mono.just(dao));
+        when(accountMapper.accountWithCurrencyDaoToAccount(dao)).thenReturn(account);
+
+        StepVerifier.create(accountService.getAccountById(accountId))
+                .expectNext(account)
+                .verifyComplete();
+
+        verify(currencyService, never()).getCurrencyById(any());
+    }
+
+    @Test
+    void getAccountById_NotFound_ReturnsNotFound() {
+        when(accountRepository.findWithCurrencyById(accountId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(accountService.getAccountById(accountId))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    private void givenNoRecordedOutcomes() {
+        when(idempotencyService.findRecordedOutcomes(eq(AccountService.BALANCE_UPDATE_OPERATION), any()))
+                .thenReturn(Mono.just(Map.of()));
+    }
+
+    @Test
+    void checkAndUpdateBalances_AppliesItemsInOrderWithOneMultiRowUpdate() {
+        givenNoRecordedOutcomes();
+        UUID otherAccountId = UUID.fromString("323e4567-e89b-12d3-a456-426614174000");
+        UUID missingAccountId = UUID.randomUUID();
+        List<BalanceUpdateRequestDto> requests = List.of(
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("50.00")).isDeposit(false).build(),
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("80.00")).isDeposit(false).build(),
+                BalanceUpdateRequestDto.builder().accountId(otherAccountId).amount(new BigDecimal("25.00")).isDeposit(true).build(),
+                BalanceUpdateRequestDto.builder().accountId(missingAccountId).amount(new BigDecimal("1.00")).isDeposit(true).build(),
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(BigDecimal.ZERO).isDeposit(true).build(),
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("30.00")).isDeposit(true).build()
+        );
+
+        when(accountRepository.findAllByIdForUpdate(any(UUID[].class))).thenReturn(Flux.just(
+                AccountDao.builder().id(accountId).balance(new BigDecimal("100.00")).build(),
+                AccountDao.builder().id(otherAccountId).balance(new BigDecimal("10.00")).build()));
+        when(accountRepository.addToBalances(any(UUID[].class), any(BigDecimal[].class))).thenReturn(Mono.just(2));
+
+        StepVerifier.create(accountService.checkAndUpdateBalances(requests).map(BalanceUpdateResult::getStatus))
+                .expectNext(BalanceUpdateStatus.APPLIED,
+                        BalanceUpdateStatus.INSUFFICIENT_FUNDS,
+                        BalanceUpdateStatus.APPLIED,
+                        BalanceUpdateStatus.NOT_FOUND,
+                        BalanceUpdateStatus.INVALID_REQUEST,
+                        BalanceUpdateStatus.APPLIED)
+                .verifyComplete();
+
+        // Каждая примененная операция передается отдельно, чтобы попасть в журнал своей записью
+        verify(accountRepository).addToBalances(
+                argThat(ids -> {
+                    assertArrayEquals(new UUID[]{accountId, otherAccountId, accountId}, ids);
+                    return true;
+                }),
+                argThat(deltas -> {
+                    assertArrayEquals(new BigDecimal[]{new BigDecimal("-50.00"), new BigDecimal("25.00"),
+                            new BigDecimal("30.00")}, deltas);
+                    return true;
+                }));
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void checkAndUpdateBalances_RecordsIdempotencyKeysOfAppliedItems() {
+        givenNoRecordedOutcomes();
+        List<BalanceUpdateRequestDto> requests = List.of(
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("50.00"))
+                        .isDeposit(true).idempotencyKey("op-1").build(),
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("500.00"))
+                        .isDeposit(false).idempotencyKey("op-2").build());
+
+        when(accountRepository.findAllByIdForUpdate(any(UUID[].class))).thenReturn(Flux.just(
+                AccountDao.builder().id(accountId).balance(new BigDecimal("100.00")).build()));
+        when(accountRepository.addToBalances(any(UUID[].class), any(BigDecimal[].class))).thenReturn(Mono.just(1));
+        when(idempotencyService.recordCompleted(AccountService.BALANCE_UPDATE_OPERATION, List.of("op-1"), true))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(accountService.checkAndUpdateBalances(requests).map(BalanceUpdateResult::getStatus))
+                .expectNext(BalanceUpdateStatus.APPLIED, BalanceUpdateStatus.INSUFFICIENT_FUNDS)
+                .verifyComplete();
+
+        verify(idempotencyService).recordCompleted(AccountService.BALANCE_UPDATE_OPERATION, List.of("op-1"), true);
+    }
+
+    @Test
+    void checkAndUpdateBalances_KeysWithOutcome_SkippedWithoutFailingOtherItems() {
+        List<BalanceUpdateRequestDto> requests = List.of(
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("10.00"))
+                        .isDeposit(true).idempotencyKey("op-applied").build(),
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("20.00"))
+                        .isDeposit(true).idempotencyKey("op-rejected").build(),
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("30.00"))
+                        .isDeposit(true).idempotencyKey("op-new").build(),
+                BalanceUpdateRequestDto.builder().accountId(accountId).amount(new BigDecimal("40.00"))
+                        .isDeposit(true).idempotencyKey("op-new").build());
+
+        when(accountRepository.findAllByIdForUpdate(any(UUID[].class))).thenReturn(Flux.just(
+                AccountDao.builder().id(accountId).balance(new BigDecimal("100.00")).build()));
+        when(idempotencyService.findRecordedOutcomes(AccountService.BALANCE_UPDATE_OPERATION,
+                List.of("op-applied", "op-rejected", "op-new", "op-new")))
+                .thenReturn(Mono.just(Map.of(
+                        "op-applied", IdempotencyService.OUTCOME_APPLIED,
+                        "op-rejected", IdempotencyService.OUTCOME_REJECTED)));
+        when(accountRepository.addToBalances(any(UUID[].class), any(BigDecimal[].class))).thenReturn(Mono.just(1));
+        when(idempotencyService.recordCompleted(AccountService.BALANCE_UPDATE_OPERATION, List.of("op-new"), true))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(accountService.checkAndUpdateBalances(requests).map(BalanceUpdateResult::getStatus))
+                .expectNext(BalanceUpdateStatus.APPLIED,
+                        BalanceUpdateStatus.REJECTED,
+                        BalanceUpdateStatus.APPLIED,
+                        BalanceUpdateStatus.INVALID_REQUEST)
+                .verifyComplete();
+
+        // Повтор выполненного ключа не применяется второй раз
+        verify(accountRepository).addToBalances(
+                argThat(ids -> {
+                    assertArrayEquals(new UUID[]{accountId}, ids);
+                    return true;
+                }),
+                argThat(deltas -> {
+                    assertArrayEquals(new BigDecimal[]{new BigDecimal("30.00")}, deltas);
+                    return true;
+                }));
+        verify(idempotencyService).recordCompleted(AccountService.BALANCE_UPDATE_OPERATION, List.of("op-new"), true);
+    }
+
+    @Test
+    void checkAndUpdateBalances_NothingApplied_SkipsUpdate() {
+        givenNoRecordedOutcomes();
+        when(accountRepository.findAllByIdForUpdate(any(UUID[].class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(accountService.checkAndUpdateBalances(List.of(balanceRequest("10.00", true))))
+                .expectNextMatches(result -> result.getStatus() == BalanceUpdateStatus.NOT_FOUND && result.getIndex() == 0)
+                .verifyComplete();
+
+        verify(accountRepository, never()).addToBalances(any(), any());
+    }
+
+    @Test
+    void checkAndUpdateBalances_EmptyBatch_ReturnsValidationError() {
+        StepVerifier.create(accountService.checkAndUpdateBalances(List.of()))
+                .expectError(ValidationException.class)
+                .verify();
+    }
+
+    @Test
+    void findRecipientAccounts_LooksUpAllPairsWithOneQuery() {
+        List<RecipientLookupRequestDto> requests = List.of(
+                RecipientLookupRequestDto.builder().email("a@test.ru").currencyCode("RUB").build(),
+                RecipientLookupRequestDto.builder().email("b@test.ru").currencyCode("USD").build());
+        RecipientAccountDao dao = RecipientAccountDao.builder().email("a@test.ru").id(accountId).currencyCode("RUB").build();
+        RecipientAccount recipient = RecipientAccount.builder().email("a@test.ru").id(accountId).currencyCode("RUB").build();
+
+        when(accountRepository.findRecipientAccounts(new String[]{"a@test.ru", "b@test.ru"}, new String[]{"RUB", "USD"}))
+                .thenReturn(Flux.just(dao));
+        when(accountMapper.recipientAccountDaoToRecipientAccount(dao)).thenReturn(recipient);
+
+        StepVerifier.create(accountService.findRecipientAccounts(requests))
+                .expectNext(recipient)
+                .verifyComplete();
+    }
+
+    @Test
+    void findRecipientAccounts_EmptyBatch_ReturnsValidationError() {
+        StepVerifier.create(accountService.findRecipientAccounts(List.of()))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(accountRepository, never()).findRecipientAccounts(any(), any());
+    }
+
+    @Test
+    void getBalanceUpdateOutcomes_MapsIdempotencyOutcomes() {
+        when(idempotencyService.getOutcomes(AccountService.BALANCE_UPDATE_OPERATION, List.of("a", "b", "c")))
+                .thenReturn(Mono.just(Map.of("a", "APPLIED", "b", "IN_PROGRESS", "c", "REJECTED")));
+
+        StepVerifier.create(accountService.getBalanceUpdateOutcomes(List.of("a", "b", "c"))
+                        .map(BalanceUpdateOutcome::getStatus))
+                .expectNext(BalanceUpdateOutcomeStatus.APPLIED, BalanceUpdateOutcomeStatus.IN_PROGRESS,
+                        BalanceUpdateOutcomeStatus.NOT_APPLIED)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,263 @@
+package ru.practicum.service.account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import ru.practicum.config.CoalescingConfig;
+import ru.practicum.dao.account.BalanceUpdateResultDao;
+import ru.practicum.exception.ErrorReasons;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.repository.account.AccountRepository;
+import ru.practicum.service.idempotency.IdempotencyService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceUpdateCoalescerTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private final UUID hotAccountId = UUID.fromString("323e4567-e89b-12d3-a456-426614174000");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BalanceUpdateCoalescer coalescer;
+
+    private final AtomicReference<BigDecimal> balance = new AtomicReference<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        CoalescingConfig config = new CoalescingConfig();
+        config.setEnabled(true);
+        config.setAccounts(Set.of(hotAccountId));
+        config.setWindow(Duration.ofMillis(20));
+        config.setMaxBatchSize(256);
+        coalescer = new BalanceUpdateCoalescer(accountRepository, config, idempotencyService, transactionalOperator,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    /**
+     * Эмуляция условных UPDATE: одиночное изменение применяется, только если баланс не станет отрицательным,
+     * пакет - только если баланс покрывает наибольшее промежуточное списание
+     */
+    private void emulateGuardedUpdate(String initialBalance, Duration latency) {
+        balance.set(new BigDecimal(initialBalance));
+        lenient().when(accountRepository.updateBalanceIfSufficient(eq(hotAccountId), any())).thenAnswer(invocation ->
+                statement(latency, invocation.getArgument(1), BigDecimal.ZERO.max(((BigDecimal) invocation.getArgument(1)).negate())));
+        lenient().when(accountRepository.applyDeltasIfCovered(eq(hotAccountId), any(), any())).thenAnswer(invocation ->
+                statement(latency, Arrays.stream((BigDecimal[]) invocation.getArgument(1)).reduce(BigDecimal.ZERO, BigDecimal::add),
+                        invocation.getArgument(2)));
+    }
+
+    private void emulateGuardedUpdate(String initialBalance) {
+        emulateGuardedUpdate(initialBalance, Duration.ZERO);
+    }
+
+    private Mono<BalanceUpdateResultDao> statement(Duration latency, BigDecimal delta, BigDecimal required) {
+        return Mono.delay(latency).map(tick -> {
+            synchronized (balance) {
+                statements.incrementAndGet();
+                if (balance.get().compareTo(required) < 0) {
+                    return new BalanceUpdateResultDao(true, false, null);
+                }
+                BigDecimal updated = balance.get().add(delta);
+                balance.set(updated);
+                return new BalanceUpdateResultDao(true, true, updated);
+            }
+        });
+    }
+
+    @Test
+    void isHot_OnlyConfiguredAccounts() {
+        assertTrue(coalescer.isHot(hotAccountId));
+        assertFalse(coalescer.isHot(UUID.randomUUID()));
+    }
+
+    @Test
+    void submit_ConcurrentDeposits_AppliedWithFewerStatements() {
+        emulateGuardedUpdate("0.00");
+
+        StepVerifier.create(Flux.range(0, 200)
+                        .flatMap(i -> coalescer.submit(hotAccountId, new BigDecimal("10.00"), null)
+                                .subscribeOn(Schedulers.parallel()), 200)
+                        .filter(BalanceUpdateResultDao::isApplied)
+                        .count())
+                .expectNext(200L)
+                .verifyComplete();
+
+        assertEquals(0, new BigDecimal("2000.00").compareTo(balance.get()));
+        assertTrue(statements.get() < 200, "ожидалось объединение, выполнено запросов: " + statements.get());
+        assertEquals(200.0, meterRegistry.counter("account.coalescing.operations").count());
+        assertEquals(0.0, meterRegistry.get("account.coalescing.queue.depth").gauge().value());
+    }
+
+    @Test
+    void submit_NetWithdrawalRejected_FallsBackToIndividualUpdates() {
+        emulateGuardedUpdate("50.00");
+
+        StepVerifier.create(Flux.merge(
+                                coalescer.submit(hotAccountId, new BigDecimal("-40.00"), null),
+                                coalescer.submit(hotAccountId, new BigDecimal("-40.00"), null))
+                        .map(BalanceUpdateResultDao::isApplied)
+                        .collectList())
+                .assertNext(results -> {
+                    assertEquals(1, results.stream().filter(applied -> applied).count());
+                    assertEquals(1, results.stream().filter(applied -> !applied).count());
+                })
+                .verifyComplete();
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(balance.get()));
+    }
+
+    @Test
+    void submit_WithdrawalCoveredOnlyByLaterDeposit_Rejected() {
+        emulateGuardedUpdate("60.00");
+
+        // Суммарно -50 проходит по балансу, но по порядку списание 150 при балансе 60 недопустимо
+        StepVerifier.create(Flux.mergeSequential(
+                                coalescer.submit(hotAccountId, new BigDecimal("-150.00"), null).map(BalanceUpdateResultDao::isApplied),
+                                coalescer.submit(hotAccountId, new BigDecimal("100.00"), null).map(BalanceUpdateResultDao::isApplied))
+                        .collectList())
+                .expectNext(List.of(false, true))
+                .verifyComplete();
+
+        assertEquals(0, new BigDecimal("160.00").compareTo(balance.get()));
+    }
+
+    @Test
+    void submit_SlowRepository_AllCallersCompleteWithoutOverflow() {
+        CoalescingConfig config = new CoalescingConfig();
+        config.setEnabled(true);
+        config.setAccounts(Set.of(hotAccountId));
+        config.setWindow(Duration.ofMillis(1));
+        config.setMaxBatchSize(4);
+        coalescer.shutdown();
+        coalescer = new BalanceUpdateCoalescer(accountRepository, config, idempotencyService, transactionalOperator,
+                meterRegistry);
+        emulateGuardedUpdate("0.00", Duration.ofMillis(20));
+
+        // Изменения поступают, пока предыдущий пакет еще применяется: окно истекает без запроса следующего пакета
+        StepVerifier.create(Flux.interval(Duration.ofMillis(2))
+                        .take(300)
+                        .flatMap(i -> coalescer.submit(hotAccountId, new BigDecimal("1.00"), null), 300)
+                        .filter(BalanceUpdateResultDao::isApplied)
+                        .count())
+                .expectNext(300L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(30));
+
+        assertEquals(0, new BigDecimal("300.00").compareTo(balance.get()));
+    }
+
+    @Test
+    void submit_AccountNotFound_EveryCallerNotified() {
+        lenient().when(accountRepository.updateBalanceIfSufficient(eq(hotAccountId), any()))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(false, false, null)));
+        lenient().when(accountRepository.applyDeltasIfCovered(eq(hotAccountId), any(), any()))
+                .thenReturn(Mono.just(new BalanceUpdateResultDao(false, false, null)));
+
+        StepVerifier.create(Flux.merge(
+                                coalescer.submit(hotAccountId, new BigDecimal("10.00"), null),
+                                coalescer.submit(hotAccountId, new BigDecimal("20.00"), null))
+                        .filter(result -> !result.isFound())
+                        .count())
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void submit_WithRecordKeys_StoresResponsesOnlyForAppliedUpdates() {
+        emulateGuardedUpdate("60.00");
+        when(idempotencyService.completeReserved(any(), eq(true))).thenReturn(Mono.empty());
+
+        StepVerifier.create(Flux.mergeSequential(
+                                coalescer.submit(hotAccountId, new BigDecimal("-150.00"), "balance:op-1")
+                                        .map(BalanceUpdateResultDao::isApplied),
+                                coalescer.submit(hotAccountId, new BigDecimal("100.00"), "balance:op-2")
+                                        .map(BalanceUpdateResultDao::isApplied))
+                        .collectList())
+                .expectNext(List.of(false, true))
+                .verifyComplete();
+
+        verify(idempotencyService).completeReserved(List.of("balance:op-2"), true);
+        verify(idempotencyService, never()).completeReserved(eq(List.of("balance:op-1")), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_KeyAlreadyHasOutcome_OnlyThatUpdateFails() {
+        emulateGuardedUpdate("0.00");
+        when(idempotencyService.completeReserved(any(), eq(true))).thenAnswer(invocation ->
+                ((List<String>) invocation.getArgument(0)).contains("balance:op-1")
+                        ? Mono.error(new ValidationException("Запрос с этим ключом идемпотентности уже выполнен или отклонен",
+                        HttpStatus.CONFLICT, ErrorReasons.IDEMPOTENCY_KEY_USED))
+                        : Mono.empty());
+
+        StepVerifier.create(Flux.mergeSequential(
+                                coalescer.submit(hotAccountId, new BigDecimal("10.00"), "balance:op-1")
+                                        .map(result -> "applied")
+                                        .onErrorResume(ValidationException.class, e -> Mono.just("conflict")),
+                                coalescer.submit(hotAccountId, new BigDecimal("20.00"), "balance:op-2")
+                                        .map(result -> "applied"))
+                        .collectList())
+                .expectNext(List.of("conflict", "applied"))
+                .verifyComplete();
+
+        verify(accountRepository).applyDeltasIfCovered(eq(hotAccountId), any(), any());
+        verify(idempotencyService).completeReserved(List.of("balance:op-2"), true);
+    }
+
+    @Test
+    void submit_RepositoryError_PropagatedToCallers() {
+        when(accountRepository.updateBalanceIfSufficient(eq(hotAccountId), any()))
+                .thenReturn(Mono.error(new IllegalStateException("db down")));
+
+        StepVerifier.create(coalescer.submit(hotAccountId, new BigDecimal("10.00"), null))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+}
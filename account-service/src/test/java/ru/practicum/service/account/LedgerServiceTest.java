@@ -0,0 +1,147 @@
+package ru.practicum.service.account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.dao.account.LedgerEntryDao;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.mapper.account.AccountMapper;
+import ru.practicum.model.account.LedgerEntry;
+import ru.practicum.repository.account.AccountRepository;
+import ru.practicum.repository.account.LedgerEntryRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountMapper accountMapper;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @InjectMocks
+    private LedgerServiceImpl ledgerService;
+
+    private final UUID accountId = UUID.fromString("423e4567-e89b-12d3-a456-426614174000");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledgerService, "maxPageSize", 500);
+        ReflectionTestUtils.setField(ledgerService, "compactionLockTimeout", Duration.ofSeconds(2));
+    }
+
+    @Test
+    void getStatement_FirstPage_StartsFromNewestEntry() {
+        LedgerEntryDao dao = LedgerEntryDao.builder().id(7L).accountId(accountId).amount(BigDecimal.TEN).build();
+        LedgerEntry entry = LedgerEntry.builder().id(7L).accountId(accountId).amount(BigDecimal.TEN).build();
+        when(accountRepository.existsById(accountId)).thenReturn(Mono.just(true));
+        when(ledgerEntryRepository.findPage(accountId, Long.MAX_VALUE, 50)).thenReturn(Flux.just(dao));
+        when(accountMapper.ledgerEntryDaoToLedgerEntry(dao)).thenReturn(entry);
+
+        StepVerifier.create(ledgerService.getStatement(accountId, null, 50))
+                .expectNext(entry)
+                .verifyComplete();
+    }
+
+    @Test
+    void getStatement_WithCursor_PassesCursorToRepository() {
+        when(accountRepository.existsById(accountId)).thenReturn(Mono.just(true));
+        when(ledgerEntryRepository.findPage(accountId, 100L, 20)).thenReturn(Flux.empty());
+
+        StepVerifier.create(ledgerService.getStatement(accountId, 100L, 20))
+                .verifyComplete();
+    }
+
+    @Test
+    void getStatement_LimitTooLarge_ReturnsValidationError() {
+        StepVerifier.create(ledgerService.getStatement(accountId, null, 501))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(ledgerEntryRepository, never()).findPage(eq(accountId), anyLong(), anyInt());
+    }
+
+    @Test
+    void getStatement_AccountNotFound_ReturnsNotFound() {
+        when(accountRepository.existsById(accountId)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(ledgerService.getStatement(accountId, null, 10))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getLedgerBalance_ReturnsSnapshotPlusTail() {
+        when(accountRepository.existsById(accountId)).thenReturn(Mono.just(true));
+        when(ledgerEntryRepository.computeBalance(accountId)).thenReturn(Mono.just(new BigDecimal("250.00")));
+
+        StepVerifier.create(ledgerService.getLedgerBalance(accountId))
+                .expectNext(new BigDecimal("250.00"))
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactSnapshots_CompactsUpToWatermarkReadUnderLock() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ledgerEntryRepository.setLocalLockTimeout("2000ms")).thenReturn(Mono.just("2s"));
+        when(ledgerEntryRepository.lockAgainstWriters()).thenReturn(Mono.empty());
+        when(ledgerEntryRepository.findMaxEntryId()).thenReturn(Mono.just(42L));
+        when(ledgerEntryRepository.compactSnapshots(42L)).thenReturn(Mono.just(3));
+
+        StepVerifier.create(ledgerService.compactSnapshots())
+                .expectNext(3)
+                .verifyComplete();
+
+        InOrder order = inOrder(ledgerEntryRepository);
+        order.verify(ledgerEntryRepository).setLocalLockTimeout("2000ms");
+        order.verify(ledgerEntryRepository).lockAgainstWriters();
+        order.verify(ledgerEntryRepository).findMaxEntryId();
+        order.verify(ledgerEntryRepository).compactSnapshots(42L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactSnapshots_LockTimeout_DoesNotCompact() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ledgerEntryRepository.setLocalLockTimeout("2000ms")).thenReturn(Mono.just("2s"));
+        when(ledgerEntryRepository.lockAgainstWriters())
+                .thenReturn(Mono.error(new RuntimeException("canceling statement due to lock timeout")));
+        when(ledgerEntryRepository.findMaxEntryId()).thenReturn(Mono.just(42L));
+
+        StepVerifier.create(ledgerService.compactSnapshots())
+                .expectErrorMessage("canceling statement due to lock timeout")
+                .verify();
+
+        verify(ledgerEntryRepository, never()).compactSnapshots(anyLong());
+    }
+}
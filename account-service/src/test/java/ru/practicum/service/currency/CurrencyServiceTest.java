@@ -16,8 +16,12 @@ import ru.practicum.mapper.currency.CurrencyMapper;
 import ru.practicum.model.currency.Currency;
 import ru.practicum.repository.currency.CurrencyRepository;
 
+import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -163,4 +167,52 @@ class CurrencyServiceTest {
         String result = currencyService.getCurrencyName("UNKNOWN");
         assert result.equals("UNKNOWN");
     }
-}
\ No newline at end of file
+
+    @Test
+    void initCurrencies_shouldServeLookupsFromDictionary() {
+        when(currencyConfig.getSupported()).thenReturn(List.of(currencyCode));
+        when(currencyRepository.findByCode(currencyCode)).thenReturn(Mono.just(currencyDao));
+        when(currencyRepository.findAll()).thenReturn(Flux.just(currencyDao));
+        when(currencyMapper.currencyDaoToCurrency(currencyDao)).thenReturn(currency);
+
+        currencyService.initCurrencies();
+
+        StepVerifier.create(currencyService.getCurrencyById(currencyId))
+                .expectNext(currency)
+                .verifyComplete();
+        StepVerifier.create(currencyService.getCurrencyByCode(currencyCode))
+                .expectNext(currency)
+                .verifyComplete();
+
+        verify(currencyRepository, never()).findById(any(UUID.class));
+        verify(currencyRepository, times(1)).findByCode(currencyCode);
+    }
+
+    @Test
+    void createCurrency_shouldAddCurrencyToDictionary() {
+        when(currencyMapper.currencyToCurrencyDao(currency)).thenReturn(currencyDao);
+        when(currencyRepository.save(currencyDao)).thenReturn(Mono.just(currencyDao));
+        when(currencyMapper.currencyDaoToCurrency(currencyDao)).thenReturn(currency);
+
+        StepVerifier.create(currencyService.createCurrency(currency)
+                        .then(currencyService.getCurrencyById(currencyId)))
+                .expectNext(currency)
+                .verifyComplete();
+
+        verify(currencyRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void getCurrencyById_shouldCacheRepositoryResult() {
+        when(currencyRepository.findById(currencyId)).thenReturn(Mono.just(currencyDao));
+        when(currencyMapper.currencyDaoToCurrency(currencyDao)).thenReturn(currency);
+
+        StepVerifier.create(currencyService.getCurrencyById(currencyId)
+                        .then(currencyService.getCurrencyByCode(currencyCode)))
+                .expectNext(currency)
+                .verifyComplete();
+
+        verify(currencyRepository, times(1)).findById(currencyId);
+        verify(currencyRepository, never()).findByCode(currencyCode);
+    }
+}
@@ -0,0 +1,286 @@
+package ru.practicum.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.dao.idempotency.IdempotencyOutcomeDao;
+import ru.practicum.dao.idempotency.IdempotencyRecordDao;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.repository.idempotency.IdempotencyOutcomeRepository;
+import ru.practicum.repository.idempotency.IdempotencyRecordRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private IdempotencyOutcomeRepository idempotencyOutcomeRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(2);
+        ReflectionTestUtils.setField(idempotencyService, "idempotencyRecordRepository", idempotencyRecordRepository);
+        ReflectionTestUtils.setField(idempotencyService, "idempotencyOutcomeRepository", idempotencyOutcomeRepository);
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "transactionalOperator", transactionalOperator);
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(idempotencyService, "lease", Duration.ofMinutes(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void passThroughTransaction() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private void outcomesRecorded() {
+        when(idempotencyOutcomeRepository.insertAll(any(), eq("APPLIED")))
+                .thenAnswer(invocation -> Mono.just(((String[]) invocation.getArgument(0)).length));
+    }
+
+    private Mono<Boolean> action() {
+        return Mono.fromSupplier(() -> {
+            executions.incrementAndGet();
+            return true;
+        });
+    }
+
+    @Test
+    void execute_WithoutKey_RunsActionWithoutStore() {
+        StepVerifier.create(idempotencyService.execute(null, "op", Boolean.class, this::action))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertEquals(1, executions.get());
+        verify(idempotencyRecordRepository, never()).reserve(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void execute_DuplicateKey_AnsweredFromCacheWithoutRepeatingAction() {
+        when(idempotencyRecordRepository.reserve("op:key-1", 86400L, 60L)).thenReturn(Mono.just(1));
+        passThroughTransaction();
+        when(idempotencyRecordRepository.complete("op:key-1", "true")).thenReturn(Mono.just(1));
+        outcomesRecorded();
+
+        StepVerifier.create(idempotencyService.execute("key-1", "op", Boolean.class, this::action))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(idempotencyService.execute("key-1", "op", Boolean.class, this::action))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertEquals(1, executions.get());
+        verify(idempotencyRecordRepository, times(1)).reserve(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void execute_KeyCompletedOnAnotherInstance_ReplaysStoredResponse() {
+        when(idempotencyRecordRepository.reserve("op:key-2", 86400L, 60L)).thenReturn(Mono.just(0));
+        when(idempotencyRecordRepository.findById("op:key-2")).thenReturn(Mono.just(
+                new IdempotencyRecordDao("op:key-2", "COMPLETED", "false", LocalDateTime.now())));
+
+        StepVerifier.create(idempotencyService.execute("key-2", "op", Boolean.class, this::action))
+                .expectNext(false)
+                .verifyComplete();
+
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_KeyInProgress_ReturnsConflict() {
+        when(idempotencyRecordRepository.reserve("op:key-3", 86400L, 60L)).thenReturn(Mono.just(0));
+        when(idempotencyRecordRepository.findById("op:key-3")).thenReturn(Mono.just(
+                new IdempotencyRecordDao("op:key-3", "IN_PROGRESS", null, LocalDateTime.now())));
+
+        StepVerifier.create(idempotencyService.execute("key-3", "op", Boolean.class, this::action))
+                .expectErrorMatches(e -> e instanceof ValidationException
+                        && ((ValidationException) e).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_EmptyResponse_StoredAndReplayedAsEmpty() {
+        when(idempotencyRecordRepository.reserve("op:key-4", 86400L, 60L)).thenReturn(Mono.just(1));
+        passThroughTransaction();
+        when(idempotencyRecordRepository.complete(eq("op:key-4"), isNull())).thenReturn(Mono.just(1));
+        outcomesRecorded();
+
+        StepVerifier.create(idempotencyService.execute("key-4", "op", Void.class, Mono::empty))
+                .verifyComplete();
+        StepVerifier.create(idempotencyService.execute("key-4", "op", Void.class,
+                        () -> Mono.error(new IllegalStateException("повторное выполнение"))))
+                .verifyComplete();
+    }
+
+    @Test
+    void execute_ActionFails_ReleasesKey() {
+        when(idempotencyRecordRepository.reserve("op:key-5", 86400L, 60L)).thenReturn(Mono.just(1));
+        passThroughTransaction();
+        when(idempotencyRecordRepository.deleteInProgress("op:key-5")).thenReturn(Mono.just(1));
+
+        StepVerifier.create(idempotencyService.execute("key-5", "op", Boolean.class,
+                        () -> Mono.error(new IllegalStateException("ошибка"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(idempotencyRecordRepository).deleteInProgress("op:key-5");
+        verify(idempotencyRecordRepository, never()).deleteById(anyString());
+        verify(idempotencyRecordRepository, never()).complete(anyString(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_StoreFails_ActionAndStoreShareTransactionAndResponseIsNotCached() {
+        when(idempotencyRecordRepository.reserve("op:key-10", 86400L, 60L)).thenReturn(Mono.just(1));
+        passThroughTransaction();
+        when(idempotencyRecordRepository.complete("op:key-10", "true"))
+                .thenReturn(Mono.error(new IllegalStateException("connection lost")));
+        when(idempotencyRecordRepository.deleteInProgress("op:key-10")).thenReturn(Mono.just(1));
+
+        StepVerifier.create(idempotencyService.execute("key-10", "op", Boolean.class, this::action))
+                .expectErrorMessage("connection lost")
+                .verify();
+
+        // Действие и сохранение ответа обернуты одной транзакцией: ошибка сохранения откатывает действие
+        verify(transactionalOperator).transactional(any(Mono.class));
+        verify(idempotencyRecordRepository).deleteInProgress("op:key-10");
+
+        // Ответ не закэширован: следующий запрос снова резервирует ключ
+        when(idempotencyRecordRepository.complete("op:key-10", "true")).thenReturn(Mono.just(1));
+        outcomesRecorded();
+        StepVerifier.create(idempotencyService.execute("key-10", "op", Boolean.class, this::action))
+                .expectNext(true)
+                .verifyComplete();
+        verify(idempotencyRecordRepository, times(2)).reserve("op:key-10", 86400L, 60L);
+    }
+
+    @Test
+    void executeSelfCompleting_PassesRecordKeyAndDoesNotStoreResponseItself() {
+        when(idempotencyRecordRepository.reserve("op:key-11", 86400L, 60L)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(idempotencyService.executeSelfCompleting("key-11", "op", String.class, Mono::just))
+                .expectNext("op:key-11")
+                .verifyComplete();
+        StepVerifier.create(idempotencyService.executeSelfCompleting("key-11", "op", String.class,
+                        recordKey -> Mono.error(new IllegalStateException("повторное выполнение"))))
+                .expectNext("op:key-11")
+                .verifyComplete();
+
+        verify(idempotencyRecordRepository, never()).complete(anyString(), any());
+        verify(transactionalOperator, never()).transactional(any(Mono.class));
+    }
+
+    @Test
+    void executeSelfCompleting_WithoutKey_PassesNullRecordKey() {
+        StepVerifier.create(idempotencyService.executeSelfCompleting(null, "op", Boolean.class,
+                        recordKey -> Mono.just(recordKey == null)))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(idempotencyRecordRepository, never()).reserve(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void completeReserved_UpdatesAllKeysAndRecordsOutcomesInOneQueryEach() {
+        when(idempotencyRecordRepository.completeAll(aryEq(new String[]{"op:key-12", "op:key-13"}), eq("true")))
+                .thenReturn(Mono.just(2));
+        outcomesRecorded();
+
+        StepVerifier.create(idempotencyService.completeReserved(List.of("op:key-12", "op:key-13"), true))
+                .verifyComplete();
+
+        verify(idempotencyOutcomeRepository).insertAll(aryEq(new String[]{"op:key-12", "op:key-13"}), eq("APPLIED"));
+    }
+
+    @Test
+    void completeReserved_OutcomeAlreadyExists_ReturnsConflict() {
+        when(idempotencyRecordRepository.completeAll(any(), eq("true"))).thenReturn(Mono.just(1));
+        when(idempotencyOutcomeRepository.insertAll(aryEq(new String[]{"op:key-14"}), eq("APPLIED")))
+                .thenReturn(Mono.just(0));
+
+        StepVerifier.create(idempotencyService.completeReserved(List.of("op:key-14"), true))
+                .expectErrorMatches(e -> e instanceof ValidationException
+                        && ((ValidationException) e).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+    }
+
+    @Test
+    void getOutcomes_ReturnsOutcomesAndRejectsKeysWithoutRecord() {
+        String[] keys = {"op:key-6", "op:key-7", "op:key-8", "op:key-9"};
+        when(idempotencyRecordRepository.findAllByRecordKeys(aryEq(keys))).thenReturn(Flux.just(
+                IdempotencyRecordDao.builder().recordKey("op:key-7").status("IN_PROGRESS").build(),
+                IdempotencyRecordDao.builder().recordKey("op:key-8").status("COMPLETED").build()));
+        when(idempotencyOutcomeRepository.findAllByRecordKeys(aryEq(keys))).thenReturn(Flux.just(
+                IdempotencyOutcomeDao.builder().recordKey("op:key-6").status("APPLIED").build()));
+        when(idempotencyOutcomeRepository.insertAll(aryEq(new String[]{"op:key-9"}), eq("REJECTED")))
+                .thenReturn(Mono.just(1));
+        when(idempotencyOutcomeRepository.findAllByRecordKeys(aryEq(new String[]{"op:key-9"}))).thenReturn(Flux.just(
+                IdempotencyOutcomeDao.builder().recordKey("op:key-9").status("REJECTED").build()));
+
+        StepVerifier.create(idempotencyService.getOutcomes("op", List.of("key-6", "key-7", "key-8", "key-9")))
+                .expectNext(Map.of("key-6", "APPLIED", "key-7", "IN_PROGRESS", "key-8", "APPLIED", "key-9", "REJECTED"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getOutcomes_KeyAppliedConcurrentlyWithRejection_ReturnsApplied() {
+        // Итог APPLIED сохранен транзакцией, завершившейся во время вставки REJECTED: вставка ничего не меняет
+        when(idempotencyRecordRepository.findAllByRecordKeys(any())).thenReturn(Flux.empty());
+        when(idempotencyOutcomeRepository.findAllByRecordKeys(aryEq(new String[]{"op:key-15"})))
+                .thenReturn(Flux.empty())
+                .thenReturn(Flux.just(IdempotencyOutcomeDao.builder().recordKey("op:key-15").status("APPLIED").build()));
+        when(idempotencyOutcomeRepository.insertAll(aryEq(new String[]{"op:key-15"}), eq("REJECTED")))
+                .thenReturn(Mono.just(0));
+
+        StepVerifier.create(idempotencyService.getOutcomes("op", List.of("key-15")))
+                .expectNext(Map.of("key-15", "APPLIED"))
+                .verifyComplete();
+    }
+
+    @Test
+    void recordCompleted_InsertsPrefixedKeysInOneQuery() {
+        when(idempotencyRecordRepository.insertCompleted(aryEq(new String[]{"op:key-8", "op:key-9"}), eq("true")))
+                .thenReturn(Mono.just(2));
+        outcomesRecorded();
+
+        StepVerifier.create(idempotencyService.recordCompleted("op", List.of("key-8", "key-9"), true))
+                .verifyComplete();
+    }
+}
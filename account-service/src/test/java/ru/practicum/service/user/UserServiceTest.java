@@ -1,35 +1,50 @@
 package ru.practicum.service.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import ru.practicum.dao.user.UserDao;
+import ru.practicum.dao.user.UserRoleNameDao;
+import ru.practicum.dao.user.UserWithAccountsDao;
 import ru.practicum.exception.ErrorReasons;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
 import ru.practicum.mapper.user.UserMapper;
 import ru.practicum.model.account.Account;
 import ru.practicum.model.user.User;
+import ru.practicum.model.user.UserPageRequest;
+import ru.practicum.model.user.UserWithAccounts;
 import ru.practicum.repository.user.UserRepository;
 import ru.practicum.repository.user.UserRoleRepository;
+import ru.practicum.service.account.AccountEventPublisher;
 import ru.practicum.service.account.AccountServiceImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -51,12 +66,33 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AccountEventPublisher accountEventPublisher;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private UserServiceImpl userService;
 
     private final UUID userId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
     private final LocalDate birthDate = LocalDate.of(1990, 1, 1);
 
+    /**
+     * Фиксации транзакций и публикации событий в порядке выполнения
+     */
+    private final List<String> events = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> ((Mono<Object>) invocation.getArgument(0)).doOnSuccess(v -> events.add("commit")));
+    }
+
     private User createTestUser() {
         return User.builder()
                 .uuid(userId)
@@ -233,6 +269,7 @@ public class UserServiceTest {
         when(userRepository.save(any(UserDao.class))).thenReturn(Mono.just(updatedUserDao));
         when(userRoleRepository.findRoleNamesByUserUuid(userId)).thenReturn(Flux.just(roleName));
         when(userMapper.userDaoToUser(updatedUserDao)).thenReturn(updatedUser);
+        when(accountEventPublisher.userUpdated(userId)).thenReturn(Mono.fromRunnable(() -> events.add("userUpdated")));
 
         StepVerifier.create(userService.updateUser(userId, updatedUser))
                 .expectNextMatches(user -> {
@@ -255,6 +292,7 @@ public class UserServiceTest {
                         dao.getCreatedAt().equals(existingUserDao.getCreatedAt()) &&
                         dao.isEnabled() == existingUserDao.isEnabled() &&
                         dao.isAccountNonLocked() == existingUserDao.isAccountNonLocked()));
+        assertEquals(List.of("commit", "userUpdated"), events);
     }
 
     @Test
@@ -342,12 +380,28 @@ public class UserServiceTest {
     void deleteUser_UserWithZeroBalance_DeletesUser() {
         when(accountService.getUserAccounts(userId)).thenReturn(Flux.empty());
         when(userRepository.deleteById(userId)).thenReturn(Mono.empty());
+        when(accountEventPublisher.userDeleted(userId)).thenReturn(Mono.fromRunnable(() -> events.add("userDeleted")));
 
         StepVerifier.create(userService.deleteUser(userId))
                 .verifyComplete();
 
         verify(accountService).getUserAccounts(userId);
         verify(userRepository).deleteById(userId);
+        assertEquals(List.of("commit", "userDeleted"), events);
+    }
+
+    @Test
+    void deleteUser_AccountsWithLedgerHistory_ReturnsConflict() {
+        when(accountService.getUserAccounts(userId)).thenReturn(Flux.empty());
+        when(userRepository.deleteById(userId))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("ledger_entries_account_id_fkey")));
+
+        StepVerifier.create(userService.deleteUser(userId))
+                .expectErrorMatches(throwable -> throwable instanceof ValidationException &&
+                        ((ValidationException) throwable).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+
+        verify(accountEventPublisher, never()).userDeleted(any());
     }
 
     @Test
@@ -413,4 +467,180 @@ public class UserServiceTest {
         verify(userRepository).findById(userId);
         verify(passwordEncoder, never()).encode(any());
     }
+
+    @Test
+    void getUserWithAccountsByUuid_ReturnsAggregateFromSingleQuery() {
+        UUID accountId = UUID.randomUUID();
+        UserWithAccountsDao dao = UserWithAccountsDao.builder()
+                .uuid(userId)
+                .username("testuser")
+                .email("john.doe@example.com")
+                .roles(new String[]{"ROLE_ADMIN", "ROLE_USER"})
+                .accounts("[{\"id\":\"" + accountId + "\",\"userId\":\"" + userId + "\",\"currencyCode\":\"USD\"," +
+                        "\"balance\":150.25,\"createdAt\":\"2025-01-10T12:30:00.123456\",\"updatedAt\":\"2025-01-11T08:00:00\"}]")
+                .build();
+        User user = createTestUser();
+        user.setRoles(List.of("ROLE_ADMIN", "ROLE_USER"));
+
+        when(userRepository.findWithRolesAndAccountsByUuid(userId)).thenReturn(Mono.just(dao));
+        when(userMapper.userWithAccountsDaoToUser(dao)).thenReturn(user);
+
+        StepVerifier.create(userService.getUserWithAccountsByUuid(userId))
+                .expectNextMatches(result -> {
+                    assertEquals(user, result.getUser());
+                    assertEquals(1, result.getAccounts().size());
+                    Account account = result.getAccounts().get(0);
+                    assertEquals(accountId, account.getId());
+                    assertEquals("USD", account.getCurrencyCode());
+                    assertEquals(new BigDecimal("150.25"), account.getBalance());
+                    assertEquals(LocalDateTime.of(2025, 1, 10, 12, 30, 0, 123456000), account.getCreatedAt());
+                    return true;
+                })
+                .verifyComplete();
+
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(userRoleRepository, never()).findRoleNamesByUserUuid(any());
+        verify(accountService, never()).getUserAccounts(any());
+    }
+
+    @Test
+    void getUserWithAccountsByUuid_NoAccounts_ReturnsEmptyList() {
+        UserWithAccountsDao dao = UserWithAccountsDao.builder()
+                .uuid(userId)
+                .roles(new String[0])
+                .accounts("[]")
+                .build();
+        User user = createTestUser();
+
+        when(userRepository.findWithRolesAndAccountsByUuid(userId)).thenReturn(Mono.just(dao));
+        when(userMapper.userWithAccountsDaoToUser(dao)).thenReturn(user);
+
+        StepVerifier.create(userService.getUserWithAccountsByUuid(userId).map(UserWithAccounts::getAccounts))
+                .expectNext(List.of())
+                .verifyComplete();
+    }
+
+    @Test
+    void getUserWithAccountsByUuid_SeveralAccounts_KeepsQueryOrderAndNullDates() {
+        UUID rubAccountId = UUID.randomUUID();
+        UUID usdAccountId = UUID.randomUUID();
+        UserWithAccountsDao dao = UserWithAccountsDao.builder()
+                .uuid(userId)
+                .roles(new String[]{"ROLE_USER"})
+                .accounts("[{\"id\":\"" + rubAccountId + "\",\"userId\":\"" + userId + "\",\"currencyCode\":\"RUB\"," +
+                        "\"balance\":0,\"createdAt\":\"2025-01-10T12:30:00\",\"updatedAt\":null}," +
+                        "{\"id\":\"" + usdAccountId + "\",\"userId\":\"" + userId + "\",\"currencyCode\":\"USD\"," +
+                        "\"balance\":1000000000.10,\"createdAt\":\"2025-01-10T12:31:00\",\"updatedAt\":null}]")
+                .build();
+
+        when(userRepository.findWithRolesAndAccountsByUuid(userId)).thenReturn(Mono.just(dao));
+        when(userMapper.userWithAccountsDaoToUser(dao)).thenReturn(createTestUser());
+
+        StepVerifier.create(userService.getUserWithAccountsByUuid(userId).map(UserWithAccounts::getAccounts))
+                .expectNextMatches(accounts -> {
+                    assertEquals(List.of(rubAccountId, usdAccountId), accounts.stream().map(Account::getId).toList());
+                    assertEquals(0, BigDecimal.ZERO.compareTo(accounts.get(0).getBalance()));
+                    assertEquals(new BigDecimal("1000000000.10"), accounts.get(1).getBalance());
+                    assertEquals(userId, accounts.get(1).getUserId());
+                    assertNull(accounts.get(0).getUpdatedAt());
+                    return true;
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getUserWithAccountsByUuid_MalformedAccounts_ReturnsError() {
+        UserWithAccountsDao dao = UserWithAccountsDao.builder()
+                .uuid(userId)
+                .roles(new String[0])
+                .accounts("{\"id\":")
+                .build();
+
+        when(userRepository.findWithRolesAndAccountsByUuid(userId)).thenReturn(Mono.just(dao));
+
+        StepVerifier.create(userService.getUserWithAccountsByUuid(userId))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void getUserWithAccountsByUuid_UserNotFound_ThrowsNotFoundException() {
+        when(userRepository.findWithRolesAndAccountsByUuid(userId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.getUserWithAccountsByUuid(userId))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    private UserDao pageUserDao(int index) {
+        return UserDao.builder()
+                .uuid(new UUID(0, index))
+                .username("user" + index)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(index))
+                .build();
+    }
+
+    private void stubUserMapping() {
+        when(userMapper.userDaoToUser(any(UserDao.class))).thenAnswer(invocation -> {
+            UserDao dao = invocation.getArgument(0);
+            return User.builder().uuid(dao.getUuid()).username(dao.getUsername()).createdAt(dao.getCreatedAt()).build();
+        });
+    }
+
+    @Test
+    void getUsersPage_FetchesRolesForWholePageInOneQuery() {
+        ReflectionTestUtils.setField(userService, "maxPageSize", 1000);
+        UserDao first = pageUserDao(1);
+        UserDao second = pageUserDao(2);
+        when(userRepository.findPage(true, null, null, null, 2)).thenReturn(Flux.just(first, second));
+        when(userRoleRepository.findRoleNamesByUserUuids(any(UUID[].class))).thenReturn(Flux.just(
+                new UserRoleNameDao(first.getUuid(), "ROLE_ADMIN"),
+                new UserRoleNameDao(first.getUuid(), "ROLE_USER"),
+                new UserRoleNameDao(second.getUuid(), "ROLE_USER")));
+        stubUserMapping();
+
+        StepVerifier.create(userService.getUsersPage(UserPageRequest.builder().enabled(true).limit(2).build()))
+                .assertNext(user -> assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), user.getRoles()))
+                .assertNext(user -> assertEquals(List.of("ROLE_USER"), user.getRoles()))
+                .verifyComplete();
+
+        verify(userRoleRepository).findRoleNamesByUserUuids(any(UUID[].class));
+        verify(userRoleRepository, never()).findRoleNamesByUserUuid(any());
+    }
+
+    @Test
+    void getUsersPage_LimitTooLarge_ReturnsValidationError() {
+        ReflectionTestUtils.setField(userService, "maxPageSize", 1000);
+
+        StepVerifier.create(userService.getUsersPage(UserPageRequest.builder().limit(1001).build()))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(userRepository, never()).findPage(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getUsersPage_IncompleteCursor_ReturnsValidationError() {
+        ReflectionTestUtils.setField(userService, "maxPageSize", 1000);
+
+        StepVerifier.create(userService.getUsersPage(UserPageRequest.builder().afterId(userId).limit(10).build()))
+                .expectError(ValidationException.class)
+                .verify();
+    }
+
+    @Test
+    void streamUsers_ReadsPagesUsingLastUserAsCursor() {
+        ReflectionTestUtils.setField(userService, "streamPageSize", 2);
+        UserDao u1 = pageUserDao(1);
+        UserDao u2 = pageUserDao(2);
+        UserDao u3 = pageUserDao(3);
+        when(userRepository.findPage(null, false, null, null, 2)).thenReturn(Flux.just(u1, u2));
+        when(userRepository.findPage(null, false, u2.getCreatedAt(), u2.getUuid(), 2)).thenReturn(Flux.just(u3));
+        when(userRoleRepository.findRoleNamesByUserUuids(any(UUID[].class))).thenReturn(Flux.empty());
+        stubUserMapping();
+
+        StepVerifier.create(userService.streamUsers(null, false).map(User::getUsername))
+                .expectNext("user1", "user2", "user3")
+                .verifyComplete();
+    }
 }
@@ -11,6 +11,7 @@ import reactor.core.publisher.Mono;
 import ru.practicum.exception.ServiceUnavailableException;
 
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * Базовый клиент сервисов
@@ -30,25 +31,22 @@ public abstract class BaseServiceClient {
         return webClient;
     }
 
-    protected String getGatewayUrl() {
-        String gatewayUrl = System.getenv("GATEWAY_URL");
-        if (gatewayUrl == null) {
-            throw new IllegalStateException("GATEWAY_URL not set");
-        }
-        return gatewayUrl + "/" + getServiceId();
-    }
-
     protected <T> Mono<T> performMono(HttpMethod method, String path, Object body, Class<T> responseType,
                                       String operation, String errorMsgPrefix, boolean useServiceException) {
+        return performMono(method, path, body, Map.of(), responseType, operation, errorMsgPrefix, useServiceException);
+    }
+
+    protected <T> Mono<T> performMono(HttpMethod method, String path, Object body, Map<String, String> headers,
+                                      Class<T> responseType, String operation, String errorMsgPrefix,
+                                      boolean useServiceException) {
         getLogger().info(operation);
 
-        String baseUrl = getGatewayUrl();
-        String fullUrl = baseUrl + path;
-        getLogger().debug("Calling {} at: {}", getServiceId(), fullUrl);
+        getLogger().debug("Calling {} at: {}", getServiceId(), path);
 
         WebClient.RequestHeadersSpec<?> spec = getWebClient().method(method)
-                .uri(fullUrl)
-                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+                .uri(path)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .headers(httpHeaders -> headers.forEach(httpHeaders::set));
 
         if (body != null && (method == HttpMethod.POST || method == HttpMethod.PUT)) {
             ((WebClient.RequestBodySpec) spec).bodyValue(body);
@@ -93,12 +91,10 @@ public abstract class BaseServiceClient {
                                       String operation, String errorMsgPrefix, boolean useServiceException) {
         getLogger().info(operation);
 
-        String baseUrl = getGatewayUrl();
-        String fullUrl = baseUrl + path;
-        getLogger().debug("Calling {} at: {}", getServiceId(), fullUrl);
+        getLogger().debug("Calling {} at: {}", getServiceId(), path);
 
         WebClient.RequestHeadersSpec<?> spec = getWebClient().method(method)
-                .uri(fullUrl)
+                .uri(path)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
 
         if (body != null && (method == HttpMethod.POST || method == HttpMethod.PUT)) {
@@ -7,12 +7,17 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.client.BaseServiceClient;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeDto;
 import ru.practicum.client.account.dto.BalanceUpdateRequestDto;
+import ru.practicum.client.account.dto.BalanceUpdateResultDto;
 import ru.practicum.client.account.dto.UserResponseDto;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -21,6 +26,7 @@ import java.util.UUID;
 @Component
 @Slf4j
 public class AccountsServiceClient extends BaseServiceClient {
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     @Autowired
     public AccountsServiceClient(@Qualifier("accountServiceWebClient") WebClient webClient) {
@@ -61,14 +67,43 @@ public class AccountsServiceClient extends BaseServiceClient {
                 .doOnSuccess(response -> log.info("Account balance updated"));
     }
 
-    public Mono<Boolean> checkAndUpdateAccountBalance(BalanceUpdateRequestDto request) {
+    /**
+     * Проверить и обновить баланс счета
+     *
+     * @param request Запрос на обновление баланса
+     * @param idempotencyKey Ключ идемпотентности (может отсутствовать). По нему можно узнать итог запроса
+     */
+    public Mono<Boolean> checkAndUpdateAccountBalance(BalanceUpdateRequestDto request, String idempotencyKey) {
         String path = "/api/accounts/check-update-balance";
         String operation = "Update account balance: " + request;
         String errorPrefix = "Ошибка обновления баланса счета: ";
-        return performMono(HttpMethod.POST, path, request, Boolean.class, operation, errorPrefix, true)
+        Map<String, String> headers = idempotencyKey == null ? Map.of() : Map.of(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        return performMono(HttpMethod.POST, path, request, headers, Boolean.class, operation, errorPrefix, true)
                 .doOnSuccess(response -> log.info("Account balance updated"));
     }
 
+    /**
+     * Обновить балансы пакетом одним запросом. Операции применяются по порядку,
+     * результат возвращается для каждого элемента пакета
+     */
+    public Flux<BalanceUpdateResultDto> checkAndUpdateAccountBalances(List<BalanceUpdateRequestDto> requests) {
+        String path = "/api/accounts/check-update-balance/batch";
+        String operation = "Update account balances: " + requests.size() + " operations";
+        String errorPrefix = "Ошибка пакетного обновления баланса: ";
+        return performFlux(HttpMethod.POST, path, requests, BalanceUpdateResultDto.class, operation, errorPrefix, true);
+    }
+
+    /**
+     * Узнать итоги запросов на обновление баланса по ключам идемпотентности
+     */
+    public Flux<BalanceUpdateOutcomeDto> getBalanceUpdateOutcomes(List<String> idempotencyKeys) {
+        String path = "/api/accounts/check-update-balance/outcomes";
+        String operation = "Get balance update outcomes: " + idempotencyKeys.size() + " keys";
+        String errorPrefix = "Ошибка получения итогов обновления баланса: ";
+        return performFlux(HttpMethod.POST, path, idempotencyKeys, BalanceUpdateOutcomeDto.class, operation,
+                errorPrefix, true);
+    }
+
     public Mono<UserResponseDto> getUser(UUID userId) {
         String path = "/api/users/" + userId;
         String operation = "Getting  user profile by ID: " + userId;
@@ -0,0 +1,25 @@
+package ru.practicum.client.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO итога запроса на обновление баланса
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdateOutcomeDto {
+    /**
+     * Ключ идемпотентности запроса
+     */
+    private String idempotencyKey;
+
+    /**
+     * Итог запроса
+     */
+    private BalanceUpdateOutcomeStatus status;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.client.account.dto;
+
+/**
+ * Итог запроса на обновление баланса, найденный по ключу идемпотентности
+ */
+public enum BalanceUpdateOutcomeStatus {
+    /**
+     * Баланс обновлен
+     */
+    APPLIED,
+
+    /**
+     * Запрос еще выполняется
+     */
+    IN_PROGRESS,
+
+    /**
+     * Запрос не поступал или завершился ошибкой, баланс не менялся
+     */
+    NOT_APPLIED
+}
@@ -35,4 +35,9 @@ public class BalanceUpdateRequestDto {
      * Является ли пополнением
      */
     private boolean isDeposit;
+
+    /**
+     * Ключ идемпотентности элемента пакетной операции
+     */
+    private String idempotencyKey;
 }
\ No newline at end of file
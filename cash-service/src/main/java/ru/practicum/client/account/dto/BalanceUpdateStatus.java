@@ -0,0 +1,31 @@
+package ru.practicum.client.account.dto;
+
+/**
+ * Статус обновления баланса в пакетной операции
+ */
+public enum BalanceUpdateStatus {
+    /**
+     * Баланс обновлен
+     */
+    APPLIED,
+
+    /**
+     * Недостаточно средств
+     */
+    INSUFFICIENT_FUNDS,
+
+    /**
+     * Счет не найден
+     */
+    NOT_FOUND,
+
+    /**
+     * Некорректная сумма или запрос
+     */
+    INVALID_REQUEST,
+
+    /**
+     * Ключ идемпотентности закрыт итогом REJECTED: изменение не применено и уже не будет применено
+     */
+    REJECTED
+}
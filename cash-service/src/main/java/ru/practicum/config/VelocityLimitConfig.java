@@ -0,0 +1,50 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cash.velocity-limits")
+@Getter
+@Setter
+public class VelocityLimitConfig {
+    /**
+     * Включена ли проверка лимитов снятия
+     */
+    private boolean enabled = true;
+
+    /**
+     * Максимальное количество счетов, для которых хранятся счетчики. Давно неактивные счета вытесняются
+     */
+    private int maxAccounts = 20000;
+
+    /**
+     * Количество независимых блокировок (сегментов) счетчиков
+     */
+    private int stripes = 64;
+
+    /**
+     * Лимиты по коду валюты. Для валют без лимитов снятие не ограничивается
+     */
+    private Map<String, CurrencyLimit> currencies = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class CurrencyLimit {
+        /**
+         * Максимальная сумма снятий со счета за последние сутки (не задана - без ограничения)
+         */
+        private BigDecimal dailyAmount;
+
+        /**
+         * Максимальное количество снятий со счета за последний час (0 - без ограничения)
+         */
+        private int hourlyCount;
+    }
+}
@@ -1,21 +1,40 @@
 package ru.practicum.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.dto.CashRequestDto;
 import ru.practicum.dto.CashResponseDto;
 import ru.practicum.mapper.CashMapper;
+import ru.practicum.model.BatchDepositResult;
+import ru.practicum.service.CashBatchDepositService;
 import ru.practicum.service.CashService;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 @RestController
 @RequestMapping("/api/cash")
 @RequiredArgsConstructor
 public class CashController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String BATCH_RESULT_HEADER = "line,operation_id,account_id,amount,currency,status,message\n";
+
+    /**
+     * Декодер строк файла: тело запроса разбирается на строки по мере поступления без чтения файла целиком
+     */
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes(List.of("\n"), true);
+
     /**
      * Сервис пополнения счета
      */
@@ -26,6 +45,11 @@ public class CashController {
      */
     private final CashMapper cashMapper;
 
+    /**
+     * Сервис пакетного зачисления
+     */
+    private final CashBatchDepositService cashBatchDepositService;
+
     @PostMapping("/cash-operation")
     public Mono<ResponseEntity<CashResponseDto>> cashOperation(@RequestBody CashRequestDto requestDto) {
         return cashService.cashOperation(requestDto)
@@ -36,4 +60,30 @@ public class CashController {
                 .onErrorResume(Exception.class, e ->
                         Mono.just(ResponseEntity.status(500).body(new CashResponseDto("ERROR", "Internal server error"))));
     }
-}
\ No newline at end of file
+
+    /**
+     * Пакетное зачисление из файла отделения или банкомата (CSV: account_id,user_id,amount,currency).
+     * Файл читается потоком, результат по каждой строке отдается потоком в формате CSV
+     */
+    @PostMapping(value = "/batch-deposit",
+            consumes = {TEXT_CSV_VALUE, MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = TEXT_CSV_VALUE)
+    public Flux<String> batchDeposit(@RequestBody Flux<DataBuffer> file) {
+        Flux<String> lines = LINE_DECODER.decode(file, ResolvableType.forClass(String.class), null, Map.of());
+        return cashBatchDepositService.deposit(lines)
+                .map(this::toCsvLine)
+                .startWith(BATCH_RESULT_HEADER);
+    }
+
+    private String toCsvLine(BatchDepositResult result) {
+        String message = result.getMessage() == null ? "" : "\"" + result.getMessage().replace("\"", "\"\"") + "\"";
+        return String.join(",",
+                String.valueOf(result.getLineNumber()),
+                Objects.toString(result.getOperationId(), ""),
+                Objects.toString(result.getAccountId(), ""),
+                Objects.toString(result.getAmount(), ""),
+                Objects.toString(result.getCurrency(), ""),
+                result.getStatus().name(),
+                message) + "\n";
+    }
+}
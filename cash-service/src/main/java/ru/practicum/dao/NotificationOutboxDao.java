@@ -0,0 +1,46 @@
+package ru.practicum.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * DAO исходящего оповещения, ожидающего отправки в Kafka
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_outbox")
+public class NotificationOutboxDao {
+    /**
+     * Идентификатор записи (возрастает в порядке добавления)
+     */
+    @Id
+    private Long id;
+
+    /**
+     * Топик Kafka
+     */
+    private String topic;
+
+    /**
+     * Ключ сообщения
+     */
+    private String messageKey;
+
+    /**
+     * Сообщение в формате JSON
+     */
+    private String payload;
+
+    /**
+     * Время создания
+     */
+    private LocalDateTime createdAt;
+}
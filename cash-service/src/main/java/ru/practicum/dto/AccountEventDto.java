@@ -0,0 +1,33 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.model.AccountEventType;
+
+import java.util.UUID;
+
+/**
+ * DTO события об изменении счета или его владельца
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountEventDto {
+    /**
+     * Тип события
+     */
+    private AccountEventType eventType;
+
+    /**
+     * Идентификатор счета (для событий по счету)
+     */
+    private UUID accountId;
+
+    /**
+     * Идентификатор пользователя
+     */
+    private UUID userId;
+}
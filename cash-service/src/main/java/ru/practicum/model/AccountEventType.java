@@ -0,0 +1,10 @@
+package ru.practicum.model;
+
+/**
+ * Тип события об изменении счета или его владельца (топик account-events)
+ */
+public enum AccountEventType {
+    ACCOUNT_DELETED,
+    USER_UPDATED,
+    USER_DELETED
+}
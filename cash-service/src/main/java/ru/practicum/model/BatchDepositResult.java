@@ -0,0 +1,53 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Результат обработки строки файла пакетного зачисления
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDepositResult {
+    /**
+     * Номер строки в файле
+     */
+    private long lineNumber;
+
+    /**
+     * Идентификатор операции (для строк, прошедших проверку формата)
+     */
+    private UUID operationId;
+
+    /**
+     * Идентификатор счета
+     */
+    private UUID accountId;
+
+    /**
+     * Сумма
+     */
+    private BigDecimal amount;
+
+    /**
+     * Код валюты
+     */
+    private String currency;
+
+    /**
+     * Результат
+     */
+    private BatchDepositStatus status;
+
+    /**
+     * Сообщение об ошибке
+     */
+    private String message;
+}
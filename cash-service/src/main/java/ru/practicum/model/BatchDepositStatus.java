@@ -0,0 +1,32 @@
+package ru.practicum.model;
+
+/**
+ * Результат зачисления строки файла пакетного зачисления
+ */
+public enum BatchDepositStatus {
+    /**
+     * Сумма зачислена на счет
+     */
+    COMPLETED,
+
+    /**
+     * Операция заблокирована службой безопасности
+     */
+    BLOCKED,
+
+    /**
+     * Зачисление не выполнено
+     */
+    FAILED,
+
+    /**
+     * Итог зачисления неизвестен: операция осталась в статусе PENDING и будет завершена сверкой.
+     * Повторно подавать строку нельзя, зачисление могло быть выполнено
+     */
+    PENDING,
+
+    /**
+     * Строка не прошла проверку формата и не обрабатывалась
+     */
+    INVALID
+}
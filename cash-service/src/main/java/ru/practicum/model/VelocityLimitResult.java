@@ -0,0 +1,21 @@
+package ru.practicum.model;
+
+/**
+ * Результат проверки лимитов снятия по счету
+ */
+public enum VelocityLimitResult {
+    /**
+     * Лимиты не превышены, операция учтена в счетчиках
+     */
+    ALLOWED,
+
+    /**
+     * Превышена сумма снятий за сутки
+     */
+    DAILY_AMOUNT_EXCEEDED,
+
+    /**
+     * Превышено количество снятий за час
+     */
+    HOURLY_COUNT_EXCEEDED
+}
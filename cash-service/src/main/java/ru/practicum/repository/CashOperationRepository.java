@@ -1,9 +1,15 @@
 package ru.practicum.repository;
 
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.dao.CashOperationDao;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -11,4 +17,68 @@ import java.util.UUID;
  */
 @Repository
 public interface CashOperationRepository extends ReactiveCrudRepository<CashOperationDao, UUID> {
+
+    /**
+     * Перевести операцию в итоговый статус одним запросом без предварительного чтения строки.
+     * Обновляется только операция в статусе PENDING, поэтому итоговый статус устанавливается один раз
+     *
+     * @param operationUuid Идентификатор операции
+     * @param status Итоговый статус
+     * @param completedAt Дата завершения
+     * @return Количество обновленных записей
+     */
+    @Modifying
+    @Query("UPDATE cash_operations SET status = :status, completed_at = :completedAt " +
+            "WHERE operation_uuid = :operationUuid AND status = 'PENDING'")
+    Mono<Integer> completeOperation(UUID operationUuid, String status, LocalDateTime completedAt);
+
+    /**
+     * Создать операции пакета в статусе PENDING одним запросом
+     *
+     * @param operationUuids Идентификаторы операций
+     * @param accountIds Идентификаторы счетов
+     * @param operationTypes Типы операций
+     * @param amounts Суммы операций
+     * @param currencyCodes Коды валют
+     * @param descriptions Описания
+     * @return Количество созданных записей
+     */
+    @Modifying
+    @Query("INSERT INTO cash_operations (operation_uuid, account_id, operation_type, amount, currency_code, description) " +
+            "SELECT * FROM unnest(:operationUuids, :accountIds, :operationTypes, " +
+            ":amounts, :currencyCodes, :descriptions)")
+    Mono<Integer> insertPending(UUID[] operationUuids, UUID[] accountIds, String[] operationTypes,
+                                BigDecimal[] amounts, String[] currencyCodes, String[] descriptions);
+
+    /**
+     * Перевести операции пакета в итоговые статусы одним запросом. Как и для одиночной операции,
+     * обновляются только операции в статусе PENDING
+     *
+     * @param operationUuids Идентификаторы операций
+     * @param statuses Итоговые статусы в порядке идентификаторов
+     * @param completedAt Дата завершения
+     * @return Количество обновленных записей
+     */
+    @Modifying
+    @Query("UPDATE cash_operations c SET status = u.status, completed_at = :completedAt " +
+            "FROM unnest(:operationUuids, :statuses) AS u(operation_uuid, status) " +
+            "WHERE c.operation_uuid = u.operation_uuid AND c.status = 'PENDING'")
+    Mono<Integer> completeOperations(UUID[] operationUuids, String[] statuses, LocalDateTime completedAt);
+
+    /**
+     * Страница операций, зависших в статусе PENDING. Постраничная выборка по ключу (created_at, operation_uuid)
+     * идет по частичному индексу idx_cash_operations_pending и не зависит от глубины страницы
+     *
+     * @param createdBefore Операции, созданные раньше этого времени, считаются зависшими
+     * @param afterCreatedAt Дата создания последней операции предыдущей страницы
+     * @param afterId Идентификатор последней операции предыдущей страницы
+     * @param limit Размер страницы
+     * @return Операции в порядке создания
+     */
+    @Query("SELECT * FROM cash_operations " +
+            "WHERE status = 'PENDING' AND created_at < :createdBefore " +
+            "AND (created_at, operation_uuid) > (:afterCreatedAt, :afterId) " +
+            "ORDER BY created_at, operation_uuid LIMIT :limit")
+    Flux<CashOperationDao> findPendingPage(LocalDateTime createdBefore, LocalDateTime afterCreatedAt, UUID afterId,
+                                           int limit);
 }
@@ -0,0 +1,36 @@
+package ru.practicum.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.NotificationOutboxDao;
+
+/**
+ * Репозиторий исходящих оповещений
+ */
+@Repository
+public interface NotificationOutboxRepository extends ReactiveCrudRepository<NotificationOutboxDao, Long> {
+
+    /**
+     * Выбрать самые старые оповещения с блокировкой строк до конца транзакции.
+     * Строки, заблокированные другим экземпляром сервиса, пропускаются
+     *
+     * @param limit Размер пакета
+     * @return Оповещения в порядке добавления
+     */
+    @Query("SELECT * FROM notification_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    Flux<NotificationOutboxDao> findBatchForUpdate(int limit);
+
+    /**
+     * Удалить отправленные оповещения
+     *
+     * @param ids Идентификаторы оповещений
+     * @return Количество удаленных записей
+     */
+    @Modifying
+    @Query("DELETE FROM notification_outbox WHERE id = ANY(:ids)")
+    Mono<Integer> deleteByIds(Long[] ids);
+}
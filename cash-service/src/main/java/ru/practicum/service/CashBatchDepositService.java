@@ -0,0 +1,18 @@
+package ru.practicum.service;
+
+import reactor.core.publisher.Flux;
+import ru.practicum.model.BatchDepositResult;
+
+/**
+ * Сервис пакетного зачисления наличных из файлов отделений и банкоматов
+ */
+public interface CashBatchDepositService {
+    /**
+     * Зачислить суммы из строк файла формата account_id,user_id,amount,currency.
+     * Строки читаются потоком и обрабатываются пакетами, результат возвращается по каждой строке в порядке файла
+     *
+     * @param lines Строки файла
+     * @return Результаты по строкам
+     */
+    Flux<BatchDepositResult> deposit(Flux<String> lines);
+}
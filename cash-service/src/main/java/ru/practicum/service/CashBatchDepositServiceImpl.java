@@ -0,0 +1,359 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeDto;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeStatus;
+import ru.practicum.client.account.dto.BalanceUpdateRequestDto;
+import ru.practicum.client.account.dto.BalanceUpdateResultDto;
+import ru.practicum.client.account.dto.BalanceUpdateStatus;
+import ru.practicum.client.blocker.BlockerServiceClient;
+import ru.practicum.client.blocker.dto.OperationCheckRequestDto;
+import ru.practicum.model.BatchDepositResult;
+import ru.practicum.model.BatchDepositStatus;
+import ru.practicum.repository.CashOperationRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CashBatchDepositServiceImpl implements CashBatchDepositService {
+    private static final String DEPOSIT = "DEPOSIT";
+    private static final String HEADER_PREFIX = "account";
+    private static final int FIELD_COUNT = 4;
+
+    /**
+     * Клиент для обращений к сервису аккаунтов
+     */
+    private final AccountsServiceClient accountsServiceClient;
+
+    /**
+     * Клиент для взаимодействия с сервисом блокировки операций
+     */
+    private final BlockerServiceClient blockerServiceClient;
+
+    /**
+     * Репозиторий операций
+     */
+    private final CashOperationRepository cashOperationRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Количество строк в пакете: одна вставка операций, одно обновление балансов и одно обновление статусов
+     */
+    @Value("${app.cash.batch.size:500}")
+    private int batchSize;
+
+    /**
+     * Количество одновременно обрабатываемых пакетов
+     */
+    @Value("${app.cash.batch.concurrency:4}")
+    private int concurrency;
+
+    /**
+     * Количество одновременных проверок блокировщиком в пакете
+     */
+    @Value("${app.cash.batch.blocker-concurrency:32}")
+    private int blockerConcurrency;
+
+    @Override
+    public Flux<BatchDepositResult> deposit(Flux<String> lines) {
+        return Flux.defer(() -> {
+            long startedAt = System.nanoTime();
+            AtomicLong processed = new AtomicLong();
+            return lines.index()
+                    .<ParsedLine>handle((line, sink) -> {
+                        ParsedLine parsed = parse(line.getT1() + 1, line.getT2());
+                        if (parsed != null) {
+                            sink.next(parsed);
+                        }
+                    })
+                    .buffer(batchSize)
+                    .flatMapSequential(this::processBatch, concurrency)
+                    .doOnNext(result -> {
+                        processed.incrementAndGet();
+                        meterRegistry.counter("cash.batch.lines", "status", result.getStatus().name()).increment();
+                    })
+                    .doOnComplete(() -> {
+                        double seconds = Math.max(System.nanoTime() - startedAt, 1) / 1_000_000_000.0;
+                        log.info("Пакетное зачисление завершено: {} строк за {} с ({} строк/с)",
+                                processed.get(), String.format("%.2f", seconds),
+                                String.format("%.0f", processed.get() / seconds));
+                    });
+        });
+    }
+
+    /**
+     * Обработать пакет: создать операции, проверить их блокировщиком, обновить балансы и статусы
+     */
+    private Flux<BatchDepositResult> processBatch(List<ParsedLine> batch) {
+        List<ParsedLine> valid = batch.stream()
+                .filter(line -> line.error() == null)
+                .toList();
+
+        Mono<Map<Long, BatchDepositResult>> processed = valid.isEmpty()
+                ? Mono.just(Map.of())
+                : insertPending(valid)
+                .flatMap(inserted -> Flux.fromIterable(valid)
+                        .flatMapSequential(this::checkBlocked, blockerConcurrency)
+                        .collectList()
+                        .flatMap(this::updateBalances)
+                        .flatMap(this::completeOperations))
+                .onErrorResume(e -> {
+                    log.error("Не удалось сохранить операции пакета: {}", e.getMessage());
+                    return Mono.just(valid.stream()
+                            .map(line -> result(line, BatchDepositStatus.FAILED, "Не удалось сохранить операцию"))
+                            .toList());
+                })
+                .map(results -> results.stream()
+                        .collect(Collectors.toMap(BatchDepositResult::getLineNumber, Function.identity())));
+
+        return processed
+                .elapsed()
+                .doOnNext(timed -> meterRegistry.timer("cash.batch.duration").record(Duration.ofMillis(timed.getT1())))
+                .map(Tuple2::getT2)
+                .flatMapIterable(results -> batch.stream()
+                        .map(line -> line.error() != null
+                                ? result(line, BatchDepositStatus.INVALID, line.error())
+                                : results.get(line.lineNumber()))
+                        .toList());
+    }
+
+    private Mono<Integer> insertPending(List<ParsedLine> lines) {
+        return cashOperationRepository.insertPending(
+                lines.stream().map(ParsedLine::operationId).toArray(UUID[]::new),
+                lines.stream().map(ParsedLine::accountId).toArray(UUID[]::new),
+                lines.stream().map(line -> DEPOSIT).toArray(String[]::new),
+                lines.stream().map(ParsedLine::amount).toArray(BigDecimal[]::new),
+                lines.stream().map(ParsedLine::currency).toArray(String[]::new),
+                lines.stream().map(line -> String.format("%s %s %s", DEPOSIT, line.amount(), line.currency()))
+                        .toArray(String[]::new));
+    }
+
+    private Mono<CheckedLine> checkBlocked(ParsedLine line) {
+        OperationCheckRequestDto dto = OperationCheckRequestDto.builder()
+                .operationId(line.operationId())
+                .accountId(line.accountId())
+                .userId(line.userId())
+                .amount(line.amount())
+                .currency(line.currency())
+                .operationType(DEPOSIT)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        return blockerServiceClient.checkOperation(dto)
+                .map(blocked -> Boolean.TRUE.equals(blocked)
+                        ? new CheckedLine(line, result(line, BatchDepositStatus.BLOCKED,
+                        "Операция заблокирована службой безопасности"))
+                        : new CheckedLine(line, null))
+                .switchIfEmpty(Mono.fromSupplier(() -> new CheckedLine(line,
+                        result(line, BatchDepositStatus.FAILED, "Не удалось проверить операцию"))))
+                .onErrorResume(e -> Mono.just(new CheckedLine(line,
+                        result(line, BatchDepositStatus.FAILED, "Не удалось проверить операцию: " + e.getMessage()))));
+    }
+
+    /**
+     * Обновить балансы разрешенных строк пакета одним запросом к сервису аккаунтов.
+     * Ошибка запроса не означает, что балансы не изменены (например, при таймауте), поэтому
+     * итоги запрашиваются по ключам идемпотентности
+     */
+    private Mono<List<BatchDepositResult>> updateBalances(List<CheckedLine> checked) {
+        List<ParsedLine> allowed = checked.stream()
+                .filter(line -> line.rejection() == null)
+                .map(CheckedLine::line)
+                .toList();
+        if (allowed.isEmpty()) {
+            return Mono.just(checked.stream().map(CheckedLine::rejection).toList());
+        }
+
+        List<BalanceUpdateRequestDto> requests = allowed.stream()
+                .map(line -> BalanceUpdateRequestDto.builder()
+                        .userId(line.userId())
+                        .accountId(line.accountId())
+                        .amount(line.amount())
+                        .isDeposit(true)
+                        .idempotencyKey(line.operationId().toString())
+                        .build())
+                .toList();
+
+        return accountsServiceClient.checkAndUpdateAccountBalances(requests)
+                .collectMap(BalanceUpdateResultDto::getIndex, BalanceUpdateResultDto::getStatus)
+                .map(statuses -> {
+                    Map<Long, BatchDepositResult> results = new HashMap<>();
+                    for (int i = 0; i < allowed.size(); i++) {
+                        results.put(allowed.get(i).lineNumber(), balanceResult(allowed.get(i), statuses.get(i)));
+                    }
+                    return results;
+                })
+                .onErrorResume(e -> {
+                    log.error("Пакетное обновление балансов не выполнено, итоги запрашиваются по ключам идемпотентности: {}",
+                            e.getMessage());
+                    return resolveOutcomes(allowed);
+                })
+                .map(results -> checked.stream()
+                        .map(line -> line.rejection() != null
+                                ? line.rejection()
+                                : results.get(line.line().lineNumber()))
+                        .toList());
+    }
+
+    /**
+     * Узнать итоги зачислений по ключам идемпотентности. Строки с неизвестным итогом остаются PENDING до сверки
+     */
+    private Mono<Map<Long, BatchDepositResult>> resolveOutcomes(List<ParsedLine> lines) {
+        return accountsServiceClient.getBalanceUpdateOutcomes(lines.stream()
+                        .map(line -> line.operationId().toString())
+                        .toList())
+                .collectMap(BalanceUpdateOutcomeDto::getIdempotencyKey, BalanceUpdateOutcomeDto::getStatus)
+                .onErrorResume(e -> {
+                    log.warn("Не удалось узнать итоги зачислений пакета, они будут проверены сверкой: {}", e.getMessage());
+                    return Mono.just(Map.of());
+                })
+                .map(outcomes -> lines.stream()
+                        .collect(Collectors.toMap(ParsedLine::lineNumber,
+                                line -> outcomeResult(line, outcomes.get(line.operationId().toString())))));
+    }
+
+    private BatchDepositResult balanceResult(ParsedLine line, BalanceUpdateStatus status) {
+        if (status == null) {
+            return pending(line);
+        }
+        return switch (status) {
+            case APPLIED -> result(line, BatchDepositStatus.COMPLETED, null);
+            case NOT_FOUND -> result(line, BatchDepositStatus.FAILED, "Счет не найден");
+            case INSUFFICIENT_FUNDS, INVALID_REQUEST -> result(line, BatchDepositStatus.FAILED, "Некорректный запрос");
+            case REJECTED -> result(line, BatchDepositStatus.FAILED, "Сервис аккаунтов не выполнил зачисление");
+        };
+    }
+
+    private BatchDepositResult outcomeResult(ParsedLine line, BalanceUpdateOutcomeStatus outcome) {
+        if (outcome == null) {
+            return pending(line);
+        }
+        return switch (outcome) {
+            case APPLIED -> result(line, BatchDepositStatus.COMPLETED, null);
+            case NOT_APPLIED -> result(line, BatchDepositStatus.FAILED, "Сервис аккаунтов не выполнил зачисление");
+            case IN_PROGRESS -> pending(line);
+        };
+    }
+
+    private BatchDepositResult pending(ParsedLine line) {
+        return result(line, BatchDepositStatus.PENDING,
+                "Итог зачисления неизвестен, операция будет проверена сверкой. Не подавайте строку повторно");
+    }
+
+    /**
+     * Перевести операции пакета с известным итогом в итоговые статусы. Ошибка не влияет на результат строк:
+     * операции остаются в статусе PENDING
+     */
+    private Mono<List<BatchDepositResult>> completeOperations(List<BatchDepositResult> results) {
+        List<BatchDepositResult> completed = results.stream()
+                .filter(result -> result.getStatus() != BatchDepositStatus.PENDING)
+                .toList();
+        if (completed.isEmpty()) {
+            return Mono.just(results);
+        }
+        return cashOperationRepository.completeOperations(
+                        completed.stream().map(BatchDepositResult::getOperationId).toArray(UUID[]::new),
+                        completed.stream().map(result -> result.getStatus().name()).toArray(String[]::new),
+                        LocalDateTime.now())
+                .onErrorResume(e -> {
+                    log.warn("Не удалось обновить статусы операций пакета: {}", e.getMessage());
+                    return Mono.just(0);
+                })
+                .thenReturn(results);
+    }
+
+    /**
+     * Разобрать строку файла. Пустые строки и заголовок пропускаются
+     */
+    private ParsedLine parse(long lineNumber, String raw) {
+        String line = raw.strip();
+        if (line.isEmpty() || (lineNumber == 1 && line.toLowerCase().startsWith(HEADER_PREFIX))) {
+            return null;
+        }
+
+        String[] fields = line.split("[,;]", -1);
+        if (fields.length != FIELD_COUNT) {
+            return ParsedLine.invalid(lineNumber, "Ожидается " + FIELD_COUNT + " поля: account_id,user_id,amount,currency");
+        }
+        UUID accountId;
+        UUID userId;
+        BigDecimal amount;
+        try {
+            accountId = UUID.fromString(fields[0].strip());
+            userId = UUID.fromString(fields[1].strip());
+            amount = new BigDecimal(fields[2].strip());
+        } catch (IllegalArgumentException e) {
+            return ParsedLine.invalid(lineNumber, "Некорректный формат строки: " + e.getMessage());
+        }
+        String currency = fields[3].strip().toUpperCase();
+
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return ParsedLine.invalid(lineNumber, "Сумма должна быть положительной");
+        }
+        if (currency.length() != 3) {
+            return ParsedLine.invalid(lineNumber, "Требуется трехбуквенный код валюты");
+        }
+        return new ParsedLine(lineNumber, UUID.randomUUID(), accountId, userId,
+                amount.setScale(2, RoundingMode.HALF_DOWN), currency, null);
+    }
+
+    private BatchDepositResult result(ParsedLine line, BatchDepositStatus status, String message) {
+        return BatchDepositResult.builder()
+                .lineNumber(line.lineNumber())
+                .operationId(line.operationId())
+                .accountId(line.accountId())
+                .amount(line.amount())
+                .currency(line.currency())
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Разобранная строка файла
+     *
+     * @param lineNumber Номер строки в файле
+     * @param operationId Идентификатор операции
+     * @param accountId Идентификатор счета
+     * @param userId Идентификатор пользователя
+     * @param amount Сумма
+     * @param currency Код валюты
+     * @param error Ошибка формата (если строка некорректна)
+     */
+    private record ParsedLine(long lineNumber, UUID operationId, UUID accountId, UUID userId, BigDecimal amount,
+                              String currency, String error) {
+        static ParsedLine invalid(long lineNumber, String error) {
+            return new ParsedLine(lineNumber, null, null, null, null, null, error);
+        }
+    }
+
+    /**
+     * Строка после проверки блокировщиком
+     *
+     * @param line Разобранная строка
+     * @param rejection Результат, если строка заблокирована или не проверена; null, если зачисление разрешено
+     */
+    private record CheckedLine(ParsedLine line, BatchDepositResult rejection) {
+    }
+}
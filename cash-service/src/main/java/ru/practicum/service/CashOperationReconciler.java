@@ -0,0 +1,208 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeDto;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeStatus;
+import ru.practicum.dao.CashOperationDao;
+import ru.practicum.repository.CashOperationRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сверка операций, зависших в статусе PENDING (например, после падения сервиса между созданием операции
+ * и сменой ее статуса). Идентификатор операции передается в сервис аккаунтов как ключ идемпотентности,
+ * поэтому по нему можно узнать, был ли изменен баланс: операция переводится в COMPLETED или FAILED,
+ * а незавершенные запросы проверяются при следующем запуске. NOT_APPLIED окончателен: сервис аккаунтов
+ * закрывает ключ и больше не применяет изменение с ним.
+ * Итоги хранятся в сервисе аккаунтов ограниченное время, поэтому операции старше max-age не сверяются
+ * и остаются в статусе PENDING для ручного разбора.
+ * Страницы выбираются по ключу (created_at, operation_uuid) с паузой между страницами,
+ * чтобы сверка не конкурировала с рабочей нагрузкой
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CashOperationReconciler {
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    /**
+     * Репозиторий операций
+     */
+    private final CashOperationRepository cashOperationRepository;
+
+    /**
+     * Клиент для обращений к сервису аккаунтов
+     */
+    private final AccountsServiceClient accountsServiceClient;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Выполняется ли сверка в данный момент
+     */
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    /**
+     * Позиция, с которой продолжится следующий запуск, если предыдущий остановился на лимите
+     */
+    private volatile Cursor cursor = Cursor.START;
+
+    /**
+     * Включена ли сверка
+     */
+    @Value("${app.cash.reconciler.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Через сколько после создания операция в статусе PENDING считается зависшей
+     */
+    @Value("${app.cash.reconciler.stuck-after:5m}")
+    private Duration stuckAfter;
+
+    /**
+     * Максимальный возраст сверяемой операции. Должен быть меньше срока хранения итогов в сервисе аккаунтов
+     */
+    @Value("${app.cash.reconciler.max-age:7d}")
+    private Duration maxAge;
+
+    /**
+     * Количество операций на странице: один запрос к базе, один запрос к сервису аккаунтов и одно обновление статусов
+     */
+    @Value("${app.cash.reconciler.page-size:100}")
+    private int pageSize;
+
+    /**
+     * Максимальное количество проверяемых операций в секунду
+     */
+    @Value("${app.cash.reconciler.max-per-second:50}")
+    private int maxPerSecond;
+
+    /**
+     * Максимальное количество проверяемых операций за один запуск
+     */
+    @Value("${app.cash.reconciler.max-per-run:1000}")
+    private int maxPerRun;
+
+    @Scheduled(fixedDelayString = "${app.cash.reconciler.interval:60000}")
+    public void reconcile() {
+        if (!enabled || !reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        reconcileAll()
+                .doFinally(signal -> reconciling.set(false))
+                .subscribe(
+                        count -> {
+                            if (count > 0) {
+                                log.info("Сверка зависших операций: завершено {}", count);
+                            }
+                        },
+                        error -> log.warn("Ошибка сверки зависших операций: {}", error.getMessage())
+                );
+    }
+
+    /**
+     * Проверять страницы, пока не закончатся зависшие операции или не будет достигнут лимит запуска
+     *
+     * @return Количество операций, переведенных в итоговый статус
+     */
+    Mono<Integer> reconcileAll() {
+        return Mono.defer(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime createdBefore = now.minus(stuckAfter);
+            Cursor horizon = new Cursor(now.minus(maxAge), new UUID(0, 0));
+            Cursor from = cursor.createdAt().isBefore(horizon.createdAt()) ? horizon : cursor;
+            Duration pause = Duration.ofMillis(1000L * pageSize / Math.max(maxPerSecond, 1));
+            AtomicInteger scanned = new AtomicInteger();
+
+            return reconcilePage(createdBefore, from)
+                    .expand(page -> page.hasMore() && scanned.addAndGet(page.scanned()) < maxPerRun
+                            ? Mono.delay(pause).then(reconcilePage(createdBefore, page.next()))
+                            : Mono.empty())
+                    .doOnNext(page -> cursor = page.hasMore() ? page.next() : Cursor.START)
+                    .reduce(0, (resolved, page) -> resolved + page.resolved());
+        });
+    }
+
+    /**
+     * Проверить одну страницу зависших операций
+     */
+    private Mono<Page> reconcilePage(LocalDateTime createdBefore, Cursor from) {
+        return cashOperationRepository.findPendingPage(createdBefore, from.createdAt(), from.operationUuid(), pageSize)
+                .collectList()
+                .flatMap(operations -> {
+                    if (operations.isEmpty()) {
+                        return Mono.just(new Page(0, 0, from, false));
+                    }
+                    CashOperationDao last = operations.get(operations.size() - 1);
+                    Cursor next = new Cursor(last.getCreatedAt(), last.getOperationUuid());
+                    return accountsServiceClient.getBalanceUpdateOutcomes(operations.stream()
+                                    .map(operation -> operation.getOperationUuid().toString())
+                                    .toList())
+                            .collectMap(BalanceUpdateOutcomeDto::getIdempotencyKey, BalanceUpdateOutcomeDto::getStatus)
+                            .flatMap(outcomes -> resolve(operations, outcomes))
+                            .map(resolved -> new Page(operations.size(), resolved, next,
+                                    operations.size() == pageSize));
+                });
+    }
+
+    /**
+     * Перевести операции с известным итогом в COMPLETED или FAILED одним запросом
+     */
+    private Mono<Integer> resolve(List<CashOperationDao> operations, Map<String, BalanceUpdateOutcomeStatus> outcomes) {
+        List<UUID> ids = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
+        for (CashOperationDao operation : operations) {
+            BalanceUpdateOutcomeStatus outcome = outcomes.get(operation.getOperationUuid().toString());
+            String status = outcome == BalanceUpdateOutcomeStatus.APPLIED ? COMPLETED
+                    : outcome == BalanceUpdateOutcomeStatus.NOT_APPLIED ? FAILED
+                    : null;
+            meterRegistry.counter("cash.reconciler.operations", "outcome",
+                    outcome == null ? "UNKNOWN" : outcome.name()).increment();
+            if (status != null) {
+                ids.add(operation.getOperationUuid());
+                statuses.add(status);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        return cashOperationRepository.completeOperations(ids.toArray(UUID[]::new), statuses.toArray(String[]::new),
+                LocalDateTime.now());
+    }
+
+    /**
+     * Позиция постраничной выборки
+     *
+     * @param createdAt Дата создания последней проверенной операции
+     * @param operationUuid Идентификатор последней проверенной операции
+     */
+    private record Cursor(LocalDateTime createdAt, UUID operationUuid) {
+        static final Cursor START = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0, 0));
+    }
+
+    /**
+     * Результат проверки страницы
+     *
+     * @param scanned Количество проверенных операций
+     * @param resolved Количество операций, переведенных в итоговый статус
+     * @param next Позиция следующей страницы
+     * @param hasMore Заполнена ли страница целиком
+     */
+    private record Page(int scanned, int resolved, Cursor next, boolean hasMore) {
+    }
+}
@@ -2,14 +2,12 @@ package ru.practicum.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
-import reactor.kafka.sender.KafkaSender;
-import reactor.kafka.sender.SenderRecord;
-import reactor.kafka.sender.SenderResult;
 import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeDto;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeStatus;
 import ru.practicum.client.account.dto.BalanceUpdateRequestDto;
 import ru.practicum.client.blocker.BlockerServiceClient;
 import ru.practicum.client.blocker.dto.OperationCheckRequestDto;
@@ -23,6 +21,8 @@ import ru.practicum.repository.CashOperationRepository;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -42,20 +42,39 @@ public class CashServiceImpl implements CashService {
      */
     private final BlockerServiceClient blockerServiceClient;
 
-    private final KafkaSender<String, NotificationRequestDto> kafkaSender;
+    /**
+     * Кэш контактов пользователей
+     */
+    private final UserContactCache userContactCache;
+
+    /**
+     * Исходящие оповещения (outbox)
+     */
+    private final NotificationOutbox notificationOutbox;
 
     /**
      * Репозиторий операций
      */
     private final CashOperationRepository cashOperationRepository;
 
+    /**
+     * Лимиты снятия по счету
+     */
+    private final VelocityLimiter velocityLimiter;
+
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Операция PENDING сохраняется отдельной транзакцией до обращения к сервису аккаунтов,
+     * поэтому после сбоя она видна сверке зависших операций
+     */
     @Override
-    @Transactional
     public Mono<CashResponse> cashOperation(CashRequestDto request) {
         String operationType = request.getIsDeposit() ? DEPOSIT : WITHDRAW;
 
         return validateRequest(request)
                 .then(createOperationRecord(request, operationType))
+                .flatMap(operation -> checkVelocityLimits(request, operation.getOperationUuid()).thenReturn(operation))
                 .flatMap(operation -> checkOperationBlocking(request, operationType).zipWith(Mono.just(operation)))
                 .flatMap(tuple2 -> handleBlockingResult(tuple2.getT1(), tuple2.getT2().getOperationUuid()).zipWith(Mono.just(tuple2.getT2())))
                 .flatMap(tuple2 -> executeFinancialOperation(request, tuple2.getT2().getOperationUuid(), operationType))
@@ -78,6 +97,23 @@ public class CashServiceImpl implements CashService {
         return Mono.empty();
     }
 
+    /**
+     * Проверить лимиты снятия до обращений к другим сервисам. Отклоненная операция
+     * остается в журнале операций со статусом BLOCKED
+     */
+    private Mono<Void> checkVelocityLimits(CashRequestDto request, UUID operationId) {
+        if (request.getIsDeposit()) {
+            return Mono.empty();
+        }
+        return switch (velocityLimiter.tryAcquire(request.getAccountId(), request.getCurrency(), request.getAmount())) {
+            case ALLOWED -> Mono.empty();
+            case DAILY_AMOUNT_EXCEEDED -> updateOperationStatus(operationId, "BLOCKED")
+                    .then(Mono.error(new SecurityException("Превышен суточный лимит суммы снятия")));
+            case HOURLY_COUNT_EXCEEDED -> updateOperationStatus(operationId, "BLOCKED")
+                    .then(Mono.error(new SecurityException("Превышен лимит количества снятий в час")));
+        };
+    }
+
     private Mono<CashOperationDao> createOperationRecord(CashRequestDto request, String operationType) {
         CashOperationDao operation = CashOperationDao.builder()
                 .accountId(request.getAccountId())
@@ -124,11 +160,36 @@ public class CashServiceImpl implements CashService {
         return Mono.just(true);
     }
 
+    /**
+     * Изменить баланс, затем в одной транзакции сохранить оповещение и завершить операцию
+     */
     private Mono<CashResponse> executeFinancialOperation(CashRequestDto request, UUID operationId, String operationType) {
-        return checkAndUpdateAccountBalance(request)
-                .flatMap(updated -> sendNotification(request))
-                .flatMap(notified -> completeOperation(operationId, operationType))
-                .onErrorResume(error -> handleExecutionError(error, operationId));
+        return checkAndUpdateAccountBalance(request, operationId)
+                .materialize()
+                .flatMap(signal -> signal.hasError()
+                        ? handleExecutionError(signal.getThrowable(), request, operationId, operationType)
+                        : finishApplied(request, operationId, operationType));
+    }
+
+    /**
+     * Баланс уже изменен, поэтому ошибка сохранения оповещения или статуса только записывается в журнал:
+     * вызывающий получает успех, а операция остается PENDING и завершается сверкой.
+     * Адрес пользователя может запрашиваться по сети, поэтому он получается до начала транзакции:
+     * в транзакции выполняются только запись в outbox и обновление статуса
+     */
+    private Mono<CashResponse> finishApplied(CashRequestDto request, UUID operationId, String operationType) {
+        return buildNotification(request)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(notification -> Mono.justOrEmpty(notification)
+                        .flatMap(notificationOutbox::enqueue)
+                        .then(Mono.defer(() -> completeOperation(operationId, operationType)))
+                        .as(transactionalOperator::transactional))
+                .onErrorResume(e -> {
+                    log.error("Баланс по операции {} изменен, но завершить ее не удалось, она будет завершена сверкой: {}",
+                            operationId, e.getMessage());
+                    return Mono.just(successResponse(operationType));
+                });
     }
 
     private Mono<Boolean> verifyAccount(UUID accountId, UUID userId) {
@@ -174,7 +235,11 @@ public class CashServiceImpl implements CashService {
                 .thenReturn(true);
     }
 
-    private Mono<Boolean> checkAndUpdateAccountBalance(CashRequestDto request) {
+    /**
+     * Обновить баланс. Идентификатор операции передается как ключ идемпотентности:
+     * по нему сверка зависших операций узнает, был ли применен запрос
+     */
+    private Mono<Boolean> checkAndUpdateAccountBalance(CashRequestDto request, UUID operationId) {
         BalanceUpdateRequestDto updateRequest = BalanceUpdateRequestDto.builder()
                 .userId(request.getUserId())
                 .accountId(request.getAccountId())
@@ -182,55 +247,42 @@ public class CashServiceImpl implements CashService {
                 .isDeposit(request.getIsDeposit())
                 .build();
 
-        return accountsServiceClient.checkAndUpdateAccountBalance(updateRequest);
+        return accountsServiceClient.checkAndUpdateAccountBalance(updateRequest, operationId.toString());
     }
 
-    private Mono<Boolean> sendNotification(CashRequestDto request) {
-        return accountsServiceClient.getUser(request.getUserId())
-                .map(userResponseDto -> NotificationRequestDto.builder()
-                        .email(userResponseDto.getEmail())
+    /**
+     * Подготовить оповещение об операции. Если не удалось получить адрес пользователя, оповещение не создается
+     */
+    private Mono<NotificationRequestDto> buildNotification(CashRequestDto request) {
+        return userContactCache.getEmail(request.getUserId())
+                .onErrorResume(e -> {
+                    log.warn("Не удалось получить email пользователя {}, оповещение не создано: {}",
+                            request.getUserId(), e.getMessage());
+                    return Mono.empty();
+                })
+                .map(email -> NotificationRequestDto.builder()
+                        .email(email)
                         .title("Message from cash-service")
                         .description(String.format("%s %s %s со счета %s",
                                 request.getIsDeposit() ? "Пополнено" : "Снято",
                                 request.getAmount(), request.getCurrency(), request.getAccountId()))
-                        .build())
-                .flatMap(dto -> {
-                    SenderRecord<String, NotificationRequestDto, String> record = SenderRecord.create(
-                            new ProducerRecord<>("notification", "notification", dto),
-                            UUID.randomUUID().toString() // correlationId
-                    );
-
-                    return kafkaSender.send(Mono.just(record))
-                            .doOnNext(result -> {
-                                if (result.exception() != null) {
-                                    log.error("Failed to send Kafka message: {}", result.exception().getMessage());
-                                } else {
-                                    log.info("Kafka message sent successfully, offset: {}", result.recordMetadata().offset());
-                                }
-                            })
-                            .then(Mono.just(true))
-                            .onErrorResume(e -> {
-                                log.error("Kafka send failed, will retry in transaction: {}", e.getMessage());
-                                return Mono.error(e);
-                            });
-                })
-                .retry(3)
-                .onErrorResume(e -> {
-                    log.warn("Notification failed after retries: {}", e.getMessage());
-                    return Mono.just(false);
-                });
+                        .build());
     }
 
     private Mono<CashResponse> completeOperation(UUID operationId, String operationType) {
         return updateOperationStatus(operationId, "COMPLETED")
-                .then(Mono.just(CashResponse.builder()
-                        .status("SUCCESS")
-                        .message(String.format("%s успешно завершен", operationType))
-                        .build()))
+                .then(Mono.fromSupplier(() -> successResponse(operationType)))
                 .doOnSuccess(response ->
                         log.info("Операция {} успешно завершена: {}", operationType, operationId));
     }
 
+    private CashResponse successResponse(String operationType) {
+        return CashResponse.builder()
+                .status("SUCCESS")
+                .message(String.format("%s успешно завершен", operationType))
+                .build();
+    }
+
     private Mono<CashResponse> handleOperationError(Throwable error) {
         log.error("Ошибка обработки операции: {}", error.getMessage());
 
@@ -244,22 +296,41 @@ public class CashServiceImpl implements CashService {
     }
 
     private Mono<Void> updateOperationStatus(UUID operationId, String status) {
-        return cashOperationRepository.findById(operationId)
-                .flatMap(operation -> {
-                    operation.setStatus(status);
-                    operation.setCompletedAt(LocalDateTime.now());
-                    return cashOperationRepository.save(operation);
+        return cashOperationRepository.completeOperation(operationId, status, LocalDateTime.now())
+                .doOnNext(updated -> {
+                    if (updated == 0) {
+                        log.warn("Операция {} уже завершена, статус {} не установлен", operationId, status);
+                    }
                 })
                 .then();
     }
 
-    private Mono<CashResponse> handleExecutionError(Throwable error, UUID operationId) {
+    /**
+     * Ошибка запроса не означает, что баланс не изменен (например, при таймауте), поэтому итог
+     * запрашивается по ключу идемпотентности. FAILED устанавливается только для окончательного NOT_APPLIED;
+     * если итог неизвестен, операция остается PENDING до сверки
+     */
+    private Mono<CashResponse> handleExecutionError(Throwable error, CashRequestDto request, UUID operationId,
+                                                    String operationType) {
         log.error("Ошибка выполнения для операции {}: {}", operationId, error.getMessage());
+        CashResponse failed = CashResponse.builder()
+                .status("ERROR")
+                .message(error.getMessage())
+                .build();
 
-        return updateOperationStatus(operationId, "FAILED")
-                .then(Mono.just(CashResponse.builder()
-                        .status("ERROR")
-                        .message(error.getMessage())
-                        .build()));
+        return accountsServiceClient.getBalanceUpdateOutcomes(List.of(operationId.toString()))
+                .next()
+                .map(BalanceUpdateOutcomeDto::getStatus)
+                .onErrorResume(e -> {
+                    log.warn("Не удалось узнать итог операции {}, она будет проверена сверкой: {}",
+                            operationId, e.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(BalanceUpdateOutcomeStatus.IN_PROGRESS)
+                .flatMap(outcome -> switch (outcome) {
+                    case APPLIED -> finishApplied(request, operationId, operationType);
+                    case NOT_APPLIED -> updateOperationStatus(operationId, "FAILED").thenReturn(failed);
+                    case IN_PROGRESS -> Mono.just(failed);
+                });
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import ru.practicum.dao.NotificationOutboxDao;
+import ru.practicum.dto.NotificationRequestDto;
+import ru.practicum.repository.NotificationOutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transactional outbox оповещений.
+ * Оповещение сохраняется в таблицу notification_outbox в транзакции операции,
+ * а фоновая задача пакетами отправляет накопленные записи в Kafka и удаляет отправленные.
+ * Доставка "хотя бы один раз": при ошибке отправки пакет остается в таблице до следующего запуска.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+    private static final String NOTIFICATION_TOPIC = "notification";
+    private static final String MESSAGE_KEY = "notification";
+
+    /**
+     * Репозиторий исходящих оповещений
+     */
+    private final NotificationOutboxRepository notificationOutboxRepository;
+
+    private final KafkaSender<String, NotificationRequestDto> kafkaSender;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Выполняется ли отправка в данный момент
+     */
+    private final AtomicBoolean relaying = new AtomicBoolean();
+
+    /**
+     * Максимальное количество оповещений в одном пакете отправки
+     */
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Сохранить оповещение для последующей отправки
+     *
+     * @param notification Оповещение
+     */
+    public Mono<Void> enqueue(NotificationRequestDto notification) {
+        return Mono.fromCallable(() -> NotificationOutboxDao.builder()
+                        .topic(NOTIFICATION_TOPIC)
+                        .messageKey(MESSAGE_KEY)
+                        .payload(objectMapper.writeValueAsString(notification))
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .flatMap(notificationOutboxRepository::save)
+                .then();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:500}")
+    public void relay() {
+        if (!relaying.compareAndSet(false, true)) {
+            return;
+        }
+        relayAll()
+                .doFinally(signal -> relaying.set(false))
+                .subscribe(
+                        count -> {
+                            if (count > 0) {
+                                log.info("Отправлено оповещений из outbox: {}", count);
+                            }
+                        },
+                        error -> log.warn("Ошибка отправки оповещений из outbox: {}", error.getMessage())
+                );
+    }
+
+    /**
+     * Отправлять пакеты, пока очередь не опустеет
+     *
+     * @return Количество отправленных оповещений
+     */
+    Mono<Integer> relayAll() {
+        return relayBatch()
+                .expand(sent -> sent == batchSize ? relayBatch() : Mono.empty())
+                .reduce(0, Integer::sum);
+    }
+
+    /**
+     * Отправить один пакет оповещений и удалить его из таблицы в одной транзакции
+     *
+     * @return Количество отправленных оповещений
+     */
+    Mono<Integer> relayBatch() {
+        return notificationOutboxRepository.findBatchForUpdate(batchSize)
+                .collectList()
+                .flatMap(batch -> batch.isEmpty()
+                        ? Mono.just(0)
+                        : send(batch).then(Mono.defer(() -> notificationOutboxRepository.deleteByIds(
+                                batch.stream().map(NotificationOutboxDao::getId).toArray(Long[]::new)))))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> send(List<NotificationOutboxDao> batch) {
+        Flux<SenderRecord<String, NotificationRequestDto, Long>> records = Flux.fromIterable(batch)
+                .flatMap(entry -> readPayload(entry)
+                        .map(payload -> SenderRecord.create(
+                                new ProducerRecord<>(entry.getTopic(), entry.getMessageKey(), payload),
+                                entry.getId())));
+
+        return kafkaSender.send(records)
+                .flatMap(result -> result.exception() != null
+                        ? Mono.error(result.exception())
+                        : Mono.just(result))
+                .then();
+    }
+
+    /**
+     * Прочитать оповещение. Нечитаемая запись пропускается и удаляется вместе с пакетом,
+     * чтобы не блокировать очередь
+     */
+    private Mono<NotificationRequestDto> readPayload(NotificationOutboxDao entry) {
+        try {
+            return Mono.just(objectMapper.readValue(entry.getPayload(), NotificationRequestDto.class));
+        } catch (JsonProcessingException e) {
+            log.error("Некорректное оповещение в outbox {} пропущено: {}", entry.getId(), e.getMessage());
+            return Mono.empty();
+        }
+    }
+}
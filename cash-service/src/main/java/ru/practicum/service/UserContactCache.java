@@ -0,0 +1,145 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.UserResponseDto;
+import ru.practicum.dto.AccountEventDto;
+import ru.practicum.model.AccountEventType;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш контактных данных пользователей для оповещений об операциях.
+ * Размер кэша ограничен (LRU), записи истекают по времени жизни и сбрасываются
+ * по событиям USER_UPDATED и USER_DELETED из account-events
+ */
+@Slf4j
+@Component
+public class UserContactCache {
+    /**
+     * Клиент для обращений к сервису аккаунтов
+     */
+    private final AccountsServiceClient accountsServiceClient;
+
+    /**
+     * Включен ли кэш
+     */
+    private final boolean enabled;
+
+    /**
+     * Время жизни записи в наносекундах
+     */
+    private final long ttlNanos;
+
+    /**
+     * Источник текущего времени в наносекундах
+     */
+    private final LongSupplier nanoTime;
+
+    /**
+     * Адреса электронной почты по идентификатору пользователя в порядке доступа
+     */
+    private final Map<UUID, CachedContact> cache;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public UserContactCache(AccountsServiceClient accountsServiceClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.cash.user-contact-cache.enabled:true}") boolean enabled,
+                            @Value("${app.cash.user-contact-cache.max-size:10000}") int maxSize,
+                            @Value("${app.cash.user-contact-cache.ttl:10m}") Duration ttl) {
+        this(accountsServiceClient, meterRegistry, enabled, maxSize, ttl, System::nanoTime);
+    }
+
+    UserContactCache(AccountsServiceClient accountsServiceClient, MeterRegistry meterRegistry, boolean enabled,
+                     int maxSize, Duration ttl, LongSupplier nanoTime) {
+        this.accountsServiceClient = accountsServiceClient;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedContact> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.hitCounter = Counter.builder("cash.user-contact.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cash.user-contact.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Получить адрес электронной почты пользователя
+     *
+     * @param userId Идентификатор пользователя
+     * @return Адрес электронной почты
+     */
+    public Mono<String> getEmail(UUID userId) {
+        if (!enabled) {
+            return loadEmail(userId);
+        }
+        return Mono.defer(() -> {
+            CachedContact cached = cache.get(userId);
+            if (cached != null && nanoTime.getAsLong() - cached.loadedAt() < ttlNanos) {
+                hitCounter.increment();
+                return Mono.just(cached.email());
+            }
+            missCounter.increment();
+            return loadEmail(userId)
+                    .doOnNext(email -> cache.put(userId, new CachedContact(email, nanoTime.getAsLong())));
+        });
+    }
+
+    /**
+     * Сбросить запись по событию об изменении или удалении пользователя
+     *
+     * @param event Событие
+     */
+    public void handle(AccountEventDto event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        if (event.getEventType() == AccountEventType.USER_UPDATED
+                || event.getEventType() == AccountEventType.USER_DELETED) {
+            cache.remove(event.getUserId());
+            log.debug("Контакты пользователя {} сброшены по событию {}", event.getUserId(), event.getEventType());
+        }
+    }
+
+    /**
+     * Количество записей в кэше
+     */
+    int size() {
+        return cache.size();
+    }
+
+    private Mono<String> loadEmail(UUID userId) {
+        return accountsServiceClient.getUser(userId)
+                .mapNotNull(UserResponseDto::getEmail);
+    }
+
+    /**
+     * Запись кэша
+     *
+     * @param email Адрес электронной почты
+     * @param loadedAt Время загрузки в наносекундах
+     */
+    private record CachedContact(String email, long loadedAt) {
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.config.VelocityLimitConfig;
+import ru.practicum.model.VelocityLimitResult;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Лимиты снятия по счету: сумма за сутки и количество за час в скользящем окне.
+ * Счетчики хранятся в памяти в массивах интервалов (сутки - 24 интервала по часу, час - 12 интервалов по 5 минут),
+ * поэтому проверка не требует обращений к другим сервисам.
+ * Счета распределены по сегментам с отдельной блокировкой; в каждом сегменте хранится ограниченное
+ * количество счетов, давно неактивные вытесняются (LRU)
+ */
+@Slf4j
+@Component
+public class VelocityLimiter {
+    private static final int DAY_SLOTS = 24;
+    private static final long DAY_SLOT_MILLIS = 60 * 60 * 1000L;
+    private static final int HOUR_SLOTS = 12;
+    private static final long HOUR_SLOT_MILLIS = 5 * 60 * 1000L;
+
+    private final VelocityLimitConfig config;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Источник текущего времени в миллисекундах
+     */
+    private final LongSupplier currentTimeMillis;
+
+    /**
+     * Сегменты счетчиков; каждый сегмент - LRU-карта счетов в порядке доступа
+     */
+    private final Map<UUID, AccountWindows>[] stripes;
+
+    @Autowired
+    public VelocityLimiter(VelocityLimitConfig config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    VelocityLimiter(VelocityLimitConfig config, MeterRegistry meterRegistry, LongSupplier currentTimeMillis) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.currentTimeMillis = currentTimeMillis;
+        int stripeCount = Integer.highestOneBit(Math.max(config.getStripes(), 1));
+        int stripeCapacity = Math.max(config.getMaxAccounts() / stripeCount, 1);
+        this.stripes = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, AccountWindows> eldest) {
+                    return size() > stripeCapacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * Проверить лимиты снятия и, если они не превышены, учесть операцию в счетчиках счета
+     *
+     * @param accountId Идентификатор счета
+     * @param currency Код валюты в любом регистре
+     * @param amount Сумма снятия
+     * @return Результат проверки
+     */
+    public VelocityLimitResult tryAcquire(UUID accountId, String currency, BigDecimal amount) {
+        VelocityLimitConfig.CurrencyLimit limit = config.getCurrencies().get(currency.toUpperCase());
+        if (!config.isEnabled() || limit == null) {
+            return VelocityLimitResult.ALLOWED;
+        }
+        // Сумма округляется вверх, лимит - вниз, чтобы доли копейки не проходили под лимитом
+        boolean amountLimited = limit.getDailyAmount() != null;
+        long amountMinor = amountLimited ? toMinorUnits(amount, RoundingMode.UP) : 0;
+        long dailyLimitMinor = amountLimited ? toMinorUnits(limit.getDailyAmount(), RoundingMode.DOWN) : 0;
+        long now = currentTimeMillis.getAsLong();
+        long dayEpoch = now / DAY_SLOT_MILLIS;
+        long hourEpoch = now / HOUR_SLOT_MILLIS;
+
+        VelocityLimitResult result;
+        Map<UUID, AccountWindows> stripe = stripeFor(accountId);
+        synchronized (stripe) {
+            AccountWindows windows = stripe.computeIfAbsent(accountId, id -> new AccountWindows());
+            if (limit.getHourlyCount() > 0
+                    && sum(windows.countEpochs, windows.counts, hourEpoch) >= limit.getHourlyCount()) {
+                result = VelocityLimitResult.HOURLY_COUNT_EXCEEDED;
+            } else if (amountLimited && (amountMinor > dailyLimitMinor
+                    || sum(windows.amountEpochs, windows.amounts, dayEpoch) > dailyLimitMinor - amountMinor)) {
+                result = VelocityLimitResult.DAILY_AMOUNT_EXCEEDED;
+            } else {
+                add(windows.countEpochs, windows.counts, hourEpoch, 1);
+                add(windows.amountEpochs, windows.amounts, dayEpoch, amountMinor);
+                result = VelocityLimitResult.ALLOWED;
+            }
+        }
+
+        if (result != VelocityLimitResult.ALLOWED) {
+            meterRegistry.counter("cash.velocity.rejected", "reason", result.name()).increment();
+            log.warn("Снятие со счета {} на {} {} отклонено: {}", accountId, amount, currency, result);
+        }
+        return result;
+    }
+
+    /**
+     * Количество счетов, для которых хранятся счетчики
+     */
+    int size() {
+        int size = 0;
+        for (Map<UUID, AccountWindows> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Map<UUID, AccountWindows> stripeFor(UUID accountId) {
+        int hash = accountId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Сумма значений интервалов, попадающих в окно, которое заканчивается интервалом epoch
+     */
+    private static long sum(long[] epochs, long[] values, long epoch) {
+        long sum = 0;
+        for (int i = 0; i < epochs.length; i++) {
+            if (epochs[i] > epoch - epochs.length) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Добавить значение в интервал epoch. Ячейка устаревшего интервала переиспользуется
+     */
+    private static void add(long[] epochs, long[] values, long epoch, long delta) {
+        int index = (int) (epoch % epochs.length);
+        if (epochs[index] != epoch) {
+            epochs[index] = epoch;
+            values[index] = 0;
+        }
+        values[index] += delta;
+    }
+
+    /**
+     * Сумма в копейках. Сумма вне диапазона long ограничивается Long.MAX_VALUE и заведомо превышает лимит
+     */
+    private static long toMinorUnits(BigDecimal amount, RoundingMode roundingMode) {
+        BigInteger minor = amount.setScale(2, roundingMode).unscaledValue();
+        return minor.bitLength() < Long.SIZE ? minor.longValue() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Счетчики счета: номера интервалов и значения в кольцевых массивах
+     */
+    private static final class AccountWindows {
+        private final long[] amountEpochs = new long[DAY_SLOTS];
+        private final long[] amounts = new long[DAY_SLOTS];
+        private final long[] countEpochs = new long[HOUR_SLOTS];
+        private final long[] counts = new long[HOUR_SLOTS];
+
+        private AccountWindows() {
+            Arrays.fill(amountEpochs, Long.MIN_VALUE);
+            Arrays.fill(countEpochs, Long.MIN_VALUE);
+        }
+    }
+}
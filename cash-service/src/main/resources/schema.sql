@@ -15,4 +15,18 @@ CREATE TABLE IF NOT EXISTS cash_operations
 
 CREATE INDEX IF NOT EXISTS idx_cash_operations_account ON cash_operations (account_id);
 CREATE INDEX IF NOT EXISTS idx_cash_operations_status ON cash_operations (status);
-CREATE INDEX IF NOT EXISTS idx_cash_operations_created_at ON cash_operations (created_at);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_cash_operations_created_at ON cash_operations (created_at);
+-- Выборка зависших операций для сверки: в индекс попадают только операции в статусе PENDING
+CREATE INDEX IF NOT EXISTS idx_cash_operations_pending ON cash_operations (created_at, operation_uuid)
+    WHERE status = 'PENDING';
+
+
+-- Исходящие оповещения (transactional outbox), отправляются в Kafka фоновой задачей
+CREATE TABLE IF NOT EXISTS notification_outbox
+(
+    id          BIGSERIAL PRIMARY KEY,
+    topic       VARCHAR(100) NOT NULL,
+    message_key VARCHAR(100),
+    payload     TEXT         NOT NULL,
+    created_at  TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,60 @@
+package ru.practicum;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+
+/**
+ * Тестовая база PostgreSQL в контейнере со схемой cash-service
+ */
+public final class PostgresTestDatabase {
+
+    public static final String IMAGE = "postgres:15-alpine";
+
+    private PostgresTestDatabase() {
+    }
+
+    /**
+     * Пул соединений к контейнеру с примененной схемой из schema.sql
+     *
+     * @param container Запущенный контейнер
+     * @param maxSize Максимальный размер пула
+     * @return Пул соединений
+     */
+    public static ConnectionPool connect(PostgreSQLContainer<?> container, int maxSize) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                .option(ConnectionFactoryOptions.HOST, container.getHost())
+                .option(ConnectionFactoryOptions.PORT, container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                .option(ConnectionFactoryOptions.DATABASE, container.getDatabaseName())
+                .option(ConnectionFactoryOptions.USER, container.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, container.getPassword())
+                .build());
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofSeconds(30))
+                .build());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(pool).block();
+        return pool;
+    }
+
+    /**
+     * Создать реализацию репозитория поверх пула без поднятия контекста Spring
+     *
+     * @param connectionFactory Пул соединений
+     * @param repositoryInterface Интерфейс репозитория
+     * @return Реализация репозитория
+     */
+    public static <T> T repository(ConnectionFactory connectionFactory, Class<T> repositoryInterface) {
+        return new R2dbcRepositoryFactory(new R2dbcEntityTemplate(connectionFactory)).getRepository(repositoryInterface);
+    }
+}
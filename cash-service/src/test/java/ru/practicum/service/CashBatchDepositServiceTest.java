@@ -0,0 +1,183 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeDto;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeStatus;
+import ru.practicum.client.account.dto.BalanceUpdateRequestDto;
+import ru.practicum.client.account.dto.BalanceUpdateResultDto;
+import ru.practicum.client.account.dto.BalanceUpdateStatus;
+import ru.practicum.client.blocker.BlockerServiceClient;
+import ru.practicum.client.blocker.dto.OperationCheckRequestDto;
+import ru.practicum.model.BatchDepositResult;
+import ru.practicum.model.BatchDepositStatus;
+import ru.practicum.repository.CashOperationRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CashBatchDepositServiceTest {
+
+    @Mock
+    private AccountsServiceClient accountsServiceClient;
+
+    @Mock
+    private BlockerServiceClient blockerServiceClient;
+
+    @Mock
+    private CashOperationRepository cashOperationRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private CashBatchDepositServiceImpl cashBatchDepositService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID accountId = UUID.randomUUID();
+    private final UUID blockedAccountId = UUID.randomUUID();
+    private final UUID missingAccountId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cashBatchDepositService, "batchSize", 2);
+        ReflectionTestUtils.setField(cashBatchDepositService, "concurrency", 2);
+        ReflectionTestUtils.setField(cashBatchDepositService, "blockerConcurrency", 4);
+    }
+
+    private String line(UUID account, String amount) {
+        return account + "," + userId + "," + amount + ",RUB";
+    }
+
+    private void givenOperationsAreStored() {
+        when(cashOperationRepository.insertPending(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(((UUID[]) invocation.getArgument(0)).length));
+        when(cashOperationRepository.completeOperations(any(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(((UUID[]) invocation.getArgument(0)).length));
+    }
+
+    private void givenBalancesAreApplied() {
+        when(accountsServiceClient.checkAndUpdateAccountBalances(any())).thenAnswer(invocation -> {
+            List<BalanceUpdateRequestDto> requests = invocation.getArgument(0);
+            return Flux.fromStream(IntStream.range(0, requests.size())
+                    .mapToObj(i -> BalanceUpdateResultDto.builder()
+                            .index(i)
+                            .accountId(requests.get(i).getAccountId())
+                            .status(requests.get(i).getAccountId().equals(missingAccountId)
+                                    ? BalanceUpdateStatus.NOT_FOUND
+                                    : BalanceUpdateStatus.APPLIED)
+                            .build()));
+        });
+    }
+
+    @Test
+    void deposit_returnsResultPerLineInFileOrder() {
+        givenOperationsAreStored();
+        givenBalancesAreApplied();
+        when(blockerServiceClient.checkOperation(any())).thenAnswer(invocation -> Mono.just(
+                blockedAccountId.equals(((OperationCheckRequestDto) invocation.getArgument(0))
+                        .getAccountId())));
+
+        List<BatchDepositResult> results = cashBatchDepositService.deposit(Flux.just(
+                        "account_id,user_id,amount,currency",
+                        line(accountId, "100.00"),
+                        "broken line",
+                        "",
+                        line(blockedAccountId, "50"),
+                        line(missingAccountId, "10.5"),
+                        line(accountId, "-1")))
+                .collectList()
+                .block();
+
+        assertEquals(5, results.size());
+        assertEquals(List.of(2L, 3L, 5L, 6L, 7L), results.stream().map(BatchDepositResult::getLineNumber).toList());
+        assertEquals(List.of(BatchDepositStatus.COMPLETED, BatchDepositStatus.INVALID, BatchDepositStatus.BLOCKED,
+                        BatchDepositStatus.FAILED, BatchDepositStatus.INVALID),
+                results.stream().map(BatchDepositResult::getStatus).toList());
+        assertEquals("Счет не найден", results.get(3).getMessage());
+
+        // Три пакета по две строки: в последнем нет корректных строк
+        verify(cashOperationRepository, times(2)).insertPending(any(), any(), any(), any(), any(), any());
+        verify(accountsServiceClient, times(2)).checkAndUpdateAccountBalances(any());
+        verify(accountsServiceClient).checkAndUpdateAccountBalances(argThat(requests -> requests.size() == 1
+                && requests.get(0).getAccountId().equals(missingAccountId)));
+        assertEquals(2.0, meterRegistry.counter("cash.batch.lines", "status", "INVALID").count());
+    }
+
+    @Test
+    void deposit_resolvesOutcomesByIdempotencyKeyWhenBalanceUpdateResponseIsLost() {
+        when(cashOperationRepository.insertPending(any(), any(), any(), any(), any(), any())).thenReturn(Mono.just(2));
+        when(cashOperationRepository.completeOperations(any(), any(), any())).thenReturn(Mono.just(2));
+        when(blockerServiceClient.checkOperation(any())).thenReturn(Mono.just(false));
+        when(accountsServiceClient.checkAndUpdateAccountBalances(any()))
+                .thenReturn(Flux.error(new RuntimeException("timeout")));
+        when(accountsServiceClient.getBalanceUpdateOutcomes(any())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(0);
+            return Flux.just(
+                    BalanceUpdateOutcomeDto.builder().idempotencyKey(keys.get(0)).status(BalanceUpdateOutcomeStatus.APPLIED).build(),
+                    BalanceUpdateOutcomeDto.builder().idempotencyKey(keys.get(1)).status(BalanceUpdateOutcomeStatus.NOT_APPLIED).build());
+        });
+
+        List<BatchDepositResult> results = cashBatchDepositService.deposit(Flux.just(
+                        line(accountId, "100.00"), line(accountId, "200.00")))
+                .collectList()
+                .block();
+
+        assertEquals(List.of(BatchDepositStatus.COMPLETED, BatchDepositStatus.FAILED),
+                results.stream().map(BatchDepositResult::getStatus).toList());
+        verify(cashOperationRepository).completeOperations(any(),
+                argThat(statuses -> List.of(statuses).equals(List.of("COMPLETED", "FAILED"))), any());
+    }
+
+    @Test
+    void deposit_leavesOperationsPendingWhenOutcomeIsUnknown() {
+        when(cashOperationRepository.insertPending(any(), any(), any(), any(), any(), any())).thenReturn(Mono.just(2));
+        when(blockerServiceClient.checkOperation(any())).thenReturn(Mono.just(false));
+        when(accountsServiceClient.checkAndUpdateAccountBalances(any()))
+                .thenReturn(Flux.error(new RuntimeException("timeout")));
+        when(accountsServiceClient.getBalanceUpdateOutcomes(any()))
+                .thenReturn(Flux.error(new RuntimeException("account-service unavailable")));
+
+        List<BatchDepositResult> results = cashBatchDepositService.deposit(Flux.just(
+                        line(accountId, "100.00"), line(accountId, "200.00")))
+                .collectList()
+                .block();
+
+        assertEquals(2, results.size());
+        results.forEach(result -> assertEquals(BatchDepositStatus.PENDING, result.getStatus()));
+        verify(cashOperationRepository, never()).completeOperations(any(), any(), any());
+    }
+
+    @Test
+    void deposit_skipsRemoteCallsWhenBatchIsInvalid() {
+        List<BatchDepositResult> results = cashBatchDepositService.deposit(Flux.just("a,b,c,d", "1;2;3"))
+                .collectList()
+                .block();
+
+        assertEquals(2, results.size());
+        results.forEach(result -> assertEquals(BatchDepositStatus.INVALID, result.getStatus()));
+        verify(cashOperationRepository, never()).insertPending(any(), any(), any(), any(), any(), any());
+        verify(blockerServiceClient, never()).checkOperation(any());
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import ru.practicum.PostgresTestDatabase;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.blocker.BlockerServiceClient;
+import ru.practicum.dto.CashRequestDto;
+import ru.practicum.repository.CashOperationRepository;
+import ru.practicum.repository.NotificationOutboxRepository;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Обращения к базе cash-service на одну операцию пополнения: итоговый статус одним UPDATE
+ * против прежнего чтения строки и сохранения ее целиком. Считаются запросы и команды транзакции,
+ * фактически отправленные в PostgreSQL; сервисы аккаунтов и блокировок заменены заглушками
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+class CashOperationLifecycleBenchmarkTest {
+
+    private static final Set<String> TRANSACTION_METHODS = Set.of("beginTransaction", "commitTransaction", "rollbackTransaction");
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 300;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(PostgresTestDatabase.IMAGE);
+
+    private static final AtomicInteger roundTrips = new AtomicInteger();
+
+    private static ConnectionPool pool;
+    private static DatabaseClient databaseClient;
+    private static CashOperationRepository cashOperationRepository;
+    private static CashServiceImpl targetedUpdateService;
+    private static CashServiceImpl readModifyWriteService;
+
+    @BeforeAll
+    static void connect() {
+        pool = PostgresTestDatabase.connect(POSTGRES, 4);
+        ConnectionFactory counting = ProxyConnectionFactory.builder(pool)
+                .onAfterQuery(execution -> roundTrips.addAndGet(execution.getQueries().size()))
+                .onAfterMethod(execution -> {
+                    if (TRANSACTION_METHODS.contains(execution.getMethod().getName())) {
+                        roundTrips.incrementAndGet();
+                    }
+                })
+                .build();
+        databaseClient = DatabaseClient.create(pool);
+        cashOperationRepository = PostgresTestDatabase.repository(counting, CashOperationRepository.class);
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(counting));
+
+        @SuppressWarnings("unchecked")
+        NotificationOutbox notificationOutbox = new NotificationOutbox(
+                PostgresTestDatabase.repository(counting, NotificationOutboxRepository.class),
+                mock(KafkaSender.class), transactionalOperator, new ObjectMapper());
+
+        targetedUpdateService = service(cashOperationRepository, notificationOutbox, transactionalOperator);
+        readModifyWriteService = service(readModifyWrite(cashOperationRepository), notificationOutbox, transactionalOperator);
+    }
+
+    @AfterAll
+    static void close() {
+        pool.dispose();
+    }
+
+    private static CashServiceImpl service(CashOperationRepository repository, NotificationOutbox notificationOutbox,
+                                           TransactionalOperator transactionalOperator) {
+        AccountsServiceClient accountsServiceClient = mock(AccountsServiceClient.class);
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), any())).thenReturn(Mono.just(true));
+        BlockerServiceClient blockerServiceClient = mock(BlockerServiceClient.class);
+        when(blockerServiceClient.checkOperation(any())).thenReturn(Mono.just(false));
+        UserContactCache userContactCache = mock(UserContactCache.class);
+        when(userContactCache.getEmail(any())).thenReturn(Mono.just("bench@test.ru"));
+
+        return new CashServiceImpl(accountsServiceClient, blockerServiceClient, userContactCache, notificationOutbox,
+                repository, mock(VelocityLimiter.class), transactionalOperator);
+    }
+
+    /**
+     * Прежний жизненный цикл: смена статуса читает строку операции и сохраняет ее целиком
+     */
+    private static CashOperationRepository readModifyWrite(CashOperationRepository repository) {
+        return (CashOperationRepository) Proxy.newProxyInstance(CashOperationRepository.class.getClassLoader(),
+                new Class<?>[]{CashOperationRepository.class},
+                (proxy, method, args) -> "completeOperation".equals(method.getName())
+                        ? repository.findById((UUID) args[0])
+                        .flatMap(found -> {
+                            found.setStatus((String) args[1]);
+                            found.setCompletedAt((LocalDateTime) args[2]);
+                            return repository.save(found);
+                        })
+                        .thenReturn(1)
+                        : method.invoke(repository, args));
+    }
+
+    @Test
+    void deposit_TargetedStatusUpdate_OneRoundTripLessThanReadAndSave() {
+        Result readModifyWrite = measure(readModifyWriteService);
+        Result targetedUpdate = measure(targetedUpdateService);
+
+        log.info("Пополнение, {} операций: чтение и сохранение строки - {} обращений к БД, {} мкс/операция; " +
+                        "целевой UPDATE - {} обращений к БД, {} мкс/операция",
+                ITERATIONS, readModifyWrite.roundTripsPerCall(), readModifyWrite.micros(),
+                targetedUpdate.roundTripsPerCall(), targetedUpdate.micros());
+
+        // INSERT операции, затем BEGIN, INSERT в outbox, UPDATE статуса и COMMIT
+        assertThat(targetedUpdate.roundTripsPerCall()).isEqualTo(5.0);
+        assertThat(readModifyWrite.roundTripsPerCall()).isEqualTo(6.0);
+        assertThat(databaseClient.sql("SELECT COUNT(*) AS pending FROM cash_operations WHERE status <> 'COMPLETED'")
+                .map(row -> row.get("pending", Long.class))
+                .one()
+                .block()).isZero();
+    }
+
+    private Result measure(CashServiceImpl service) {
+        Flux.range(0, WARMUP).concatMap(i -> service.cashOperation(deposit())).blockLast();
+        roundTrips.set(0);
+        long start = System.nanoTime();
+        Flux.range(0, ITERATIONS)
+                .concatMap(i -> service.cashOperation(deposit()))
+                .doOnNext(response -> assertThat(response.getStatus()).isEqualTo("SUCCESS"))
+                .blockLast();
+        long elapsed = System.nanoTime() - start;
+        return new Result((double) roundTrips.get() / ITERATIONS, elapsed / ITERATIONS / 1000);
+    }
+
+    private CashRequestDto deposit() {
+        return CashRequestDto.builder()
+                .accountId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .amount(new BigDecimal("100.00"))
+                .currency("RUB")
+                .isDeposit(true)
+                .build();
+    }
+
+    private record Result(double roundTripsPerCall, long micros) {
+    }
+}
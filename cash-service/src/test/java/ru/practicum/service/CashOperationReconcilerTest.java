@@ -0,0 +1,163 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeDto;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeStatus;
+import ru.practicum.dao.CashOperationDao;
+import ru.practicum.repository.CashOperationRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CashOperationReconcilerTest {
+
+    @Mock
+    private CashOperationRepository cashOperationRepository;
+
+    @Mock
+    private AccountsServiceClient accountsServiceClient;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private CashOperationReconciler cashOperationReconciler;
+
+    private final LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cashOperationReconciler, "stuckAfter", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(cashOperationReconciler, "maxAge", Duration.ofDays(7));
+        ReflectionTestUtils.setField(cashOperationReconciler, "pageSize", 2);
+        ReflectionTestUtils.setField(cashOperationReconciler, "maxPerSecond", 1000);
+        ReflectionTestUtils.setField(cashOperationReconciler, "maxPerRun", 100);
+    }
+
+    private CashOperationDao operation(int second) {
+        return CashOperationDao.builder()
+                .operationUuid(UUID.randomUUID())
+                .status("PENDING")
+                .createdAt(createdAt.plusSeconds(second))
+                .build();
+    }
+
+    private BalanceUpdateOutcomeDto outcome(CashOperationDao operation, BalanceUpdateOutcomeStatus status) {
+        return BalanceUpdateOutcomeDto.builder()
+                .idempotencyKey(operation.getOperationUuid().toString())
+                .status(status)
+                .build();
+    }
+
+    @Test
+    void reconcileAll_resolvesOperationsPageByPage() {
+        CashOperationDao applied = operation(1);
+        CashOperationDao notApplied = operation(2);
+        CashOperationDao inProgress = operation(3);
+        when(cashOperationRepository.findPendingPage(any(), any(), any(), eq(2)))
+                .thenReturn(Flux.just(applied, notApplied))
+                .thenReturn(Flux.just(inProgress));
+        when(accountsServiceClient.getBalanceUpdateOutcomes(any()))
+                .thenReturn(Flux.just(outcome(applied, BalanceUpdateOutcomeStatus.APPLIED),
+                        outcome(notApplied, BalanceUpdateOutcomeStatus.NOT_APPLIED)))
+                .thenReturn(Flux.just(outcome(inProgress, BalanceUpdateOutcomeStatus.IN_PROGRESS)));
+        when(cashOperationRepository.completeOperations(any(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(((UUID[]) invocation.getArgument(0)).length));
+
+        StepVerifier.create(cashOperationReconciler.reconcileAll())
+                .expectNext(2)
+                .verifyComplete();
+
+        ArgumentCaptor<UUID[]> ids = ArgumentCaptor.forClass(UUID[].class);
+        ArgumentCaptor<String[]> statuses = ArgumentCaptor.forClass(String[].class);
+        verify(cashOperationRepository).completeOperations(ids.capture(), statuses.capture(), any());
+        assertArrayEquals(new UUID[]{applied.getOperationUuid(), notApplied.getOperationUuid()}, ids.getValue());
+        assertArrayEquals(new String[]{"COMPLETED", "FAILED"}, statuses.getValue());
+
+        // Вторая страница начинается после последней операции первой
+        verify(cashOperationRepository).findPendingPage(any(), eq(notApplied.getCreatedAt()),
+                eq(notApplied.getOperationUuid()), eq(2));
+        assertEquals(1.0, meterRegistry.counter("cash.reconciler.operations", "outcome", "IN_PROGRESS").count());
+    }
+
+    @Test
+    void reconcileAll_stopsAtRunLimitAndContinuesFromCursor() {
+        ReflectionTestUtils.setField(cashOperationReconciler, "maxPerRun", 2);
+        CashOperationDao first = operation(1);
+        CashOperationDao second = operation(2);
+        when(cashOperationRepository.findPendingPage(any(), any(), any(), anyInt()))
+                .thenReturn(Flux.just(first, second))
+                .thenReturn(Flux.empty());
+        when(accountsServiceClient.getBalanceUpdateOutcomes(any()))
+                .thenReturn(Flux.just(outcome(first, BalanceUpdateOutcomeStatus.IN_PROGRESS),
+                        outcome(second, BalanceUpdateOutcomeStatus.IN_PROGRESS)));
+
+        StepVerifier.create(cashOperationReconciler.reconcileAll())
+                .expectNext(0)
+                .verifyComplete();
+        StepVerifier.create(cashOperationReconciler.reconcileAll())
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(cashOperationRepository, times(2)).findPendingPage(any(), any(), any(), anyInt());
+        verify(cashOperationRepository).findPendingPage(any(), eq(second.getCreatedAt()),
+                eq(second.getOperationUuid()), anyInt());
+        verify(cashOperationRepository, never()).completeOperations(any(), any(), any());
+    }
+
+    @Test
+    void reconcileAll_startsFromMaxAgeHorizon() {
+        when(cashOperationRepository.findPendingPage(any(), any(), any(), anyInt())).thenReturn(Flux.empty());
+
+        StepVerifier.create(cashOperationReconciler.reconcileAll())
+                .expectNext(0)
+                .verifyComplete();
+
+        // Операции старше срока хранения итогов в сервисе аккаунтов не запрашиваются
+        ArgumentCaptor<LocalDateTime> after = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(cashOperationRepository).findPendingPage(any(), after.capture(), any(), anyInt());
+        assertTrue(after.getValue().isAfter(LocalDateTime.now().minusDays(7).minusMinutes(1)));
+    }
+
+    @Test
+    void reconcileAll_keepsOperationsPendingWhenAccountServiceIsUnavailable() {
+        when(cashOperationRepository.findPendingPage(any(), any(), any(), anyInt()))
+                .thenReturn(Flux.just(operation(1)));
+        when(accountsServiceClient.getBalanceUpdateOutcomes(any()))
+                .thenReturn(Flux.error(new RuntimeException("account-service unavailable")));
+
+        StepVerifier.create(cashOperationReconciler.reconcileAll())
+                .expectErrorMessage("account-service unavailable")
+                .verify();
+
+        verify(cashOperationRepository, never()).completeOperations(any(), any(), any());
+    }
+}
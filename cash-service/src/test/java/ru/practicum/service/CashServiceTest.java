@@ -0,0 +1,228 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeDto;
+import ru.practicum.client.account.dto.BalanceUpdateOutcomeStatus;
+import ru.practicum.client.blocker.BlockerServiceClient;
+import ru.practicum.dao.CashOperationDao;
+import ru.practicum.dto.CashRequestDto;
+import ru.practicum.model.VelocityLimitResult;
+import ru.practicum.repository.CashOperationRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CashServiceTest {
+
+    @Mock
+    private AccountsServiceClient accountsServiceClient;
+
+    @Mock
+    private BlockerServiceClient blockerServiceClient;
+
+    @Mock
+    private UserContactCache userContactCache;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private CashOperationRepository cashOperationRepository;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @InjectMocks
+    private CashServiceImpl cashService;
+
+    private final UUID operationId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID accountId = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(velocityLimiter.tryAcquire(any(), any(), any())).thenReturn(VelocityLimitResult.ALLOWED);
+        lenient().when(cashOperationRepository.save(any())).thenReturn(Mono.just(CashOperationDao.builder()
+                .operationUuid(operationId)
+                .status("PENDING")
+                .createdAt(LocalDateTime.now())
+                .build()));
+        lenient().when(cashOperationRepository.completeOperation(eq(operationId), any(), any())).thenReturn(Mono.just(1));
+        lenient().when(blockerServiceClient.checkOperation(any())).thenReturn(Mono.just(false));
+        lenient().when(userContactCache.getEmail(userId)).thenReturn(Mono.just("user@test.ru"));
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    private CashRequestDto request(boolean isDeposit) {
+        return CashRequestDto.builder()
+                .accountId(accountId)
+                .userId(userId)
+                .amount(new BigDecimal("100.00"))
+                .currency("RUB")
+                .isDeposit(isDeposit)
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cashOperation_Success_SavesPendingBeforeBalanceUpdateAndCompletesInTransactionAfterEmailLookup() {
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), eq(operationId.toString()))).thenReturn(Mono.just(true));
+        when(notificationOutbox.enqueue(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(cashService.cashOperation(request(true)))
+                .expectNextMatches(response -> "SUCCESS".equals(response.getStatus()))
+                .verifyComplete();
+
+        InOrder order = inOrder(cashOperationRepository, accountsServiceClient, userContactCache, transactionalOperator);
+        order.verify(cashOperationRepository).save(any());
+        order.verify(accountsServiceClient).checkAndUpdateAccountBalance(any(), eq(operationId.toString()));
+        order.verify(userContactCache).getEmail(userId);
+        order.verify(transactionalOperator).transactional(any(Mono.class));
+        verify(notificationOutbox).enqueue(any());
+        verify(cashOperationRepository).completeOperation(eq(operationId), eq("COMPLETED"), any());
+    }
+
+    @Test
+    void cashOperation_EmailUnavailable_CompletesWithoutNotification() {
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), any())).thenReturn(Mono.just(true));
+        when(userContactCache.getEmail(userId)).thenReturn(Mono.error(new IllegalStateException("account-service unavailable")));
+
+        StepVerifier.create(cashService.cashOperation(request(true)))
+                .expectNextMatches(response -> "SUCCESS".equals(response.getStatus()))
+                .verifyComplete();
+
+        verify(notificationOutbox, never()).enqueue(any());
+        verify(cashOperationRepository).completeOperation(eq(operationId), eq("COMPLETED"), any());
+    }
+
+    @Test
+    void cashOperation_Blocked_SetsBlockedWithoutBalanceUpdate() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(cashService.cashOperation(request(false)))
+                .expectNextMatches(response -> "BLOCKED".equals(response.getStatus()))
+                .verifyComplete();
+
+        verify(cashOperationRepository).completeOperation(eq(operationId), eq("BLOCKED"), any());
+        verify(accountsServiceClient, never()).checkAndUpdateAccountBalance(any(), any());
+    }
+
+    @Test
+    void cashOperation_VelocityLimitExceeded_RecordsBlockedOperationWithoutBalanceUpdate() {
+        when(velocityLimiter.tryAcquire(accountId, "RUB", new BigDecimal("100.00")))
+                .thenReturn(VelocityLimitResult.DAILY_AMOUNT_EXCEEDED);
+
+        StepVerifier.create(cashService.cashOperation(request(false)))
+                .expectNextMatches(response -> "BLOCKED".equals(response.getStatus()))
+                .verifyComplete();
+
+        InOrder order = inOrder(cashOperationRepository);
+        order.verify(cashOperationRepository).save(any());
+        order.verify(cashOperationRepository).completeOperation(eq(operationId), eq("BLOCKED"), any());
+        verify(blockerServiceClient, never()).checkOperation(any());
+        verify(accountsServiceClient, never()).checkAndUpdateAccountBalance(any(), any());
+    }
+
+    private void givenOutcome(BalanceUpdateOutcomeStatus status) {
+        when(accountsServiceClient.getBalanceUpdateOutcomes(List.of(operationId.toString())))
+                .thenReturn(Flux.just(BalanceUpdateOutcomeDto.builder()
+                        .idempotencyKey(operationId.toString())
+                        .status(status)
+                        .build()));
+    }
+
+    @Test
+    void cashOperation_BalanceUpdateRejected_SetsFailed() {
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("Недостаточно средств")));
+        givenOutcome(BalanceUpdateOutcomeStatus.NOT_APPLIED);
+
+        StepVerifier.create(cashService.cashOperation(request(false)))
+                .expectNextMatches(response -> "ERROR".equals(response.getStatus()))
+                .verifyComplete();
+
+        verify(cashOperationRepository).completeOperation(eq(operationId), eq("FAILED"), any());
+        verify(notificationOutbox, never()).enqueue(any());
+    }
+
+    @Test
+    void cashOperation_BalanceUpdateTimedOutWhileInProgress_LeavesOperationPending() {
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("timeout")));
+        givenOutcome(BalanceUpdateOutcomeStatus.IN_PROGRESS);
+
+        StepVerifier.create(cashService.cashOperation(request(false)))
+                .expectNextMatches(response -> "ERROR".equals(response.getStatus()))
+                .verifyComplete();
+
+        verify(cashOperationRepository, never()).completeOperation(any(), any(), any());
+    }
+
+    @Test
+    void cashOperation_OutcomeUnavailable_LeavesOperationPending() {
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("timeout")));
+        when(accountsServiceClient.getBalanceUpdateOutcomes(any()))
+                .thenReturn(Flux.error(new IllegalStateException("account-service unavailable")));
+
+        StepVerifier.create(cashService.cashOperation(request(false)))
+                .expectNextMatches(response -> "ERROR".equals(response.getStatus()))
+                .verifyComplete();
+
+        verify(cashOperationRepository, never()).completeOperation(any(), any(), any());
+    }
+
+    @Test
+    void cashOperation_ResponseLostAfterBalanceApplied_CompletesOperation() {
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("timeout")));
+        givenOutcome(BalanceUpdateOutcomeStatus.APPLIED);
+        when(notificationOutbox.enqueue(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(cashService.cashOperation(request(false)))
+                .expectNextMatches(response -> "SUCCESS".equals(response.getStatus()))
+                .verifyComplete();
+
+        verify(cashOperationRepository).completeOperation(eq(operationId), eq("COMPLETED"), any());
+        verify(cashOperationRepository, never()).completeOperation(eq(operationId), eq("FAILED"), any());
+    }
+
+    @Test
+    void cashOperation_OutboxInsertFailsAfterBalanceUpdate_ReturnsSuccessAndLeavesOperationPending() {
+        when(accountsServiceClient.checkAndUpdateAccountBalance(any(), any())).thenReturn(Mono.just(true));
+        when(notificationOutbox.enqueue(any())).thenReturn(Mono.error(new RuntimeException("outbox insert failed")));
+
+        StepVerifier.create(cashService.cashOperation(request(true)))
+                .expectNextMatches(response -> "SUCCESS".equals(response.getStatus()))
+                .verifyComplete();
+
+        verify(cashOperationRepository, never()).completeOperation(eq(operationId), eq("COMPLETED"), any());
+        verify(cashOperationRepository, never()).completeOperation(eq(operationId), eq("FAILED"), any());
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.client.account.AccountsServiceClient;
+import ru.practicum.client.account.dto.UserResponseDto;
+import ru.practicum.dto.AccountEventDto;
+import ru.practicum.model.AccountEventType;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserContactCacheTest {
+
+    @Mock
+    private AccountsServiceClient accountsServiceClient;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final UUID userId = UUID.randomUUID();
+
+    private UserContactCache cache(int maxSize) {
+        return new UserContactCache(accountsServiceClient, new SimpleMeterRegistry(), true, maxSize,
+                Duration.ofMinutes(10), now::get);
+    }
+
+    private Mono<UserResponseDto> user(UUID id, String email) {
+        return Mono.just(UserResponseDto.builder().uuid(id).email(email).build());
+    }
+
+    @Test
+    void getEmail_loadsOnce() {
+        when(accountsServiceClient.getUser(userId)).thenReturn(user(userId, "user@test.ru"));
+        UserContactCache cache = cache(10);
+
+        StepVerifier.create(cache.getEmail(userId))
+                .expectNext("user@test.ru")
+                .verifyComplete();
+        StepVerifier.create(cache.getEmail(userId))
+                .expectNext("user@test.ru")
+                .verifyComplete();
+
+        verify(accountsServiceClient, times(1)).getUser(userId);
+    }
+
+    @Test
+    void getEmail_reloadsAfterTtl() {
+        when(accountsServiceClient.getUser(userId)).thenReturn(user(userId, "user@test.ru"));
+        UserContactCache cache = cache(10);
+
+        cache.getEmail(userId).block();
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        cache.getEmail(userId).block();
+
+        verify(accountsServiceClient, times(2)).getUser(userId);
+    }
+
+    @Test
+    void handle_userUpdatedEvictsContact() {
+        when(accountsServiceClient.getUser(userId))
+                .thenReturn(user(userId, "old@test.ru"))
+                .thenReturn(user(userId, "new@test.ru"));
+        UserContactCache cache = cache(10);
+        cache.getEmail(userId).block();
+
+        cache.handle(AccountEventDto.builder().eventType(AccountEventType.USER_UPDATED).userId(userId).build());
+
+        StepVerifier.create(cache.getEmail(userId))
+                .expectNext("new@test.ru")
+                .verifyComplete();
+    }
+
+    @Test
+    void getEmail_evictsLeastRecentlyUsedOverMaxSize() {
+        when(accountsServiceClient.getUser(any()))
+                .thenAnswer(invocation -> user(invocation.getArgument(0), "user@test.ru"));
+        UserContactCache cache = cache(2);
+
+        cache.getEmail(UUID.randomUUID()).block();
+        cache.getEmail(UUID.randomUUID()).block();
+        cache.getEmail(UUID.randomUUID()).block();
+
+        assertEquals(2, cache.size());
+    }
+}
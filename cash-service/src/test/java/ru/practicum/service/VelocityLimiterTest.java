@@ -0,0 +1,137 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.config.VelocityLimitConfig;
+import ru.practicum.model.VelocityLimitResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VelocityLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(Duration.ofDays(20000).toMillis());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UUID accountId = UUID.randomUUID();
+
+    private VelocityLimitConfig config;
+
+    @BeforeEach
+    void setUp() {
+        VelocityLimitConfig.CurrencyLimit limit = new VelocityLimitConfig.CurrencyLimit();
+        limit.setDailyAmount(new BigDecimal("1000.00"));
+        limit.setHourlyCount(3);
+        config = new VelocityLimitConfig();
+        config.setMaxAccounts(4);
+        config.setStripes(2);
+        config.setCurrencies(Map.of("RUB", limit));
+    }
+
+    private VelocityLimiter limiter() {
+        return new VelocityLimiter(config, meterRegistry, now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toMillis());
+    }
+
+    @Test
+    void tryAcquire_rejectsWhenDailyAmountIsExceeded() {
+        VelocityLimiter limiter = limiter();
+
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("600")));
+        advance(Duration.ofHours(2));
+        assertEquals(VelocityLimitResult.DAILY_AMOUNT_EXCEEDED,
+                limiter.tryAcquire(accountId, "RUB", new BigDecimal("400.01")));
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("400")));
+
+        // Через сутки после первого снятия его сумма выходит из окна
+        advance(Duration.ofHours(22));
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("500")));
+        assertEquals(1.0, meterRegistry.counter("cash.velocity.rejected", "reason", "DAILY_AMOUNT_EXCEEDED").count());
+    }
+
+    @Test
+    void tryAcquire_matchesCurrencyCodeInAnyCase() {
+        VelocityLimiter limiter = limiter();
+
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "rub", new BigDecimal("600")));
+        assertEquals(VelocityLimitResult.DAILY_AMOUNT_EXCEEDED,
+                limiter.tryAcquire(accountId, "Rub", new BigDecimal("400.01")));
+    }
+
+    @Test
+    void tryAcquire_roundsSubCentRemaindersAgainstTheLimit() {
+        VelocityLimiter limiter = limiter();
+
+        assertEquals(VelocityLimitResult.DAILY_AMOUNT_EXCEEDED,
+                limiter.tryAcquire(accountId, "RUB", new BigDecimal("1000.001")));
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("999.995")));
+        assertEquals(VelocityLimitResult.DAILY_AMOUNT_EXCEEDED,
+                limiter.tryAcquire(accountId, "RUB", new BigDecimal("0.001")));
+    }
+
+    @Test
+    void tryAcquire_rejectsAmountsBeyondLongRangeWithoutError() {
+        VelocityLimiter limiter = limiter();
+
+        assertEquals(VelocityLimitResult.DAILY_AMOUNT_EXCEEDED,
+                limiter.tryAcquire(accountId, "RUB", new BigDecimal("1e30")));
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("1000")));
+    }
+
+    @Test
+    void tryAcquire_countsHugeAmountsWhenDailyAmountIsNotLimited() {
+        config.getCurrencies().get("RUB").setDailyAmount(null);
+        VelocityLimiter limiter = limiter();
+
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("1e30")));
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("1e30")));
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", new BigDecimal("1e30")));
+        assertEquals(VelocityLimitResult.HOURLY_COUNT_EXCEEDED,
+                limiter.tryAcquire(accountId, "RUB", new BigDecimal("1e30")));
+    }
+
+    @Test
+    void tryAcquire_rejectsWhenHourlyCountIsExceeded() {
+        VelocityLimiter limiter = limiter();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", BigDecimal.ONE));
+            advance(Duration.ofMinutes(10));
+        }
+        assertEquals(VelocityLimitResult.HOURLY_COUNT_EXCEEDED, limiter.tryAcquire(accountId, "RUB", BigDecimal.ONE));
+
+        advance(Duration.ofMinutes(35));
+        assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "RUB", BigDecimal.ONE));
+    }
+
+    @Test
+    void tryAcquire_allowsCurrenciesWithoutLimits() {
+        VelocityLimiter limiter = limiter();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(VelocityLimitResult.ALLOWED, limiter.tryAcquire(accountId, "USD", new BigDecimal("5000")));
+        }
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_evictsIdleAccounts() {
+        VelocityLimiter limiter = limiter();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(UUID.randomUUID(), "RUB", BigDecimal.ONE);
+        }
+
+        assertEquals(4, limiter.size());
+    }
+}
@@ -7,11 +7,16 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.client.BaseServiceClient;
 import ru.practicum.client.account.dto.AccountResponseDto;
+import ru.practicum.client.account.dto.RecipientAccountResponseDto;
+import ru.practicum.client.account.dto.RecipientLookupRequestDto;
 import ru.practicum.client.account.dto.TransferDto;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -20,6 +25,7 @@ import java.util.UUID;
 @Component
 @Slf4j
 public class AccountServiceClient extends BaseServiceClient {
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     @Autowired
     public AccountServiceClient(@Qualifier("accountServiceWebClient") WebClient webClient) {
@@ -52,11 +58,29 @@ public class AccountServiceClient extends BaseServiceClient {
                 .doOnSuccess(response -> log.info("Account retrieved: {}", response));
     }
 
+    public Flux<RecipientAccountResponseDto> findRecipientAccounts(List<RecipientLookupRequestDto> requests) {
+        String path = "/api/accounts/user-by-email/batch";
+        String operation = "Finding recipient accounts: " + requests.size();
+        String errorPrefix = "Ошибка получения счетов получателей: ";
+        return performFlux(HttpMethod.POST, path, requests, RecipientAccountResponseDto.class, operation, errorPrefix, true);
+    }
+
     public Mono<Void> transfer(TransferDto transferDto) {
+        return transfer(transferDto, null);
+    }
+
+    /**
+     * Перевести средства. Повторный вызов с тем же ключом идемпотентности не выполняет перевод повторно
+     *
+     * @param transferDto DTO перевода
+     * @param idempotencyKey Ключ идемпотентности (может отсутствовать)
+     */
+    public Mono<Void> transfer(TransferDto transferDto, String idempotencyKey) {
         String path = "/api/accounts/transfer";
         String operation = "transferToOtherAccount: " + transferDto;
         String errorPrefix = "Ошибка перевода средств: ";
-        return performMono(HttpMethod.POST, path, transferDto, Void.class, operation, errorPrefix, true)
+        Map<String, String> headers = idempotencyKey == null ? Map.of() : Map.of(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        return performMono(HttpMethod.POST, path, transferDto, headers, Void.class, operation, errorPrefix, true)
                 .doOnSuccess(response -> log.info("transferToOtherAccount success"));
     }
 }
\ No newline at end of file
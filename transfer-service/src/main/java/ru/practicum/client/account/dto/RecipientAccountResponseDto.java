@@ -0,0 +1,49 @@
+package ru.practicum.client.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO ответа с данными счета получателя
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientAccountResponseDto {
+    /**
+     * Адрес электронной почты владельца
+     */
+    private String email;
+
+    /**
+     * Идентификатор счета
+     */
+    private UUID id;
+
+    /**
+     * Идентификатор пользователя
+     */
+    private UUID userId;
+
+    /**
+     * Код валюты
+     */
+    private String currencyCode;
+
+    /**
+     * Баланс счета
+     */
+    private BigDecimal balance;
+
+    /**
+     * Дата создания счета
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,25 @@
+package ru.practicum.client.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO запроса на поиск счета получателя
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientLookupRequestDto {
+    /**
+     * Адрес электронной почты получателя
+     */
+    private String email;
+
+    /**
+     * Код валюты счета
+     */
+    private String currencyCode;
+}
@@ -1,19 +1,29 @@
 package ru.practicum.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderOptions;
+import ru.practicum.dto.AccountEventDto;
+import ru.practicum.dto.ExchangeRatesDto;
 import ru.practicum.dto.NotificationRequestDto;
+import ru.practicum.dto.TransferCommandMessageDto;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 public class KafkaConfig {
@@ -47,4 +57,103 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Получатель событий об изменении счетов. Кэш данных счетов локален для экземпляра сервиса,
+     * поэтому каждый экземпляр читает топик в собственной группе и получает все события
+     */
+    @Bean
+    public KafkaReceiver<String, AccountEventDto> accountEventReceiver() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "transfer-account-cache-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, AccountEventDto.class);
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        ReceiverOptions<String, AccountEventDto> receiverOptions = ReceiverOptions.<String, AccountEventDto>create(props)
+                .subscription(Collections.singleton("account-events"));
+
+        return KafkaReceiver.create(receiverOptions);
+    }
+
+    /**
+     * Получатель курсов валют для локальной конвертации. Как и кэш счетов, снимок курсов
+     * локален для экземпляра сервиса, поэтому группа у каждого экземпляра своя
+     */
+    @Bean
+    public KafkaReceiver<String, ExchangeRatesDto> exchangeRatesReceiver() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "transfer-exchange-rates-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, ExchangeRatesDto.class);
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        ReceiverOptions<String, ExchangeRatesDto> receiverOptions = ReceiverOptions.<String, ExchangeRatesDto>create(props)
+                .subscription(Collections.singleton("exchange-rates"));
+
+        return KafkaReceiver.create(receiverOptions);
+    }
+
+    /**
+     * Отправитель команд асинхронного перевода
+     */
+    @Bean
+    public KafkaSender<String, TransferCommandMessageDto> transferCommandSender() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        SenderOptions<String, TransferCommandMessageDto> senderOptions = SenderOptions.create(props);
+        return KafkaSender.create(senderOptions);
+    }
+
+    /**
+     * Топик команд асинхронного перевода. Ключ сообщения - счет отправителя,
+     * поэтому переводы с одного счета попадают в одну партицию и выполняются по порядку
+     */
+    @Bean
+    public NewTopic transferCommandsTopic() {
+        return TopicBuilder.name("transfer-commands")
+                .partitions(6)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Получатель команд асинхронного перевода. Группа общая для всех экземпляров:
+     * партиции распределяются между ними
+     */
+    @Bean
+    public KafkaReceiver<String, TransferCommandMessageDto> transferCommandReceiver() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "transfer-commands");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransferCommandMessageDto.class);
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        ReceiverOptions<String, TransferCommandMessageDto> receiverOptions =
+                ReceiverOptions.<String, TransferCommandMessageDto>create(props)
+                        .subscription(Collections.singleton("transfer-commands"));
+
+        return KafkaReceiver.create(receiverOptions);
+    }
+}
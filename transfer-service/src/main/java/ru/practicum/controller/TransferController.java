@@ -2,28 +2,65 @@ package ru.practicum.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import ru.practicum.dto.BulkTransferItemResultDto;
 import ru.practicum.dto.OtherTransferRequestDto;
 import ru.practicum.dto.OwnTransferRequestDto;
+import ru.practicum.dto.TransferCommandDto;
+import ru.practicum.dto.TransferHistoryItemDto;
 import ru.practicum.dto.TransferResponseDto;
 import ru.practicum.mapper.TransferMapper;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferHistoryQuery;
+import ru.practicum.service.BulkTransferService;
+import ru.practicum.service.TransferCommandService;
+import ru.practicum.service.TransferHistoryService;
 import ru.practicum.service.TransferService;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/transfer")
 @RequiredArgsConstructor
 public class TransferController {
+    private static final String BULK_JOB_ID_HEADER = "Bulk-Job-Id";
+
     /**
      * Сервис перевода средств между счетами
      */
     private final TransferService transferService;
 
+    /**
+     * Сервис пакетных переводов
+     */
+    private final BulkTransferService bulkTransferService;
+
+    /**
+     * Сервис истории переводов
+     */
+    private final TransferHistoryService transferHistoryService;
+
+    /**
+     * Сервис асинхронных переводов
+     */
+    private final TransferCommandService transferCommandService;
+
     /**
      * Маппер запросов на перевод
      */
@@ -42,4 +79,100 @@ public class TransferController {
         return transferService.transferToOtherAccount(requestDto)
                 .map(transferMapper::transferResponseToTransferResponseDto);
     }
-}
\ No newline at end of file
+
+    /**
+     * Асинхронный перевод между своими счетами: перевод принимается со статусом PENDING,
+     * состояние доступно по адресу из заголовка Location
+     */
+    @PostMapping("/own/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<TransferCommandDto> transferOwnAsync(@Valid @RequestBody OwnTransferRequestDto requestDto,
+                                                     ServerHttpResponse response) {
+        return transferCommandService.submitOwn(requestDto)
+                .map(transferMapper::transferCommandToDto)
+                .doOnNext(command -> setLocation(response, command));
+    }
+
+    /**
+     * Асинхронный перевод на счет другого пользователя
+     */
+    @PostMapping("/other/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<TransferCommandDto> transferOtherAsync(@Valid @RequestBody OtherTransferRequestDto requestDto,
+                                                       ServerHttpResponse response) {
+        return transferCommandService.submitOther(requestDto)
+                .map(transferMapper::transferCommandToDto)
+                .doOnNext(command -> setLocation(response, command));
+    }
+
+    @GetMapping("/commands/{commandId}")
+    public Mono<TransferCommandDto> getCommand(@PathVariable UUID commandId) {
+        return transferCommandService.getCommand(commandId)
+                .map(transferMapper::transferCommandToDto);
+    }
+
+    /**
+     * Состояние асинхронного перевода через SSE: текущее состояние и изменения статуса до завершения
+     */
+    @GetMapping(value = "/commands/{commandId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<TransferCommandDto> streamCommand(@PathVariable UUID commandId) {
+        return transferCommandService.streamCommand(commandId)
+                .map(transferMapper::transferCommandToDto);
+    }
+
+    /**
+     * Пакетный перевод с одного счета. Запросы принимаются потоком (application/x-ndjson или JSON-массив),
+     * результаты по элементам отдаются потоком по мере выполнения. Идентификатор задания возвращается
+     * в заголовке Bulk-Job-Id; для возобновления после сбоя запрос повторяется с параметром jobId
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BulkTransferItemResultDto> transferBulk(@RequestBody Flux<OtherTransferRequestDto> requests,
+                                                        @RequestParam(required = false) UUID jobId,
+                                                        ServerHttpResponse response) {
+        UUID bulkJobId = jobId != null ? jobId : UUID.randomUUID();
+        response.getHeaders().set(BULK_JOB_ID_HEADER, bulkJobId.toString());
+        return bulkTransferService.transferBulk(bulkJobId, requests)
+                .map(transferMapper::bulkTransferItemResultToDto);
+    }
+
+    @GetMapping(value = "/bulk/{jobId}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BulkTransferItemResultDto> getBulkResults(@PathVariable UUID jobId) {
+        return bulkTransferService.getJobResults(jobId)
+                .map(transferMapper::bulkTransferItemResultToDto);
+    }
+
+    /**
+     * История переводов по счету в порядке убывания времени. Следующая страница запрашивается
+     * с курсором beforeTimestamp/beforeId последней полученной записи; без limit отдается вся история
+     */
+    @GetMapping(value = "/history/{accountId}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<TransferHistoryItemDto> getHistory(@PathVariable UUID accountId,
+                                                   @RequestParam(required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam(required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                   @RequestParam(required = false) List<OperationStatus> status,
+                                                   @RequestParam(required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+                                                   @RequestParam(required = false) UUID beforeId,
+                                                   @RequestParam(required = false) Integer limit) {
+        return transferHistoryService.getHistory(TransferHistoryQuery.builder()
+                        .accountId(accountId)
+                        .from(from)
+                        .to(to)
+                        .statuses(status)
+                        .beforeTimestamp(beforeTimestamp)
+                        .beforeId(beforeId)
+                        .limit(limit)
+                        .build())
+                .map(transferMapper::transferDaoToHistoryItemDto);
+    }
+
+    private void setLocation(ServerHttpResponse response, TransferCommandDto command) {
+        response.getHeaders().setLocation(URI.create("/api/transfer/commands/" + command.getId()));
+    }
+}
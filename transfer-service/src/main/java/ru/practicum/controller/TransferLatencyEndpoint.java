@@ -0,0 +1,61 @@
+package ru.practicum.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.StageLatencyDto;
+import ru.practicum.service.TransferMetrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Перцентили задержки этапов перевода: /actuator/transferlatency.
+ * Показывает, какой этап (сервис аккаунтов, блокировщик, обмен валют, Kafka, Postgres) определяет p99
+ */
+@Component
+@Endpoint(id = "transferlatency")
+@RequiredArgsConstructor
+public class TransferLatencyEndpoint {
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public List<StageLatencyDto> latency() {
+        return Stream.of(TransferMetrics.STAGE_TIMER, TransferMetrics.ASYNC_STAGE_TIMER, "transfer.audit.flush")
+                .flatMap(name -> meterRegistry.find(name).timers().stream())
+                .map(this::toDto)
+                .sorted(Comparator.comparingDouble(StageLatencyDto::getP99).reversed())
+                .toList();
+    }
+
+    private StageLatencyDto toDto(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        StageLatencyDto dto = StageLatencyDto.builder()
+                .timer(timer.getId().getName())
+                .stage(timer.getId().getTag("stage"))
+                .type(timer.getId().getTag("type"))
+                .outcome(timer.getId().getTag("outcome"))
+                .count(snapshot.count())
+                .mean(snapshot.mean(TimeUnit.MILLISECONDS))
+                .max(snapshot.max(TimeUnit.MILLISECONDS))
+                .build();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            double value = percentile.value(TimeUnit.MILLISECONDS);
+            if (percentile.percentile() == 0.5) {
+                dto.setP50(value);
+            } else if (percentile.percentile() == 0.95) {
+                dto.setP95(value);
+            } else if (percentile.percentile() == 0.99) {
+                dto.setP99(value);
+            }
+        }
+        return dto;
+    }
+}
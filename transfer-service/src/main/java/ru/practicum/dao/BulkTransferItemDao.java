@@ -0,0 +1,62 @@
+package ru.practicum.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.relational.core.mapping.Table;
+import ru.practicum.model.OperationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DAO результата элемента пакетного перевода
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bulk_transfer_items")
+public class BulkTransferItemDao {
+    /**
+     * Идентификатор задания
+     */
+    private UUID jobId;
+
+    /**
+     * Порядковый номер элемента в задании
+     */
+    private Integer itemIndex;
+
+    /**
+     * Электронная почта получателя
+     */
+    private String recipientEmail;
+
+    /**
+     * Сумма перевода
+     */
+    private BigDecimal amount;
+
+    /**
+     * Конвертированная сумма
+     */
+    private BigDecimal convertedAmount;
+
+    /**
+     * Статус перевода
+     */
+    private OperationStatus status;
+
+    /**
+     * Описание ошибки (если есть)
+     */
+    private String errorDescription;
+
+    /**
+     * Время завершения перевода
+     */
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,53 @@
+package ru.practicum.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import ru.practicum.model.BulkTransferJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DAO задания пакетного перевода
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bulk_transfer_jobs")
+public class BulkTransferJobDao {
+    /**
+     * Идентификатор задания
+     */
+    @Id
+    private UUID jobId;
+
+    /**
+     * Идентификатор счета отправителя
+     */
+    private UUID fromAccountId;
+
+    /**
+     * Идентификатор пользователя-отправителя
+     */
+    private UUID fromUserId;
+
+    /**
+     * Статус задания
+     */
+    private BulkTransferJobStatus status;
+
+    /**
+     * Дата создания
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата обновления
+     */
+    private LocalDateTime updatedAt;
+}
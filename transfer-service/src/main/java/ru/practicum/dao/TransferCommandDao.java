@@ -0,0 +1,90 @@
+package ru.practicum.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DAO команды асинхронного перевода
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "transfer_commands")
+public class TransferCommandDao {
+    /**
+     * Идентификатор команды
+     */
+    @Id
+    private UUID id;
+
+    /**
+     * Тип перевода
+     */
+    private TransferType type;
+
+    /**
+     * Идентификатор пользователя-отправителя
+     */
+    private UUID userId;
+
+    /**
+     * Идентификатор счета отправителя
+     */
+    private UUID fromAccountId;
+
+    /**
+     * Идентификатор счета получателя (перевод между своими счетами)
+     */
+    private UUID toAccountId;
+
+    /**
+     * Адрес электронной почты получателя (перевод другому пользователю)
+     */
+    private String recipientEmail;
+
+    /**
+     * Валюта получателя (перевод другому пользователю)
+     */
+    private String toCurrency;
+
+    /**
+     * Сумма перевода
+     */
+    private BigDecimal amount;
+
+    /**
+     * Конвертированная сумма
+     */
+    private BigDecimal convertedAmount;
+
+    /**
+     * Статус перевода
+     */
+    private OperationStatus status;
+
+    /**
+     * Описание ошибки (если есть)
+     */
+    private String errorDescription;
+
+    /**
+     * Дата создания
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата обновления
+     */
+    private LocalDateTime updatedAt;
+}
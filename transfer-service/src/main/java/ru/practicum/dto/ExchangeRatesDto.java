@@ -0,0 +1,20 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO набора курсов обмена валют из топика exchange-rates
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRatesDto {
+    /**
+     * Курсы валют относительно RUB
+     */
+    private List<ExchangeRateDto> rates;
+}
@@ -0,0 +1,67 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO задержки этапа перевода (время в миллисекундах)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StageLatencyDto {
+    /**
+     * Название таймера
+     */
+    private String timer;
+
+    /**
+     * Этап
+     */
+    private String stage;
+
+    /**
+     * Тип перевода (для этапов, выполняемых в запросе)
+     */
+    private String type;
+
+    /**
+     * Исход этапа
+     */
+    private String outcome;
+
+    /**
+     * Количество измерений
+     */
+    private long count;
+
+    /**
+     * Среднее время
+     */
+    private double mean;
+
+    /**
+     * Максимальное время за последний период
+     */
+    private double max;
+
+    /**
+     * 50-й перцентиль
+     */
+    private double p50;
+
+    /**
+     * 95-й перцентиль
+     */
+    private double p95;
+
+    /**
+     * 99-й перцентиль
+     */
+    private double p99;
+}
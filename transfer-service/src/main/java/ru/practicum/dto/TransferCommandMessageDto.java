@@ -0,0 +1,22 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO сообщения топика transfer-commands. Данные перевода читаются из таблицы transfer_commands
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferCommandMessageDto {
+    /**
+     * Идентификатор команды
+     */
+    private UUID commandId;
+}
@@ -0,0 +1,78 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO записи истории переводов. Время и идентификатор последней записи служат курсором следующей страницы
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferHistoryItemDto {
+    /**
+     * Идентификатор записи
+     */
+    private UUID id;
+
+    /**
+     * Идентификатор счета отправителя
+     */
+    private UUID fromAccountId;
+
+    /**
+     * Идентификатор счета получателя
+     */
+    private UUID toAccountId;
+
+    /**
+     * Сумма операции
+     */
+    private BigDecimal amount;
+
+    /**
+     * Конвертированная сумма
+     */
+    private BigDecimal convertedAmount;
+
+    /**
+     * Валюта отправителя
+     */
+    private String fromCurrency;
+
+    /**
+     * Валюта получателя
+     */
+    private String toCurrency;
+
+    /**
+     * Время операции
+     */
+    private LocalDateTime timestamp;
+
+    /**
+     * Статус операции
+     */
+    private OperationStatus status;
+
+    /**
+     * Тип операции
+     */
+    private TransferType type;
+
+    /**
+     * Описание ошибки (если есть)
+     */
+    private String errorDescription;
+}
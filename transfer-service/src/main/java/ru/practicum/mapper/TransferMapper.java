@@ -2,10 +2,17 @@ package ru.practicum.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.practicum.dao.BulkTransferItemDao;
+import ru.practicum.dao.TransferCommandDao;
 import ru.practicum.dao.TransferDao;
+import ru.practicum.dto.BulkTransferItemResultDto;
 import ru.practicum.dto.OtherTransferRequestDto;
+import ru.practicum.dto.TransferCommandDto;
+import ru.practicum.dto.TransferHistoryItemDto;
 import ru.practicum.dto.OwnTransferRequestDto;
 import ru.practicum.dto.TransferResponseDto;
+import ru.practicum.model.BulkTransferItemResult;
+import ru.practicum.model.TransferCommand;
 import ru.practicum.model.TransferRequest;
 import ru.practicum.model.TransferResponse;
 import ru.practicum.model.TransferType;
@@ -42,6 +49,48 @@ public interface TransferMapper {
      */
     TransferResponseDto transferResponseToTransferResponseDto(TransferResponse transferResponse);
 
+    /**
+     * Смаппить DAO команды асинхронного перевода в модель
+     *
+     * @param commandDao DAO команды асинхронного перевода
+     * @return Команда асинхронного перевода
+     */
+    TransferCommand transferCommandDaoToTransferCommand(TransferCommandDao commandDao);
+
+    /**
+     * Смаппить команду асинхронного перевода в DTO
+     *
+     * @param command Команда асинхронного перевода
+     * @return DTO состояния асинхронного перевода
+     */
+    TransferCommandDto transferCommandToDto(TransferCommand command);
+
+    /**
+     * Смаппить запись истории переводов в DTO
+     *
+     * @param transferDao DAO операции перевода
+     * @return DTO записи истории переводов
+     */
+    TransferHistoryItemDto transferDaoToHistoryItemDto(TransferDao transferDao);
+
+    /**
+     * Смаппить результат элемента пакетного перевода в DTO
+     *
+     * @param result Результат элемента пакетного перевода
+     * @return DTO результата элемента пакетного перевода
+     */
+    BulkTransferItemResultDto bulkTransferItemResultToDto(BulkTransferItemResult result);
+
+    /**
+     * Смаппить DAO результата элемента пакетного перевода в модель
+     *
+     * @param itemDao DAO результата элемента пакетного перевода
+     * @return Результат элемента пакетного перевода
+     */
+    @Mapping(target = "index", source = "itemIndex")
+    @Mapping(target = "resumed", ignore = true)
+    BulkTransferItemResult bulkTransferItemDaoToResult(BulkTransferItemDao itemDao);
+
     /**
      * Конвертировать TransferResponse в TransferDao для сохранения в БД
      *
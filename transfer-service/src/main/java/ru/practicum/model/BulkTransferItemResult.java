@@ -0,0 +1,60 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Результат элемента пакетного перевода
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class BulkTransferItemResult {
+    /**
+     * Идентификатор задания
+     */
+    private UUID jobId;
+
+    /**
+     * Порядковый номер элемента в задании
+     */
+    private int index;
+
+    /**
+     * Электронная почта получателя
+     */
+    private String recipientEmail;
+
+    /**
+     * Сумма перевода
+     */
+    private BigDecimal amount;
+
+    /**
+     * Конвертированная сумма
+     */
+    private BigDecimal convertedAmount;
+
+    /**
+     * Статус перевода
+     */
+    private OperationStatus status;
+
+    /**
+     * Описание ошибки (если есть)
+     */
+    private String errorDescription;
+
+    /**
+     * Элемент был выполнен ранее и пропущен при возобновлении задания
+     */
+    private boolean resumed;
+}
@@ -0,0 +1,9 @@
+package ru.practicum.model;
+
+/**
+ * Статус задания пакетного перевода
+ */
+public enum BulkTransferJobStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -4,7 +4,12 @@ package ru.practicum.model;
  * Статус операций
  */
 public enum OperationStatus {
+    PENDING,
     SUCCESS,
     FAILED,
-    BLOCKED
+    BLOCKED,
+    /**
+     * Результат неизвестен: повторы исчерпаны, перевод требует сверки
+     */
+    UNKNOWN
 }
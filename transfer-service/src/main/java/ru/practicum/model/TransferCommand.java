@@ -0,0 +1,86 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Команда асинхронного перевода
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferCommand {
+    /**
+     * Идентификатор команды
+     */
+    private UUID id;
+
+    /**
+     * Тип перевода
+     */
+    private TransferType type;
+
+    /**
+     * Идентификатор пользователя-отправителя
+     */
+    private UUID userId;
+
+    /**
+     * Идентификатор счета отправителя
+     */
+    private UUID fromAccountId;
+
+    /**
+     * Идентификатор счета получателя (перевод между своими счетами)
+     */
+    private UUID toAccountId;
+
+    /**
+     * Адрес электронной почты получателя (перевод другому пользователю)
+     */
+    private String recipientEmail;
+
+    /**
+     * Валюта получателя (перевод другому пользователю)
+     */
+    private String toCurrency;
+
+    /**
+     * Сумма перевода
+     */
+    private BigDecimal amount;
+
+    /**
+     * Конвертированная сумма
+     */
+    private BigDecimal convertedAmount;
+
+    /**
+     * Статус перевода
+     */
+    private OperationStatus status;
+
+    /**
+     * Описание ошибки (если есть)
+     */
+    private String errorDescription;
+
+    /**
+     * Дата создания
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата обновления
+     */
+    private LocalDateTime updatedAt;
+}
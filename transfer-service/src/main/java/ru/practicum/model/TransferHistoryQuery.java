@@ -0,0 +1,56 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запрос истории переводов по счету
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferHistoryQuery {
+    /**
+     * Идентификатор счета
+     */
+    private UUID accountId;
+
+    /**
+     * Начало периода (включительно)
+     */
+    private LocalDateTime from;
+
+    /**
+     * Конец периода (не включительно)
+     */
+    private LocalDateTime to;
+
+    /**
+     * Статусы операций (все, если не заданы)
+     */
+    private List<OperationStatus> statuses;
+
+    /**
+     * Время последней полученной записи (курсор)
+     */
+    private LocalDateTime beforeTimestamp;
+
+    /**
+     * Идентификатор последней полученной записи (курсор)
+     */
+    private UUID beforeId;
+
+    /**
+     * Количество записей (вся история после курсора, если не задано)
+     */
+    private Integer limit;
+}
@@ -0,0 +1,52 @@
+package ru.practicum.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.BulkTransferItemDao;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Репозиторий результатов элементов пакетного перевода
+ */
+@org.springframework.stereotype.Repository
+public interface BulkTransferItemRepository extends Repository<BulkTransferItemDao, UUID> {
+
+    /**
+     * Найти результаты задания в порядке элементов
+     *
+     * @param jobId Идентификатор задания
+     * @return Результаты элементов
+     */
+    @Query("SELECT * FROM bulk_transfer_items WHERE job_id = :jobId ORDER BY item_index")
+    Flux<BulkTransferItemDao> findByJobId(UUID jobId);
+
+    /**
+     * Найти результаты задания с заданным статусом
+     *
+     * @param jobId Идентификатор задания
+     * @param status Статус
+     * @return Результаты элементов
+     */
+    @Query("SELECT * FROM bulk_transfer_items WHERE job_id = :jobId AND status = :status")
+    Flux<BulkTransferItemDao> findByJobIdAndStatus(UUID jobId, String status);
+
+    /**
+     * Сохранить результат элемента, заменив результат предыдущей попытки
+     *
+     * @return Количество сохраненных записей
+     */
+    @Modifying
+    @Query("INSERT INTO bulk_transfer_items (job_id, item_index, recipient_email, amount, converted_amount, status, " +
+            "error_description) VALUES (:jobId, :itemIndex, :recipientEmail, :amount, :convertedAmount, :status, " +
+            ":errorDescription) " +
+            "ON CONFLICT (job_id, item_index) DO UPDATE SET recipient_email = EXCLUDED.recipient_email, " +
+            "amount = EXCLUDED.amount, converted_amount = EXCLUDED.converted_amount, status = EXCLUDED.status, " +
+            "error_description = EXCLUDED.error_description, completed_at = CURRENT_TIMESTAMP")
+    Mono<Integer> upsert(UUID jobId, int itemIndex, String recipientEmail, BigDecimal amount,
+                         BigDecimal convertedAmount, String status, String errorDescription);
+}
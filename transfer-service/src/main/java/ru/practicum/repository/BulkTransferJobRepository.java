@@ -0,0 +1,41 @@
+package ru.practicum.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.BulkTransferJobDao;
+
+import java.util.UUID;
+
+/**
+ * Репозиторий заданий пакетного перевода
+ */
+@Repository
+public interface BulkTransferJobRepository extends ReactiveCrudRepository<BulkTransferJobDao, UUID> {
+
+    /**
+     * Создать задание, если задания с таким идентификатором еще нет
+     *
+     * @param jobId Идентификатор задания
+     * @param fromAccountId Идентификатор счета отправителя
+     * @param fromUserId Идентификатор пользователя-отправителя
+     * @return Количество добавленных записей (0, если задание уже существует)
+     */
+    @Modifying
+    @Query("INSERT INTO bulk_transfer_jobs (job_id, from_account_id, from_user_id, status) " +
+            "VALUES (:jobId, :fromAccountId, :fromUserId, 'IN_PROGRESS') ON CONFLICT (job_id) DO NOTHING")
+    Mono<Integer> createIfAbsent(UUID jobId, UUID fromAccountId, UUID fromUserId);
+
+    /**
+     * Изменить статус задания
+     *
+     * @param jobId Идентификатор задания
+     * @param status Новый статус
+     * @return Количество обновленных записей
+     */
+    @Modifying
+    @Query("UPDATE bulk_transfer_jobs SET status = :status, updated_at = CURRENT_TIMESTAMP WHERE job_id = :jobId")
+    Mono<Integer> updateStatus(UUID jobId, String status);
+}
@@ -0,0 +1,45 @@
+package ru.practicum.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.NotificationOutboxDao;
+
+/**
+ * Репозиторий исходящих оповещений
+ */
+@Repository
+public interface NotificationOutboxRepository extends ReactiveCrudRepository<NotificationOutboxDao, Long> {
+
+    /**
+     * Захватить транзакционную advisory-блокировку отправки. Блокировка снимается в конце транзакции
+     *
+     * @param lockId Идентификатор блокировки
+     * @return true, если блокировка захвачена, false - если ее держит другой экземпляр сервиса
+     */
+    @Query("SELECT pg_try_advisory_xact_lock(:lockId)")
+    Mono<Boolean> tryLockRelay(long lockId);
+
+    /**
+     * Выбрать самые старые оповещения с блокировкой строк до конца транзакции.
+     * Строки не пропускаются, чтобы сообщения одного ключа не обгоняли друг друга
+     *
+     * @param limit Размер пакета
+     * @return Оповещения в порядке добавления
+     */
+    @Query("SELECT * FROM notification_outbox ORDER BY id LIMIT :limit FOR UPDATE")
+    Flux<NotificationOutboxDao> findBatchForUpdate(int limit);
+
+    /**
+     * Удалить отправленные оповещения
+     *
+     * @param ids Идентификаторы оповещений
+     * @return Количество удаленных записей
+     */
+    @Modifying
+    @Query("DELETE FROM notification_outbox WHERE id = ANY(:ids)")
+    Mono<Integer> deleteByIds(Long[] ids);
+}
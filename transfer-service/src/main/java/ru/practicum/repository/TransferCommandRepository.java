@@ -0,0 +1,46 @@
+package ru.practicum.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.TransferCommandDao;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Репозиторий команд асинхронного перевода
+ */
+@Repository
+public interface TransferCommandRepository extends ReactiveCrudRepository<TransferCommandDao, UUID> {
+
+    /**
+     * Создать команду со статусом PENDING
+     *
+     * @return Количество добавленных записей
+     */
+    @Modifying
+    @Query("INSERT INTO transfer_commands (id, type, user_id, from_account_id, to_account_id, recipient_email, " +
+            "to_currency, amount, status) VALUES (:id, :type, :userId, :fromAccountId, :toAccountId, :recipientEmail, " +
+            ":toCurrency, :amount, 'PENDING')")
+    Mono<Integer> create(UUID id, String type, UUID userId, UUID fromAccountId, UUID toAccountId,
+                         String recipientEmail, String toCurrency, BigDecimal amount);
+
+    /**
+     * Завершить команду. Завершается только команда в статусе PENDING,
+     * поэтому повторная доставка сообщения не меняет результат
+     *
+     * @param id Идентификатор команды
+     * @param status Итоговый статус
+     * @param convertedAmount Конвертированная сумма
+     * @param errorDescription Описание ошибки
+     * @return Количество обновленных записей
+     */
+    @Modifying
+    @Query("UPDATE transfer_commands SET status = :status, converted_amount = :convertedAmount, " +
+            "error_description = :errorDescription, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :id AND status = 'PENDING'")
+    Mono<Integer> complete(UUID id, String status, BigDecimal convertedAmount, String errorDescription);
+}
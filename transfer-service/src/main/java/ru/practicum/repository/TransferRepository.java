@@ -1,9 +1,15 @@
 package ru.practicum.repository;
 
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.dao.TransferDao;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -11,4 +17,44 @@ import java.util.UUID;
  */
 @Repository
 public interface TransferRepository extends ReactiveCrudRepository<TransferDao, UUID> {
+
+    /**
+     * Сохранить несколько операций перевода одним многострочным INSERT.
+     * Массивы передаются по столбцам, i-й элемент каждого массива относится к i-й операции
+     *
+     * @return Количество добавленных записей
+     */
+    @Modifying
+    @Query("INSERT INTO transfers (from_account_id, to_account_id, amount, converted_amount, from_currency, " +
+            "to_currency, timestamp, status, type, error_description) " +
+            "SELECT * FROM unnest(:fromAccountIds, :toAccountIds, :amounts, :convertedAmounts, :fromCurrencies, " +
+            ":toCurrencies, :timestamps, :statuses, :types, :errorDescriptions)")
+    Mono<Integer> insertAll(UUID[] fromAccountIds, UUID[] toAccountIds, BigDecimal[] amounts, BigDecimal[] convertedAmounts,
+                            String[] fromCurrencies, String[] toCurrencies, LocalDateTime[] timestamps,
+                            String[] statuses, String[] types, String[] errorDescriptions);
+
+    /**
+     * Найти страницу истории переводов по счету (исходящие и входящие) в порядке убывания времени.
+     * Каждая ветка UNION ALL читается по составному индексу счета и времени и ограничивается размером страницы,
+     * поэтому объем чтения не зависит от общего числа переводов по счету
+     *
+     * @param accountId Идентификатор счета
+     * @param from Начало периода (включительно)
+     * @param statuses Допустимые статусы
+     * @param beforeTimestamp Время последней записи предыдущей страницы (или конец периода)
+     * @param beforeId Идентификатор последней записи предыдущей страницы
+     * @param limit Размер страницы
+     * @return Записи страницы
+     */
+    @Query("SELECT * FROM (" +
+            "(SELECT * FROM transfers WHERE from_account_id = :accountId AND timestamp >= :from " +
+            "AND (timestamp, id) < (:beforeTimestamp, :beforeId) AND status = ANY(:statuses) " +
+            "ORDER BY timestamp DESC, id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT * FROM transfers WHERE to_account_id = :accountId AND timestamp >= :from " +
+            "AND (timestamp, id) < (:beforeTimestamp, :beforeId) AND status = ANY(:statuses) " +
+            "ORDER BY timestamp DESC, id DESC LIMIT :limit)" +
+            ") page ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<TransferDao> findHistoryPage(UUID accountId, LocalDateTime from, String[] statuses,
+                                      LocalDateTime beforeTimestamp, UUID beforeId, int limit);
 }
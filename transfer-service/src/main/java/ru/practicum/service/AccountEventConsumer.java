@@ -0,0 +1,48 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.kafka.receiver.KafkaReceiver;
+import ru.practicum.dto.AccountEventDto;
+
+/**
+ * Чтение событий account-events и сброс кэша данных счетов
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountEventConsumer {
+    private final KafkaReceiver<String, AccountEventDto> accountEventReceiver;
+
+    /**
+     * Кэш данных счетов
+     */
+    private final AccountMetadataCache accountMetadataCache;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void startConsuming() {
+        subscription = accountEventReceiver.receive()
+                .doOnNext(record -> {
+                    if (record.value() != null) {
+                        accountMetadataCache.handle(record.value());
+                    }
+                    record.receiverOffset().acknowledge();
+                })
+                .doOnError(e -> log.error("Ошибка чтения событий account-events", e))
+                .retry()
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.practicum.client.account.AccountServiceClient;
+import ru.practicum.client.account.dto.AccountResponseDto;
+import ru.practicum.dto.AccountEventDto;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Кэш владельца и валюты счетов.
+ * Хранит только неизменяемые на практике данные (идентификаторы счета и владельца, код валюты);
+ * баланс в кэш не попадает и проверяется сервисом аккаунтов при списании.
+ * Размер кэша ограничен (LRU), записи истекают по времени жизни и сбрасываются по событиям account-events
+ */
+@Slf4j
+@Component
+public class AccountMetadataCache {
+    private static final String ID_KEY_PREFIX = "id:";
+    private static final String RECIPIENT_KEY_PREFIX = "recipient:";
+
+    /**
+     * Клиент для сервиса аккаунтов
+     */
+    private final AccountServiceClient accountServiceClient;
+
+    /**
+     * Включен ли кэш
+     */
+    private final boolean enabled;
+
+    /**
+     * Время жизни записи в наносекундах
+     */
+    private final long ttlNanos;
+
+    /**
+     * Источник текущего времени в наносекундах
+     */
+    private final LongSupplier nanoTime;
+
+    /**
+     * Записи кэша в порядке доступа
+     */
+    private final Map<String, CachedAccount> cache;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public AccountMetadataCache(AccountServiceClient accountServiceClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.transfer.account-cache.enabled:true}") boolean enabled,
+                                @Value("${app.transfer.account-cache.max-size:10000}") int maxSize,
+                                @Value("${app.transfer.account-cache.ttl:5m}") Duration ttl) {
+        this(accountServiceClient, meterRegistry, enabled, maxSize, ttl, System::nanoTime);
+    }
+
+    AccountMetadataCache(AccountServiceClient accountServiceClient, MeterRegistry meterRegistry, boolean enabled,
+                         int maxSize, Duration ttl, LongSupplier nanoTime) {
+        this.accountServiceClient = accountServiceClient;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAccount> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.hitCounter = Counter.builder("transfer.account.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("transfer.account.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Получить счет по идентификатору
+     *
+     * @param accountId Идентификатор счета
+     * @return Счет без баланса (из кэша) или с балансом (из сервиса аккаунтов, если кэш выключен)
+     */
+    public Mono<AccountResponseDto> getAccount(UUID accountId) {
+        return get(ID_KEY_PREFIX + accountId, () -> accountServiceClient.getAccountWithUserByAccountId(accountId));
+    }
+
+    /**
+     * Получить счет получателя по адресу электронной почты и коду валюты
+     *
+     * @param email Адрес электронной почты
+     * @param currency Код валюты
+     * @return Счет без баланса (из кэша) или с балансом (из сервиса аккаунтов, если кэш выключен)
+     */
+    public Mono<AccountResponseDto> getRecipientAccount(String email, String currency) {
+        return get(RECIPIENT_KEY_PREFIX + email + "/" + currency,
+                () -> accountServiceClient.getAccountWithUserByEmailAndCurrency(email, currency));
+    }
+
+    /**
+     * Сбросить записи по событию об изменении счета или владельца
+     *
+     * @param event Событие
+     */
+    public void handle(AccountEventDto event) {
+        if (event.getEventType() == null) {
+            return;
+        }
+        switch (event.getEventType()) {
+            case ACCOUNT_DELETED -> evict(account -> account.getId().equals(event.getAccountId()));
+            case USER_UPDATED, USER_DELETED -> evict(account -> account.getUserId().equals(event.getUserId()));
+        }
+        log.debug("Кэш счетов сброшен по событию {}: счет {}, пользователь {}",
+                event.getEventType(), event.getAccountId(), event.getUserId());
+    }
+
+    /**
+     * Количество записей в кэше
+     */
+    int size() {
+        return cache.size();
+    }
+
+    private Mono<AccountResponseDto> get(String key, Supplier<Mono<AccountResponseDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            CachedAccount cached = cache.get(key);
+            if (cached != null && nanoTime.getAsLong() - cached.loadedAt() < ttlNanos) {
+                hitCounter.increment();
+                return Mono.just(cached.account());
+            }
+            missCounter.increment();
+            return loader.get()
+                    .map(this::withoutBalance)
+                    .doOnNext(account -> cache.put(key, new CachedAccount(account, nanoTime.getAsLong())));
+        });
+    }
+
+    private void evict(Predicate<AccountResponseDto> predicate) {
+        synchronized (cache) {
+            cache.values().removeIf(cached -> predicate.test(cached.account()));
+        }
+    }
+
+    private AccountResponseDto withoutBalance(AccountResponseDto account) {
+        return AccountResponseDto.builder()
+                .id(account.getId())
+                .userId(account.getUserId())
+                .currencyCode(account.getCurrencyCode())
+                .createdAt(account.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Запись кэша
+     *
+     * @param account Данные счета без баланса
+     * @param loadedAt Время загрузки в наносекундах
+     */
+    private record CachedAccount(AccountResponseDto account, long loadedAt) {
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.service;
+
+import reactor.core.publisher.Flux;
+import ru.practicum.dto.OtherTransferRequestDto;
+import ru.practicum.model.BulkTransferItemResult;
+
+import java.util.UUID;
+
+/**
+ * Сервис пакетных переводов с одного счета (выплаты)
+ */
+public interface BulkTransferService {
+    /**
+     * Выполнить пакетный перевод. Все элементы должны списываться с одного счета.
+     * При повторном запуске с тем же идентификатором задания успешно выполненные элементы не повторяются
+     *
+     * @param jobId Идентификатор задания
+     * @param requests Поток запросов на перевод
+     * @return Поток результатов по элементам (в порядке завершения)
+     */
+    Flux<BulkTransferItemResult> transferBulk(UUID jobId, Flux<OtherTransferRequestDto> requests);
+
+    /**
+     * Получить сохраненные результаты задания
+     *
+     * @param jobId Идентификатор задания
+     * @return Результаты по элементам в порядке элементов
+     */
+    Flux<BulkTransferItemResult> getJobResults(UUID jobId);
+}
@@ -0,0 +1,289 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import ru.practicum.client.account.AccountServiceClient;
+import ru.practicum.client.account.dto.AccountResponseDto;
+import ru.practicum.client.account.dto.RecipientAccountResponseDto;
+import ru.practicum.client.account.dto.RecipientLookupRequestDto;
+import ru.practicum.dao.BulkTransferJobDao;
+import ru.practicum.dto.OtherTransferRequestDto;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.mapper.TransferMapper;
+import ru.practicum.model.BulkTransferItemResult;
+import ru.practicum.model.BulkTransferJobStatus;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.repository.BulkTransferItemRepository;
+import ru.practicum.repository.BulkTransferJobRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkTransferServiceImpl implements BulkTransferService {
+    /**
+     * Клиент для сервиса аккаунтов
+     */
+    private final AccountServiceClient accountServiceClient;
+
+    /**
+     * Сервис перевода средств между счетами
+     */
+    private final TransferService transferService;
+
+    /**
+     * Репозиторий заданий пакетного перевода
+     */
+    private final BulkTransferJobRepository bulkTransferJobRepository;
+
+    /**
+     * Репозиторий результатов элементов пакетного перевода
+     */
+    private final BulkTransferItemRepository bulkTransferItemRepository;
+
+    /**
+     * Маппер запросов на перевод
+     */
+    private final TransferMapper transferMapper;
+
+    /**
+     * Количество одновременно выполняемых переводов
+     */
+    @Value("${app.transfer.bulk.concurrency:16}")
+    private int concurrency;
+
+    /**
+     * Количество элементов, для которых счета получателей запрашиваются одним запросом
+     */
+    @Value("${app.transfer.bulk.recipient-batch-size:200}")
+    private int recipientBatchSize;
+
+    @Override
+    public Flux<BulkTransferItemResult> transferBulk(UUID jobId, Flux<OtherTransferRequestDto> requests) {
+        return requests.index()
+                .switchOnFirst((first, items) -> {
+                    if (!first.hasValue()) {
+                        return items.thenMany(Flux.empty());
+                    }
+                    return prepareJob(jobId, first.get().getT2())
+                            .flatMapMany(job -> items
+                                    .buffer(recipientBatchSize)
+                                    .concatMap(batch -> resolveRecipients(job, batch), 1)
+                                    .flatMapDelayError(item -> processItem(job, item), concurrency, concurrency)
+                                    .concatWith(completeJob(jobId)));
+                })
+                .doOnComplete(() -> log.info("Пакетный перевод {} завершен", jobId));
+    }
+
+    @Override
+    public Flux<BulkTransferItemResult> getJobResults(UUID jobId) {
+        return bulkTransferJobRepository.existsById(jobId)
+                .flatMapMany(exists -> exists
+                        ? bulkTransferItemRepository.findByJobId(jobId)
+                        : Flux.error(new NotFoundException("Задание пакетного перевода", jobId)))
+                .map(transferMapper::bulkTransferItemDaoToResult);
+    }
+
+    /**
+     * Создать или загрузить задание, получить счет отправителя и уже выполненные элементы
+     */
+    private Mono<BulkJob> prepareJob(UUID jobId, OtherTransferRequestDto head) {
+        UUID fromAccountId = head.getFromAccountId();
+        UUID fromUserId = head.getFromUserId();
+        if (fromAccountId == null || fromUserId == null) {
+            return Mono.error(new ValidationException("Не указан счет или пользователь отправителя"));
+        }
+
+        Mono<BulkTransferJobDao> job = bulkTransferJobRepository.createIfAbsent(jobId, fromAccountId, fromUserId)
+                .then(bulkTransferJobRepository.findById(jobId))
+                .flatMap(dao -> dao.getFromAccountId().equals(fromAccountId) && dao.getFromUserId().equals(fromUserId)
+                        ? Mono.just(dao)
+                        : Mono.error(new ValidationException("Задание " + jobId + " относится к другому счету отправителя")));
+
+        return job.then(Mono.defer(() -> Mono.zip(fetchSourceAccount(fromAccountId), loadCompleted(jobId))))
+                .map(tuple -> new BulkJob(jobId, fromUserId, tuple.getT1(), tuple.getT2()));
+    }
+
+    private Mono<AccountResponseDto> fetchSourceAccount(UUID fromAccountId) {
+        return accountServiceClient.getAccountWithUserByAccountId(fromAccountId)
+                .onErrorResume(NotFoundException.class,
+                        e -> Mono.error(new ValidationException("Счет отправителя не найден")))
+                .onErrorResume(ServiceUnavailableException.class,
+                        e -> Mono.error(new ServiceUnavailableException("account-service",
+                                "Не удалось получить счет отправителя")));
+    }
+
+    private Mono<Map<Integer, BulkTransferItemResult>> loadCompleted(UUID jobId) {
+        return bulkTransferItemRepository.findByJobIdAndStatus(jobId, OperationStatus.SUCCESS.name())
+                .map(transferMapper::bulkTransferItemDaoToResult)
+                .collectMap(BulkTransferItemResult::getIndex, Function.identity());
+    }
+
+    /**
+     * Получить счета получателей пакета одним запросом. Выполненные ранее элементы не запрашиваются
+     */
+    private Flux<BulkItem> resolveRecipients(BulkJob job, List<Tuple2<Long, OtherTransferRequestDto>> batch) {
+        List<RecipientLookupRequestDto> lookups = batch.stream()
+                .filter(item -> !job.completed().containsKey(item.getT1().intValue()))
+                .map(Tuple2::getT2)
+                .filter(request -> request.getRecipientEmail() != null && request.getToCurrency() != null)
+                .map(request -> RecipientLookupRequestDto.builder()
+                        .email(request.getRecipientEmail())
+                        .currencyCode(request.getToCurrency())
+                        .build())
+                .distinct()
+                .toList();
+
+        Mono<Map<String, AccountResponseDto>> recipients = lookups.isEmpty()
+                ? Mono.just(Map.of())
+                : accountServiceClient.findRecipientAccounts(lookups)
+                .collectMap(recipient -> recipientKey(recipient.getEmail(), recipient.getCurrencyCode()),
+                        this::toAccount);
+
+        return recipients
+                .map(found -> batch.stream()
+                        .map(item -> new BulkItem(item.getT1().intValue(), item.getT2(),
+                                found.get(recipientKey(item.getT2().getRecipientEmail(), item.getT2().getToCurrency())),
+                                null))
+                        .toList())
+                .onErrorResume(e -> {
+                    log.warn("Не удалось получить счета получателей пакетного перевода {}: {}", job.jobId(), e.getMessage());
+                    return Mono.just(batch.stream()
+                            .map(item -> new BulkItem(item.getT1().intValue(), item.getT2(), null,
+                                    "Не удалось получить счет получателя"))
+                            .toList());
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<BulkTransferItemResult> processItem(BulkJob job, BulkItem item) {
+        BulkTransferItemResult completed = job.completed().get(item.index());
+        if (completed != null) {
+            return Mono.just(completed.toBuilder().resumed(true).build());
+        }
+
+        OtherTransferRequestDto request = item.request();
+        BulkTransferItemResult pending = BulkTransferItemResult.builder()
+                .jobId(job.jobId())
+                .index(item.index())
+                .recipientEmail(request.getRecipientEmail())
+                .amount(request.getAmount())
+                .build();
+
+        String error = validateItem(job, item);
+        Mono<BulkTransferItemResult> result = error != null
+                ? Mono.just(failed(pending, error))
+                : transferService.transferToResolvedAccount(job.fromAccount(), item.recipient(), request.getAmount(),
+                        job.fromUserId(), job.jobId() + ":" + item.index())
+                .map(response -> pending.toBuilder()
+                        .status(OperationStatus.SUCCESS)
+                        .convertedAmount(response.getConvertedAmount())
+                        .build())
+                .onErrorResume(e -> Mono.just(failed(pending, e.getMessage())));
+
+        return result.flatMap(this::saveItem);
+    }
+
+    private String validateItem(BulkJob job, BulkItem item) {
+        OtherTransferRequestDto request = item.request();
+        if (!job.fromAccount().getId().equals(request.getFromAccountId())
+                || !job.fromUserId().equals(request.getFromUserId())) {
+            return "Все переводы задания должны выполняться с одного счета";
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Сумма перевода должна быть больше нуля";
+        }
+        if (item.error() != null) {
+            return item.error();
+        }
+        if (item.recipient() == null) {
+            return "Счет получателя не найден";
+        }
+        return null;
+    }
+
+    private BulkTransferItemResult failed(BulkTransferItemResult pending, String errorDescription) {
+        return pending.toBuilder()
+                .status(OperationStatus.FAILED)
+                .errorDescription(errorDescription)
+                .build();
+    }
+
+    /**
+     * Сохранить результат элемента. Ошибка сохранения возвращается вызывающему после обработки
+     * остальных элементов, задание остается в статусе IN_PROGRESS. Элемент без сохраненного результата
+     * повторяется при возобновлении, и повторное списание исключает ключ идемпотентности jobId:index
+     * только в пределах срока его хранения в account-service
+     */
+    private Mono<BulkTransferItemResult> saveItem(BulkTransferItemResult result) {
+        return bulkTransferItemRepository.upsert(result.getJobId(), result.getIndex(), result.getRecipientEmail(),
+                        result.getAmount(), result.getConvertedAmount(), result.getStatus().name(),
+                        result.getErrorDescription())
+                .onErrorMap(e -> {
+                    log.error("Не удалось сохранить результат элемента {} задания {}: {}",
+                            result.getIndex(), result.getJobId(), e.getMessage());
+                    return new ServiceUnavailableException("Результат пакетного перевода не сохранен",
+                            "transfer-service", "Не удалось сохранить результат элемента " + result.getIndex()
+                            + " задания " + result.getJobId());
+                })
+                .thenReturn(result);
+    }
+
+    /**
+     * Завершить задание. Вызывается, только если результаты всех элементов сохранены
+     */
+    private Mono<BulkTransferItemResult> completeJob(UUID jobId) {
+        return Mono.defer(() -> bulkTransferJobRepository.updateStatus(jobId, BulkTransferJobStatus.COMPLETED.name()))
+                .then(Mono.empty());
+    }
+
+    private AccountResponseDto toAccount(RecipientAccountResponseDto recipient) {
+        return AccountResponseDto.builder()
+                .id(recipient.getId())
+                .userId(recipient.getUserId())
+                .currencyCode(recipient.getCurrencyCode())
+                .balance(recipient.getBalance())
+                .createdAt(recipient.getCreatedAt())
+                .build();
+    }
+
+    private static String recipientKey(String email, String currencyCode) {
+        return Objects.toString(email) + "/" + Objects.toString(currencyCode);
+    }
+
+    /**
+     * Задание пакетного перевода: счет отправителя запрашивается один раз на все задание
+     *
+     * @param jobId Идентификатор задания
+     * @param fromUserId Идентификатор пользователя-отправителя
+     * @param fromAccount Счет отправителя
+     * @param completed Успешно выполненные ранее элементы по порядковому номеру
+     */
+    private record BulkJob(UUID jobId, UUID fromUserId, AccountResponseDto fromAccount,
+                           Map<Integer, BulkTransferItemResult> completed) {
+    }
+
+    /**
+     * Элемент пакетного перевода с найденным счетом получателя
+     *
+     * @param index Порядковый номер элемента
+     * @param request Запрос на перевод
+     * @param recipient Счет получателя (если найден)
+     * @param error Ошибка получения счета получателя (если была)
+     */
+    private record BulkItem(int index, OtherTransferRequestDto request, AccountResponseDto recipient, String error) {
+    }
+}
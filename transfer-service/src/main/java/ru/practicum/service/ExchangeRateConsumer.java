@@ -0,0 +1,46 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.kafka.receiver.KafkaReceiver;
+import ru.practicum.dto.ExchangeRatesDto;
+
+/**
+ * Чтение курсов из топика exchange-rates и обновление локального снимка курсов
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExchangeRateConsumer {
+    private final KafkaReceiver<String, ExchangeRatesDto> exchangeRatesReceiver;
+
+    /**
+     * Локальный снимок курсов валют
+     */
+    private final ExchangeRateMirror exchangeRateMirror;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void startConsuming() {
+        subscription = exchangeRatesReceiver.receive()
+                .doOnNext(record -> {
+                    exchangeRateMirror.update(record.value());
+                    record.receiverOffset().acknowledge();
+                })
+                .doOnError(e -> log.error("Ошибка чтения курсов exchange-rates", e))
+                .retry()
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.ExchangeRateDto;
+import ru.practicum.dto.ExchangeRatesDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Локальный снимок курсов валют из топика exchange-rates.
+ * Конвертация выполняется по тем же правилам, что и в сервисе обмена валют: сумма умножается
+ * на цену покупки исходной валюты и делится на цену продажи целевой (спред уже заложен генератором
+ * в цены покупки и продажи), результат округляется до 2 знаков HALF_UP.
+ * Если снимок устарел или в нем нет нужной валюты, конвертация не выполняется и вызывающий
+ * обращается к сервису обмена валют
+ */
+@Slf4j
+@Component
+public class ExchangeRateMirror {
+    private static final String RUB = "RUB";
+
+    /**
+     * Включена ли локальная конвертация
+     */
+    private final boolean enabled;
+
+    /**
+     * Максимальный возраст снимка в наносекундах
+     */
+    private final long maxAgeNanos;
+
+    /**
+     * Источник текущего времени в наносекундах
+     */
+    private final LongSupplier nanoTime;
+
+    /**
+     * Текущий снимок курсов
+     */
+    private volatile Snapshot snapshot;
+
+    private final Counter localCounter;
+    private final Counter fallbackCounter;
+
+    @Autowired
+    public ExchangeRateMirror(MeterRegistry meterRegistry,
+                              @Value("${app.transfer.exchange-rates.enabled:true}") boolean enabled,
+                              @Value("${app.transfer.exchange-rates.max-age:5s}") Duration maxAge) {
+        this(meterRegistry, enabled, maxAge, System::nanoTime);
+    }
+
+    ExchangeRateMirror(MeterRegistry meterRegistry, boolean enabled, Duration maxAge, LongSupplier nanoTime) {
+        this.enabled = enabled;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.nanoTime = nanoTime;
+        this.localCounter = Counter.builder("transfer.exchange.conversion")
+                .tag("source", "local")
+                .register(meterRegistry);
+        this.fallbackCounter = Counter.builder("transfer.exchange.conversion")
+                .tag("source", "exchange-service")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Обновить снимок курсов. Учитываются только курсы к RUB, как и в сервисе обмена валют
+     *
+     * @param rates Курсы из топика exchange-rates
+     */
+    public void update(ExchangeRatesDto rates) {
+        if (rates == null || rates.getRates() == null) {
+            return;
+        }
+        Map<String, ExchangeRateDto> rubRates = new HashMap<>();
+        for (ExchangeRateDto rate : rates.getRates()) {
+            if (RUB.equals(rate.getTargetCurrency()) && rate.getBuyRate() != null && rate.getSellRate() != null
+                    && rate.getSellRate().signum() > 0) {
+                rubRates.put(rate.getBaseCurrency(), rate);
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(rubRates), nanoTime.getAsLong());
+        log.debug("Обновлен снимок курсов: {} валют", rubRates.size());
+    }
+
+    /**
+     * Сконвертировать сумму по локальному снимку курсов
+     *
+     * @param fromCurrency Код исходной валюты
+     * @param toCurrency Код целевой валюты
+     * @param amount Сумма
+     * @return Сконвертированная сумма или пустой результат, если снимок устарел или курс не найден
+     */
+    public Optional<BigDecimal> convert(String fromCurrency, String toCurrency, BigDecimal amount) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null || nanoTime.getAsLong() - current.receivedAt() > maxAgeNanos) {
+            fallbackCounter.increment();
+            return Optional.empty();
+        }
+        ExchangeRateDto fromRate = current.rubRates().get(fromCurrency.toUpperCase());
+        ExchangeRateDto toRate = current.rubRates().get(toCurrency.toUpperCase());
+        if (fromRate == null || toRate == null) {
+            fallbackCounter.increment();
+            return Optional.empty();
+        }
+        localCounter.increment();
+        return Optional.of(amount.multiply(fromRate.getBuyRate()).divide(toRate.getSellRate(), 2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Снимок курсов
+     *
+     * @param rubRates Курсы к RUB по коду исходной валюты
+     * @param receivedAt Время получения в наносекундах
+     */
+    private record Snapshot(Map<String, ExchangeRateDto> rubRates, long receivedAt) {
+    }
+}
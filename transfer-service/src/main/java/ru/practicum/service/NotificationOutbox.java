@@ -0,0 +1,199 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import ru.practicum.dao.NotificationOutboxDao;
+import ru.practicum.dto.NotificationRequestDto;
+import ru.practicum.dto.TransferCommandMessageDto;
+import ru.practicum.repository.NotificationOutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox оповещений и команд асинхронного перевода.
+ * Сообщение сохраняется в таблицу notification_outbox в транзакции операции,
+ * а фоновая задача пакетами отправляет накопленные записи в Kafka и удаляет отправленные.
+ * Доставка "хотя бы один раз": при ошибке отправки пакет остается в таблице до следующего запуска.
+ * Отправку в каждый момент выполняет только один экземпляр сервиса, поэтому сообщения с одним ключом
+ * (команды перевода с одного счета) попадают в Kafka в порядке добавления.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+    private static final String NOTIFICATION_TOPIC = "notification";
+    private static final String MESSAGE_KEY = "notification";
+    private static final String TRANSFER_COMMAND_TOPIC = "transfer-commands";
+
+    /**
+     * Идентификатор advisory-блокировки отправки outbox
+     */
+    private static final long RELAY_LOCK_ID = 7_400_001L;
+
+    /**
+     * Репозиторий исходящих оповещений
+     */
+    private final NotificationOutboxRepository notificationOutboxRepository;
+
+    private final KafkaSender<String, NotificationRequestDto> kafkaSender;
+
+    private final KafkaSender<String, TransferCommandMessageDto> transferCommandSender;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Таймеры этапов перевода
+     */
+    private final TransferMetrics transferMetrics;
+
+    /**
+     * Выполняется ли отправка в данный момент
+     */
+    private final AtomicBoolean relaying = new AtomicBoolean();
+
+    /**
+     * Максимальное количество оповещений в одном пакете отправки
+     */
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Сохранить оповещение для последующей отправки
+     *
+     * @param notification Оповещение
+     */
+    public Mono<Void> enqueue(NotificationRequestDto notification) {
+        return Mono.fromCallable(() -> NotificationOutboxDao.builder()
+                        .topic(NOTIFICATION_TOPIC)
+                        .messageKey(MESSAGE_KEY)
+                        .payload(objectMapper.writeValueAsString(notification))
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .flatMap(notificationOutboxRepository::save)
+                .then();
+    }
+
+    /**
+     * Сохранить команду асинхронного перевода для последующей отправки в топик transfer-commands
+     *
+     * @param commandId Идентификатор команды
+     * @param fromAccountId Счет отправителя - ключ сообщения, определяющий партицию
+     */
+    public Mono<Void> enqueueTransferCommand(UUID commandId, UUID fromAccountId) {
+        return Mono.fromCallable(() -> NotificationOutboxDao.builder()
+                        .topic(TRANSFER_COMMAND_TOPIC)
+                        .messageKey(fromAccountId.toString())
+                        .payload(objectMapper.writeValueAsString(
+                                TransferCommandMessageDto.builder().commandId(commandId).build()))
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .flatMap(notificationOutboxRepository::save)
+                .then();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:500}")
+    public void relay() {
+        if (!relaying.compareAndSet(false, true)) {
+            return;
+        }
+        relayAll()
+                .doFinally(signal -> relaying.set(false))
+                .subscribe(
+                        count -> {
+                            if (count > 0) {
+                                log.info("Отправлено оповещений из outbox: {}", count);
+                            }
+                        },
+                        error -> log.warn("Ошибка отправки оповещений из outbox: {}", error.getMessage())
+                );
+    }
+
+    /**
+     * Отправлять пакеты, пока очередь не опустеет
+     *
+     * @return Количество отправленных оповещений
+     */
+    Mono<Integer> relayAll() {
+        return relayBatch()
+                .expand(sent -> sent == batchSize ? relayBatch() : Mono.empty())
+                .reduce(0, Integer::sum);
+    }
+
+    /**
+     * Отправить один пакет оповещений и удалить его из таблицы в одной транзакции.
+     * Если отправку уже выполняет другой экземпляр сервиса, пакет не отправляется
+     *
+     * @return Количество отправленных оповещений
+     */
+    Mono<Integer> relayBatch() {
+        return notificationOutboxRepository.tryLockRelay(RELAY_LOCK_ID)
+                .filter(Boolean::booleanValue)
+                .flatMapMany(locked -> notificationOutboxRepository.findBatchForUpdate(batchSize))
+                .collectList()
+                .flatMap(batch -> batch.isEmpty()
+                        ? Mono.just(0)
+                        : transferMetrics.timedAsync(send(batch), "kafka").then(Mono.defer(() -> notificationOutboxRepository.deleteByIds(
+                                batch.stream().map(NotificationOutboxDao::getId).toArray(Long[]::new)))))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Отправить пакет: оповещения и команды перевода отправляются каждые своим отправителем
+     */
+    private Mono<Void> send(List<NotificationOutboxDao> batch) {
+        Map<Boolean, List<NotificationOutboxDao>> byTopic = batch.stream()
+                .collect(Collectors.partitioningBy(entry -> TRANSFER_COMMAND_TOPIC.equals(entry.getTopic())));
+
+        return Mono.when(
+                send(kafkaSender, byTopic.get(false), NotificationRequestDto.class),
+                send(transferCommandSender, byTopic.get(true), TransferCommandMessageDto.class));
+    }
+
+    private <T> Mono<Void> send(KafkaSender<String, T> sender, List<NotificationOutboxDao> entries, Class<T> type) {
+        if (entries.isEmpty()) {
+            return Mono.empty();
+        }
+        Flux<SenderRecord<String, T, Long>> records = Flux.fromIterable(entries)
+                .flatMap(entry -> readPayload(entry, type)
+                        .map(payload -> SenderRecord.create(
+                                new ProducerRecord<>(entry.getTopic(), entry.getMessageKey(), payload),
+                                entry.getId())));
+
+        return sender.send(records)
+                .flatMap(result -> result.exception() != null
+                        ? Mono.error(result.exception())
+                        : Mono.just(result))
+                .then();
+    }
+
+    /**
+     * Прочитать сообщение. Нечитаемая запись пропускается и удаляется вместе с пакетом,
+     * чтобы не блокировать очередь
+     */
+    private <T> Mono<T> readPayload(NotificationOutboxDao entry, Class<T> type) {
+        try {
+            return Mono.just(objectMapper.readValue(entry.getPayload(), type));
+        } catch (JsonProcessingException e) {
+            log.error("Некорректное сообщение в outbox {} пропущено: {}", entry.getId(), e.getMessage());
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+import ru.practicum.dao.TransferDao;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.repository.TransferRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Групповая запись истории переводов.
+ * Записи накапливаются в ограниченной очереди и сохраняются многострочным INSERT
+ * каждые batchSize записей или каждые flushInterval, смотря что наступит раньше.
+ * Вызывающий не ждет сохранения: ошибку получает только запись, не принятая в переполненную очередь.
+ * Записи пакета, который не удалось сохранить, пишутся в журнал приложения и учитываются в метрике.
+ * При остановке приложения накопленные записи сохраняются.
+ */
+@Slf4j
+@Component
+public class TransferAuditWriter {
+    /**
+     * Репозиторий операций перевода средств
+     */
+    private final TransferRepository transferRepository;
+
+    /**
+     * Максимальное количество записей в одном INSERT
+     */
+    private final int batchSize;
+
+    /**
+     * Максимальное время ожидания записи в очереди
+     */
+    private final Duration flushInterval;
+
+    /**
+     * Максимальное время ожидания сохранения записей при остановке
+     */
+    private final Duration shutdownTimeout;
+
+    /**
+     * Очередь записей
+     */
+    private final Sinks.Many<TransferDao> sink;
+
+    /**
+     * Количество записей, ожидающих сохранения
+     */
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private final Timer flushTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public TransferAuditWriter(TransferRepository transferRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.transfer.audit.batch-size:500}") int batchSize,
+                               @Value("${app.transfer.audit.flush-interval:200ms}") Duration flushInterval,
+                               @Value("${app.transfer.audit.queue-capacity:10000}") int queueCapacity,
+                               @Value("${app.transfer.audit.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.transferRepository = transferRepository;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<TransferDao>get(queueCapacity).get());
+        this.flushTimer = Timer.builder("transfer.audit.flush")
+                .description("Время сохранения пакета истории переводов")
+                .publishPercentiles(TransferMetrics.PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("transfer.audit.rejected")
+                .description("Записи истории, не принятые из-за переполнения очереди")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("transfer.audit.failed")
+                .description("Записи истории, которые не удалось сохранить")
+                .register(meterRegistry);
+        meterRegistry.gauge("transfer.audit.queue.depth", queueDepth);
+    }
+
+    @PostConstruct
+    public void start() {
+        sink.asFlux()
+                .bufferTimeout(batchSize, flushInterval, true)
+                .concatMap(this::flush)
+                .doFinally(signal -> terminated.countDown())
+                .subscribe();
+    }
+
+    /**
+     * Поставить запись в очередь на сохранение
+     *
+     * @param transferDao DAO операции перевода
+     * @return Завершается, как только запись принята в очередь; ошибка, если очередь переполнена
+     */
+    public Mono<Void> submit(TransferDao transferDao) {
+        return Mono.defer(() -> {
+            Sinks.EmitResult result;
+            synchronized (sink) {
+                result = sink.tryEmitNext(transferDao);
+            }
+            if (result.isFailure()) {
+                rejectedCounter.increment();
+                log.warn("Запись истории перевода не принята ({}): {} -> {}",
+                        result, transferDao.getFromAccountId(), transferDao.getToAccountId());
+                return Mono.error(new ServiceUnavailableException("История переводов временно не сохраняется",
+                        "transfer-service", "Очередь записи истории переводов переполнена"));
+            }
+            queueDepth.incrementAndGet();
+            return Mono.empty();
+        });
+    }
+
+    private Mono<Void> flush(List<TransferDao> batch) {
+        queueDepth.addAndGet(-batch.size());
+        Timer.Sample sample = Timer.start();
+
+        return transferRepository.insertAll(
+                        batch.stream().map(TransferDao::getFromAccountId).toArray(UUID[]::new),
+                        batch.stream().map(TransferDao::getToAccountId).toArray(UUID[]::new),
+                        batch.stream().map(TransferDao::getAmount).toArray(BigDecimal[]::new),
+                        batch.stream().map(TransferDao::getConvertedAmount).toArray(BigDecimal[]::new),
+                        batch.stream().map(TransferDao::getFromCurrency).toArray(String[]::new),
+                        batch.stream().map(TransferDao::getToCurrency).toArray(String[]::new),
+                        batch.stream().map(TransferDao::getTimestamp).toArray(LocalDateTime[]::new),
+                        batch.stream().map(dao -> dao.getStatus() != null ? dao.getStatus().name() : null).toArray(String[]::new),
+                        batch.stream().map(dao -> dao.getType() != null ? dao.getType().name() : null).toArray(String[]::new),
+                        batch.stream().map(TransferDao::getErrorDescription).toArray(String[]::new))
+                .retryWhen(Retry.backoff(3, Duration.ofMillis(100)))
+                .doOnSuccess(inserted -> {
+                    sample.stop(flushTimer);
+                    log.debug("Сохранено записей истории переводов: {}", inserted);
+                })
+                .onErrorResume(e -> {
+                    failedCounter.increment(batch.size());
+                    log.error("Не удалось сохранить {} записей истории переводов: {}", batch.size(), e.getMessage());
+                    batch.forEach(dao -> log.error("Не сохранена запись истории перевода: {} {} -> {} на сумму {} {}, {}",
+                            dao.getStatus(), dao.getFromAccountId(), dao.getToAccountId(), dao.getAmount(),
+                            dao.getFromCurrency(), dao.getTimestamp()));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        synchronized (sink) {
+            sink.tryEmitComplete();
+        }
+        if (!terminated.await(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("История переводов не сохранена полностью за {}, в очереди {} записей", shutdownTimeout, queueDepth.get());
+        }
+    }
+}
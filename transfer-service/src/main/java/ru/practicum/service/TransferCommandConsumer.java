@@ -0,0 +1,90 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+import ru.practicum.dto.TransferCommandMessageDto;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Чтение команд асинхронного перевода из топика transfer-commands.
+ * Сообщения одной партиции (одного счета отправителя) выполняются последовательно,
+ * разные партиции - параллельно
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferCommandConsumer {
+    private final KafkaReceiver<String, TransferCommandMessageDto> transferCommandReceiver;
+
+    /**
+     * Сервис асинхронных переводов
+     */
+    private final TransferCommandService transferCommandService;
+
+    /**
+     * Максимальная пауза между повторами перевода после временной ошибки
+     */
+    @Value("${app.transfer.commands.retry-max-backoff:30s}")
+    private Duration retryMaxBackoff;
+
+    /**
+     * Количество повторов перевода после временной ошибки, после которого команда получает статус UNKNOWN
+     */
+    @Value("${app.transfer.commands.max-retries:10}")
+    private long maxRetries;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void startConsuming() {
+        subscription = transferCommandReceiver.receive()
+                .groupBy(record -> record.receiverOffset().topicPartition())
+                .flatMap(partition -> partition.concatMap(this::handle))
+                .doOnError(e -> log.error("Ошибка чтения команд transfer-commands", e))
+                .retry()
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Выполнить команду. Временная ошибка повторяется до maxRetries раз: пока идут повторы, смещение
+     * не подтверждается, и следующие переводы с того же счета ждут, сохраняя порядок.
+     * После исчерпания повторов команда получает статус UNKNOWN, а смещение подтверждается, чтобы не остановить партицию
+     */
+    private Mono<Void> handle(ReceiverRecord<String, TransferCommandMessageDto> record) {
+        Mono<Void> processing = record.value() == null || record.value().getCommandId() == null
+                ? Mono.empty()
+                : process(record.value().getCommandId());
+        return processing.then(Mono.fromRunnable(() -> record.receiverOffset().acknowledge()));
+    }
+
+    private Mono<Void> process(UUID commandId) {
+        return transferCommandService.process(commandId)
+                .doOnError(e -> log.warn("Асинхронный перевод {} будет повторен: {}", commandId, e.getMessage()))
+                .retryWhen(Retry.backoff(maxRetries, Duration.ofSeconds(1)).maxBackoff(retryMaxBackoff)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .onErrorResume(e -> transferCommandService.markUnknown(commandId, e.getMessage())
+                        .onErrorResume(markError -> {
+                            log.error("Не удалось отметить асинхронный перевод {} статусом UNKNOWN: {}",
+                                    commandId, markError.getMessage());
+                            return Mono.empty();
+                        }));
+    }
+}
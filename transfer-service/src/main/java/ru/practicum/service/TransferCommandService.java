@@ -0,0 +1,66 @@
+package ru.practicum.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dto.OtherTransferRequestDto;
+import ru.practicum.dto.OwnTransferRequestDto;
+import ru.practicum.model.TransferCommand;
+
+import java.util.UUID;
+
+/**
+ * Сервис асинхронных переводов.
+ * Перевод сохраняется со статусом PENDING и выполняется из топика transfer-commands,
+ * ключ сообщения - счет отправителя, поэтому переводы с одного счета выполняются по порядку
+ */
+public interface TransferCommandService {
+    /**
+     * Принять перевод между своими счетами
+     *
+     * @param request Запрос на перевод средств
+     * @return Команда со статусом PENDING
+     */
+    Mono<TransferCommand> submitOwn(OwnTransferRequestDto request);
+
+    /**
+     * Принять перевод на счет другого пользователя
+     *
+     * @param request Запрос на перевод средств
+     * @return Команда со статусом PENDING
+     */
+    Mono<TransferCommand> submitOther(OtherTransferRequestDto request);
+
+    /**
+     * Получить состояние перевода
+     *
+     * @param commandId Идентификатор команды
+     * @return Команда
+     */
+    Mono<TransferCommand> getCommand(UUID commandId);
+
+    /**
+     * Отслеживать состояние перевода: текущее состояние и каждое изменение статуса до завершения перевода
+     *
+     * @param commandId Идентификатор команды
+     * @return Поток состояний команды
+     */
+    Flux<TransferCommand> streamCommand(UUID commandId);
+
+    /**
+     * Выполнить перевод по команде. Команда, уже не находящаяся в статусе PENDING, пропускается.
+     * FAILED выставляется только при окончательном отказе; при временной ошибке команда остается
+     * в статусе PENDING, а ошибка возвращается, чтобы перевод был повторен с тем же ключом идемпотентности
+     *
+     * @param commandId Идентификатор команды
+     */
+    Mono<Void> process(UUID commandId);
+
+    /**
+     * Отметить перевод, повторы которого исчерпаны, статусом UNKNOWN.
+     * Списание могло быть выполнено, поэтому FAILED не выставляется; команда, уже не находящаяся в статусе PENDING, не меняется
+     *
+     * @param commandId Идентификатор команды
+     * @param reason Последняя ошибка
+     */
+    Mono<Void> markUnknown(UUID commandId, String reason);
+}
@@ -0,0 +1,186 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.TransferCommandDao;
+import ru.practicum.dto.OtherTransferRequestDto;
+import ru.practicum.dto.OwnTransferRequestDto;
+import ru.practicum.exception.BaseException;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.mapper.TransferMapper;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferCommand;
+import ru.practicum.model.TransferResponse;
+import ru.practicum.model.TransferType;
+import ru.practicum.repository.TransferCommandRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferCommandServiceImpl implements TransferCommandService {
+    /**
+     * Репозиторий команд асинхронного перевода
+     */
+    private final TransferCommandRepository transferCommandRepository;
+
+    /**
+     * Сервис перевода средств между счетами
+     */
+    private final TransferService transferService;
+
+    /**
+     * Outbox сообщений в Kafka
+     */
+    private final NotificationOutbox notificationOutbox;
+
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Маппер запросов на перевод
+     */
+    private final TransferMapper transferMapper;
+
+    /**
+     * Интервал опроса статуса при отслеживании перевода
+     */
+    @Value("${app.transfer.commands.status-poll-interval:500ms}")
+    private Duration statusPollInterval;
+
+    /**
+     * Максимальная длительность отслеживания перевода
+     */
+    @Value("${app.transfer.commands.status-stream-timeout:60s}")
+    private Duration statusStreamTimeout;
+
+    @Override
+    public Mono<TransferCommand> submitOwn(OwnTransferRequestDto request) {
+        return submit(TransferCommandDao.builder()
+                .type(TransferType.OWN_TRANSFER)
+                .userId(request.getUserId())
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(request.getAmount())
+                .build());
+    }
+
+    @Override
+    public Mono<TransferCommand> submitOther(OtherTransferRequestDto request) {
+        return submit(TransferCommandDao.builder()
+                .type(TransferType.EXTERNAL_TRANSFER)
+                .userId(request.getFromUserId())
+                .fromAccountId(request.getFromAccountId())
+                .recipientEmail(request.getRecipientEmail())
+                .toCurrency(request.getToCurrency())
+                .amount(request.getAmount())
+                .build());
+    }
+
+    @Override
+    public Mono<TransferCommand> getCommand(UUID commandId) {
+        return transferCommandRepository.findById(commandId)
+                .switchIfEmpty(Mono.error(new NotFoundException("Перевод", commandId)))
+                .map(transferMapper::transferCommandDaoToTransferCommand);
+    }
+
+    @Override
+    public Flux<TransferCommand> streamCommand(UUID commandId) {
+        // Перевод может выполняться другим экземпляром сервиса, поэтому статус опрашивается в БД
+        return getCommand(commandId)
+                .flatMapMany(current -> Flux.interval(statusPollInterval)
+                        .concatMap(tick -> transferCommandRepository.findById(commandId)
+                                .map(transferMapper::transferCommandDaoToTransferCommand))
+                        .startWith(current))
+                .distinctUntilChanged(TransferCommand::getStatus)
+                .takeUntil(command -> command.getStatus() != OperationStatus.PENDING)
+                .take(statusStreamTimeout);
+    }
+
+    @Override
+    public Mono<Void> process(UUID commandId) {
+        return transferCommandRepository.findById(commandId)
+                .filter(command -> command.getStatus() == OperationStatus.PENDING)
+                .flatMap(command -> execute(command)
+                        .doOnNext(response -> log.info("Асинхронный перевод {} выполнен", commandId))
+                        .then()
+                        .onErrorResume(TransferCommandServiceImpl::isRejection,
+                                e -> transferCommandRepository.complete(commandId,
+                                        OperationStatus.FAILED.name(), null, e.getMessage()).then()));
+    }
+
+    @Override
+    public Mono<Void> markUnknown(UUID commandId, String reason) {
+        return transferCommandRepository.complete(commandId, OperationStatus.UNKNOWN.name(), null, reason)
+                .filter(updated -> updated > 0)
+                .doOnNext(updated -> log.error("Асинхронный перевод {} не завершен после всех повторов: {}", commandId, reason))
+                .then();
+    }
+
+    /**
+     * Команда и сообщение о ней в outbox сохраняются в одной транзакции,
+     * поэтому сохраненная команда не может остаться неотправленной
+     */
+    private Mono<TransferCommand> submit(TransferCommandDao command) {
+        UUID commandId = UUID.randomUUID();
+        command.setId(commandId);
+        command.setStatus(OperationStatus.PENDING);
+
+        return transferCommandRepository.create(commandId, command.getType().name(), command.getUserId(),
+                        command.getFromAccountId(), command.getToAccountId(), command.getRecipientEmail(),
+                        command.getToCurrency(), command.getAmount())
+                .then(Mono.defer(() -> notificationOutbox.enqueueTransferCommand(commandId, command.getFromAccountId())))
+                .as(transactionalOperator::transactional)
+                .thenReturn(transferMapper.transferCommandDaoToTransferCommand(command));
+    }
+
+    /**
+     * Окончательный отказ в переводе: ошибка запроса, повтор которого даст тот же результат.
+     * Таймауты, конфликт незавершенной операции и недоступность сервисов считаются временными
+     */
+    private static boolean isRejection(Throwable error) {
+        if (!(error instanceof BaseException exception) || !exception.getStatus().is4xxClientError()) {
+            return false;
+        }
+        HttpStatus status = exception.getStatus();
+        return status != HttpStatus.REQUEST_TIMEOUT && status != HttpStatus.CONFLICT
+                && status != HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    private Mono<TransferResponse> execute(TransferCommandDao command) {
+        Mono<TransferResponse> transfer = command.getType() == TransferType.OWN_TRANSFER
+                ? transferService.transferBetweenOwnAccounts(OwnTransferRequestDto.builder()
+                .userId(command.getUserId())
+                .fromAccountId(command.getFromAccountId())
+                .toAccountId(command.getToAccountId())
+                .amount(command.getAmount())
+                .build())
+                : transferService.transferToOtherAccount(OtherTransferRequestDto.builder()
+                .fromUserId(command.getUserId())
+                .fromAccountId(command.getFromAccountId())
+                .recipientEmail(command.getRecipientEmail())
+                .toCurrency(command.getToCurrency())
+                .amount(command.getAmount())
+                .build());
+
+        // Идентификатор команды - ключ идемпотентности списания: при повторной доставке сообщения
+        // после сбоя сервис аккаунтов не спишет средства второй раз.
+        // Статус SUCCESS выставляется до записи истории и оповещения: если команду уже завершила
+        // предыдущая доставка, повторное списание вернет прежний ответ, а побочные действия не повторятся
+        Function<BigDecimal, Mono<Boolean>> completionGuard = converted -> transferCommandRepository
+                .complete(command.getId(), OperationStatus.SUCCESS.name(), converted, null)
+                .map(updated -> updated > 0);
+        return transfer.contextWrite(context -> context
+                .put(TransferService.IDEMPOTENCY_KEY, command.getId().toString())
+                .put(TransferService.COMPLETION_GUARD, completionGuard));
+    }
+}
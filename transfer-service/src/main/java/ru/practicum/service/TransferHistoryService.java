@@ -0,0 +1,20 @@
+package ru.practicum.service;
+
+import reactor.core.publisher.Flux;
+import ru.practicum.dao.TransferDao;
+import ru.practicum.model.TransferHistoryQuery;
+
+/**
+ * Сервис истории переводов
+ */
+public interface TransferHistoryService {
+    /**
+     * Получить историю переводов по счету в порядке убывания времени.
+     * Если размер не задан, отдается вся история после курсора: записи читаются страницами,
+     * поэтому выписка по счету с большой историей не требует памяти на всю выборку
+     *
+     * @param query Запрос истории
+     * @return Поток записей
+     */
+    Flux<TransferDao> getHistory(TransferHistoryQuery query);
+}
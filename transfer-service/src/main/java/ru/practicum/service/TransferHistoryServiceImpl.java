@@ -0,0 +1,111 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.dao.TransferDao;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferHistoryQuery;
+import ru.practicum.repository.TransferRepository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class TransferHistoryServiceImpl implements TransferHistoryService {
+    /**
+     * Начало периода по умолчанию
+     */
+    private static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Конец периода по умолчанию
+     */
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    /**
+     * Наименьший идентификатор: курсор (to, MIN_ID) отбирает записи строго раньше конца периода
+     */
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    /**
+     * Репозиторий операций перевода средств
+     */
+    private final TransferRepository transferRepository;
+
+    /**
+     * Размер страницы чтения из БД
+     */
+    @Value("${app.transfer.history.page-size:500}")
+    private int pageSize;
+
+    /**
+     * Максимальный размер страницы, запрашиваемой клиентом
+     */
+    @Value("${app.transfer.history.max-limit:1000}")
+    private int maxLimit;
+
+    @Override
+    public Flux<TransferDao> getHistory(TransferHistoryQuery query) {
+        String error = validate(query);
+        if (error != null) {
+            return Flux.error(new ValidationException(error));
+        }
+
+        LocalDateTime from = query.getFrom() != null ? query.getFrom() : MIN_TIMESTAMP;
+        String[] statuses = (query.getStatuses() == null || query.getStatuses().isEmpty()
+                ? Arrays.asList(OperationStatus.values())
+                : query.getStatuses()).stream()
+                .map(OperationStatus::name)
+                .toArray(String[]::new);
+        LocalDateTime beforeTimestamp = query.getBeforeTimestamp() != null
+                ? query.getBeforeTimestamp()
+                : query.getTo() != null ? query.getTo() : MAX_TIMESTAMP;
+        UUID beforeId = query.getBeforeId() != null ? query.getBeforeId() : MIN_ID;
+
+        if (query.getLimit() != null) {
+            return transferRepository.findHistoryPage(query.getAccountId(), from, statuses, beforeTimestamp, beforeId,
+                    query.getLimit());
+        }
+
+        // Следующая страница запрашивается после выдачи предыдущей, в памяти не больше одной страницы
+        return fetchPage(query.getAccountId(), from, statuses, beforeTimestamp, beforeId)
+                .expand(page -> {
+                    if (page.size() < pageSize) {
+                        return Mono.empty();
+                    }
+                    TransferDao last = page.get(page.size() - 1);
+                    return fetchPage(query.getAccountId(), from, statuses, last.getTimestamp(), last.getId());
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<List<TransferDao>> fetchPage(UUID accountId, LocalDateTime from, String[] statuses,
+                                              LocalDateTime beforeTimestamp, UUID beforeId) {
+        return transferRepository.findHistoryPage(accountId, from, statuses, beforeTimestamp, beforeId, pageSize)
+                .collectList();
+    }
+
+    private String validate(TransferHistoryQuery query) {
+        if (query.getAccountId() == null) {
+            return "Не указан счет";
+        }
+        if (query.getFrom() != null && query.getTo() != null && !query.getFrom().isBefore(query.getTo())) {
+            return "Начало периода должно быть раньше его окончания";
+        }
+        if ((query.getBeforeTimestamp() == null) != (query.getBeforeId() == null)) {
+            return "Курсор задается временем и идентификатором последней записи";
+        }
+        if (query.getLimit() != null && (query.getLimit() < 1 || query.getLimit() > maxLimit)) {
+            return "Количество записей должно быть от 1 до " + maxLimit;
+        }
+        return null;
+    }
+}
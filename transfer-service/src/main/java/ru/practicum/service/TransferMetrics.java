@@ -0,0 +1,89 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.model.TransferType;
+
+/**
+ * Таймеры этапов перевода.
+ * Этап измеряется от подписки до завершения и помечается типом перевода и исходом
+ * (success, rejected, unavailable, error, cancelled); для каждого таймера публикуются гистограмма
+ * и перцентили 50/95/99
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferMetrics {
+    /**
+     * Таймер этапов перевода, выполняемых в запросе
+     */
+    public static final String STAGE_TIMER = "transfer.stage";
+
+    /**
+     * Таймер фоновых этапов (отправка оповещений в Kafka)
+     */
+    public static final String ASYNC_STAGE_TIMER = "transfer.async.stage";
+
+    static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Измерить этап перевода
+     *
+     * @param stage Этап
+     * @param stageName Название этапа
+     * @param type Тип перевода
+     * @return Этап с измерением времени
+     */
+    public <T> Mono<T> timed(Mono<T> stage, String stageName, TransferType type) {
+        return timed(stage, STAGE_TIMER, stageName, type.name());
+    }
+
+    /**
+     * Измерить фоновый этап, не относящийся к конкретному переводу
+     *
+     * @param stage Этап
+     * @param stageName Название этапа
+     * @return Этап с измерением времени
+     */
+    public <T> Mono<T> timedAsync(Mono<T> stage, String stageName) {
+        return timed(stage, ASYNC_STAGE_TIMER, stageName, null);
+    }
+
+    private <T> Mono<T> timed(Mono<T> stage, String timerName, String stageName, String type) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return stage
+                    .doOnSuccess(value -> sample.stop(timer(timerName, stageName, type, "success")))
+                    .doOnError(error -> sample.stop(timer(timerName, stageName, type, outcome(error))))
+                    .doOnCancel(() -> sample.stop(timer(timerName, stageName, type, "cancelled")));
+        });
+    }
+
+    private Timer timer(String timerName, String stageName, String type, String outcome) {
+        Timer.Builder builder = Timer.builder(timerName)
+                .tag("stage", stageName)
+                .tag("outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram();
+        if (type != null) {
+            builder.tag("type", type);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof ValidationException) {
+            return "rejected";
+        }
+        if (error instanceof ServiceUnavailableException) {
+            return "unavailable";
+        }
+        return "error";
+    }
+}
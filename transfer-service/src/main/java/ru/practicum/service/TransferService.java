@@ -1,14 +1,30 @@
 package ru.practicum.service;
 
 import reactor.core.publisher.Mono;
+import ru.practicum.client.account.dto.AccountResponseDto;
 import ru.practicum.dto.OtherTransferRequestDto;
 import ru.practicum.dto.OwnTransferRequestDto;
 import ru.practicum.model.TransferResponse;
 
+import java.math.BigDecimal;
+import java.util.UUID;
+
 /**
  * Сервис перевода средств между счетами
  */
 public interface TransferService {
+    /**
+     * Ключ контекста Reactor с ключом идемпотентности списания
+     */
+    String IDEMPOTENCY_KEY = "transfer.idempotency-key";
+
+    /**
+     * Ключ контекста Reactor с проверкой первого завершения перевода: функция от конвертированной суммы,
+     * возвращающая false, если перевод уже был завершен при предыдущей доставке команды.
+     * Тогда запись в историю и оповещение не повторяются
+     */
+    String COMPLETION_GUARD = "transfer.completion-guard";
+
     /**
      * Перевести средства между своими счетами
      *
@@ -23,4 +39,18 @@ public interface TransferService {
      * @return Результат перевода средств
      */
     Mono<TransferResponse> transferToOtherAccount(OtherTransferRequestDto requestDto);
+
+    /**
+     * Перевести средства на счет другого пользователя по уже полученным данным счетов.
+     * Счета повторно не запрашиваются, поэтому достаточность средств проверяет сервис аккаунтов при списании
+     *
+     * @param fromAccount Счет отправителя
+     * @param toAccount Счет получателя
+     * @param amount Сумма перевода
+     * @param userId Идентификатор пользователя-отправителя
+     * @param idempotencyKey Ключ идемпотентности списания
+     * @return Результат перевода средств
+     */
+    Mono<TransferResponse> transferToResolvedAccount(AccountResponseDto fromAccount, AccountResponseDto toAccount,
+                                                     BigDecimal amount, UUID userId, String idempotencyKey);
 }
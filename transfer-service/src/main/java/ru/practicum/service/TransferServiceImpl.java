@@ -3,12 +3,11 @@ package ru.practicum.service;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
-import reactor.kafka.sender.KafkaSender;
-import reactor.kafka.sender.SenderRecord;
+import reactor.core.publisher.Signal;
 import reactor.util.function.Tuple2;
 import ru.practicum.client.account.AccountServiceClient;
 import ru.practicum.client.account.dto.AccountResponseDto;
@@ -29,11 +28,11 @@ import ru.practicum.mapper.TransferMapper;
 import ru.practicum.model.OperationStatus;
 import ru.practicum.model.TransferResponse;
 import ru.practicum.model.TransferType;
-import ru.practicum.repository.TransferRepository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -44,12 +43,20 @@ public class TransferServiceImpl implements TransferService {
      */
     private final AccountServiceClient accountServiceClient;
 
+    /**
+     * Кэш владельца и валюты счетов
+     */
+    private final AccountMetadataCache accountMetadataCache;
+
     /**
      * Клиент для сервиса блокировки подозрительных операций
      */
     private final BlockerServiceClient blockerServiceClient;
 
-    private final KafkaSender<String, NotificationRequestDto> kafkaSender;
+    /**
+     * Исходящие оповещения
+     */
+    private final NotificationOutbox notificationOutbox;
 
     /**
      * Клиент для сервиса обмена валют
@@ -57,15 +64,31 @@ public class TransferServiceImpl implements TransferService {
     private final ExchangeServiceClient exchangeServiceClient;
 
     /**
-     * Репозиторий операций перевода средств
+     * Локальный снимок курсов валют
      */
-    private final TransferRepository transferRepository;
+    private final ExchangeRateMirror exchangeRateMirror;
+
+    /**
+     * Групповая запись истории переводов
+     */
+    private final TransferAuditWriter transferAuditWriter;
 
     /**
      * Маппер запросов на перевод
      */
     private final TransferMapper transferMapper;
 
+    /**
+     * Таймеры этапов перевода
+     */
+    private final TransferMetrics transferMetrics;
+
+    /**
+     * Выполнять проверку блокировщиком и конвертацию валюты параллельно
+     */
+    @Value("${app.transfer.pipelined-checks:true}")
+    private boolean pipelinedChecks;
+
     @Transactional
     @Override
     public Mono<TransferResponse> transferBetweenOwnAccounts(@Valid OwnTransferRequestDto request) {
@@ -76,8 +99,9 @@ public class TransferServiceImpl implements TransferService {
         LocalDateTime timestamp = LocalDateTime.now();
         TransferType type = TransferType.OWN_TRANSFER;
 
-        return retrieveAccountsByIds(fromAccountId, toAccountId)
+        return transferMetrics.timed(retrieveAccountsByIds(fromAccountId, toAccountId), "accounts", type)
                 .flatMap(tuple -> processTransferWithValidation(tuple.getT1(), tuple.getT2(), amount, type, timestamp, userId))
+                .as(transfer -> transferMetrics.timed(transfer, "total", type))
                 .doOnSuccess(response -> log.info("Перевод {} со счета {} на счет {} на сумму {} выполнен",
                         type, fromAccountId, toAccountId, amount))
                 .doOnError(error -> logError(error, type));
@@ -94,13 +118,28 @@ public class TransferServiceImpl implements TransferService {
         LocalDateTime timestamp = LocalDateTime.now();
         TransferType type = TransferType.EXTERNAL_TRANSFER;
 
-        return retrieveAccountsByEmail(fromAccountId, recipientEmail, toCurrency)
+        return transferMetrics.timed(retrieveAccountsByEmail(fromAccountId, recipientEmail, toCurrency), "accounts", type)
                 .flatMap(tuple -> processTransferWithValidation(tuple.getT1(), tuple.getT2(), amount, type, timestamp, userId))
+                .as(transfer -> transferMetrics.timed(transfer, "total", type))
                 .doOnSuccess(response -> log.info("Перевод {} со счета {} на email {} на сумму {} выполнен",
                         type, fromAccountId, recipientEmail, amount))
                 .doOnError(error -> logError(error, type));
     }
 
+    @Transactional
+    @Override
+    public Mono<TransferResponse> transferToResolvedAccount(AccountResponseDto fromAccount, AccountResponseDto toAccount,
+                                                            BigDecimal amount, UUID userId, String idempotencyKey) {
+        LocalDateTime timestamp = LocalDateTime.now();
+        TransferType type = TransferType.EXTERNAL_TRANSFER;
+
+        return validateInitialTransfer(fromAccount, toAccount, amount, type, userId, timestamp, false)
+                .then(Mono.defer(() -> processTransfer(fromAccount, toAccount, amount, type, userId, timestamp)))
+                .as(transfer -> transferMetrics.timed(transfer, "total", type))
+                .contextWrite(context -> idempotencyKey == null ? context : context.put(IDEMPOTENCY_KEY, idempotencyKey))
+                .doOnError(error -> logError(error, type));
+    }
+
     private Mono<Tuple2<AccountResponseDto, AccountResponseDto>> retrieveAccountsByIds(UUID fromAccountId, UUID toAccountId) {
         return Mono.zip(
                 fetchAccountByAccountId(fromAccountId, "Счет отправителя"),
@@ -111,7 +150,7 @@ public class TransferServiceImpl implements TransferService {
     private Mono<Tuple2<AccountResponseDto, AccountResponseDto>> retrieveAccountsByEmail(UUID fromAccountId, String recipientEmail, String toCurrency) {
         return Mono.zip(
                 fetchAccountByAccountId(fromAccountId, "Счет отправителя"),
-                accountServiceClient.getAccountWithUserByEmailAndCurrency(recipientEmail, toCurrency)
+                accountMetadataCache.getRecipientAccount(recipientEmail, toCurrency)
                         .onErrorResume(NotFoundException.class,
                                 e -> Mono.error(new ValidationException("Счет получателя не найден")))
                         .onErrorResume(ServiceUnavailableException.class,
@@ -121,7 +160,7 @@ public class TransferServiceImpl implements TransferService {
     }
 
     private Mono<AccountResponseDto> fetchAccountByAccountId(UUID accountId, String accountType) {
-        return accountServiceClient.getAccountWithUserByAccountId(accountId)
+        return accountMetadataCache.getAccount(accountId)
                 .onErrorResume(NotFoundException.class,
                         e -> Mono.error(new ValidationException(accountType + " не найден")))
                 .onErrorResume(ServiceUnavailableException.class,
@@ -131,12 +170,14 @@ public class TransferServiceImpl implements TransferService {
 
     private Mono<TransferResponse> processTransferWithValidation(AccountResponseDto fromAccount, AccountResponseDto toAccount,
                                                                  BigDecimal amount, TransferType type, LocalDateTime timestamp, UUID userId) {
-        return validateInitialTransfer(fromAccount, toAccount, amount, type, userId, timestamp)
+        // Баланс отсутствует у счета из кэша: достаточность средств проверит сервис аккаунтов при списании
+        return validateInitialTransfer(fromAccount, toAccount, amount, type, userId, timestamp, fromAccount.getBalance() != null)
                 .then(processTransfer(fromAccount, toAccount, amount, type, userId, timestamp));
     }
 
-    private Mono<Void> validateInitialTransfer(AccountResponseDto fromAccount, AccountResponseDto toAccount, BigDecimal amount, TransferType type, UUID userId, LocalDateTime timestamp) {
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
+    private Mono<Void> validateInitialTransfer(AccountResponseDto fromAccount, AccountResponseDto toAccount, BigDecimal amount,
+                                               TransferType type, UUID userId, LocalDateTime timestamp, boolean checkBalance) {
+        if (checkBalance && fromAccount.getBalance().compareTo(amount) < 0) {
             return saveFailedTransfer(fromAccount.getId(), toAccount.getId(), amount,
                     fromAccount.getCurrencyCode(), toAccount.getCurrencyCode(), null,
                     timestamp, type, "Недостаточно средств на счете отправителя")
@@ -198,7 +239,28 @@ public class TransferServiceImpl implements TransferService {
     private Mono<TransferResponse> checkOperationAndConvert(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
                                                             String fromCode, String toCode, TransferType type,
                                                             LocalDateTime timestamp, OperationCheckRequestDto checkRequest) {
-        return blockerServiceClient.checkOperation(checkRequest)
+        if (!pipelinedChecks) {
+            return checkOperation(fromAccountId, toAccountId, amount, fromCode, toCode, type, timestamp, checkRequest)
+                    .then(Mono.defer(() -> executeTransferAndNotify(fromAccountId, toAccountId, amount, fromCode, toCode,
+                            type, timestamp, convertCurrency(fromAccountId, toAccountId, amount, fromCode, toCode, type, timestamp))));
+        }
+
+        // Проверка и котировка выполняются одновременно; ошибка котировки материализуется,
+        // чтобы результат проверки блокировщика имел приоритет, а котировка отбрасывалась при блокировке
+        Mono<Signal<ExchangeResponseDto>> quote = requestConversion(fromCode, toCode, amount, type).materialize();
+
+        return Mono.zip(checkOperation(fromAccountId, toAccountId, amount, fromCode, toCode, type, timestamp, checkRequest)
+                                .thenReturn(true),
+                        quote)
+                .flatMap(tuple -> executeTransferAndNotify(fromAccountId, toAccountId, amount, fromCode, toCode, type, timestamp,
+                        handleConversionErrors(Mono.just(tuple.getT2()).dematerialize(),
+                                fromAccountId, toAccountId, amount, fromCode, toCode, type, timestamp)));
+    }
+
+    private Mono<Void> checkOperation(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                                      String fromCode, String toCode, TransferType type,
+                                      LocalDateTime timestamp, OperationCheckRequestDto checkRequest) {
+        return transferMetrics.timed(blockerServiceClient.checkOperation(checkRequest), "blocker", type)
                 .onErrorResume(ServiceUnavailableException.class, e ->
                         saveFailedTransfer(fromAccountId, toAccountId, amount, fromCode, toCode, null,
                                 timestamp, type, "Не удалось проверить безопасность операции")
@@ -211,58 +273,87 @@ public class TransferServiceImpl implements TransferService {
                                 .then(Mono.error(new ValidationException(
                                         "Операция заблокирована как подозрительная: " + checkResponse.getDescription())));
                     }
-                    return executeTransferAndNotify(fromAccountId, toAccountId, amount, fromCode, toCode, type, timestamp);
+                    return Mono.empty();
                 });
     }
 
     private Mono<TransferResponse> executeTransferAndNotify(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
                                                             String fromCode, String toCode, TransferType type,
-                                                            LocalDateTime timestamp) {
-        return convertCurrency(fromCode, toCode, amount)
+                                                            LocalDateTime timestamp, Mono<ExchangeResponseDto> conversion) {
+        return conversion
                 .flatMap(convertResponse -> {
                     BigDecimal convertedAmount = convertResponse.getConvertedAmount();
-                    return executeTransfer(fromAccountId, toAccountId, amount, convertedAmount, type)
+                    return executeTransfer(fromAccountId, toAccountId, amount, convertedAmount, fromCode, toCode, type, timestamp)
                             .thenReturn(convertedAmount);
                 })
-                .flatMap(converted -> sendNotification(fromAccountId, amount, fromCode, converted, toCode, type)
-                        .thenReturn(converted))
-                .flatMap(converted -> buildAndSaveSuccessResponse(fromAccountId, toAccountId, amount, converted, fromCode, toCode, timestamp, type));
+                .flatMap(converted -> saveSuccessfulTransferAndNotify(fromAccountId, toAccountId, amount, converted,
+                        fromCode, toCode, timestamp, type));
+    }
+
+    private Mono<ExchangeResponseDto> convertCurrency(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                                                      String fromCode, String toCode, TransferType type,
+                                                      LocalDateTime timestamp) {
+        return handleConversionErrors(requestConversion(fromCode, toCode, amount, type),
+                fromAccountId, toAccountId, amount, fromCode, toCode, type, timestamp);
     }
 
-    private Mono<ExchangeResponseDto> convertCurrency(String fromCode, String toCode, BigDecimal amount) {
-        return exchangeServiceClient.convertCurrency(ExchangeRequestDto.builder()
+    private Mono<ExchangeResponseDto> requestConversion(String fromCode, String toCode, BigDecimal amount, TransferType type) {
+        // Сервис обмена валют вызывается, только если локальный снимок курсов устарел или неполон
+        return transferMetrics.timed(Mono.defer(() -> exchangeRateMirror.convert(fromCode, toCode, amount)
+                .map(converted -> Mono.just(ExchangeResponseDto.builder()
+                        .fromCurrency(fromCode)
+                        .toCurrency(toCode)
+                        .originalAmount(amount)
+                        .convertedAmount(converted)
+                        .build()))
+                .orElseGet(() -> exchangeServiceClient.convertCurrency(ExchangeRequestDto.builder()
                         .fromCurrency(fromCode)
                         .toCurrency(toCode)
                         .amount(amount)
-                        .build())
+                        .build()))), "conversion", type);
+    }
+
+    private Mono<ExchangeResponseDto> handleConversionErrors(Mono<ExchangeResponseDto> conversion,
+                                                             UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                                                             String fromCode, String toCode, TransferType type,
+                                                             LocalDateTime timestamp) {
+        return conversion
                 .onErrorResume(ValidationException.class, e ->
-                        saveFailedTransfer(null, null, amount, fromCode, toCode, null,
-                                LocalDateTime.now(), null, "Ошибка конвертации: " + e.getMessage())
+                        saveFailedTransfer(fromAccountId, toAccountId, amount, fromCode, toCode, null,
+                                timestamp, type, "Ошибка конвертации: " + e.getMessage())
                                 .then(Mono.error(new ValidationException("Ошибка конвертации: " + e.getMessage()))))
                 .onErrorResume(ServiceUnavailableException.class, e ->
-                        saveFailedTransfer(null, null, amount, fromCode, toCode, null,
-                                LocalDateTime.now(), null, "Не удалось выполнить конвертацию")
+                        saveFailedTransfer(fromAccountId, toAccountId, amount, fromCode, toCode, null,
+                                timestamp, type, "Не удалось выполнить конвертацию")
                                 .then(Mono.error(new ServiceUnavailableException("exchange-service",
                                         "Не удалось выполнить конвертацию"))));
     }
 
-    private Mono<Void> executeTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, BigDecimal convertedAmount, TransferType type) {
+    private Mono<Void> executeTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, BigDecimal convertedAmount,
+                                       String fromCode, String toCode, TransferType type, LocalDateTime timestamp) {
         TransferDto transferDto = TransferDto.builder()
                 .fromAccountId(fromAccountId)
                 .toAccountId(toAccountId)
                 .amount(amount)
                 .convertedAmount(convertedAmount)
                 .build();
-        return accountServiceClient.transfer(transferDto)
+        return transferMetrics.timed(Mono.deferContextual(context ->
+                        accountServiceClient.transfer(transferDto, context.getOrDefault(IDEMPOTENCY_KEY, null))), "debit", type)
                 .onErrorResume(e ->
-                        saveFailedTransfer(fromAccountId, toAccountId, amount, null, null, convertedAmount,
-                                LocalDateTime.now(), type, "Ошибка при переводе: " + e.getMessage())
+                        saveFailedTransfer(fromAccountId, toAccountId, amount, fromCode, toCode, convertedAmount,
+                                timestamp, type, "Ошибка при переводе: " + e.getMessage())
                                 .then(Mono.error(e)));
     }
 
-    private Mono<TransferResponse> buildAndSaveSuccessResponse(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
-                                                               BigDecimal converted, String fromCode, String toCode,
-                                                               LocalDateTime timestamp, TransferType type) {
+    /**
+     * Передать выполненный перевод в историю и поставить оповещение о нем в очередь.
+     * Ответ не ждет сохранения истории. Деньги к этому моменту уже переведены сервисом аккаунтов,
+     * поэтому ошибка сохранения оповещения только записывается в журнал: перевод возвращается успешным.
+     * Если в контексте есть {@link #COMPLETION_GUARD} и перевод уже был завершен, история и оповещение пропускаются
+     */
+    private Mono<TransferResponse> saveSuccessfulTransferAndNotify(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                                                                   BigDecimal converted, String fromCode, String toCode,
+                                                                   LocalDateTime timestamp, TransferType type) {
         TransferResponse response = TransferResponse.builder()
                 .status(OperationStatus.SUCCESS)
                 .fromAccountId(fromAccountId)
@@ -270,8 +361,29 @@ public class TransferServiceImpl implements TransferService {
                 .amount(amount)
                 .convertedAmount(converted)
                 .build();
-        return saveSuccessfulTransfer(response, fromCode, toCode, timestamp, type)
-                .then(Mono.just(response));
+        TransferDao dao = transferMapper.transferResponseToTransferDao(response, fromCode, toCode, timestamp, type, null);
+        return completeOnce(converted)
+                .flatMap(firstCompletion -> {
+                    if (!firstCompletion) {
+                        log.info("Перевод {} со счета {} на счет {} уже завершен, история и оповещение не повторяются",
+                                type, fromAccountId, toAccountId);
+                        return Mono.empty();
+                    }
+                    return recordTransfer(dao)
+                            .then(sendNotification(fromAccountId, amount, fromCode, converted, toCode, type))
+                            .onErrorResume(e -> {
+                                log.error("Перевод {} со счета {} на счет {} выполнен, но оповещение не сохранено: {}",
+                                        type, fromAccountId, toAccountId, e.getMessage());
+                                return Mono.empty();
+                            });
+                })
+                .thenReturn(response);
+    }
+
+    private Mono<Boolean> completeOnce(BigDecimal converted) {
+        return Mono.deferContextual(context -> context.<Function<BigDecimal, Mono<Boolean>>>getOrEmpty(COMPLETION_GUARD)
+                .map(guard -> guard.apply(converted))
+                .orElseGet(() -> Mono.just(true)));
     }
 
     private Mono<Void> sendNotification(UUID fromAccountId, BigDecimal amount, String fromCode,
@@ -279,26 +391,10 @@ public class TransferServiceImpl implements TransferService {
         String message = String.format("Перевод %s на сумму %s %s выполнен. Конвертировано в %s %s",
                 type == TransferType.OWN_TRANSFER ? "между своими счетами" : "на другой счет",
                 amount, fromCode, converted, toCode);
-        SenderRecord<String, NotificationRequestDto, String> record = SenderRecord.create(
-                new ProducerRecord<>("notification", "message", NotificationRequestDto.builder()
+        return transferMetrics.timed(notificationOutbox.enqueue(NotificationRequestDto.builder()
                         .userId(fromAccountId)
                         .message(message)
-                        .build()),
-                UUID.randomUUID().toString()
-        );
-        return kafkaSender.send(Mono.just(record))
-                .next()
-                .doOnSuccess(result -> {
-                    if (result.exception() != null) {
-                        log.warn("Kafka send failed: {}", result.exception().getMessage());
-                    } else {
-                        log.info("Notification sent, offset: {}", result.recordMetadata().offset());
-                    }
-                }).retry(3).onErrorResume(e -> {
-                    log.warn("Failed to send notification after retries: {}", e.getMessage());
-                    return Mono.empty(); // не прерываем транзакцию
-                })
-                .then();
+                        .build()), "notification", type);
     }
 
     private void logError(Throwable error, TransferType type) {
@@ -309,14 +405,6 @@ public class TransferServiceImpl implements TransferService {
         }
     }
 
-    private Mono<Void> saveSuccessfulTransfer(TransferResponse response, String fromCurrency,
-                                              String toCurrency, LocalDateTime timestamp,
-                                              TransferType type) {
-        TransferDao dao = transferMapper.transferResponseToTransferDao(response, fromCurrency,
-                toCurrency, timestamp, type, null);
-        return Mono.fromCallable(() -> transferRepository.save(dao)).then();
-    }
-
     private Mono<Void> saveFailedTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
                                           String fromCurrency, String toCurrency,
                                           BigDecimal convertedAmount, LocalDateTime timestamp,
@@ -330,6 +418,15 @@ public class TransferServiceImpl implements TransferService {
                 .build();
         TransferDao dao = transferMapper.transferResponseToTransferDao(failedResponse, fromCurrency,
                 toCurrency, timestamp, type, errorDescription);
-        return Mono.fromCallable(() -> transferRepository.save(dao)).then();
+        return recordTransfer(dao);
+    }
+
+    /**
+     * Передать запись в групповую запись истории.
+     * Отказ переполненной очереди уже учтен писателем и не подменяет результат перевода
+     */
+    private Mono<Void> recordTransfer(TransferDao dao) {
+        return transferAuditWriter.submit(dao)
+                .onErrorResume(e -> Mono.empty());
     }
 }
\ No newline at end of file
@@ -21,3 +21,61 @@ CREATE INDEX idx_transfers_from_account_id ON transfers (from_account_id);
 CREATE INDEX idx_transfers_to_account_id ON transfers (to_account_id);
 CREATE INDEX idx_transfers_timestamp ON transfers (timestamp);
 CREATE INDEX idx_transfers_status ON transfers (status);
+-- Составные индексы для постраничной (keyset) выдачи истории по счету
+CREATE INDEX IF NOT EXISTS idx_transfers_from_account_timestamp ON transfers (from_account_id, timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transfers_to_account_timestamp ON transfers (to_account_id, timestamp DESC, id DESC);
+
+
+-- Исходящие оповещения (transactional outbox), отправляются в Kafka фоновой задачей
+CREATE TABLE IF NOT EXISTS notification_outbox
+(
+    id          BIGSERIAL PRIMARY KEY,
+    topic       VARCHAR(100) NOT NULL,
+    message_key VARCHAR(100),
+    payload     TEXT         NOT NULL,
+    created_at  TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+
+-- Задания пакетных переводов (выплаты с одного счета) и результаты по элементам для возобновления
+CREATE TABLE IF NOT EXISTS bulk_transfer_jobs
+(
+    job_id          UUID PRIMARY KEY,
+    from_account_id UUID        NOT NULL,
+    from_user_id    UUID        NOT NULL,
+    status          VARCHAR(20) NOT NULL,
+    created_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS bulk_transfer_items
+(
+    job_id            UUID           NOT NULL REFERENCES bulk_transfer_jobs (job_id) ON DELETE CASCADE,
+    item_index        INT            NOT NULL,
+    recipient_email   VARCHAR(150),
+    amount            NUMERIC(19, 4),
+    converted_amount  NUMERIC(19, 4),
+    status            VARCHAR(20)    NOT NULL,
+    error_description TEXT,
+    completed_at      TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (job_id, item_index)
+);
+
+
+-- Переводы в асинхронном режиме: команда сохраняется со статусом PENDING и выполняется из топика transfer-commands
+CREATE TABLE IF NOT EXISTS transfer_commands
+(
+    id                UUID PRIMARY KEY,
+    type              VARCHAR(20)    NOT NULL,
+    user_id           UUID,
+    from_account_id   UUID           NOT NULL,
+    to_account_id     UUID,
+    recipient_email   VARCHAR(150),
+    to_currency       VARCHAR(3),
+    amount            NUMERIC(19, 4) NOT NULL,
+    converted_amount  NUMERIC(19, 4),
+    status            VARCHAR(20)    NOT NULL,
+    error_description TEXT,
+    created_at        TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    updated_at        TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,123 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.client.account.AccountServiceClient;
+import ru.practicum.client.account.dto.AccountResponseDto;
+import ru.practicum.dto.AccountEventDto;
+import ru.practicum.model.AccountEventType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountMetadataCacheTest {
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final UUID accountId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    private AccountMetadataCache cache(int maxSize) {
+        return new AccountMetadataCache(accountServiceClient, new SimpleMeterRegistry(), true, maxSize,
+                Duration.ofMinutes(5), now::get);
+    }
+
+    private AccountResponseDto account(UUID id) {
+        return AccountResponseDto.builder()
+                .id(id)
+                .userId(userId)
+                .currencyCode("RUB")
+                .balance(new BigDecimal("100.00"))
+                .build();
+    }
+
+    @Test
+    void getAccount_loadsOnceAndDropsBalance() {
+        when(accountServiceClient.getAccountWithUserByAccountId(accountId)).thenReturn(Mono.just(account(accountId)));
+        AccountMetadataCache cache = cache(10);
+
+        StepVerifier.create(cache.getAccount(accountId))
+                .expectNextMatches(account -> account.getUserId().equals(userId) && account.getBalance() == null)
+                .verifyComplete();
+        StepVerifier.create(cache.getAccount(accountId))
+                .expectNextMatches(account -> account.getCurrencyCode().equals("RUB"))
+                .verifyComplete();
+
+        verify(accountServiceClient, times(1)).getAccountWithUserByAccountId(accountId);
+    }
+
+    @Test
+    void getAccount_reloadsAfterTtl() {
+        when(accountServiceClient.getAccountWithUserByAccountId(accountId)).thenReturn(Mono.just(account(accountId)));
+        AccountMetadataCache cache = cache(10);
+
+        cache.getAccount(accountId).block();
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+        cache.getAccount(accountId).block();
+
+        verify(accountServiceClient, times(2)).getAccountWithUserByAccountId(accountId);
+    }
+
+    @Test
+    void handle_userUpdatedEvictsAllAccountsOfUser() {
+        UUID otherAccountId = UUID.randomUUID();
+        when(accountServiceClient.getAccountWithUserByAccountId(accountId)).thenReturn(Mono.just(account(accountId)));
+        when(accountServiceClient.getAccountWithUserByEmailAndCurrency("user@test.ru", "USD"))
+                .thenReturn(Mono.just(account(otherAccountId)));
+        AccountMetadataCache cache = cache(10);
+
+        cache.getAccount(accountId).block();
+        cache.getRecipientAccount("user@test.ru", "USD").block();
+        assertEquals(2, cache.size());
+
+        cache.handle(AccountEventDto.builder().eventType(AccountEventType.USER_UPDATED).userId(userId).build());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void handle_accountDeletedEvictsOnlyThatAccount() {
+        UUID otherAccountId = UUID.randomUUID();
+        when(accountServiceClient.getAccountWithUserByAccountId(accountId)).thenReturn(Mono.just(account(accountId)));
+        when(accountServiceClient.getAccountWithUserByAccountId(otherAccountId)).thenReturn(Mono.just(account(otherAccountId)));
+        AccountMetadataCache cache = cache(10);
+
+        cache.getAccount(accountId).block();
+        cache.getAccount(otherAccountId).block();
+        cache.handle(AccountEventDto.builder().eventType(AccountEventType.ACCOUNT_DELETED)
+                .accountId(accountId).userId(userId).build());
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void getAccount_evictsLeastRecentlyUsedWhenFull() {
+        UUID otherAccountId = UUID.randomUUID();
+        when(accountServiceClient.getAccountWithUserByAccountId(accountId)).thenReturn(Mono.just(account(accountId)));
+        when(accountServiceClient.getAccountWithUserByAccountId(otherAccountId)).thenReturn(Mono.just(account(otherAccountId)));
+        AccountMetadataCache cache = cache(1);
+
+        cache.getAccount(accountId).block();
+        cache.getAccount(otherAccountId).block();
+        cache.getAccount(accountId).block();
+
+        assertEquals(1, cache.size());
+        verify(accountServiceClient, times(2)).getAccountWithUserByAccountId(accountId);
+    }
+}
@@ -0,0 +1,215 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.client.account.AccountServiceClient;
+import ru.practicum.client.account.dto.AccountResponseDto;
+import ru.practicum.client.account.dto.RecipientAccountResponseDto;
+import ru.practicum.dao.BulkTransferItemDao;
+import ru.practicum.dao.BulkTransferJobDao;
+import ru.practicum.dto.OtherTransferRequestDto;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.mapper.TransferMapper;
+import ru.practicum.model.BulkTransferItemResult;
+import ru.practicum.model.BulkTransferJobStatus;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferResponse;
+import ru.practicum.repository.BulkTransferItemRepository;
+import ru.practicum.repository.BulkTransferJobRepository;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkTransferServiceTest {
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private BulkTransferJobRepository bulkTransferJobRepository;
+
+    @Mock
+    private BulkTransferItemRepository bulkTransferItemRepository;
+
+    @Spy
+    private TransferMapper transferMapper = Mappers.getMapper(TransferMapper.class);
+
+    @InjectMocks
+    private BulkTransferServiceImpl bulkTransferService;
+
+    private final UUID jobId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID fromAccountId = UUID.randomUUID();
+    private final UUID recipientAccountId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkTransferService, "concurrency", 4);
+        ReflectionTestUtils.setField(bulkTransferService, "recipientBatchSize", 10);
+    }
+
+    private void givenJob(UUID jobFromAccountId) {
+        when(bulkTransferJobRepository.createIfAbsent(jobId, fromAccountId, userId)).thenReturn(Mono.just(1));
+        when(bulkTransferJobRepository.findById(jobId)).thenReturn(Mono.just(BulkTransferJobDao.builder()
+                .jobId(jobId)
+                .fromAccountId(jobFromAccountId)
+                .fromUserId(userId)
+                .status(BulkTransferJobStatus.IN_PROGRESS)
+                .build()));
+    }
+
+    private void givenSourceAccount() {
+        when(accountServiceClient.getAccountWithUserByAccountId(fromAccountId)).thenReturn(Mono.just(
+                AccountResponseDto.builder().id(fromAccountId).userId(userId).currencyCode("RUB")
+                        .balance(new BigDecimal("1000.00")).build()));
+    }
+
+    private void givenItemsAreSaved() {
+        when(bulkTransferItemRepository.upsert(eq(jobId), anyInt(), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.just(1));
+        when(bulkTransferJobRepository.updateStatus(jobId, BulkTransferJobStatus.COMPLETED.name()))
+                .thenReturn(Mono.just(1));
+    }
+
+    private OtherTransferRequestDto request(String email) {
+        return OtherTransferRequestDto.builder()
+                .fromUserId(userId)
+                .fromAccountId(fromAccountId)
+                .recipientEmail(email)
+                .toCurrency("RUB")
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+
+    private RecipientAccountResponseDto recipient(String email) {
+        return RecipientAccountResponseDto.builder()
+                .email(email)
+                .id(recipientAccountId)
+                .userId(UUID.randomUUID())
+                .currencyCode("RUB")
+                .balance(BigDecimal.ZERO)
+                .build();
+    }
+
+    @Test
+    void transferBulk_fetchesSourceOnceAndResolvesRecipientsInBatch() {
+        givenJob(fromAccountId);
+        givenSourceAccount();
+        givenItemsAreSaved();
+        when(bulkTransferItemRepository.findByJobIdAndStatus(jobId, "SUCCESS")).thenReturn(Flux.empty());
+        when(accountServiceClient.findRecipientAccounts(any()))
+                .thenReturn(Flux.just(recipient("a@test.ru"), recipient("b@test.ru")));
+        when(transferService.transferToResolvedAccount(any(), any(), any(), eq(userId), any()))
+                .thenReturn(Mono.just(TransferResponse.builder()
+                        .status(OperationStatus.SUCCESS)
+                        .convertedAmount(new BigDecimal("10.00"))
+                        .build()));
+
+        List<BulkTransferItemResult> results = bulkTransferService.transferBulk(jobId,
+                        Flux.just(request("a@test.ru"), request("b@test.ru"), request("unknown@test.ru")))
+                .collectSortedList(Comparator.comparingInt(BulkTransferItemResult::getIndex))
+                .block();
+
+        assertEquals(3, results.size());
+        assertEquals(OperationStatus.SUCCESS, results.get(0).getStatus());
+        assertEquals(OperationStatus.SUCCESS, results.get(1).getStatus());
+        assertEquals(OperationStatus.FAILED, results.get(2).getStatus());
+        assertEquals("Счет получателя не найден", results.get(2).getErrorDescription());
+
+        verify(accountServiceClient, times(1)).getAccountWithUserByAccountId(fromAccountId);
+        verify(accountServiceClient, times(1)).findRecipientAccounts(any());
+        verify(transferService).transferToResolvedAccount(any(), any(), any(), eq(userId), eq(jobId + ":0"));
+        verify(bulkTransferItemRepository, times(3)).upsert(eq(jobId), anyInt(), any(), any(), any(), any(), any());
+        verify(bulkTransferJobRepository).updateStatus(jobId, BulkTransferJobStatus.COMPLETED.name());
+    }
+
+    @Test
+    void transferBulk_skipsItemsCompletedBeforeResume() {
+        givenJob(fromAccountId);
+        givenSourceAccount();
+        givenItemsAreSaved();
+        when(bulkTransferItemRepository.findByJobIdAndStatus(jobId, "SUCCESS")).thenReturn(Flux.just(
+                BulkTransferItemDao.builder()
+                        .jobId(jobId)
+                        .itemIndex(0)
+                        .recipientEmail("a@test.ru")
+                        .amount(new BigDecimal("10.00"))
+                        .status(OperationStatus.SUCCESS)
+                        .build()));
+        when(accountServiceClient.findRecipientAccounts(any())).thenReturn(Flux.just(recipient("b@test.ru")));
+        when(transferService.transferToResolvedAccount(any(), any(), any(), eq(userId), eq(jobId + ":1")))
+                .thenReturn(Mono.just(TransferResponse.builder().status(OperationStatus.SUCCESS).build()));
+
+        List<BulkTransferItemResult> results = bulkTransferService.transferBulk(jobId,
+                        Flux.just(request("a@test.ru"), request("b@test.ru")))
+                .collectSortedList(Comparator.comparingInt(BulkTransferItemResult::getIndex))
+                .block();
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isResumed());
+        assertEquals(OperationStatus.SUCCESS, results.get(1).getStatus());
+        verify(transferService, never()).transferToResolvedAccount(any(), any(), any(), any(), eq(jobId + ":0"));
+        verify(bulkTransferItemRepository, times(1)).upsert(eq(jobId), anyInt(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void transferBulk_itemSaveFails_ErrorPropagatedAndJobLeftInProgress() {
+        givenJob(fromAccountId);
+        givenSourceAccount();
+        when(bulkTransferItemRepository.findByJobIdAndStatus(jobId, "SUCCESS")).thenReturn(Flux.empty());
+        when(accountServiceClient.findRecipientAccounts(any()))
+                .thenReturn(Flux.just(recipient("a@test.ru"), recipient("b@test.ru")));
+        when(transferService.transferToResolvedAccount(any(), any(), any(), eq(userId), any()))
+                .thenReturn(Mono.just(TransferResponse.builder().status(OperationStatus.SUCCESS).build()));
+        when(bulkTransferItemRepository.upsert(eq(jobId), eq(0), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.error(new RuntimeException("insert failed")));
+        when(bulkTransferItemRepository.upsert(eq(jobId), eq(1), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.just(1));
+
+        StepVerifier.create(bulkTransferService.transferBulk(jobId,
+                        Flux.just(request("a@test.ru"), request("b@test.ru"))))
+                .expectNextMatches(result -> result.getIndex() == 1)
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        verify(bulkTransferJobRepository, never()).updateStatus(any(), any());
+    }
+
+    @Test
+    void transferBulk_rejectsJobOfAnotherAccount() {
+        givenJob(UUID.randomUUID());
+
+        StepVerifier.create(bulkTransferService.transferBulk(jobId, Flux.just(request("a@test.ru"))))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(transferService, never()).transferToResolvedAccount(any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.ExchangeRateDto;
+import ru.practicum.dto.ExchangeRatesDto;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeRateMirrorTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final ExchangeRateMirror mirror = new ExchangeRateMirror(new SimpleMeterRegistry(), true,
+            Duration.ofSeconds(5), now::get);
+
+    private ExchangeRateDto rate(String currency, String buy, String sell) {
+        return ExchangeRateDto.builder()
+                .baseCurrency(currency)
+                .targetCurrency("RUB")
+                .buyRate(new BigDecimal(buy))
+                .sellRate(new BigDecimal(sell))
+                .build();
+    }
+
+    private void givenRates() {
+        mirror.update(new ExchangeRatesDto(List.of(
+                rate("RUB", "1", "1"),
+                rate("USD", "75.1225", "75.8775"),
+                rate("EUR", "81.8885", "82.7115"))));
+    }
+
+    @Test
+    void convert_usesBuyRateOfSourceAndSellRateOfTarget() {
+        givenRates();
+
+        assertEquals(Optional.of(new BigDecimal("1.32")), mirror.convert("RUB", "USD", new BigDecimal("100.00")));
+        assertEquals(Optional.of(new BigDecimal("7512.25")), mirror.convert("usd", "rub", new BigDecimal("100.00")));
+        assertEquals(Optional.of(new BigDecimal("90.82")), mirror.convert("USD", "EUR", new BigDecimal("100.00")));
+    }
+
+    @Test
+    void convert_isEmptyWhenSnapshotIsStale() {
+        givenRates();
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertTrue(mirror.convert("RUB", "USD", BigDecimal.TEN).isEmpty());
+    }
+
+    @Test
+    void convert_isEmptyWithoutSnapshotOrRate() {
+        assertTrue(mirror.convert("RUB", "USD", BigDecimal.TEN).isEmpty());
+
+        givenRates();
+
+        assertTrue(mirror.convert("RUB", "GBP", BigDecimal.TEN).isEmpty());
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+import ru.practicum.dao.NotificationOutboxDao;
+import ru.practicum.dto.NotificationRequestDto;
+import ru.practicum.dto.TransferCommandMessageDto;
+import ru.practicum.repository.NotificationOutboxRepository;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxTest {
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private KafkaSender<String, NotificationRequestDto> kafkaSender;
+
+    @Mock
+    private KafkaSender<String, TransferCommandMessageDto> transferCommandSender;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NotificationOutbox notificationOutbox;
+
+    @BeforeEach
+    void setUp() {
+        notificationOutbox = new NotificationOutbox(notificationOutboxRepository, kafkaSender, transferCommandSender,
+                transactionalOperator, objectMapper, new TransferMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(notificationOutbox, "batchSize", 2);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(notificationOutboxRepository.tryLockRelay(anyLong())).thenReturn(Mono.just(true));
+    }
+
+    private NotificationOutboxDao entry(long id) throws Exception {
+        NotificationRequestDto dto = NotificationRequestDto.builder()
+                .userId(UUID.randomUUID())
+                .message("Перевод выполнен")
+                .build();
+        return NotificationOutboxDao.builder()
+                .id(id)
+                .topic("notification")
+                .messageKey("notification")
+                .payload(objectMapper.writeValueAsString(dto))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SenderResult<Long> sent() {
+        return mock(SenderResult.class);
+    }
+
+    @Test
+    void relayAll_sendsAndDeletesBatchesUntilQueueIsEmpty() throws Exception {
+        when(notificationOutboxRepository.findBatchForUpdate(2))
+                .thenReturn(Flux.just(entry(1), entry(2)))
+                .thenReturn(Flux.just(entry(3)));
+        when(kafkaSender.send(any())).thenAnswer(invocation -> Flux.from(invocation.getArgument(0)).map(record -> sent()));
+        when(notificationOutboxRepository.deleteByIds(any())).thenAnswer(invocation ->
+                Mono.just(((Long[]) invocation.getArgument(0)).length));
+
+        StepVerifier.create(notificationOutbox.relayAll())
+                .expectNext(3)
+                .verifyComplete();
+
+        ArgumentCaptor<Long[]> ids = ArgumentCaptor.forClass(Long[].class);
+        verify(notificationOutboxRepository, times(2)).deleteByIds(ids.capture());
+        assertArrayEquals(new Long[]{1L, 2L}, ids.getAllValues().get(0));
+        assertArrayEquals(new Long[]{3L}, ids.getAllValues().get(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_sendsTransferCommandsKeyedBySourceAccount() throws Exception {
+        UUID commandId = UUID.randomUUID();
+        UUID fromAccountId = UUID.randomUUID();
+        ArgumentCaptor<NotificationOutboxDao> saved = ArgumentCaptor.forClass(NotificationOutboxDao.class);
+        when(notificationOutboxRepository.save(saved.capture())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        notificationOutbox.enqueueTransferCommand(commandId, fromAccountId).block();
+        NotificationOutboxDao command = saved.getValue();
+        command.setId(2L);
+
+        when(notificationOutboxRepository.findBatchForUpdate(anyInt())).thenReturn(Flux.just(entry(1), command));
+        when(kafkaSender.send(any())).thenAnswer(invocation -> Flux.from(invocation.getArgument(0)).map(record -> sent()));
+        ArgumentCaptor<Flux<SenderRecord<String, TransferCommandMessageDto, Long>>> commands =
+                ArgumentCaptor.forClass(Flux.class);
+        when(transferCommandSender.send(commands.capture()))
+                .thenAnswer(invocation -> Flux.from(invocation.getArgument(0)).map(record -> sent()));
+        when(notificationOutboxRepository.deleteByIds(any())).thenReturn(Mono.just(2));
+
+        StepVerifier.create(notificationOutbox.relayBatch())
+                .expectNext(2)
+                .verifyComplete();
+
+        SenderRecord<String, TransferCommandMessageDto, Long> record = commands.getValue().single().block();
+        assertEquals("transfer-commands", record.topic());
+        assertEquals(fromAccountId.toString(), record.key());
+        assertEquals(commandId, record.value().getCommandId());
+    }
+
+    @Test
+    void relayBatch_keepsBatchWhenSendFails() throws Exception {
+        when(notificationOutboxRepository.findBatchForUpdate(anyInt())).thenReturn(Flux.just(entry(1)));
+        when(kafkaSender.send(any())).thenReturn(Flux.error(new RuntimeException("broker unavailable")));
+
+        StepVerifier.create(notificationOutbox.relayBatch())
+                .expectErrorMessage("broker unavailable")
+                .verify();
+
+        verify(notificationOutboxRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    void relayBatch_returnsZeroWhenQueueIsEmpty() {
+        when(notificationOutboxRepository.findBatchForUpdate(anyInt())).thenReturn(Flux.empty());
+
+        StepVerifier.create(notificationOutbox.relayBatch())
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(kafkaSender, never()).send(any());
+        assertEquals(0, notificationOutbox.relayAll().block());
+    }
+
+    @Test
+    void relayBatch_skipsWhenAnotherInstanceIsRelaying() {
+        when(notificationOutboxRepository.tryLockRelay(anyLong())).thenReturn(Mono.just(false));
+
+        StepVerifier.create(notificationOutbox.relayBatch())
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(notificationOutboxRepository, never()).findBatchForUpdate(anyInt());
+        verify(kafkaSender, never()).send(any());
+    }
+}
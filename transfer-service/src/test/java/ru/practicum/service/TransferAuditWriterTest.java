@@ -0,0 +1,168 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.dao.TransferDao;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferType;
+import ru.practicum.repository.TransferRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferAuditWriterTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Размеры сохраненных пакетов
+     */
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    private TransferAuditWriter writer(int batchSize, Duration flushInterval, int queueCapacity) {
+        TransferAuditWriter writer = new TransferAuditWriter(transferRepository, meterRegistry,
+                batchSize, flushInterval, queueCapacity, Duration.ofSeconds(5));
+        writer.start();
+        return writer;
+    }
+
+    private void captureBatches() {
+        when(transferRepository.insertAll(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    UUID[] ids = invocation.getArgument(0);
+                    batches.add(ids.length);
+                    return Mono.just(ids.length);
+                });
+    }
+
+    /**
+     * Дождаться завершения сбросов: таймер останавливается после вставки, поэтому ожидается он, а не вызов insertAll
+     */
+    private void awaitFlushes(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (meterRegistry.get("transfer.audit.flush").timer().count() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private TransferDao transfer() {
+        return TransferDao.builder()
+                .fromAccountId(UUID.randomUUID())
+                .toAccountId(UUID.randomUUID())
+                .amount(BigDecimal.TEN)
+                .convertedAmount(BigDecimal.TEN)
+                .fromCurrency("RUB")
+                .toCurrency("RUB")
+                .timestamp(LocalDateTime.now())
+                .status(OperationStatus.SUCCESS)
+                .type(TransferType.OWN_TRANSFER)
+                .build();
+    }
+
+    @Test
+    void submit_FullBatch_FlushedWithOneInsert() throws InterruptedException {
+        captureBatches();
+        TransferAuditWriter writer = writer(10, Duration.ofMinutes(1), 100);
+
+        StepVerifier.create(Flux.range(0, 10).flatMap(i -> writer.submit(transfer())))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(List.of(10), batches);
+        writer.shutdown();
+    }
+
+    @Test
+    void submit_PartialBatch_FlushedAfterInterval() throws InterruptedException {
+        captureBatches();
+        TransferAuditWriter writer = writer(100, Duration.ofMillis(50), 100);
+
+        StepVerifier.create(Mono.when(writer.submit(transfer()), writer.submit(transfer())))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        awaitFlushes(1);
+
+        assertEquals(List.of(2), batches);
+        assertEquals(0.0, meterRegistry.get("transfer.audit.queue.depth").gauge().value());
+        assertEquals(1, meterRegistry.get("transfer.audit.flush").timer().count());
+        writer.shutdown();
+    }
+
+    @Test
+    void shutdown_FlushesPendingRecords() throws InterruptedException {
+        captureBatches();
+        TransferAuditWriter writer = writer(100, Duration.ofMinutes(1), 100);
+
+        Mono.when(writer.submit(transfer()), writer.submit(transfer()), writer.submit(transfer())).subscribe();
+        writer.shutdown();
+
+        assertEquals(List.of(3), batches);
+    }
+
+    @Test
+    void submit_CompletesBeforeFlush() throws InterruptedException {
+        captureBatches();
+        TransferAuditWriter writer = writer(100, Duration.ofMinutes(1), 100);
+
+        StepVerifier.create(writer.submit(transfer()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(List.of(), batches);
+        assertEquals(1.0, meterRegistry.get("transfer.audit.queue.depth").gauge().value());
+        writer.shutdown();
+        assertEquals(List.of(1), batches);
+    }
+
+    @Test
+    void submit_InsertFails_RecordsCountedAsFailed() throws InterruptedException {
+        when(transferRepository.insertAll(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("db down")));
+        TransferAuditWriter writer = writer(2, Duration.ofMinutes(1), 100);
+
+        StepVerifier.create(Mono.when(writer.submit(transfer()), writer.submit(transfer())))
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+        writer.shutdown();
+
+        assertEquals(2.0, meterRegistry.counter("transfer.audit.failed").count());
+    }
+
+    @Test
+    void submit_QueueFull_RejectedWithErrorWithoutBlocking() {
+        TransferAuditWriter writer = new TransferAuditWriter(transferRepository, meterRegistry,
+                10, Duration.ofMinutes(1), 8, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 8; i++) {
+            writer.submit(transfer()).subscribe();
+        }
+
+        StepVerifier.create(writer.submit(transfer()))
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        assertEquals(1.0, meterRegistry.counter("transfer.audit.rejected").count());
+        verify(transferRepository, never()).insertAll(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,231 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.dao.TransferCommandDao;
+import ru.practicum.dto.OwnTransferRequestDto;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.mapper.TransferMapper;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferCommand;
+import ru.practicum.model.TransferResponse;
+import ru.practicum.model.TransferType;
+import ru.practicum.repository.TransferCommandRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferCommandServiceTest {
+
+    @Mock
+    private TransferCommandRepository transferCommandRepository;
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Spy
+    private TransferMapper transferMapper = Mappers.getMapper(TransferMapper.class);
+
+    @InjectMocks
+    private TransferCommandServiceImpl transferCommandService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID fromAccountId = UUID.randomUUID();
+    private final UUID toAccountId = UUID.randomUUID();
+    private final UUID commandId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transferCommandService, "statusPollInterval", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(transferCommandService, "statusStreamTimeout", Duration.ofSeconds(10));
+    }
+
+    private OwnTransferRequestDto request() {
+        return OwnTransferRequestDto.builder()
+                .userId(userId)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal("100.00"))
+                .build();
+    }
+
+    private TransferCommandDao command(OperationStatus status) {
+        return TransferCommandDao.builder()
+                .id(commandId)
+                .type(TransferType.OWN_TRANSFER)
+                .userId(userId)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal("100.00"))
+                .status(status)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenTransaction() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void submitOwn_savesPendingAndEnqueuesKeyedBySourceAccountInOneTransaction() {
+        givenTransaction();
+        when(transferCommandRepository.create(any(), eq("OWN_TRANSFER"), eq(userId), eq(fromAccountId), eq(toAccountId),
+                isNull(), isNull(), any())).thenReturn(Mono.just(1));
+        when(notificationOutbox.enqueueTransferCommand(any(), eq(fromAccountId))).thenReturn(Mono.empty());
+
+        TransferCommand command = transferCommandService.submitOwn(request()).block();
+
+        assertEquals(OperationStatus.PENDING, command.getStatus());
+        verify(notificationOutbox).enqueueTransferCommand(command.getId(), fromAccountId);
+        verify(transactionalOperator).transactional(any(Mono.class));
+    }
+
+    @Test
+    void submitOwn_outboxInsertFails_ErrorPropagated() {
+        givenTransaction();
+        when(transferCommandRepository.create(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.just(1));
+        when(notificationOutbox.enqueueTransferCommand(any(), any()))
+                .thenReturn(Mono.error(new RuntimeException("outbox insert failed")));
+
+        StepVerifier.create(transferCommandService.submitOwn(request()))
+                .expectErrorMessage("outbox insert failed")
+                .verify();
+
+        verify(transferCommandRepository, never()).complete(any(), any(), any(), any());
+    }
+
+    /**
+     * Перевод, вызывающий проверку завершения из контекста так же, как сервис перевода перед записью истории
+     */
+    private Mono<TransferResponse> completedTransfer(AtomicReference<Boolean> firstCompletion) {
+        return Mono.deferContextual(context -> {
+            assertEquals(commandId.toString(), context.get(TransferService.IDEMPOTENCY_KEY));
+            Function<BigDecimal, Mono<Boolean>> guard = context.get(TransferService.COMPLETION_GUARD);
+            return guard.apply(new BigDecimal("1.32"))
+                    .doOnNext(firstCompletion::set)
+                    .thenReturn(TransferResponse.builder()
+                            .status(OperationStatus.SUCCESS)
+                            .convertedAmount(new BigDecimal("1.32"))
+                            .build());
+        });
+    }
+
+    @Test
+    void process_completesPendingCommandWithIdempotencyKey() {
+        AtomicReference<Boolean> firstCompletion = new AtomicReference<>();
+        when(transferCommandRepository.findById(commandId)).thenReturn(Mono.just(command(OperationStatus.PENDING)));
+        when(transferService.transferBetweenOwnAccounts(any())).thenReturn(completedTransfer(firstCompletion));
+        when(transferCommandRepository.complete(commandId, "SUCCESS", new BigDecimal("1.32"), null))
+                .thenReturn(Mono.just(1));
+
+        StepVerifier.create(transferCommandService.process(commandId))
+                .verifyComplete();
+
+        verify(transferCommandRepository).complete(commandId, "SUCCESS", new BigDecimal("1.32"), null);
+        assertEquals(true, firstCompletion.get());
+    }
+
+    @Test
+    void process_redeliveredAfterCompletion_GuardReportsRepeat() {
+        AtomicReference<Boolean> firstCompletion = new AtomicReference<>();
+        when(transferCommandRepository.findById(commandId)).thenReturn(Mono.just(command(OperationStatus.PENDING)));
+        when(transferService.transferBetweenOwnAccounts(any())).thenReturn(completedTransfer(firstCompletion));
+        when(transferCommandRepository.complete(commandId, "SUCCESS", new BigDecimal("1.32"), null))
+                .thenReturn(Mono.just(0));
+
+        StepVerifier.create(transferCommandService.process(commandId))
+                .verifyComplete();
+
+        assertEquals(false, firstCompletion.get());
+        verify(transferCommandRepository, never()).complete(eq(commandId), eq("FAILED"), any(), any());
+    }
+
+    @Test
+    void markUnknown_completesPendingCommandWithLastError() {
+        when(transferCommandRepository.complete(commandId, "UNKNOWN", null, "timeout")).thenReturn(Mono.just(1));
+
+        StepVerifier.create(transferCommandService.markUnknown(commandId, "timeout"))
+                .verifyComplete();
+
+        verify(transferCommandRepository).complete(commandId, "UNKNOWN", null, "timeout");
+    }
+
+    @Test
+    void process_storesFailureReason() {
+        when(transferCommandRepository.findById(commandId)).thenReturn(Mono.just(command(OperationStatus.PENDING)));
+        when(transferService.transferBetweenOwnAccounts(any()))
+                .thenReturn(Mono.error(new ValidationException("Недостаточно средств на счете отправителя")));
+        when(transferCommandRepository.complete(commandId, "FAILED", null, "Недостаточно средств на счете отправителя"))
+                .thenReturn(Mono.just(1));
+
+        StepVerifier.create(transferCommandService.process(commandId))
+                .verifyComplete();
+    }
+
+    @Test
+    void process_transientFailure_LeavesCommandPendingAndPropagatesError() {
+        when(transferCommandRepository.findById(commandId)).thenReturn(Mono.just(command(OperationStatus.PENDING)));
+        when(transferService.transferBetweenOwnAccounts(any()))
+                .thenReturn(Mono.error(new ServiceUnavailableException("Сервис аккаунтов недоступен", "account-service")));
+
+        StepVerifier.create(transferCommandService.process(commandId))
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        verify(transferCommandRepository, never()).complete(any(), any(), any(), any());
+    }
+
+    @Test
+    void process_skipsCompletedCommand() {
+        when(transferCommandRepository.findById(commandId)).thenReturn(Mono.just(command(OperationStatus.SUCCESS)));
+
+        StepVerifier.create(transferCommandService.process(commandId))
+                .verifyComplete();
+
+        verify(transferService, never()).transferBetweenOwnAccounts(any());
+    }
+
+    @Test
+    void streamCommand_emitsStatusChangesUntilCompleted() {
+        when(transferCommandRepository.findById(commandId))
+                .thenReturn(Mono.just(command(OperationStatus.PENDING)))
+                .thenReturn(Mono.just(command(OperationStatus.PENDING)))
+                .thenReturn(Mono.just(command(OperationStatus.SUCCESS)));
+
+        StepVerifier.withVirtualTime(() -> transferCommandService.streamCommand(commandId))
+                .expectNextMatches(command -> command.getStatus() == OperationStatus.PENDING)
+                .thenAwait(Duration.ofMillis(200))
+                .expectNextMatches(command -> command.getStatus() == OperationStatus.SUCCESS)
+                .verifyComplete();
+    }
+}
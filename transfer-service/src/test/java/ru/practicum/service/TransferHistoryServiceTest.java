@@ -0,0 +1,112 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import ru.practicum.dao.TransferDao;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.model.OperationStatus;
+import ru.practicum.model.TransferHistoryQuery;
+import ru.practicum.repository.TransferRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferHistoryServiceTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @InjectMocks
+    private TransferHistoryServiceImpl transferHistoryService;
+
+    private final UUID accountId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transferHistoryService, "pageSize", 2);
+        ReflectionTestUtils.setField(transferHistoryService, "maxLimit", 100);
+    }
+
+    private TransferDao transfer(int minutesAgo) {
+        return TransferDao.builder()
+                .id(UUID.randomUUID())
+                .fromAccountId(accountId)
+                .timestamp(now.minusMinutes(minutesAgo))
+                .status(OperationStatus.SUCCESS)
+                .build();
+    }
+
+    @Test
+    void getHistory_withoutLimit_readsPagesByCursorOfLastRecord() {
+        TransferDao first = transfer(1);
+        TransferDao second = transfer(2);
+        TransferDao third = transfer(3);
+        when(transferRepository.findHistoryPage(eq(accountId), any(), any(), eq(now), eq(new UUID(0L, 0L)), eq(2)))
+                .thenReturn(Flux.just(first, second));
+        when(transferRepository.findHistoryPage(eq(accountId), any(), any(), eq(second.getTimestamp()),
+                eq(second.getId()), eq(2)))
+                .thenReturn(Flux.just(third));
+
+        StepVerifier.create(transferHistoryService.getHistory(TransferHistoryQuery.builder()
+                        .accountId(accountId)
+                        .to(now)
+                        .build()))
+                .expectNext(first, second, third)
+                .verifyComplete();
+    }
+
+    @Test
+    void getHistory_withLimit_readsSinglePageWithStatusFilter() {
+        TransferDao first = transfer(1);
+        UUID cursorId = UUID.randomUUID();
+        when(transferRepository.findHistoryPage(eq(accountId), any(), aryEq(new String[]{"FAILED"}),
+                eq(now), eq(cursorId), eq(10)))
+                .thenReturn(Flux.just(first));
+
+        StepVerifier.create(transferHistoryService.getHistory(TransferHistoryQuery.builder()
+                        .accountId(accountId)
+                        .statuses(List.of(OperationStatus.FAILED))
+                        .beforeTimestamp(now)
+                        .beforeId(cursorId)
+                        .limit(10)
+                        .build()))
+                .expectNext(first)
+                .verifyComplete();
+    }
+
+    @Test
+    void getHistory_rejectsIncompleteCursorAndLimitOutOfRange() {
+        StepVerifier.create(transferHistoryService.getHistory(TransferHistoryQuery.builder()
+                        .accountId(accountId)
+                        .beforeTimestamp(now)
+                        .build()))
+                .expectError(ValidationException.class)
+                .verify();
+        StepVerifier.create(transferHistoryService.getHistory(TransferHistoryQuery.builder()
+                        .accountId(accountId)
+                        .limit(101)
+                        .build()))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(transferRepository, never()).findHistoryPage(any(), any(), any(), any(), any(), anyInt());
+    }
+}
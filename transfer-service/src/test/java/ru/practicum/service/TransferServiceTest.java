@@ -0,0 +1,286 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.practicum.client.account.AccountServiceClient;
+import ru.practicum.client.account.dto.AccountResponseDto;
+import ru.practicum.client.blocker.BlockerServiceClient;
+import ru.practicum.client.blocker.dto.OperationCheckResponseDto;
+import ru.practicum.client.exchange.ExchangeServiceClient;
+import ru.practicum.client.exchange.dto.ExchangeResponseDto;
+import ru.practicum.dto.OwnTransferRequestDto;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.mapper.TransferMapper;
+import ru.practicum.model.OperationStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferServiceTest {
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    @Mock
+    private AccountMetadataCache accountMetadataCache;
+
+    @Mock
+    private BlockerServiceClient blockerServiceClient;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private ExchangeServiceClient exchangeServiceClient;
+
+    @Mock
+    private ExchangeRateMirror exchangeRateMirror;
+
+    @Mock
+    private TransferAuditWriter transferAuditWriter;
+
+    @Spy
+    private TransferMapper transferMapper = Mappers.getMapper(TransferMapper.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private TransferMetrics transferMetrics = new TransferMetrics(meterRegistry);
+
+    @InjectMocks
+    private TransferServiceImpl transferService;
+
+    private final UUID userId = UUID.fromString("523e4567-e89b-12d3-a456-426614174000");
+    private final UUID fromAccountId = UUID.fromString("523e4567-e89b-12d3-a456-426614174001");
+    private final UUID toAccountId = UUID.fromString("523e4567-e89b-12d3-a456-426614174002");
+
+    private static final Duration HOP = Duration.ofMillis(100);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(transferService, "pipelinedChecks", true);
+        when(accountMetadataCache.getAccount(fromAccountId)).thenReturn(Mono.just(
+                AccountResponseDto.builder().id(fromAccountId).userId(userId).currencyCode("RUB")
+                        .balance(new BigDecimal("1000.00")).build()));
+        when(accountMetadataCache.getAccount(toAccountId)).thenReturn(Mono.just(
+                AccountResponseDto.builder().id(toAccountId).userId(userId).currencyCode("USD")
+                        .balance(BigDecimal.ZERO).build()));
+        lenient().when(notificationOutbox.enqueue(any())).thenReturn(Mono.empty());
+        lenient().when(transferAuditWriter.submit(any())).thenReturn(Mono.empty());
+    }
+
+    private OwnTransferRequestDto request() {
+        return OwnTransferRequestDto.builder()
+                .userId(userId)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal("100.00"))
+                .build();
+    }
+
+    private Mono<OperationCheckResponseDto> checkResult(boolean blocked) {
+        return Mono.delay(HOP).thenReturn(OperationCheckResponseDto.builder()
+                .blocked(blocked)
+                .description(blocked ? "подозрительная сумма" : null)
+                .build());
+    }
+
+    private Mono<ExchangeResponseDto> quote() {
+        return Mono.delay(HOP).thenReturn(ExchangeResponseDto.builder()
+                .fromCurrency("RUB")
+                .toCurrency("USD")
+                .originalAmount(new BigDecimal("100.00"))
+                .convertedAmount(new BigDecimal("1.10"))
+                .build());
+    }
+
+    @Test
+    void transfer_Pipelined_CheckAndConversionRunConcurrently() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(false));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(quote());
+        when(accountServiceClient.transfer(any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .expectSubscription()
+                .expectNoEvent(HOP.minusMillis(1))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextMatches(response -> response.getStatus() == OperationStatus.SUCCESS
+                        && new BigDecimal("1.10").equals(response.getConvertedAmount()))
+                .verifyComplete();
+
+        verify(transferAuditWriter).submit(argThat(dao -> dao.getStatus() == OperationStatus.SUCCESS));
+        verify(notificationOutbox).enqueue(any());
+        for (String stage : new String[]{"accounts", "blocker", "conversion", "debit", "notification", "total"}) {
+            assertEquals(1, meterRegistry.find(TransferMetrics.STAGE_TIMER)
+                    .tags("stage", stage, "type", "OWN_TRANSFER", "outcome", "success")
+                    .timer().count(), stage);
+        }
+    }
+
+    @Test
+    void transfer_OutboxInsertFailsAfterDebit_SuccessReturned() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(false));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(quote());
+        when(accountServiceClient.transfer(any(), any())).thenReturn(Mono.empty());
+        when(notificationOutbox.enqueue(any())).thenReturn(Mono.error(new IllegalStateException("outbox insert failed")));
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .thenAwait(HOP)
+                .expectNextMatches(response -> response.getStatus() == OperationStatus.SUCCESS)
+                .verifyComplete();
+
+        verify(transferAuditWriter).submit(any());
+    }
+
+    @Test
+    void transfer_AlreadyCompletedByPreviousDelivery_HistoryAndNotificationSkipped() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(false));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(quote());
+        when(accountServiceClient.transfer(any(), any())).thenReturn(Mono.empty());
+        Function<BigDecimal, Mono<Boolean>> alreadyCompleted = converted -> Mono.just(false);
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request())
+                        .contextWrite(context -> context.put(TransferService.COMPLETION_GUARD, alreadyCompleted)))
+                .thenAwait(HOP)
+                .expectNextMatches(response -> response.getStatus() == OperationStatus.SUCCESS)
+                .verifyComplete();
+
+        verify(transferAuditWriter, never()).submit(any());
+        verify(notificationOutbox, never()).enqueue(any());
+    }
+
+    @Test
+    void transfer_AuditQueueFull_SuccessfulTransferStillReturned() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(false));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(quote());
+        when(accountServiceClient.transfer(any(), any())).thenReturn(Mono.empty());
+        when(transferAuditWriter.submit(any())).thenReturn(Mono.error(
+                new ServiceUnavailableException("История переводов временно не сохраняется", "transfer-service", "Очередь переполнена")));
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .thenAwait(HOP)
+                .expectNextMatches(response -> response.getStatus() == OperationStatus.SUCCESS)
+                .verifyComplete();
+
+        verify(notificationOutbox).enqueue(any());
+    }
+
+    @Test
+    void transfer_AuditQueueFull_BusinessErrorKept() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(true));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(quote());
+        when(transferAuditWriter.submit(any())).thenReturn(Mono.error(
+                new ServiceUnavailableException("История переводов временно не сохраняется", "transfer-service", "Очередь переполнена")));
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .thenAwait(HOP)
+                .expectErrorMatches(e -> e instanceof ValidationException
+                        && e.getMessage().contains("заблокирована"))
+                .verify();
+
+        verify(transferAuditWriter).submit(argThat(dao -> dao.getStatus() == OperationStatus.FAILED));
+    }
+
+    @Test
+    void transfer_LocalRates_ExchangeServiceIsNotCalled() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(false));
+        when(exchangeRateMirror.convert("RUB", "USD", new BigDecimal("100.00")))
+                .thenReturn(Optional.of(new BigDecimal("1.32")));
+        when(accountServiceClient.transfer(any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .expectSubscription()
+                .thenAwait(HOP)
+                .expectNextMatches(response -> response.getStatus() == OperationStatus.SUCCESS
+                        && new BigDecimal("1.32").equals(response.getConvertedAmount()))
+                .verifyComplete();
+
+        verify(exchangeServiceClient, never()).convertCurrency(any());
+    }
+
+    @Test
+    void transfer_Sequential_ConversionWaitsForCheck() {
+        ReflectionTestUtils.setField(transferService, "pipelinedChecks", false);
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(false));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(quote());
+        when(accountServiceClient.transfer(any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .expectSubscription()
+                .thenAwait(HOP)
+                .expectNoEvent(HOP.minusMillis(1))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextMatches(response -> response.getStatus() == OperationStatus.SUCCESS)
+                .verifyComplete();
+    }
+
+    @Test
+    void transfer_Pipelined_BlockedOperationDiscardsQuote() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(true));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(quote());
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .thenAwait(HOP)
+                .expectError(ValidationException.class)
+                .verify();
+
+        verify(accountServiceClient, never()).transfer(any());
+    }
+
+    @Test
+    void transfer_Pipelined_BlockedWinsOverConversionFailure() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(true));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(
+                Mono.error(new ServiceUnavailableException("exchange-service", "недоступен")));
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .thenAwait(HOP)
+                .expectErrorMatches(e -> e instanceof ValidationException
+                        && e.getMessage().contains("заблокирована"))
+                .verify();
+
+        verify(accountServiceClient, never()).transfer(any());
+        assertEquals(1, meterRegistry.find(TransferMetrics.STAGE_TIMER)
+                .tags("stage", "conversion", "outcome", "unavailable").timer().count());
+        assertEquals(1, meterRegistry.find(TransferMetrics.STAGE_TIMER)
+                .tags("stage", "total", "outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void transfer_Pipelined_ConversionFailureAfterPassedCheck_ReturnsServiceUnavailable() {
+        when(blockerServiceClient.checkOperation(any())).thenReturn(checkResult(false));
+        when(exchangeServiceClient.convertCurrency(any())).thenReturn(
+                Mono.error(new ServiceUnavailableException("exchange-service", "недоступен")));
+
+        StepVerifier.withVirtualTime(() -> transferService.transferBetweenOwnAccounts(request()))
+                .thenAwait(HOP)
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        verify(accountServiceClient, never()).transfer(any());
+    }
+}
@@ -30,24 +30,14 @@ public abstract class BaseServiceClient {
         return webClient;
     }
 
-    protected String getGatewayUrl() {
-        String gatewayUrl = System.getenv("GATEWAY_URL");
-        if (gatewayUrl == null) {
-            throw new IllegalStateException("GATEWAY_URL not set");
-        }
-        return gatewayUrl + "/" + getServiceId();
-    }
-
     protected <T> Mono<T> performMono(HttpMethod method, String path, Object body, Class<T> responseType,
                                       String operation, String errorMsgPrefix, boolean useServiceException) {
         getLogger().info(operation);
 
-        String baseUrl = getGatewayUrl();
-        String fullUrl = baseUrl + path;
-        getLogger().debug("Calling {} at: {}", getServiceId(), fullUrl);
+        getLogger().debug("Calling {} at: {}", getServiceId(), path);
 
         WebClient.RequestHeadersSpec<?> spec = getWebClient().method(method)
-                .uri(fullUrl)
+                .uri(path)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
 
         if (body != null && (method == HttpMethod.POST || method == HttpMethod.PUT)) {
@@ -93,12 +83,10 @@ public abstract class BaseServiceClient {
                                       String operation, String errorMsgPrefix, boolean useServiceException) {
         getLogger().info(operation);
 
-        String baseUrl = getGatewayUrl();
-        String fullUrl = baseUrl + path;
-        getLogger().debug("Calling {} at: {}", getServiceId(), fullUrl);
+        getLogger().debug("Calling {} at: {}", getServiceId(), path);
 
         WebClient.RequestHeadersSpec<?> spec = getWebClient().method(method)
-                .uri(fullUrl)
+                .uri(path)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
 
         if (body != null && (method == HttpMethod.POST || method == HttpMethod.PUT)) {
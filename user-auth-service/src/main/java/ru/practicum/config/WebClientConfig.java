@@ -1,5 +1,7 @@
 package ru.practicum.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
@@ -12,20 +14,52 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class WebClientConfig {
+    /**
+     * Вызывать сервисы напрямую с балансировкой на стороне клиента.
+     * Если выключено, запросы идут через api-gateway-server
+     */
+    @Value("${app.clients.direct:false}")
+    private boolean direct;
+
+    /**
+     * Адрес api-gateway-server
+     */
+    @Value("${GATEWAY_URL:http://api-gateway-server:8080}")
+    private String gatewayUrl;
 
     @Bean("accountServiceWebClient")
     public WebClient accountServiceWebClient(ReactiveClientRegistrationRepository clientRegistrationRepository,
-                                             ReactiveOAuth2AuthorizedClientService authorizedClientService) {
+                                             ReactiveOAuth2AuthorizedClientService authorizedClientService,
+                                             ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction) {
+        return serviceWebClient("account-service", clientRegistrationRepository, authorizedClientService,
+                loadBalancerFunction);
+    }
+
+    /**
+     * Клиент сервиса с базовым адресом http://{serviceId}, который балансировщик разрешает
+     * в адрес работоспособного экземпляра, или с адресом сервиса за api-gateway-server
+     */
+    private WebClient serviceWebClient(String serviceId,
+                                       ReactiveClientRegistrationRepository clientRegistrationRepository,
+                                       ReactiveOAuth2AuthorizedClientService authorizedClientService,
+                                       ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction) {
         AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager authorizedClientManager =
                 new AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager(
                         clientRegistrationRepository, authorizedClientService);
         ServerOAuth2AuthorizedClientExchangeFilterFunction oauth2 =
                 new ServerOAuth2AuthorizedClientExchangeFilterFunction(authorizedClientManager);
-        oauth2.setDefaultClientRegistrationId("account-service");
-        return WebClient.builder()
+        oauth2.setDefaultClientRegistrationId(serviceId);
+
+        WebClient.Builder builder = WebClient.builder();
+        if (direct) {
+            builder.baseUrl("http://" + serviceId).filter(loadBalancerFunction);
+        } else {
+            builder.baseUrl(gatewayUrl + "/" + serviceId);
+        }
+        return builder
                 .filter(oauth2)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
-}
\ No newline at end of file
+}